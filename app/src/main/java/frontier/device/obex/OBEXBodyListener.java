@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.device.obex;
+
+import java.nio.ByteBuffer;
+
+
+
+/**
+ * OBEX GETのボディデータを逐次受信するリスナー。<br>
+ * <br>
+ * ボディデータはメモリ上にまとめて保持せず、<br>
+ * 継続レスポンスを受信するたびに {@link #bodyReceived(OBEXSession, ByteBuffer)} へ渡される。<br>
+ * 全てのレスポンスを受信した後に {@link #getFinished(OBEXSession, OBEXResponse)} が呼び出される。<br>
+ * いずれもOBEX通信スレッドから呼び出される。<br>
+ *
+ * @author Kou
+ *
+ */
+public interface OBEXBodyListener {
+
+
+    /**
+     * ボディデータを受信した時の処理を実行する。<br>
+     * <br>
+     * ボディデータは読み込み専用で、1 パケット分のデータとなる。<br>
+     *
+     * @param session   セッションのインスタンス
+     * @param body      受信したボディデータ
+     */
+    void bodyReceived(
+            final OBEXSession   session,
+            final ByteBuffer    body
+            );
+
+
+    /**
+     * GETが終了した時の処理を実行する。<br>
+     * <br>
+     * 最後のレスポンスに含まれるボディデータは {@link #bodyReceived(OBEXSession, ByteBuffer)} で通知済みとなる。<br>
+     * 途中でエラーが発生した場合は、エラーのレスポンスコードのレスポンスが渡される。<br>
+     *
+     * @param session   セッションのインスタンス
+     * @param response  最後のレスポンスデータ
+     */
+    void getFinished(
+            final OBEXSession   session,
+            final OBEXResponse  response
+            );
+
+
+}
@@ -60,6 +60,22 @@ public class OBEXHeader implements DataOutput {
      */
     public static final String      TYPE_MIME_UPF               = "image/x-UPF";
 
+    /**
+     * ヘッダコードとヘッダ長のサイズ
+     */
+    static final int                SIZE_HEADER_BLOCK           =
+        GeneralUtils.SIZE_BYTE + GeneralUtils.SIZE_SHORT;
+
+    /**
+     * シングルレスポンスモード値 : 有効
+     */
+    static final int                VALUE_SRM_ENABLE            = 0x01;
+
+    /**
+     * シングルレスポンスモードパラメータ値 : 待機
+     */
+    static final int                VALUE_SRMP_WAIT             = 0x01;
+
 
 
 
@@ -94,6 +110,8 @@ public class OBEXHeader implements DataOutput {
         // ヘッダ長が不要なヘッダコードを設定する
         NO_HEADER_HENGTH_CODES.add(OBEXHeaderCode.LENGTH);
         NO_HEADER_HENGTH_CODES.add(OBEXHeaderCode.SESSION_ID);
+        NO_HEADER_HENGTH_CODES.add(OBEXHeaderCode.SINGLE_RESPONSE_MODE);
+        NO_HEADER_HENGTH_CODES.add(OBEXHeaderCode.SINGLE_RESPONSE_MODE_PARAM);
 
     }
 
@@ -169,6 +187,44 @@ public class OBEXHeader implements DataOutput {
     }
 
 
+    /**
+     * ヘッダコードとヘッダ長を除いたヘッダデータを取得する。
+     *
+     * @return ヘッダデータ
+     * @throws IOException  入出力エラー
+     */
+    byte[] getData() throws IOException {
+
+        // バッファをフラッシュする
+        obexWriter.flush();
+
+        // 書き込みデータを返す
+        return obexBuffer.toByteArray();
+
+    }
+
+
+    /**
+     * ヘッダコードとヘッダ長を含めた送信時のサイズを取得する。
+     *
+     * @return 送信時のサイズ
+     */
+    int getEncodedSize() {
+
+        // ヘッダ長を書きこまないコードの場合
+        if (NO_HEADER_HENGTH_CODES.contains(obexCode)) {
+
+            // ヘッダコードとデータのサイズを返す
+            return GeneralUtils.SIZE_BYTE + obexBuffer.size();
+
+        }
+
+        // ヘッダコードとヘッダ長とデータのサイズを返す
+        return SIZE_HEADER_BLOCK + obexBuffer.size();
+
+    }
+
+
     /**
      * 書き込み済みサイズを取得する。
      *
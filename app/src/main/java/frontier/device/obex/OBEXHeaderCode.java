@@ -128,7 +128,17 @@ public enum OBEXHeaderCode {
     /**
      * 連続するセッション数
      */
-    SESSION_SEQUENCE_COUNT(0x93);
+    SESSION_SEQUENCE_COUNT(0x93),
+
+    /**
+     * シングルレスポンスモード
+     */
+    SINGLE_RESPONSE_MODE(0x97),
+
+    /**
+     * シングルレスポンスモードパラメータ
+     */
+    SINGLE_RESPONSE_MODE_PARAM(0x98);
 
 
 
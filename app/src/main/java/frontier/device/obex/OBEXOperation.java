@@ -15,10 +15,12 @@
  */
 package frontier.device.obex;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -26,6 +28,7 @@ import java.util.concurrent.Delayed;
 import java.util.concurrent.TimeUnit;
 
 import frontier.util.GeneralUtils;
+import frontier.util.IOUtils;
 import frontier.util.StringUtils;
 
 
@@ -53,6 +56,17 @@ public class OBEXOperation implements DataOutput, Delayed {
      */
     static final int        OBEX_MAX_PACKET_SIZE    = 0x2000;
 
+    /**
+     * OBEX最小パケットサイズ
+     */
+    static final int        OBEX_MIN_PACKET_SIZE    = 0xFF;
+
+    /**
+     * オペレーションコードとオペレーション長のサイズ
+     */
+    static final int        SIZE_OPERATION_BLOCK    =
+        GeneralUtils.SIZE_BYTE + GeneralUtils.SIZE_SHORT;
+
 
     /**
      * オペレーションのヘッダ一覧
@@ -89,6 +103,26 @@ public class OBEXOperation implements DataOutput, Delayed {
      */
     private long                            obexTimeOutBase;
 
+    /**
+     * 分割送信するボディデータの読み込み元
+     */
+    private InputStream                     obexBody;
+
+    /**
+     * 分割送信中のボディデータの読み込み元
+     */
+    private InputStream                     obexPacketBody;
+
+    /**
+     * 送信済みパケット数
+     */
+    private int                             obexPacketCount;
+
+    /**
+     * 全パケットを送信済みかどうか
+     */
+    private boolean                         obexPacketFinished;
+
 
 
 
@@ -307,69 +341,385 @@ public class OBEXOperation implements DataOutput, Delayed {
 
 
     /**
-     * オペレーション全体のバイトデータを取得する。
+     * 分割送信するボディデータの読み込み元を設定する。<br>
+     * <br>
+     * 送信時に最大パケットサイズに合わせて BODY ヘッダと END_OF_BODY ヘッダへ分割し、<br>
+     * 読み込みながら順に送信するため、ボディデータ全体をメモリへ保持しない。<br>
+     * 読み込み元を設定した場合、追加済みのボディヘッダは送信されない。<br>
+     * 読み込み元は送信終了時に閉じられる。<br>
      *
-     * @return オペレーション全体のバイトデータ
+     * @param body  ボディデータの読み込み元。解除する場合は null
+     * @throws IllegalStateException PUT以外のオペレーションの場合
      */
-    byte[] toByteArray() {
+    public void setBody(
+            final InputStream   body
+            ) {
 
-        final ByteArrayOutputStream     headerBuf   = new ByteArrayOutputStream();      // ヘッダバッファリングストリーム
-        final ByteArrayOutputStream     retBuf      = new ByteArrayOutputStream();      // 返却バッファリングストリーム
-        final DataOutputStream          headerOut   = new DataOutputStream(headerBuf);  // ヘッダ書き込みストリーム
-        final DataOutputStream          retOut      = new DataOutputStream(retBuf);     // 返却書き込みストリーム
+        // PUT以外のオペレーションの場合は例外
+        if ((body != null) && !isPutCode()) {
 
+            throw new IllegalStateException("Body stream is supported only by PUT. [code = " + obexCode + "]");
 
-        try {
+        }
 
-            // ヘッダ情報分繰り返す
-            for (final OBEXHeader header : obexHeaders) {
+        // 読み込み元を設定する
+        obexBody = body;
 
-                // ヘッダのバイトデータを書き込む
-                headerOut.write(header.toByteArray());
+    }
+
+
+    /**
+     * PUTオペレーションかどうかを判定する。
+     *
+     * @return PUTオペレーションの場合は true
+     */
+    private boolean isPutCode() {
+
+        return (obexCode == OBEXOperationCode.PUT) || (obexCode == OBEXOperationCode.FINAL_PUT);
+
+    }
+
+
+    /**
+     * 次に送信するパケットのバイトデータを取得する。<br>
+     * <br>
+     * 最大パケットサイズに収まる場合はオペレーション全体を 1 パケットとして返す。<br>
+     * 収まらないPUTオペレーションとボディデータの読み込み元が設定されたオペレーションは、<br>
+     * ボディデータを BODY ヘッダと END_OF_BODY ヘッダへ分割し、<br>
+     * 最後のパケット以外は PUT、最後のパケットは FINAL_PUT として返す。<br>
+     *
+     * @param maxPacketSize 最大パケットサイズ
+     * @return 次に送信するパケットのバイトデータ。全パケットを送信済みの場合は null
+     * @throws IOException 入出力エラー時、分割できないオペレーションが最大パケットサイズを超える場合
+     */
+    byte[] nextPacket(
+            final int   maxPacketSize
+            ) throws IOException {
+
+        // 全パケットを送信済みの場合
+        if (obexPacketFinished) {
+
+            // 送信するパケットなし
+            return null;
+
+        }
+
+        // 最初のパケットの場合
+        if (obexPacketCount == 0) {
+
+            // ボディデータの読み込み元が設定されている場合
+            if (obexBody != null) {
+
+                // 設定された読み込み元から分割送信する
+                obexPacketBody = obexBody;
+
+            } else {
+
+                final int   packetSize = getPacketSize();   // オペレーション全体のサイズ
+
+                // 1 パケットに収まる場合
+                if (packetSize <= maxPacketSize) {
+
+                    // オペレーション全体を送信済みとする
+                    obexPacketCount++;
+                    obexPacketFinished = true;
+
+                    // オペレーション全体のバイトデータを返す
+                    return toByteArray();
+
+                }
+
+                // PUT以外のオペレーションは分割できないので例外
+                if (!isPutCode()) {
+
+                    throw new IOException(
+                            "Operation exceeds the maximum packet size. [size = "
+                            + packetSize + ", max = " + maxPacketSize + "]"
+                            );
+
+                }
+
+                // ボディヘッダのデータを連結して分割送信する
+                obexPacketBody = new ByteArrayInputStream(getBodyData());
 
             }
 
-            // ヘッダをフラッシュする
-            headerOut.flush();
+        }
+
+        // 分割したボディデータのパケットを返す
+        return nextBodyPacket(maxPacketSize);
+
+    }
+
+
+    /**
+     * ボディデータを分割した次のパケットのバイトデータを取得する。
+     *
+     * @param maxPacketSize 最大パケットサイズ
+     * @return 次に送信するパケットのバイトデータ
+     * @throws IOException 入出力エラー時、ボディ以外のデータが最大パケットサイズを超える場合
+     */
+    private byte[] nextBodyPacket(
+            final int   maxPacketSize
+            ) throws IOException {
+
+        final ByteArrayOutputStream     retBuf  = new ByteArrayOutputStream(maxPacketSize); // 返却バッファリングストリーム
+        final DataOutputStream          retOut  = new DataOutputStream(retBuf);             // 返却書き込みストリーム
+        final byte[]                    headerData;                                         // ボディ以外のデータ
+
 
-            // プレフィックスデータとヘッダデータを取得する
-            final byte[]    prefixData = obexBuffer.toByteArray();
-            final byte[]    headerData = headerBuf.toByteArray();
+        // 最初のパケットの場合はプレフィックスデータとボディ以外のヘッダデータを送信する
+        headerData = obexPacketCount == 0 ? getHeaderData(false) : new byte[0];
 
+        // パケットに含められるボディデータのサイズを取得する
+        final int       bodySize = maxPacketSize
+                                    - SIZE_OPERATION_BLOCK
+                                    - headerData.length
+                                    - OBEXHeader.SIZE_HEADER_BLOCK;
 
-            // オペレーションコードを書きこむ
-            retOut.write(obexCode.getCode());
+        // ボディデータを含められない場合は例外
+        if (bodySize <= 0) {
 
-            // オペレーション長を書きこむ
-            retOut.writeShort(
-                    (short)(prefixData.length
-                            + headerData.length
-                            + GeneralUtils.SIZE_BYTE
-                            + GeneralUtils.SIZE_SHORT)
+            throw new IOException(
+                    "Operation headers exceed the maximum packet size. [size = "
+                    + headerData.length + ", max = " + maxPacketSize + "]"
                     );
 
-            // プレフィックスデータを書きこむ
-            retOut.write(prefixData);
+        }
+
+
+        final byte[]    bodyData = new byte[bodySize];  // ボディデータ
+        int             readSize = 0;                   // 読み込み済みサイズ
+        int             readResult;                     // 読み込み結果
+
+        // ボディデータが一杯になるか終端に達するまで読み込む
+        while ((readSize < bodySize)
+                && ((readResult = obexPacketBody.read(bodyData, readSize, bodySize - readSize)) != -1)) {
+
+            readSize += readResult;
+
+        }
+
+        // 一杯にならなかった場合は最後のパケットとする
+        final boolean   lastPacket = readSize < bodySize;
+
+
+        // オペレーションコードを書きこむ
+        retOut.write(lastPacket
+                ? OBEXOperationCode.FINAL_PUT.getCode()
+                : OBEXOperationCode.PUT.getCode());
+
+        // オペレーション長を書きこむ
+        retOut.writeShort(SIZE_OPERATION_BLOCK + headerData.length + OBEXHeader.SIZE_HEADER_BLOCK + readSize);
+
+        // ボディ以外のデータを書き込む
+        retOut.write(headerData);
+
+        // ボディヘッダを書き込む
+        retOut.write(lastPacket
+                ? OBEXHeaderCode.END_OF_BODY.getCode()
+                : OBEXHeaderCode.BODY.getCode());
+        retOut.writeShort(OBEXHeader.SIZE_HEADER_BLOCK + readSize);
+        retOut.write(bodyData, 0, readSize);
+
+        // 返却書き込みストリームをフラッシュする
+        retOut.flush();
+
+
+        // 送信状態を更新する
+        obexPacketCount++;
+        obexPacketFinished = lastPacket;
+
+        // 返却バッファデータを返す
+        return retBuf.toByteArray();
+
+    }
+
+
+    /**
+     * 送信済みパケット数を取得する。
+     *
+     * @return 送信済みパケット数
+     */
+    int getPacketCount() {
+
+        return obexPacketCount;
 
-            // ヘッダデータを書き込む
-            retOut.write(headerData);
+    }
 
-            // 返却書き込みストリームをフラッシュする
-            retOut.flush();
 
+    /**
+     * 全パケットを送信済みかどうかを判定する。
+     *
+     * @return 全パケットを送信済みの場合は true
+     */
+    boolean isPacketFinished() {
 
-            // 返却バッファデータを返す
-            return retBuf.toByteArray();
+        return obexPacketFinished;
 
-        } catch (final IOException e) {
+    }
 
-            e.printStackTrace();
+
+    /**
+     * パケットの送信状態を破棄する。<br>
+     * <br>
+     * ボディデータの読み込み元は閉じられ、設定が解除される。<br>
+     *
+     */
+    void closePackets() {
+
+        // ボディデータの読み込み元を閉じる
+        if (obexBody != null) {
+
+            IOUtils.closeQuietly(obexBody);
 
         }
 
+        // 送信状態をクリアする
+        obexBody            = null;
+        obexPacketBody      = null;
+        obexPacketCount     = 0;
+        obexPacketFinished  = false;
 
-        // エラー時は null を返す
-        return null;
+    }
+
+
+    /**
+     * オペレーション全体を 1 パケットとした場合のサイズを取得する。
+     *
+     * @return オペレーション全体のサイズ
+     */
+    private int getPacketSize() {
+
+        int     retSize = SIZE_OPERATION_BLOCK + obexBuffer.size();     // オペレーション全体のサイズ
+
+        // ヘッダ情報分繰り返す
+        for (final OBEXHeader header : obexHeaders) {
+
+            // ヘッダのサイズを加算する
+            retSize += header.getEncodedSize();
+
+        }
+
+        // オペレーション全体のサイズを返す
+        return retSize;
+
+    }
+
+
+    /**
+     * ボディヘッダかどうかを判定する。
+     *
+     * @param header    判定するヘッダ
+     * @return ボディヘッダの場合は true
+     */
+    private static boolean isBodyHeader(
+            final OBEXHeader    header
+            ) {
+
+        return (header.getCode() == OBEXHeaderCode.BODY) || (header.getCode() == OBEXHeaderCode.END_OF_BODY);
+
+    }
+
+
+    /**
+     * プレフィックスデータとヘッダデータを取得する。
+     *
+     * @param includeBody   ボディヘッダを含める場合は true
+     * @return プレフィックスデータとヘッダデータ
+     * @throws IOException 入出力エラー時
+     */
+    private byte[] getHeaderData(
+            final boolean   includeBody
+            ) throws IOException {
+
+        final ByteArrayOutputStream     retBuf = new ByteArrayOutputStream();   // 返却バッファリングストリーム
+
+
+        // プレフィックスデータを書き込む
+        obexBuffer.writeTo(retBuf);
+
+        // ヘッダ情報分繰り返す
+        for (final OBEXHeader header : obexHeaders) {
+
+            // 対象のヘッダの場合
+            if (includeBody || !isBodyHeader(header)) {
+
+                // ヘッダのバイトデータを書き込む
+                retBuf.write(header.toByteArray());
+
+            }
+
+        }
+
+
+        // 返却バッファデータを返す
+        return retBuf.toByteArray();
+
+    }
+
+
+    /**
+     * ボディヘッダのデータを連結して取得する。
+     *
+     * @return 連結したボディデータ
+     * @throws IOException 入出力エラー時
+     */
+    private byte[] getBodyData() throws IOException {
+
+        final ByteArrayOutputStream     retBuf = new ByteArrayOutputStream();   // 返却バッファリングストリーム
+
+
+        // ヘッダ情報分繰り返す
+        for (final OBEXHeader header : obexHeaders) {
+
+            // ボディヘッダの場合
+            if (isBodyHeader(header)) {
+
+                // ヘッダデータを書き込む
+                retBuf.write(header.getData());
+
+            }
+
+        }
+
+
+        // 返却バッファデータを返す
+        return retBuf.toByteArray();
+
+    }
+
+
+    /**
+     * オペレーション全体のバイトデータを取得する。
+     *
+     * @return オペレーション全体のバイトデータ
+     * @throws IOException 入出力エラー時
+     */
+    byte[] toByteArray() throws IOException {
+
+        final ByteArrayOutputStream     retBuf      = new ByteArrayOutputStream();      // 返却バッファリングストリーム
+        final DataOutputStream          retOut      = new DataOutputStream(retBuf);     // 返却書き込みストリーム
+
+
+        // プレフィックスデータとヘッダデータを取得する
+        final byte[]    headerData = getHeaderData(true);
+
+        // オペレーションコードを書きこむ
+        retOut.write(obexCode.getCode());
+
+        // オペレーション長を書きこむ
+        retOut.writeShort(SIZE_OPERATION_BLOCK + headerData.length);
+
+        // プレフィックスデータとヘッダデータを書き込む
+        retOut.write(headerData);
+
+        // 返却書き込みストリームをフラッシュする
+        retOut.flush();
+
+
+        // 返却バッファデータを返す
+        return retBuf.toByteArray();
 
     }
 
@@ -15,6 +15,10 @@
  */
 package frontier.device.obex;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
 import frontier.util.GeneralUtils;
 
 
@@ -44,6 +48,11 @@ public class OBEXResponse {
      */
     private final byte[]                resContent;
 
+    /**
+     * 中断によって送信されなかったかどうか
+     */
+    private final boolean               resAborted;
+
 
 
     /**
@@ -57,8 +66,41 @@ public class OBEXResponse {
             final byte[]            content
             ) {
 
+        this(code, content, false);
+
+    }
+
+
+    /**
+     * 中断したかどうかを指定してレスポンスデータを作成する。
+     *
+     * @param code      レスポンスコード
+     * @param content   レスポンスコンテントデータ
+     * @param aborted   中断によって送信されなかった場合は true
+     */
+    OBEXResponse(
+            final OBEXResponseCode  code,
+            final byte[]            content,
+            final boolean           aborted
+            ) {
+
         resCode    = code;
         resContent = content == null ? new byte[0] : content;
+        resAborted = aborted;
+
+    }
+
+
+    /**
+     * 中断によってオペレーションが送信されなかった場合のレスポンスデータを作成する。<br>
+     * <br>
+     * レスポンスコードは {@link OBEXResponseCode#SERVICE_UNAVAILABLE} となる。<br>
+     *
+     * @return 中断時のレスポンスデータ
+     */
+    static OBEXResponse createAborted() {
+
+        return new OBEXResponse(OBEXResponseCode.SERVICE_UNAVAILABLE, null, true);
 
     }
 
@@ -75,6 +117,20 @@ public class OBEXResponse {
     }
 
 
+    /**
+     * 中断によってオペレーションが送信されなかったかどうかを判定する。<br>
+     * <br>
+     * {@link OBEXSession#abort()} で取り消された、または途中で中断された場合に true となる。<br>
+     *
+     * @return 中断された場合は true
+     */
+    public boolean isAborted() {
+
+        return resAborted;
+
+    }
+
+
     /**
      * レスポンスコンテントデータを取得する。
      *
@@ -87,4 +143,208 @@ public class OBEXResponse {
     }
 
 
+    /**
+     * レスポンスコンテントデータのサイズを取得する。
+     *
+     * @return レスポンスコンテントデータのサイズ
+     */
+    public int getContentLength() {
+
+        return resContent.length;
+
+    }
+
+
+    /**
+     * レスポンスコンテントデータを複製せずに読み込み専用で取得する。
+     *
+     * @return レスポンスコンテントデータの読み込み専用バッファ
+     */
+    public ByteBuffer getContentBuffer() {
+
+        return ByteBuffer.wrap(resContent).asReadOnlyBuffer();
+
+    }
+
+
+    /**
+     * レスポンスコンテントデータを複製せずに読み込むストリームを取得する。
+     *
+     * @return レスポンスコンテントデータの入力ストリーム
+     */
+    public InputStream getContentStream() {
+
+        return new ByteArrayInputStream(resContent);
+
+    }
+
+
+    /**
+     * 指定したヘッダのデータを複製せずに読み込み専用で取得する。<br>
+     * <br>
+     * ヘッダコードとヘッダ長を除いたデータを返す。<br>
+     * 接続レスポンスはヘッダの前に接続情報を含むため、利用できない。<br>
+     *
+     * @param code  取得するヘッダのコード
+     * @return ヘッダデータの読み込み専用バッファ。見つからない場合は null
+     * @throws IllegalArgumentException ヘッダコードが null の場合
+     */
+    public ByteBuffer getHeaderBuffer(
+            final OBEXHeaderCode    code
+            ) {
+
+        // ヘッダコードが null の場合は例外
+        if (code == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        final int   offset = findHeader(code);  // ヘッダ開始位置
+
+        // ヘッダがない場合
+        if (offset < 0) {
+
+            // nullを返す
+            return null;
+
+        }
+
+        final int   headerSize = getHeaderSize(offset);     // ヘッダサイズ
+
+        // ヘッダサイズが不正、またはコンテントデータに収まらない場合
+        if ((headerSize <= 0) || (offset + headerSize > resContent.length)) {
+
+            // nullを返す
+            return null;
+
+        }
+
+        // ヘッダ長付きの場合はヘッダ長も除く
+        final int   dataOffset = (resContent[offset] & 0x80) == 0
+                                    ? offset + SIZE_RESPONSE_BLOCK_RESULT
+                                    : offset + GeneralUtils.SIZE_BYTE;
+
+        // ヘッダデータ部分を返す
+        return ByteBuffer.wrap(resContent, dataOffset, offset + headerSize - dataOffset).slice().asReadOnlyBuffer();
+
+    }
+
+
+    /**
+     * 指定したヘッダコードのヘッダ開始位置を探す。
+     *
+     * @param code  探すヘッダのコード
+     * @return ヘッダ開始位置。見つからない場合は -1
+     */
+    int findHeader(
+            final OBEXHeaderCode    code
+            ) {
+
+        int     offset = 0;     // ヘッダ開始位置
+
+        // コンテントデータの終端まで繰り返す
+        while (offset < resContent.length) {
+
+            // ヘッダコードが一致した場合
+            if (resContent[offset] == code.getCode()) {
+
+                // ヘッダ開始位置を返す
+                return offset;
+
+            }
+
+            final int   headerSize = getHeaderSize(offset);     // ヘッダサイズ
+
+            // ヘッダサイズが不正の場合
+            if (headerSize <= 0) {
+
+                // 探索を終了する
+                break;
+
+            }
+
+            // 次のヘッダへ進む
+            offset += headerSize;
+
+        }
+
+
+        // ヘッダがみつからなかったので -1 を返す
+        return -1;
+
+    }
+
+
+    /**
+     * 指定した 1 バイト値ヘッダの値を取得する。
+     *
+     * @param code  取得するヘッダのコード
+     * @return ヘッダの値。見つからない場合は -1
+     */
+    int getByteHeader(
+            final OBEXHeaderCode    code
+            ) {
+
+        final int   offset = findHeader(code);  // ヘッダ開始位置
+
+        // ヘッダがない場合、または値がない場合
+        if ((offset < 0) || (offset + GeneralUtils.SIZE_BYTE >= resContent.length)) {
+
+            // -1を返す
+            return -1;
+
+        }
+
+        // ヘッダの値を返す
+        return resContent[offset + GeneralUtils.SIZE_BYTE] & 0xFF;
+
+    }
+
+
+    /**
+     * 指定位置のヘッダのサイズを取得する。<br>
+     * <br>
+     * ヘッダコードの上位 2 ビットからヘッダの形式を判別する。<br>
+     *
+     * @param offset    ヘッダ開始位置
+     * @return ヘッダコードを含めたヘッダサイズ。不正なヘッダの場合は 0
+     */
+    private int getHeaderSize(
+            final int   offset
+            ) {
+
+        // ヘッダ形式別処理
+        switch (resContent[offset] & 0xC0) {
+
+        // 1 バイト値
+        case 0x80:
+            return GeneralUtils.SIZE_BYTE + GeneralUtils.SIZE_BYTE;
+
+
+        // 4 バイト値
+        case 0xC0:
+            return GeneralUtils.SIZE_BYTE + GeneralUtils.SIZE_INT;
+
+
+        // ヘッダ長付きの値
+        default:
+
+            // ヘッダ長がない場合
+            if (offset + SIZE_RESPONSE_BLOCK_RESULT > resContent.length) {
+
+                return 0;
+
+            }
+
+            final int   headerSize = ((resContent[offset + 1] & 0xFF) << 8) | (resContent[offset + 2] & 0xFF);
+
+            // ヘッダ長が不正の場合は 0、それ以外はヘッダ長を返す
+            return headerSize < SIZE_RESPONSE_BLOCK_RESULT ? 0 : headerSize;
+
+        }
+
+    }
+
+
 }
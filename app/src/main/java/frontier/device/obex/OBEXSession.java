@@ -15,16 +15,23 @@
  */
 package frontier.device.obex;
 
-import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.DelayQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import frontier.util.GeneralUtils;
 import frontier.util.IOUtils;
 
 
@@ -37,11 +44,6 @@ import frontier.util.IOUtils;
 public abstract class OBEXSession implements Closeable {
 
 
-    /**
-     * データ受信リトライ間隔時間 (ms)
-     */
-    static final int                INTERVAL_RETRY_MILLIS       = 50;
-
     /**
      * デフォルトセッションタイムアウト時間 (ms)
      */
@@ -52,6 +54,11 @@ public abstract class OBEXSession implements Closeable {
      */
     private static final int        OBEX_THREAD_COUNT           = 10;
 
+    /**
+     * デフォルト最大待機オペレーション数
+     */
+    private static final int        OBEX_DEFAULT_MAX_QUEUE_SIZE = 16;
+
 
     /**
      * OBEX通信管理スレッドエグゼキュータ
@@ -78,6 +85,101 @@ public abstract class OBEXSession implements Closeable {
      */
     private final AtomicBoolean             obexConnected = new AtomicBoolean();
 
+    /**
+     * 接続時に決定した最大パケットサイズ
+     */
+    private volatile int                    obexMaxPacketSize = OBEXOperation.OBEX_MIN_PACKET_SIZE;
+
+    /**
+     * シングルレスポンスモードを要求するかどうか
+     */
+    private volatile boolean                obexSingleResponseMode;
+
+    /**
+     * 最大待機オペレーション数
+     */
+    private volatile int                    obexMaxQueueSize = OBEX_DEFAULT_MAX_QUEUE_SIZE;
+
+    /**
+     * 待機中の送信処理一覧
+     */
+    private final LinkedList<OBEXPostTask>  obexQueue = new LinkedList<OBEXPostTask>();
+
+    /**
+     * 送信処理を実行中かどうか (待機中の送信処理一覧で同期する)
+     */
+    private boolean                         obexProcessing;
+
+    /**
+     * 実行中の送信処理がパケットの間で送信する中断要求 (待機中の送信処理一覧で同期する)
+     */
+    private OBEXPostTask                    obexAbortTask;
+
+    /**
+     * 待機中の送信処理を 1 件ずつ順に実行する処理
+     */
+    private final Runnable                  obexQueueRunner = new Runnable() {
+
+        @Override
+        public void run() {
+
+            final OBEXPostTask  task;   // 実行する送信処理
+
+            // 先頭の送信処理を取り出す
+            synchronized (obexQueue) {
+
+                task = obexQueue.poll();
+
+                // 送信処理がない場合
+                if (task == null) {
+
+                    // 実行中を解除して終了する
+                    obexProcessing = false;
+                    return;
+
+                }
+
+            }
+
+            try {
+
+                // 送信処理を実行する
+                task.run();
+
+            } finally {
+
+                synchronized (obexQueue) {
+
+                    // 実行中の送信処理が送信しなかった中断要求がある場合
+                    if (obexAbortTask != null) {
+
+                        // 次に送信する
+                        obexQueue.addFirst(obexAbortTask);
+                        obexAbortTask = null;
+
+                    }
+
+                    // 待機中の送信処理がない場合
+                    if (obexQueue.isEmpty()) {
+
+                        // 実行中を解除する
+                        obexProcessing = false;
+
+                    } else {
+
+                        // 共有スレッドを占有しないよう、次の送信処理は改めて実行を依頼する
+                        OBEX_EXECUTOR.execute(this);
+
+                    }
+
+                }
+
+            }
+
+        }
+
+    };
+
 
 
     /**
@@ -145,8 +247,9 @@ public abstract class OBEXSession implements Closeable {
         // セッションをクローズする
         IOUtils.closeQuietly(this);
 
-        // 接続状態をクリアする
+        // 接続状態と最大パケットサイズをクリアする
         obexConnected.set(false);
+        obexMaxPacketSize = OBEXOperation.OBEX_MIN_PACKET_SIZE;
 
     }
 
@@ -169,6 +272,7 @@ public abstract class OBEXSession implements Closeable {
      * 接続を開始する。
      *
      * @return 接続開始に成功した場合は true
+     * @throws IllegalStateException 待機中のオペレーション数が上限に達している場合
      */
     public boolean connect() {
 
@@ -196,6 +300,9 @@ public abstract class OBEXSession implements Closeable {
                     // 正常終了の場合
                     if (response.getCode() == OBEXResponseCode.OK) {
 
+                        // 最大パケットサイズを決定する
+                        obexMaxPacketSize = negotiateMaxPacketSize(response);
+
                         // 接続済みに設定する
                         obexConnected.set(true);
 
@@ -236,14 +343,105 @@ public abstract class OBEXSession implements Closeable {
 
 
     /**
-     * OBEX接続中断要求を送信する。
+     * 接続レスポンスから最大パケットサイズを決定する。<br>
+     * <br>
+     * 自身の最大パケットサイズと接続先の最大パケットサイズのうち、小さい方を利用する。<br>
+     * 接続先の最大パケットサイズが取得できない場合は、OBEXの最小パケットサイズを利用する。<br>
+     *
+     * @param response  接続レスポンス
+     * @return 最大パケットサイズ
+     */
+    private static int negotiateMaxPacketSize(
+            final OBEXResponse  response
+            ) {
+
+        final byte[]    content = response.getContent();    // 接続レスポンスデータ
+
+
+        // プロトコルバージョン、フラグ、最大パケットサイズが含まれていない場合
+        if (content.length < GeneralUtils.SIZE_BYTE + GeneralUtils.SIZE_BYTE + GeneralUtils.SIZE_SHORT) {
+
+            // 最小パケットサイズを利用する
+            return OBEXOperation.OBEX_MIN_PACKET_SIZE;
+
+        }
+
+        // 接続先の最大パケットサイズを取得する
+        final int       peerSize = ((content[2] & 0xFF) << 8) | (content[3] & 0xFF);
+
+        // 最小パケットサイズ以上で、小さい方の最大パケットサイズを返す
+        return Math.max(
+                OBEXOperation.OBEX_MIN_PACKET_SIZE,
+                Math.min(OBEXOperation.OBEX_MAX_PACKET_SIZE, peerSize)
+                );
+
+    }
+
+
+    /**
+     * 接続時に決定した最大パケットサイズを取得する。<br>
+     * <br>
+     * 接続前はOBEXの最小パケットサイズを返す。<br>
+     *
+     * @return 最大パケットサイズ
+     */
+    public int getMaxPacketSize() {
+
+        return obexMaxPacketSize;
+
+    }
+
+
+    /**
+     * シングルレスポンスモードを要求するかどうかを設定する。<br>
+     * <br>
+     * 有効にした場合、PUTとGETの最初のパケットでシングルレスポンスモードを要求する。<br>
+     * 接続先が応じた場合、PUTはパケットごとの継続レスポンスを待たずに続けて送信し、<br>
+     * GETは要求を送信せずに接続先から続けて送信される継続レスポンスを受信する。<br>
+     * GETの継続レスポンスは、受信するたびにリスナーへ通知される。<br>
+     * 接続先が応じない場合は、パケットごとにレスポンスを待つ通常の動作となる。<br>
+     * <br>
+     * シングルレスポンスモードはL2CAP上のOBEXで定義されているため、<br>
+     * RFCOMM上のセッションでは通常は応じられず、通常の動作となる。<br>
+     *
+     * @param singleResponseMode    シングルレスポンスモードを要求する場合は true
+     */
+    public void setSingleResponseMode(
+            final boolean   singleResponseMode
+            ) {
+
+        obexSingleResponseMode = singleResponseMode;
+
+    }
+
+
+    /**
+     * シングルレスポンスモードを要求するかどうかを取得する。
+     *
+     * @return シングルレスポンスモードを要求する場合は true
+     */
+    public boolean isSingleResponseMode() {
+
+        return obexSingleResponseMode;
+
+    }
+
+
+    /**
+     * OBEX接続中断要求を送信する。<br>
+     * <br>
+     * 開始前の待機中オペレーションは取り消され、中断時のレスポンス ({@link OBEXResponse#isAborted()}) が通知される。<br>
+     * 実行中のオペレーションがある場合は、次のパケットを送受信する前に中断要求を送信し、<br>
+     * 実行中のオペレーションにも中断時のレスポンスを通知する。<br>
      *
+     * @return 中断要求のレスポンスを取得するフューチャー
      */
-    public void abort() {
+    public Future<OBEXResponse> abort() {
 
-        // 中断オペレーションを送信する
-        processPost(
-                new OBEXOperation(OBEXOperationCode.ABORT),
+        final List<OBEXPostTask>    droppedTasks = new ArrayList<OBEXPostTask>();   // 取り消した送信処理一覧
+        final OBEXPostTask          abortTask    = createPostTask(                  // 中断要求の送信処理
+                new OBEXOperation[] {new OBEXOperation(OBEXOperationCode.ABORT)},
+                false,
                 new OBEXInnerListener() {
 
                     @Override
@@ -274,17 +472,94 @@ public abstract class OBEXSession implements Closeable {
                 }
                 );
 
+
+        synchronized (obexQueue) {
+
+            // 待機中の送信処理と、送信前の中断要求を取り消す
+            droppedTasks.addAll(obexQueue);
+            obexQueue.clear();
+
+            if (obexAbortTask != null) {
+
+                droppedTasks.add(obexAbortTask);
+
+            }
+
+            // 実行中の送信処理がある場合
+            if (obexProcessing) {
+
+                // 実行中の送信処理が次のパケットの前に送信する
+                obexAbortTask = abortTask;
+
+            } else {
+
+                // 中断要求を送信する
+                obexAbortTask  = null;
+                obexProcessing = true;
+                obexQueue.add(abortTask);
+                OBEX_EXECUTOR.execute(obexQueueRunner);
+
+            }
+
+        }
+
+        // 取り消した送信処理へ中断を通知する
+        for (final OBEXPostTask task : droppedTasks) {
+
+            task.drop();
+
+        }
+
+        // 中断要求のフューチャーを返す
+        return abortTask;
+
     }
 
 
     /**
-     * OBEX接続切断要求を送信する。
+     * 実行中の送信処理から、要求されている中断要求を送信する。
      *
+     * @return 中断要求を送信した場合は true
      */
-    public void disconnect() {
+    private boolean runAbortTask() {
+
+        final OBEXPostTask  task;   // 中断要求の送信処理
+
+        // 中断要求を取り出す
+        synchronized (obexQueue) {
+
+            task          = obexAbortTask;
+            obexAbortTask = null;
+
+        }
+
+        // 中断要求がない場合
+        if (task == null) {
+
+            return false;
+
+        }
+
+        // 実行中のスレッド上で中断要求を送信する
+        task.run();
+
+        return true;
+
+    }
+
+
+    /**
+     * OBEX接続切断要求を送信する。<br>
+     * <br>
+     * 待機中のオペレーションを全て送信した後に切断要求を送信する。<br>
+     *
+     * @return 切断要求のレスポンスを取得するフューチャー
+     * @throws IllegalStateException 待機中のオペレーション数が上限に達している場合
+     */
+    public Future<OBEXResponse> disconnect() {
 
         // 切断オペレーションを送信する
-        processPost(
+        return processPost(
                 new OBEXOperation(OBEXOperationCode.DISCONNECT),
                 new OBEXInnerListener() {
 
@@ -319,6 +594,44 @@ public abstract class OBEXSession implements Closeable {
     }
 
 
+    /**
+     * 最大待機オペレーション数を設定する。<br>
+     * <br>
+     * 送信要求は 1 件ずつ順に処理され、実行中の送信要求の終了を待つ。<br>
+     * 待機中の送信要求数が上限に達している場合、送信要求は例外となる。<br>
+     *
+     * @param maxQueueSize  最大待機オペレーション数
+     * @throws IllegalArgumentException 指定された数が 0 以下の場合
+     */
+    public void setMaxQueueSize(
+            final int   maxQueueSize
+            ) {
+
+        // 0以下の場合は例外
+        if (maxQueueSize <= 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // 最大待機オペレーション数を設定する
+        obexMaxQueueSize = maxQueueSize;
+
+    }
+
+
+    /**
+     * 最大待機オペレーション数を取得する。
+     *
+     * @return 最大待機オペレーション数
+     */
+    public int getMaxQueueSize() {
+
+        return obexMaxQueueSize;
+
+    }
+
+
     /**
      * セッションタイムアウト時間(ms)を設定する。
      *
@@ -399,6 +712,9 @@ public abstract class OBEXSession implements Closeable {
         // セッション情報を空にする
         operation.setSession(null);
 
+        // パケットの送信状態を破棄する
+        operation.closePackets();
+
         // タイムアウト管理から削除する
         OBEX_TIMEOUT_THREAD.removeOperation(operation);
 
@@ -410,46 +726,93 @@ public abstract class OBEXSession implements Closeable {
      *
      * @param operation     送信オペレーション一覧
      * @param listener      レスポンス処理リスナー
+     * @return 最後のレスポンスを取得するフューチャー
      */
-    private void processPost(
+    private Future<OBEXResponse> processPost(
             final OBEXOperation         operation,
             final OBEXInnerListener     listener
             ) {
 
-        processPost(new OBEXOperation[] {operation}, listener);
+        return processPost(new OBEXOperation[] {operation}, false, listener);
 
     }
 
 
     /**
-     * オペレーション送信処理を実行する。
+     * オペレーション送信処理を実行する。<br>
+     * <br>
+     * 送信処理はセッションごとの待機一覧へ追加され、共有スレッド上で 1 件ずつ順に実行される。<br>
+     * 同じセッションの送信処理が同時に実行されることはない。<br>
+     * GETの継続レスポンスを自動で処理する場合、継続レスポンスを受信するたびに<br>
+     * リスナーへ通知し、継続要求を送信して次のレスポンスを受信する。<br>
+     *
+     * @param operations    送信オペレーション一覧
+     * @param continueGet   GETの継続レスポンスを自動で処理する場合は true
+     * @param listener      レスポンス処理リスナー
+     * @return 最後のレスポンスを取得するフューチャー
+     * @throws IllegalStateException 待機中のオペレーション数が上限に達している場合
+     */
+    private Future<OBEXResponse> processPost(
+            final OBEXOperation[]       operations,
+            final boolean               continueGet,
+            final OBEXInnerListener     listener
+            ) {
+
+        final OBEXPostTask  task = createPostTask(operations, continueGet, listener);   // 送信処理
+
+        synchronized (obexQueue) {
+
+            // 待機中の送信処理数が上限に達している場合は例外
+            if (obexQueue.size() >= obexMaxQueueSize) {
+
+                throw new IllegalStateException("Operation queue is full. [size = " + obexQueue.size() + "]");
+
+            }
+
+            // 待機一覧へ追加する
+            obexQueue.add(task);
+
+            // 実行中の送信処理がない場合
+            if (!obexProcessing) {
+
+                // 通信処理を実行する
+                obexProcessing = true;
+                OBEX_EXECUTOR.execute(obexQueueRunner);
+
+            }
+
+        }
+
+        // 送信処理のフューチャーを返す
+        return task;
+
+    }
+
+
+    /**
+     * オペレーション送信処理を作成する。
      *
      * @param operations    送信オペレーション一覧
+     * @param continueGet   GETの継続レスポンスを自動で処理する場合は true
      * @param listener      レスポンス処理リスナー
+     * @return オペレーション送信処理
      */
-    private void processPost(
+    private OBEXPostTask createPostTask(
             final OBEXOperation[]       operations,
+            final boolean               continueGet,
             final OBEXInnerListener     listener
             ) {
 
         // 送信処理を定義する
-        final Runnable      threadProcess = new Runnable() {
+        final Callable<OBEXResponse>    threadProcess = new Callable<OBEXResponse>() {
 
             @Override
-            public void run() {
+            public OBEXResponse call() {
 
-                byte[]              resultBlock;        // 結果ブロック読み込みバッファ
-                int                 responseSize;       // レスポンス全サイズ
-                OBEXResponseCode    responseCode;       // レスポンスコード
-                byte[]              responseContent;    // レスポンスコンテントデータ
-                int                 readResult;         // 読み込み結果
                 DataInputStream     in  = null;         // データ受信ストリーム
                 DataOutputStream    out = null;         // データ送信ストリーム
-
-
-                // レスポンスコードとコンテントデータを初期化する
-                responseCode    = OBEXResponseCode.BAD_REQUEST;
-                responseContent = null;
+                OBEXResponse        lastResponse = null;    // 最後のレスポンスデータ
+                boolean             aborted = false;        // 中断したかどうか
 
 
                 // 接続していない場合
@@ -457,25 +820,36 @@ public abstract class OBEXSession implements Closeable {
                 if (!obexConnected.get() && !prepareConnect()) {
 
                     // タイムアウトとしてレスポンスを返す
-                    listener.responseObex(
-                            null,
-                            new OBEXResponse(
-                                    OBEXResponseCode.REQUEST_TIMEOUT,
-                                    responseContent
-                                    )
+                    lastResponse = new OBEXResponse(
+                            OBEXResponseCode.REQUEST_TIMEOUT,
+                            null
                             );
+                    listener.responseObex(null, lastResponse);
 
                     // セッション情報を破棄する
                     disposeSession();
 
                     // 接続開始失敗
-                    return;
+                    return lastResponse;
 
                 }
 
                 // オペレーション分繰り返す
                 for (final OBEXOperation operation : operations) {
 
+                    // 中断した場合
+                    if (aborted) {
+
+                        // 残りのオペレーションは送信せずに中断を通知する
+                        operation.closePackets();
+                        lastResponse = OBEXResponse.createAborted();
+                        listener.responseObex(operation.getCode(), lastResponse);
+                        continue;
+
+                    }
+
+                    OBEXResponse        response = null;    // レスポンスデータ
+
                     try {
 
                         // オペレーションを開始する
@@ -486,81 +860,130 @@ public abstract class OBEXSession implements Closeable {
                         in  = getInputStream();
                         out = getOutputStream();
 
-                        // オペレーションを送信する
-                        out.write(operation.toByteArray());
-
-                        // 少し待つ
-                        Thread.sleep(INTERVAL_RETRY_MILLIS);
+                        final int       maxPacketSize = obexMaxPacketSize;  // 最大パケットサイズ
+                        final boolean   srmRequested  =                     // シングルレスポンスモードを要求したかどうか
+                            obexSingleResponseMode && requestSingleResponseMode(operation);
+                        boolean         srmEnabled    = false;              // シングルレスポンスモードが有効かどうか
+                        boolean         srmWait       = false;              // 接続先が待機を要求しているかどうか
+                        byte[]          packet;                             // 送信パケット
 
-                        // 結果ブロック読み込みバッファを作成する
-                        resultBlock = new byte[OBEXResponse.SIZE_RESPONSE_BLOCK_RESULT];
+                        // 送信するパケットがある間繰り返す
+                        while ((packet = operation.nextPacket(maxPacketSize)) != null) {
 
-                        // レスポンスデータを読み込む
-                        readResult = in.read(resultBlock);
+                            // 2 パケット目以降で中断が要求されている場合
+                            if ((operation.getPacketCount() > 1) && runAbortTask()) {
 
-                        // オペレーション状態を更新する
-                        updateOperation(operation);
+                                // 残りのパケットは送信しない
+                                aborted = true;
+                                break;
 
-                        // 返却データがない場合
-                        while (readResult == -1) {
-
-                            // 少し待つ
-                            Thread.sleep(INTERVAL_RETRY_MILLIS);
+                            }
 
-                            // データを読み込む
-                            readResult = in.read(resultBlock);
+                            // パケットを送信する
+                            out.write(packet);
+                            out.flush();
 
                             // オペレーション状態を更新する
                             updateOperation(operation);
 
-                        }
+                            // シングルレスポンスモードが有効かつ接続先が待機を要求しておらず、
+                            // 最後のパケットではなく、受信済みのレスポンスがない場合
+                            if (srmEnabled && !srmWait && !operation.isPacketFinished() && (in.available() == 0)) {
 
+                                // レスポンスを待たずに次のパケットを送信する
+                                continue;
 
-                        // 結果ブロック読み込みストリームを作成する
-                        final DataInputStream       resultBlockIn =
-                            new DataInputStream(new ByteArrayInputStream(resultBlock));
+                            }
 
-                        // レスポンスコードを取得する
-                        responseCode = OBEXResponseCode.toType(resultBlockIn.readByte());
+                            // レスポンスを読み込む
+                            response = readResponse(in, operation);
 
-                        // レスポンスデータサイズを取得する
-                        responseSize = resultBlockIn.readShort() - OBEXResponse.SIZE_RESPONSE_BLOCK_RESULT;
+                            // 中断要求の場合は、中断前に送信された継続レスポンスを読み飛ばす
+                            while ((operation.getCode() == OBEXOperationCode.ABORT)
+                                    && (response.getCode() == OBEXResponseCode.CONTINUE)) {
 
-                        // レスポンスデータサイズが 0 より大きい場合
-                        if (responseSize > 0) {
+                                response = readResponse(in, operation);
 
-                            // コンテントデータ読み込みバッファを作成する
-                            responseContent = new byte[responseSize];
+                            }
 
-                            // コンテントデータを読み込む
-                            readResult = in.read(responseContent);
+                            // 継続以外のレスポンスの場合
+                            if (response.getCode() != OBEXResponseCode.CONTINUE) {
 
-                            // オペレーション状態を更新する
-                            updateOperation(operation);
+                                // 残りのパケットは送信しない
+                                break;
+
+                            }
+
+                            // シングルレスポンスモードを要求した最初のパケットのレスポンスの場合
+                            if (srmRequested && (operation.getPacketCount() == 1)) {
+
+                                // 接続先が応じたかどうかを取得する
+                                srmEnabled = response.getByteHeader(OBEXHeaderCode.SINGLE_RESPONSE_MODE)
+                                                == OBEXHeader.VALUE_SRM_ENABLE;
+
+                            }
+
+                            // 接続先が待機を要求しているかどうかを取得する
+                            srmWait = response.getByteHeader(OBEXHeaderCode.SINGLE_RESPONSE_MODE_PARAM)
+                                        == OBEXHeader.VALUE_SRMP_WAIT;
+
+                        }
+
+                        // GETの継続レスポンスを自動で処理するか、シングルレスポンスモードが有効な
+                        // GETの継続レスポンスの間繰り返す
+                        while (!aborted
+                                && (continueGet || srmEnabled)
+                                && (operation.getCode() == OBEXOperationCode.GET)
+                                && (response != null)
+                                && (response.getCode() == OBEXResponseCode.CONTINUE)) {
+
+                            // 途中のレスポンス処理を実行する
+                            listener.responseObex(
+                                    operation.getCode(),
+                                    response
+                                    );
+
+                            // 中断が要求されている場合
+                            if (runAbortTask()) {
 
-                            // 返却データがない場合
-                            while (readResult == -1) {
+                                // 残りのレスポンスは受信しない
+                                aborted = true;
+                                break;
 
-                                // 少し待つ
-                                Thread.sleep(INTERVAL_RETRY_MILLIS);
+                            }
 
-                                // データを読み込む
-                                readResult = in.read(responseContent);
+                            // シングルレスポンスモードが無効、または接続先が待機を要求している場合
+                            if (!srmEnabled || srmWait) {
 
-                                // オペレーション状態を更新する
-                                updateOperation(operation);
+                                // 継続要求を送信する
+                                out.write(new OBEXOperation(OBEXOperationCode.GET).toByteArray());
+                                out.flush();
 
                             }
 
+                            // 次のレスポンスを読み込む
+                            response = readResponse(in, operation);
+
+                            // 接続先が待機を要求しているかどうかを取得する
+                            srmWait = response.getByteHeader(OBEXHeaderCode.SINGLE_RESPONSE_MODE_PARAM)
+                                        == OBEXHeader.VALUE_SRMP_WAIT;
+
                         }
 
-                        // 正常終了とする
-                        responseCode = OBEXResponseCode.OK;
+                        // 中断した場合
+                        if (aborted) {
+
+                            // 中断時のレスポンスとする
+                            response = OBEXResponse.createAborted();
+
+                        }
 
                     } catch (final Throwable e) {
 
                         e.printStackTrace();
 
+                        OBEXResponseCode    responseCode;   // エラー時のレスポンスコード
+
                         // 例外情報が入出力例外の場合
                         if (e instanceof IOException) {
 
@@ -584,36 +1007,210 @@ public abstract class OBEXSession implements Closeable {
 
                         }
 
+                        // エラーレスポンスを作成する
+                        response = new OBEXResponse(responseCode, null);
+
                         // セッション情報を破棄する
                         disposeSession();
 
                         // 処理中断
-                        return;
+                        return response;
 
                     } finally {
 
                         // オペレーションを終了する
                         endOperation(operation);
 
+                        // 最後のレスポンスとする
+                        lastResponse = response;
+
                         // レスポンス処理を実行する
                         listener.responseObex(
                                 operation.getCode(),
-                                new OBEXResponse(
-                                        responseCode,
-                                        responseContent
-                                        )
+                                response
                                 );
 
                     }
 
                 }
 
+                // 最後のレスポンスを返す
+                return lastResponse;
+
             }
 
         };
 
-        // 通信処理を実行する
-        OBEX_EXECUTOR.execute(threadProcess);
+        // 送信処理を作成する
+        return new OBEXPostTask(threadProcess, operations, listener);
+
+    }
+
+
+    /**
+     * シングルレスポンスモードを要求するヘッダをオペレーションへ追加する。<br>
+     * <br>
+     * PUTとGET以外のオペレーションでは要求しない。<br>
+     *
+     * @param operation 送信するオペレーション
+     * @return シングルレスポンスモードを要求する場合は true
+     * @throws IOException 入出力エラー時
+     */
+    private static boolean requestSingleResponseMode(
+            final OBEXOperation operation
+            ) throws IOException {
+
+        final OBEXOperationCode code = operation.getCode();     // オペレーションコード
+
+
+        // PUTとGET以外の場合
+        if ((code != OBEXOperationCode.PUT)
+                && (code != OBEXOperationCode.FINAL_PUT)
+                && (code != OBEXOperationCode.GET)) {
+
+            // 要求しない
+            return false;
+
+        }
+
+        // 要求ヘッダが追加されていない場合
+        if (operation.getHeader(OBEXHeaderCode.SINGLE_RESPONSE_MODE) == null) {
+
+            // 要求ヘッダを追加する
+            final OBEXHeader    header = new OBEXHeader(OBEXHeaderCode.SINGLE_RESPONSE_MODE);
+
+            header.writeByte(OBEXHeader.VALUE_SRM_ENABLE);
+            operation.addHeader(header);
+
+        }
+
+        // 要求する
+        return true;
+
+    }
+
+
+    /**
+     * レスポンスを読み込む。<br>
+     * <br>
+     * レスポンスコードとパケット長を読み込んだ後、パケット長の残りを全て読み込むまで待つ。<br>
+     * 受信待ちは受信ストリームのブロッキング読み込みで行い、一定時間の待機は行わない。<br>
+     * 受信が止まった場合はタイムアウト管理スレッドがセッションを破棄して読み込みを中断する。<br>
+     *
+     * @param in        データ受信ストリーム
+     * @param operation 処理中のオペレーション
+     * @return レスポンスデータ
+     * @throws IOException 入出力エラー時、レスポンスの途中で受信ストリームが終了した場合
+     */
+    private OBEXResponse readResponse(
+            final DataInputStream   in,
+            final OBEXOperation     operation
+            ) throws IOException {
+
+        // レスポンスコードとパケット長を読み込む
+        final OBEXResponseCode  responseCode = OBEXResponseCode.toType(in.readUnsignedByte());
+        final int               packetSize   = in.readUnsignedShort();
+
+        // オペレーション状態を更新する
+        updateOperation(operation);
+
+        // パケット長が不正の場合は例外
+        if (packetSize < OBEXResponse.SIZE_RESPONSE_BLOCK_RESULT) {
+
+            throw new IOException("Invalid response packet length. [length = " + packetSize + "]");
+
+        }
+
+        byte[]                  responseContent = null;     // レスポンスコンテントデータ
+
+        // レスポンスコンテントデータがある場合
+        if (packetSize > OBEXResponse.SIZE_RESPONSE_BLOCK_RESULT) {
+
+            // 残りのデータを全て読み込む
+            responseContent = new byte[packetSize - OBEXResponse.SIZE_RESPONSE_BLOCK_RESULT];
+            in.readFully(responseContent);
+
+            // オペレーション状態を更新する
+            updateOperation(operation);
+
+        }
+
+        // 未定義のレスポンスコードの場合は不当な要求とする
+        return new OBEXResponse(
+                responseCode == null ? OBEXResponseCode.BAD_REQUEST : responseCode,
+                responseContent
+                );
+
+    }
+
+
+    /**
+     * GETオペレーションを送信し、ボディデータを逐次受信する。<br>
+     * <br>
+     * 継続レスポンスは自動で処理し、受信したボディデータを 1 パケットずつリスナーへ渡す。<br>
+     * ボディデータ全体をメモリ上に保持しないため、電話帳やフォルダ一覧などの<br>
+     * 大きなオブジェクトの取得に利用する。<br>
+     * セッションのリスナーにはレスポンスは通知されない。<br>
+     *
+     * @param operation     送信するGETオペレーション
+     * @param listener      ボディデータ受信リスナー
+     * @return 最後のレスポンスを取得するフューチャー
+     * @throws IllegalArgumentException 引数が null の場合、GETオペレーションでない場合
+     * @throws IllegalStateException    待機中のオペレーション数が上限に達している場合
+     */
+    public Future<OBEXResponse> get(
+            final OBEXOperation     operation,
+            final OBEXBodyListener  listener
+            ) {
+
+        // 引数が null の場合、GETオペレーションでない場合は例外
+        if ((operation == null)
+                || (listener == null)
+                || (operation.getCode() != OBEXOperationCode.GET)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // 送信処理を実行する
+        return processPost(new OBEXOperation[] {operation}, true, new OBEXInnerListener() {
+
+            @Override
+            public void responseObex(
+                    final OBEXOperationCode opecode,
+                    final OBEXResponse      response
+                    ) {
+
+                // ボディデータを取得する
+                ByteBuffer  body = response.getHeaderBuffer(OBEXHeaderCode.BODY);
+
+                // ボディデータがない場合
+                if (body == null) {
+
+                    // 終端ボディデータを取得する
+                    body = response.getHeaderBuffer(OBEXHeaderCode.END_OF_BODY);
+
+                }
+
+                // ボディデータがある場合
+                if (body != null) {
+
+                    // ボディデータ受信処理を実行する
+                    listener.bodyReceived(OBEXSession.this, body);
+
+                }
+
+                // 継続レスポンス以外の場合
+                if (response.getCode() != OBEXResponseCode.CONTINUE) {
+
+                    // 終了処理を実行する
+                    listener.getFinished(OBEXSession.this, response);
+
+                }
+
+            }
+
+        });
 
     }
 
@@ -622,11 +1219,15 @@ public abstract class OBEXSession implements Closeable {
      * 指定されたオペレーションを送信する。<br>
      * <br>
      * レスポンスは指定されたリスナーへ返却される。<br>
+     * 送信要求は同じセッションの他の送信要求の終了を待ってから、要求した順に送信される。<br>
+     * 返却されるフューチャーの結果を、同じセッションのリスナー内で待たないこと。<br>
      *
      * @param operation     送信するオペレーション
+     * @return レスポンスを取得するフューチャー
      * @throws IllegalArgumentException 送信するオペレーションが null の場合
+     * @throws IllegalStateException    待機中のオペレーション数が上限に達している場合
      */
-    void postOperation(
+    public Future<OBEXResponse> postOperation(
             final OBEXOperation     operation
             ) {
 
@@ -638,7 +1239,7 @@ public abstract class OBEXSession implements Closeable {
         }
 
         // 送信処理を実行する
-        postOperation(new OBEXOperation[] {operation});
+        return postOperation(new OBEXOperation[] {operation});
 
     }
 
@@ -647,11 +1248,14 @@ public abstract class OBEXSession implements Closeable {
      * 指定されたオペレーションを送信する。<br>
      * <br>
      * レスポンスは指定されたリスナーへ返却される。<br>
+     * オペレーション一覧は他の送信要求を挟まずに続けて送信される。<br>
      *
      * @param operations    送信するオペレーション一覧
+     * @return 最後のレスポンスを取得するフューチャー
      * @throws IllegalArgumentException 送信するオペレーション一覧が null の場合
+     * @throws IllegalStateException    待機中のオペレーション数が上限に達している場合
      */
-    void postOperation(
+    public Future<OBEXResponse> postOperation(
             final OBEXOperation[]   operations
             ) {
 
@@ -663,7 +1267,7 @@ public abstract class OBEXSession implements Closeable {
         }
 
         // 送信処理を実行する
-        processPost(operations, new OBEXInnerListener() {
+        return processPost(operations, false, new OBEXInnerListener() {
 
             @Override
             public void responseObex(
@@ -722,6 +1326,90 @@ public abstract class OBEXSession implements Closeable {
     }
 
 
+    /**
+     * OBEXオペレーション送信処理。<br>
+     * <br>
+     * 開始前に取り消された場合に、オペレーションの後始末と中断の通知を行う。<br>
+     *
+     * @author Kou
+     *
+     */
+    private static final class OBEXPostTask extends FutureTask<OBEXResponse> {
+
+
+        /**
+         * 送信オペレーション一覧
+         */
+        private final OBEXOperation[]       taskOperations;
+
+        /**
+         * レスポンス処理リスナー
+         */
+        private final OBEXInnerListener     taskListener;
+
+
+
+        /**
+         * オペレーション送信処理を初期化する。
+         *
+         * @param process       送信処理
+         * @param operations    送信オペレーション一覧
+         * @param listener      レスポンス処理リスナー
+         */
+        OBEXPostTask(
+                final Callable<OBEXResponse>    process,
+                final OBEXOperation[]           operations,
+                final OBEXInnerListener         listener
+                ) {
+
+            super(process);
+
+            taskOperations = operations;
+            taskListener   = listener;
+
+        }
+
+
+        /**
+         * 開始前に取り消された送信処理を終了する。<br>
+         * <br>
+         * オペレーションのボディデータの読み込み元を閉じ、<br>
+         * オペレーションごとに中断時のレスポンスを通知する。<br>
+         *
+         */
+        void drop() {
+
+            final OBEXResponse  response = OBEXResponse.createAborted();    // 中断時のレスポンス
+
+
+            // オペレーション分繰り返す
+            for (final OBEXOperation operation : taskOperations) {
+
+                // パケットの送信状態を破棄する
+                operation.closePackets();
+
+                try {
+
+                    // 中断を通知する
+                    taskListener.responseObex(operation.getCode(), response);
+
+                } catch (final Throwable e) {
+
+                    e.printStackTrace();
+
+                }
+
+            }
+
+            // 中断時のレスポンスを結果とする
+            set(response);
+
+        }
+
+
+    }
+
+
     /**
      * OBEX通信タイムアウト管理スレッド。
      *
@@ -0,0 +1,603 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.HttpClient;
+
+import android.os.Handler;
+import android.os.Looper;
+
+
+/**
+ * HTTP一括通信クラス。<br>
+ * <br>
+ * 追加した複数の通信を同時実行数の上限内で並行して実行し、<br>
+ * 通信ごとの通知と、全通信完了時の一括通知を UI スレッドで行う。<br>
+ * 通信は共有の接続プールを利用するため、同じ接続先への通信は持続的接続を再利用する。<br>
+ * <br>
+ * 1 つのインスタンスで実行できるのは 1 回のみ。<br>
+ *
+ * @author Kou
+ *
+ */
+public final class HttpBatch {
+
+
+    /**
+     * デフォルト同時実行数
+     */
+    public static final int                 DEFAULT_MAX_PARALLEL    = 4;
+
+    /**
+     * UI スレッドへの通知ハンドラ
+     */
+    private static final Handler            MAIN_HANDLER            = new Handler(Looper.getMainLooper());
+
+    /**
+     * 使用するHTTPクライアント
+     */
+    private final HttpClient                batchClient;
+
+    /**
+     * 通信優先度
+     */
+    private final HttpPriority              batchPriority;
+
+    /**
+     * 同時実行数
+     */
+    private final int                       batchMaxParallel;
+
+    /**
+     * 通信要求一覧
+     */
+    private final List<Request>             batchRequests = new ArrayList<Request>();
+
+    /**
+     * 実行中の通信要求ハンドル一覧 (通信要求の位置ごと)
+     */
+    private HttpRequestHandle[]             batchHandles;
+
+    /**
+     * 通信が完了したかどうか (通信要求の位置ごと)
+     */
+    private boolean[]                       batchDone;
+
+    /**
+     * 実行中の通信要求数
+     */
+    private int                             batchRunning;
+
+    /**
+     * 通信結果データ一覧
+     */
+    private HttpResult[]                    batchResults;
+
+    /**
+     * 全通信完了通知先リスナー
+     */
+    private HttpBatchListener               batchListener;
+
+    /**
+     * 次に開始する通信要求の位置
+     */
+    private int                             batchNext;
+
+    /**
+     * 完了していない通信要求数
+     */
+    private int                             batchRemaining;
+
+    /**
+     * 実行を開始したかどうか
+     */
+    private boolean                         batchStarted;
+
+    /**
+     * 取り消されたかどうか
+     */
+    private boolean                         batchCancelled;
+
+
+
+    /**
+     * デフォルトHTTPクライアントとデフォルト同時実行数で一括通信を初期化する。
+     *
+     */
+    public HttpBatch() {
+
+        this(HttpMethod.getDefaultClient(), HttpPriority.FOREGROUND, DEFAULT_MAX_PARALLEL);
+
+    }
+
+
+    /**
+     * HTTPクライアント・通信優先度・同時実行数を指定して一括通信を初期化する。<br>
+     * <br>
+     * 同時実行数は {@link HttpMethod#setMaxRequests(int)} の最大同時通信数の範囲内で有効となる。<br>
+     *
+     * @param client        使用するHTTPクライアント
+     * @param priority      通信優先度
+     * @param maxParallel   同時実行数
+     * @throws IllegalArgumentException HTTPクライアントまたは通信優先度が null の場合、同時実行数が 0 以下の場合
+     */
+    public HttpBatch(
+            final HttpClient    client,
+            final HttpPriority  priority,
+            final int           maxParallel
+            ) {
+
+        // 引数が不正の場合は例外
+        if ((client == null) || (priority == null) || (maxParallel <= 0)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        batchClient      = client;
+        batchPriority    = priority;
+        batchMaxParallel = maxParallel;
+
+    }
+
+
+    /**
+     * HTTP GET通信を追加する。
+     *
+     * @param uri               URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param listener          通信完了通知先リスナー。通信ごとの通知が不要な場合は null
+     * @return 自身のインスタンス
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     * @throws IllegalStateException    実行を開始している場合
+     */
+    public HttpBatch addGet(
+            final String            uri,
+            final NameValuePair[]   queryParams,
+            final NameValuePair[]   requestHeaders,
+            final HttpListener      listener
+            ) {
+
+        return add(new Request(uri, queryParams, requestHeaders, null, false, listener));
+
+    }
+
+
+    /**
+     * HTTP POST通信を追加する。
+     *
+     * @param uri               URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param requestEntity     リクエストエンティティ
+     * @param listener          通信完了通知先リスナー。通信ごとの通知が不要な場合は null
+     * @return 自身のインスタンス
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     * @throws IllegalStateException    実行を開始している場合
+     */
+    public HttpBatch addPost(
+            final String            uri,
+            final NameValuePair[]   queryParams,
+            final NameValuePair[]   requestHeaders,
+            final HttpEntity        requestEntity,
+            final HttpListener      listener
+            ) {
+
+        return add(new Request(uri, queryParams, requestHeaders, requestEntity, true, listener));
+
+    }
+
+
+    /**
+     * 追加した通信数を取得する。
+     *
+     * @return 追加した通信数
+     */
+    public synchronized int size() {
+
+        return batchRequests.size();
+
+    }
+
+
+    /**
+     * 一括通信を開始する。<br>
+     * <br>
+     * 追加順に同時実行数まで通信を開始し、1 つ完了するごとに次の通信を開始する。<br>
+     * 各通信の通信完了通知先リスナーを呼び出した後、全通信完了時に一括通信完了通知先リスナーを呼び出す。<br>
+     *
+     * @param listener  一括通信完了通知先リスナー。一括通知が不要な場合は null
+     * @throws IllegalStateException    既に実行を開始している場合
+     */
+    public synchronized void execute(
+            final HttpBatchListener listener
+            ) {
+
+        // 既に実行を開始している場合は例外
+        if (batchStarted) {
+
+            throw new IllegalStateException("Batch is already started. [size = " + batchRequests.size() + "]");
+
+        }
+
+        // 実行状態を初期化する
+        batchStarted   = true;
+        batchListener  = listener;
+        batchResults   = new HttpResult[batchRequests.size()];
+        batchHandles   = new HttpRequestHandle[batchRequests.size()];
+        batchDone      = new boolean[batchRequests.size()];
+        batchRemaining = batchRequests.size();
+
+        // 通信がない場合
+        if (batchRemaining == 0) {
+
+            // 完了を通知する
+            notifyFinished();
+            return;
+
+        }
+
+        // 同時実行数まで通信を開始する
+        startNext();
+
+    }
+
+
+    /**
+     * 一括通信を取り消す。<br>
+     * <br>
+     * 実行待ち・通信中の通信を取り消し、以降の通知は行わない。<br>
+     *
+     */
+    public void cancel() {
+
+        final List<HttpRequestHandle>   handles = new ArrayList<HttpRequestHandle>();   // 取り消す通信要求ハンドル一覧
+
+        synchronized (this) {
+
+            // 取り消し状態にする
+            batchCancelled = true;
+
+            // 実行を開始している場合
+            if (batchHandles != null) {
+
+                // 実行中の通信要求ハンドルを取り出す
+                for (int i = 0; i < batchHandles.length; i++) {
+
+                    if (batchHandles[i] != null) {
+
+                        handles.add(batchHandles[i]);
+                        batchHandles[i] = null;
+
+                    }
+
+                }
+
+            }
+
+        }
+
+        // 実行中の通信を取り消す
+        for (final HttpRequestHandle handle : handles) {
+
+            handle.cancel();
+
+        }
+
+    }
+
+
+    /**
+     * 通信要求を追加する。
+     *
+     * @param request   通信要求
+     * @return 自身のインスタンス
+     * @throws IllegalStateException    実行を開始している場合
+     */
+    private synchronized HttpBatch add(
+            final Request   request
+            ) {
+
+        // 既に実行を開始している場合は例外
+        if (batchStarted) {
+
+            throw new IllegalStateException("Batch is already started. [size = " + batchRequests.size() + "]");
+
+        }
+
+        batchRequests.add(request);
+
+        return this;
+
+    }
+
+
+    /**
+     * 同時実行数の上限まで次の通信を開始する。
+     *
+     */
+    private synchronized void startNext() {
+
+        // 同時実行数の上限内で、開始していない通信がある間繰り返す
+        while (!batchCancelled
+                && (batchRunning < batchMaxParallel)
+                && (batchNext < batchRequests.size())
+                ) {
+
+            final int                   index   = batchNext++;
+            final Request               request = batchRequests.get(index);
+
+
+            // 実行中にする
+            batchRunning++;
+
+            // 通信を開始する
+            final HttpRequestHandle     handle = request.start(batchClient, batchPriority, new HttpListener() {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void connectFinished(
+                        final HttpResult    result
+                        ) {
+
+                    requestFinished(index, request, result);
+
+                }
+
+            });
+
+            // 開始処理中に完了していない場合は通信要求ハンドルを保持する
+            if (!batchDone[index]) {
+
+                batchHandles[index] = handle;
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 通信完了時の処理を行う。<br>
+     * <br>
+     * UI スレッドで呼び出される。<br>
+     *
+     * @param index     通信要求の位置
+     * @param request   通信要求
+     * @param result    通信結果データ
+     */
+    private void requestFinished(
+            final int               index,
+            final Request           request,
+            final HttpResult        result
+            ) {
+
+        final boolean   finished;   // 全通信が完了したかどうか
+
+        synchronized (this) {
+
+            // 取り消されている場合
+            if (batchCancelled) {
+
+                // 通知しない
+                return;
+
+            }
+
+            // 通信結果を保持する
+            batchResults[index] = result;
+            batchDone[index]    = true;
+            batchHandles[index] = null;
+            batchRunning--;
+            finished = --batchRemaining == 0;
+
+        }
+
+        // 通信ごとの通知先がある場合
+        if (request.requestListener != null) {
+
+            // 通信完了処理を実行する
+            request.requestListener.connectFinished(result);
+
+        }
+
+        // 全通信が完了した場合
+        if (finished) {
+
+            // 完了を通知する
+            notifyFinished();
+
+        } else {
+
+            // 次の通信を開始する
+            startNext();
+
+        }
+
+    }
+
+
+    /**
+     * 全通信完了を UI スレッドで通知する。
+     *
+     */
+    private void notifyFinished() {
+
+        final HttpBatchListener     listener = batchListener;
+        final HttpResult[]          results  = batchResults;
+
+
+        // 通知先がない場合
+        if (listener == null) {
+
+            // 処理なし
+            return;
+
+        }
+
+        // UI スレッドで通知する
+        MAIN_HANDLER.post(new Runnable() {
+
+            /**
+             * {@inheritDoc}
+             */
+            public void run() {
+
+                // 取り消されていない場合
+                if (!isCancelled()) {
+
+                    // 一括通信完了処理を実行する
+                    listener.batchFinished(results);
+
+                }
+
+            }
+
+        });
+
+    }
+
+
+    /**
+     * 取り消されたかどうかを取得する。
+     *
+     * @return 取り消された場合は true
+     */
+    private synchronized boolean isCancelled() {
+
+        return batchCancelled;
+
+    }
+
+
+
+
+    /**
+     * 一括通信の通信要求クラス。
+     *
+     * @author Kou
+     *
+     */
+    private static final class Request {
+
+
+        /**
+         * URI
+         */
+        private final String            requestUri;
+
+        /**
+         * URIに付加するクエリパラメータ
+         */
+        private final NameValuePair[]   requestQueryParams;
+
+        /**
+         * リクエストヘッダ情報
+         */
+        private final NameValuePair[]   requestHeaders;
+
+        /**
+         * リクエストエンティティ
+         */
+        private final HttpEntity        requestEntity;
+
+        /**
+         * POST 通信かどうか
+         */
+        private final boolean           requestPost;
+
+        /**
+         * 通信完了通知先リスナー
+         */
+        private final HttpListener      requestListener;
+
+
+
+        /**
+         * 通信要求を初期化する。
+         *
+         * @param uri               URI
+         * @param queryParams       URIに付加するクエリパラメータ
+         * @param headers           リクエストヘッダ情報
+         * @param entity            リクエストエンティティ
+         * @param post              POST 通信かどうか
+         * @param listener          通信完了通知先リスナー
+         * @throws IllegalArgumentException URIが null または長さ 0 の場合
+         */
+        private Request(
+                final String            uri,
+                final NameValuePair[]   queryParams,
+                final NameValuePair[]   headers,
+                final HttpEntity        entity,
+                final boolean           post,
+                final HttpListener      listener
+                ) {
+
+            // URI が null または長さ 0 の場合は例外
+            if ((uri == null) || (uri.length() == 0)) {
+
+                throw new IllegalArgumentException();
+
+            }
+
+            requestUri         = uri;
+            requestQueryParams = queryParams;
+            requestHeaders     = headers;
+            requestEntity      = entity;
+            requestPost        = post;
+            requestListener    = listener;
+
+        }
+
+
+        /**
+         * 通信を開始する。
+         *
+         * @param client    使用するHTTPクライアント
+         * @param priority  通信優先度
+         * @param listener  通信完了通知先リスナー
+         * @return 通信要求ハンドル
+         */
+        private HttpRequestHandle start(
+                final HttpClient    client,
+                final HttpPriority  priority,
+                final HttpListener  listener
+                ) {
+
+            // POST 通信の場合
+            if (requestPost) {
+
+                return HttpMethod.doPost(client, requestUri, requestQueryParams, requestHeaders, requestEntity, priority, listener);
+
+            }
+
+            return HttpMethod.doGet(client, requestUri, requestQueryParams, requestHeaders, priority, listener);
+
+        }
+
+
+    }
+
+
+}
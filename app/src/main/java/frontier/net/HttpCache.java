@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+
+
+/**
+ * HTTPレスポンスキャッシュインターフェース。<br>
+ * <br>
+ * {@link HttpMethod#setCache(HttpCache)} で設定すると、<br>
+ * GET 通信のレスポンスを保存し、有効期限内は通信せずに保存したレスポンスを返す。<br>
+ * 実装クラスは複数スレッドから呼び出されるため、スレッドセーフにすること。<br>
+ *
+ * @author Kou
+ *
+ */
+public interface HttpCache {
+
+
+    /**
+     * 指定キーのキャッシュエントリを取得する。
+     *
+     * @param key   キャッシュキー (リクエストURI)
+     * @return キャッシュエントリ。存在しない場合は null
+     */
+    HttpCacheEntry get(
+            final String    key
+            );
+
+
+    /**
+     * 指定キーでキャッシュエントリを保存する。
+     *
+     * @param key   キャッシュキー (リクエストURI)
+     * @param entry キャッシュエントリ
+     */
+    void put(
+            final String            key,
+            final HttpCacheEntry    entry
+            );
+
+
+    /**
+     * 指定キーのキャッシュエントリを削除する。
+     *
+     * @param key   キャッシュキー (リクエストURI)
+     */
+    void remove(
+            final String    key
+            );
+
+
+}
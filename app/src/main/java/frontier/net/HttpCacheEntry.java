@@ -0,0 +1,836 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HttpStatus;
+import org.apache.http.impl.cookie.DateParseException;
+import org.apache.http.impl.cookie.DateUtils;
+import org.apache.http.message.BasicHeader;
+
+
+/**
+ * HTTPレスポンスキャッシュエントリ。<br>
+ * <br>
+ * 保存したレスポンスと受信時刻を保持し、<br>
+ * Cache-Control / Expires / Date / Age ヘッダから鮮度を判定する。<br>
+ * 保持する内容は変更しないため、複数スレッドから参照できる。<br>
+ *
+ * @author Kou
+ *
+ */
+public final class HttpCacheEntry {
+
+
+    /**
+     * ヘッダ : キャッシュ制御
+     */
+    static final String                 HEADER_CACHE_CONTROL        = "Cache-Control";
+
+    /**
+     * ヘッダ : エンティティタグ
+     */
+    static final String                 HEADER_ETAG                 = "ETag";
+
+    /**
+     * ヘッダ : 経過時間
+     */
+    static final String                 HEADER_AGE                  = "Age";
+
+    /**
+     * ヘッダ : 変動要素
+     */
+    static final String                 HEADER_VARY                 = "Vary";
+
+    /**
+     * ヘッダ : 旧形式のキャッシュ制御
+     */
+    static final String                 HEADER_PRAGMA               = "Pragma";
+
+    /**
+     * キャッシュ制御 : 保存禁止
+     */
+    static final String                 DIRECTIVE_NO_STORE          = "no-store";
+
+    /**
+     * キャッシュ制御 : 毎回再検証
+     */
+    private static final String         DIRECTIVE_NO_CACHE          = "no-cache";
+
+    /**
+     * キャッシュ制御 : 最大有効期間 (秒)
+     */
+    private static final String         DIRECTIVE_MAX_AGE           = "max-age";
+
+    /**
+     * キャッシュ制御 : 期限切れ後は必ず再検証
+     */
+    private static final String         DIRECTIVE_MUST_REVALIDATE   = "must-revalidate";
+
+    /**
+     * キャッシュ制御 : 期限切れ後に再検証しながら利用できる期間 (秒)
+     */
+    private static final String         DIRECTIVE_STALE_WHILE_REVALIDATE = "stale-while-revalidate";
+
+    /**
+     * 保存形式のバージョン
+     */
+    private static final int            FORMAT_VERSION              = 1;
+
+    /**
+     * 読み込むヘッダ数の上限
+     */
+    private static final int            MAX_HEADER_COUNT            = 1024;
+
+    /**
+     * 保存形式のヘッダ 1 件の最小サイズ (名前と値の長さ)
+     */
+    private static final int            MIN_HEADER_SIZE             = 4;
+
+    /**
+     * 1 秒のミリ秒数
+     */
+    private static final long           SECOND_MILLIS               = 1000L;
+
+    /**
+     * 更新時刻から推定する有効期間の最大値 (ms)
+     */
+    private static final long           MAX_HEURISTIC_LIFETIME      = 24L * 60L * 60L * SECOND_MILLIS;
+
+    /**
+     * 更新時刻から有効期間を推定する場合の割合 (経過時間に対する除数)
+     */
+    private static final long           HEURISTIC_DIVISOR           = 10L;
+
+    /**
+     * レスポンスヘッダ一覧
+     */
+    private final Header[]              entryHeaders;
+
+    /**
+     * ステータスコード
+     */
+    private final int                   entryStatusCode;
+
+    /**
+     * レスポンスボディデータ
+     */
+    private final byte[]                entryBodyData;
+
+    /**
+     * リクエスト送信時刻 (ms)
+     */
+    private final long                  entryRequestTime;
+
+    /**
+     * レスポンス受信時刻 (ms)
+     */
+    private final long                  entryResponseTime;
+
+
+
+    /**
+     * キャッシュエントリを初期化する。
+     *
+     * @param headers       レスポンスヘッダ
+     * @param statusCode    ステータスコード
+     * @param bodyData      レスポンスボディデータ
+     * @param requestTime   リクエスト送信時刻 (ms)
+     * @param responseTime  レスポンス受信時刻 (ms)
+     */
+    HttpCacheEntry(
+            final Header[]  headers,
+            final int       statusCode,
+            final byte[]    bodyData,
+            final long      requestTime,
+            final long      responseTime
+            ) {
+
+        entryHeaders        = headers == null ? new Header[0] : headers;
+        entryStatusCode     = statusCode;
+        entryBodyData       = bodyData == null ? new byte[0] : bodyData;
+        entryRequestTime    = requestTime;
+        entryResponseTime   = responseTime;
+
+    }
+
+
+    /**
+     * レスポンスを保存できるかどうかを取得する。
+     *
+     * @param statusCode    ステータスコード
+     * @param headers       レスポンスヘッダ
+     * @return 保存できる場合は true
+     */
+    static boolean isStorable(
+            final int       statusCode,
+            final Header[]  headers
+            ) {
+
+        // 保存できるステータスでない場合
+        if ((statusCode != HttpStatus.SC_OK)
+                && (statusCode != HttpStatus.SC_NON_AUTHORITATIVE_INFORMATION)
+                && (statusCode != HttpStatus.SC_MULTIPLE_CHOICES)
+                && (statusCode != HttpStatus.SC_MOVED_PERMANENTLY)
+                && (statusCode != HttpStatus.SC_GONE)
+                ) {
+
+            return false;
+
+        }
+
+        // 保存禁止の場合
+        if (hasDirective(headers, DIRECTIVE_NO_STORE)) {
+
+            return false;
+
+        }
+
+        final Header    vary = findHeader(headers, HEADER_VARY);
+
+        // エンコーディング以外のリクエストヘッダで内容が変わる場合は保存しない
+        return (vary == null) || "Accept-Encoding".equalsIgnoreCase(vary.getValue().trim());
+
+    }
+
+
+    /**
+     * 保存したレスポンスヘッダを取得する。
+     *
+     * @return レスポンスヘッダ
+     */
+    public Header[] getHeaders() {
+
+        return entryHeaders.clone();
+
+    }
+
+
+    /**
+     * 保存したステータスコードを取得する。
+     *
+     * @return ステータスコード
+     */
+    public int getStatusCode() {
+
+        return entryStatusCode;
+
+    }
+
+
+    /**
+     * 保存したレスポンスボディデータを取得する。
+     *
+     * @return レスポンスボディデータ
+     */
+    public byte[] getBodyData() {
+
+        return entryBodyData.clone();
+
+    }
+
+
+    /**
+     * レスポンス受信時刻 (ms) を取得する。
+     *
+     * @return レスポンス受信時刻 (ms)
+     */
+    public long getResponseTime() {
+
+        return entryResponseTime;
+
+    }
+
+
+    /**
+     * キャッシュ容量の算出に利用するサイズを取得する。
+     *
+     * @return おおよそのバイト数
+     */
+    public int getSize() {
+
+        int     retSize = entryBodyData.length;
+
+        // ヘッダ分加算する
+        for (final Header header : entryHeaders) {
+
+            retSize += header.getName().length() + header.getValue().length();
+
+        }
+
+        return retSize;
+
+    }
+
+
+    /**
+     * 複製せずにレスポンスヘッダを取得する。
+     *
+     * @return レスポンスヘッダ
+     */
+    Header[] getHeadersDirect() {
+
+        return entryHeaders;
+
+    }
+
+
+    /**
+     * 複製せずにレスポンスボディデータを取得する。
+     *
+     * @return レスポンスボディデータ
+     */
+    byte[] getBodyDataDirect() {
+
+        return entryBodyData;
+
+    }
+
+
+    /**
+     * エンティティタグを取得する。
+     *
+     * @return エンティティタグ。ない場合は null
+     */
+    String getETag() {
+
+        final Header    header = findHeader(entryHeaders, HEADER_ETAG);
+
+        return header == null ? null : header.getValue();
+
+    }
+
+
+    /**
+     * 更新時刻ヘッダ値を取得する。
+     *
+     * @return 更新時刻ヘッダ値。ない場合は null
+     */
+    String getLastModified() {
+
+        final Header    header = findHeader(entryHeaders, HttpMethod.HEADER_LAST_MODIFIED);
+
+        return header == null ? null : header.getValue();
+
+    }
+
+
+    /**
+     * 再検証に利用できる情報があるかどうかを取得する。
+     *
+     * @return エンティティタグまたは更新時刻がある場合は true
+     */
+    boolean hasValidator() {
+
+        return (getETag() != null) || (getLastModified() != null);
+
+    }
+
+
+    /**
+     * 指定時刻に有効期限内かどうかを取得する。
+     *
+     * @param now   判定時刻 (ms)
+     * @return 有効期限内の場合は true
+     */
+    boolean isFresh(
+            final long  now
+            ) {
+
+        return getCurrentAge(now) < getFreshnessLifetime();
+
+    }
+
+
+    /**
+     * 指定時刻に、再検証しながら期限切れのレスポンスを利用できるかどうかを取得する。
+     *
+     * @param now   判定時刻 (ms)
+     * @return stale-while-revalidate の期間内の場合は true
+     */
+    boolean isStaleWhileRevalidate(
+            final long  now
+            ) {
+
+        // 期限切れ後は必ず再検証する場合
+        if (hasDirective(entryHeaders, DIRECTIVE_MUST_REVALIDATE)) {
+
+            return false;
+
+        }
+
+        final long  staleSeconds = getDirectiveSeconds(entryHeaders, DIRECTIVE_STALE_WHILE_REVALIDATE);
+
+        // 指定がない場合
+        if (staleSeconds <= 0) {
+
+            return false;
+
+        }
+
+        return getCurrentAge(now) < getFreshnessLifetime() + staleSeconds * SECOND_MILLIS;
+
+    }
+
+
+    /**
+     * 有効期間 (ms) を取得する。
+     *
+     * @return 有効期間 (ms)
+     */
+    long getFreshnessLifetime() {
+
+        // 毎回再検証する場合
+        if (hasDirective(entryHeaders, DIRECTIVE_NO_CACHE)) {
+
+            return 0;
+
+        }
+
+        final long  maxAge = getDirectiveSeconds(entryHeaders, DIRECTIVE_MAX_AGE);
+
+        // 最大有効期間が指定されている場合
+        if (maxAge >= 0) {
+
+            return maxAge * SECOND_MILLIS;
+
+        }
+
+        final long  date    = getDateHeader(HttpMethod.HEADER_DATE, entryResponseTime);
+        final Header expires = findHeader(entryHeaders, HttpMethod.HEADER_EXPIRES);
+
+        // 有効期限が指定されている場合
+        if (expires != null) {
+
+            final long  expiresTime = getDateHeader(HttpMethod.HEADER_EXPIRES, -1);
+
+            // 不正な日付は期限切れとして扱う
+            return expiresTime < 0 ? 0 : Math.max(0, expiresTime - date);
+
+        }
+
+        final long  lastModified = getDateHeader(HttpMethod.HEADER_LAST_MODIFIED, -1);
+
+        // 更新時刻がある場合
+        if ((lastModified >= 0) && (lastModified < date)) {
+
+            // 更新からの経過時間の一定割合を有効期間とする
+            return Math.min((date - lastModified) / HEURISTIC_DIVISOR, MAX_HEURISTIC_LIFETIME);
+
+        }
+
+        // 有効期間なし
+        return 0;
+
+    }
+
+
+    /**
+     * 指定時刻でのレスポンスの経過時間 (ms) を取得する。
+     *
+     * @param now   判定時刻 (ms)
+     * @return 経過時間 (ms)
+     */
+    long getCurrentAge(
+            final long  now
+            ) {
+
+        final long  date        = getDateHeader(HttpMethod.HEADER_DATE, entryResponseTime);
+        final long  apparentAge = Math.max(0, entryResponseTime - date);
+        final Header ageHeader  = findHeader(entryHeaders, HEADER_AGE);
+        long        ageValue    = 0;
+
+        // 経過時間ヘッダがある場合
+        if (ageHeader != null) {
+
+            try {
+
+                ageValue = Long.parseLong(ageHeader.getValue().trim()) * SECOND_MILLIS;
+
+            } catch (final NumberFormatException e) {
+
+                // 不正な値は無視する
+                ageValue = 0;
+
+            }
+
+        }
+
+        // 受信時点の経過時間に通信時間と受信後の経過時間を加算する
+        return Math.max(apparentAge, ageValue)
+               + (entryResponseTime - entryRequestTime)
+               + Math.max(0, now - entryResponseTime);
+
+    }
+
+
+    /**
+     * 304 レスポンスのヘッダで更新したキャッシュエントリを作成する。
+     *
+     * @param headers       304 レスポンスのヘッダ
+     * @param requestTime   リクエスト送信時刻 (ms)
+     * @param responseTime  レスポンス受信時刻 (ms)
+     * @return 更新したキャッシュエントリ
+     */
+    HttpCacheEntry update(
+            final Header[]  headers,
+            final long      requestTime,
+            final long      responseTime
+            ) {
+
+        final List<Header>  mergedHeaders = new ArrayList<Header>();    // 更新後のヘッダ一覧
+
+
+        // 保存したヘッダ分処理をする
+        for (final Header header : entryHeaders) {
+
+            // 304 レスポンスに含まれないヘッダの場合
+            if (findHeader(headers, header.getName()) == null) {
+
+                // そのまま引き継ぐ
+                mergedHeaders.add(header);
+
+            }
+
+        }
+
+        // 304 レスポンスのヘッダ分処理をする
+        for (final Header header : headers) {
+
+            // コンテンツ長以外は更新する
+            if (!HttpMethod.HEADER_CONTENT_LENGTH.equalsIgnoreCase(header.getName())) {
+
+                mergedHeaders.add(header);
+
+            }
+
+        }
+
+        return new HttpCacheEntry(
+                mergedHeaders.toArray(new Header[mergedHeaders.size()]),
+                entryStatusCode,
+                entryBodyData,
+                requestTime,
+                responseTime
+                );
+
+    }
+
+
+    /**
+     * キャッシュエントリを書き込む。
+     *
+     * @param out   書き込み先
+     * @throws IOException  入出力エラー時
+     */
+    void writeTo(
+            final DataOutputStream  out
+            ) throws IOException {
+
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(entryStatusCode);
+        out.writeLong(entryRequestTime);
+        out.writeLong(entryResponseTime);
+        out.writeInt(entryHeaders.length);
+
+        // ヘッダ分書き込む
+        for (final Header header : entryHeaders) {
+
+            out.writeUTF(header.getName());
+            out.writeUTF(header.getValue());
+
+        }
+
+        out.writeInt(entryBodyData.length);
+        out.write(entryBodyData);
+
+    }
+
+
+    /**
+     * 書き込んだキャッシュエントリを読み込む。<br>
+     * <br>
+     * 途中で切れた、または壊れたデータで巨大な配列を確保しないように、<br>
+     * ヘッダ数とボディサイズを上限と読み込み元のサイズで検証する。<br>
+     *
+     * @param in        読み込み元
+     * @param maxLength 読み込み元のサイズ (byte)
+     * @return 読み込んだキャッシュエントリ
+     * @throws IOException  入出力エラーまたは形式が不正な場合
+     */
+    static HttpCacheEntry readFrom(
+            final DataInputStream   in,
+            final long              maxLength
+            ) throws IOException {
+
+        // 保存形式のバージョンが異なる場合は例外
+        if (in.readInt() != FORMAT_VERSION) {
+
+            throw new IOException("Unsupported cache entry format.");
+
+        }
+
+        final int       statusCode   = in.readInt();
+        final long      requestTime  = in.readLong();
+        final long      responseTime = in.readLong();
+        final int       headerCount  = in.readInt();
+
+        // ヘッダ数が不正な場合は例外
+        if ((headerCount < 0)
+                || (headerCount > MAX_HEADER_COUNT)
+                || ((long)headerCount * MIN_HEADER_SIZE > maxLength)
+                ) {
+
+            throw new IOException("Illegal cache entry header count. [count = " + headerCount + "]");
+
+        }
+
+        final Header[]  headers      = new Header[headerCount];
+
+
+        // ヘッダ分読み込む
+        for (int i = 0; i < headers.length; i++) {
+
+            headers[i] = new BasicHeader(in.readUTF(), in.readUTF());
+
+        }
+
+        final int       bodyLength = in.readInt();
+
+        // ボディサイズが不正な場合は例外
+        if ((bodyLength < 0) || (bodyLength > maxLength)) {
+
+            throw new IOException("Illegal cache entry body length. [length = " + bodyLength + "]");
+
+        }
+
+        final byte[]    bodyData = new byte[bodyLength];
+
+        in.readFully(bodyData);
+
+        return new HttpCacheEntry(headers, statusCode, bodyData, requestTime, responseTime);
+
+    }
+
+
+    /**
+     * 日付ヘッダの値を取得する。
+     *
+     * @param name          ヘッダ名
+     * @param defaultValue  ヘッダがない、または不正な場合の値
+     * @return 日付 (ms)
+     */
+    private long getDateHeader(
+            final String    name,
+            final long      defaultValue
+            ) {
+
+        final Header    header = findHeader(entryHeaders, name);
+
+        // ヘッダがない場合
+        if (header == null) {
+
+            return defaultValue;
+
+        }
+
+        try {
+
+            return DateUtils.parseDate(header.getValue()).getTime();
+
+        } catch (final DateParseException e) {
+
+            // 不正な日付
+            return defaultValue;
+
+        }
+
+    }
+
+
+    /**
+     * ヘッダ一覧から指定名のヘッダを検索する。<br>
+     * <br>
+     * ヘッダ名は大文字・小文字を区別せずに比較する。<br>
+     *
+     * @param headers   ヘッダ一覧
+     * @param name      ヘッダ名
+     * @return 最初に見つかったヘッダ。ない場合は null
+     */
+    static Header findHeader(
+            final Header[]  headers,
+            final String    name
+            ) {
+
+        // ヘッダがない場合
+        if (headers == null) {
+
+            return null;
+
+        }
+
+        // ヘッダ分処理をする
+        for (final Header header : headers) {
+
+            // ヘッダ名が一致する場合
+            if (name.equalsIgnoreCase(header.getName())) {
+
+                return header;
+
+            }
+
+        }
+
+        return null;
+
+    }
+
+
+    /**
+     * リクエストヘッダがキャッシュの再検証を要求しているかどうかを取得する。<br>
+     * <br>
+     * Cache-Control の no-cache・max-age=0、または Pragma: no-cache の場合に再検証を要求しているものとする。<br>
+     *
+     * @param requestHeaders    リクエストヘッダ一覧
+     * @return 再検証を要求している場合は true
+     */
+    static boolean requiresRevalidation(
+            final Header[]  requestHeaders
+            ) {
+
+        // no-cache または max-age=0 の場合
+        if (hasDirective(requestHeaders, DIRECTIVE_NO_CACHE)
+                || (getDirectiveSeconds(requestHeaders, DIRECTIVE_MAX_AGE) == 0)) {
+
+            return true;
+
+        }
+
+        final Header    pragma = findHeader(requestHeaders, HEADER_PRAGMA);
+
+        // Pragma: no-cache の場合
+        return (pragma != null) && DIRECTIVE_NO_CACHE.equalsIgnoreCase(pragma.getValue().trim());
+
+    }
+
+
+    /**
+     * 指定したキャッシュ制御指定があるかどうかを取得する。
+     *
+     * @param headers   ヘッダ一覧
+     * @param name      キャッシュ制御指定名
+     * @return 指定がある場合は true
+     */
+    static boolean hasDirective(
+            final Header[]  headers,
+            final String    name
+            ) {
+
+        return findDirective(headers, name) != null;
+
+    }
+
+
+    /**
+     * 指定したキャッシュ制御指定の秒数を取得する。
+     *
+     * @param headers   ヘッダ一覧
+     * @param name      キャッシュ制御指定名
+     * @return 秒数。指定がない、または不正な場合は -1
+     */
+    private static long getDirectiveSeconds(
+            final Header[]  headers,
+            final String    name
+            ) {
+
+        final HeaderElement element = findDirective(headers, name);
+
+        // 指定がない場合
+        if ((element == null) || (element.getValue() == null)) {
+
+            return -1;
+
+        }
+
+        try {
+
+            return Long.parseLong(element.getValue().trim());
+
+        } catch (final NumberFormatException e) {
+
+            return -1;
+
+        }
+
+    }
+
+
+    /**
+     * 指定したキャッシュ制御指定を検索する。
+     *
+     * @param headers   ヘッダ一覧
+     * @param name      キャッシュ制御指定名
+     * @return キャッシュ制御指定。ない場合は null
+     */
+    private static HeaderElement findDirective(
+            final Header[]  headers,
+            final String    name
+            ) {
+
+        // ヘッダがない場合
+        if (headers == null) {
+
+            return null;
+
+        }
+
+        // ヘッダ分処理をする
+        for (final Header header : headers) {
+
+            // キャッシュ制御ヘッダ以外は次へ
+            if (!HEADER_CACHE_CONTROL.equalsIgnoreCase(header.getName())) {
+
+                continue;
+
+            }
+
+            // 指定分処理をする
+            for (final HeaderElement element : header.getElements()) {
+
+                // 名前が一致する場合
+                if (name.equalsIgnoreCase(element.getName())) {
+
+                    return element;
+
+                }
+
+            }
+
+        }
+
+        return null;
+
+    }
+
+
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.http.HttpStatus;
+
+
+/**
+ * 接続先ホストごとの通信遮断クラス。<br>
+ * <br>
+ * 接続先ホストへの通信が連続して失敗した場合、一定時間そのホストへの通信を行わずに<br>
+ * {@link HttpCircuitOpenException} で即座に失敗させる。<br>
+ * 一定時間経過後は 1 つの通信のみ試行し、成功した場合は遮断を解除、失敗した場合は再度遮断する。<br>
+ * <br>
+ * 接続エラー・タイムアウトなどの入出力エラー、および 502 / 503 / 504 のステータスコードを失敗とする。<br>
+ *
+ * @author Kou
+ *
+ */
+public final class HttpCircuitBreaker {
+
+
+    /**
+     * デフォルト遮断するまでの連続失敗回数
+     */
+    public static final int                 DEFAULT_FAILURE_THRESHOLD   = 5;
+
+    /**
+     * デフォルト遮断時間 (ms)
+     */
+    public static final long                DEFAULT_OPEN_DURATION       = 30000L;
+
+    /**
+     * 遮断するまでの連続失敗回数
+     */
+    private final int                       breakerFailureThreshold;
+
+    /**
+     * 遮断時間 (ms)
+     */
+    private final long                      breakerOpenDuration;
+
+    /**
+     * 接続先ホストごとの状態一覧<br>
+     * <br>
+     * <table border="1">
+     * <tr>
+     *   <td>項目</td><td>型</td><td>内容</td>
+     * </tr>
+     * <tr>
+     *   <td>キー</td><td>String</td><td>接続先ホスト名 (小文字)</td>
+     * </tr>
+     * <tr>
+     *   <td>値</td><td>HostState</td><td>接続先ホストの状態</td>
+     * </tr>
+     * </table>
+     */
+    private final Map<String, HostState>    breakerStates = new HashMap<String, HostState>();
+
+
+
+    /**
+     * デフォルト設定で通信遮断を初期化する。
+     *
+     */
+    public HttpCircuitBreaker() {
+
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION);
+
+    }
+
+
+    /**
+     * 連続失敗回数と遮断時間を指定して通信遮断を初期化する。
+     *
+     * @param failureThreshold  遮断するまでの連続失敗回数
+     * @param openDuration      遮断時間 (ms)
+     * @throws IllegalArgumentException 連続失敗回数または遮断時間が 0 以下の場合
+     */
+    public HttpCircuitBreaker(
+            final int   failureThreshold,
+            final long  openDuration
+            ) {
+
+        // 連続失敗回数または遮断時間が 0 以下の場合は例外
+        if ((failureThreshold <= 0) || (openDuration <= 0)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        breakerFailureThreshold = failureThreshold;
+        breakerOpenDuration     = openDuration;
+
+    }
+
+
+    /**
+     * 接続先ホストへの通信を遮断中かどうかを取得する。
+     *
+     * @param host  接続先ホスト名
+     * @return 遮断中の場合は true
+     */
+    public synchronized boolean isOpen(
+            final String    host
+            ) {
+
+        final HostState     state = breakerStates.get(toKey(host));
+
+        return (state != null) && state.isOpen(System.currentTimeMillis(), breakerOpenDuration);
+
+    }
+
+
+    /**
+     * 全接続先ホストの遮断を解除する。
+     *
+     */
+    public synchronized void reset() {
+
+        breakerStates.clear();
+
+    }
+
+
+    /**
+     * 接続先ホストへ通信してよいかどうかを取得する。<br>
+     * <br>
+     * 遮断時間経過後は最初の 1 回のみ通信を許可し、結果が記録されるまで他の通信は許可しない。<br>
+     *
+     * @param host  接続先ホスト名
+     * @return 通信してよい場合は true
+     */
+    synchronized boolean allowRequest(
+            final String    host
+            ) {
+
+        final HostState     state = breakerStates.get(toKey(host));
+        final long          now   = System.currentTimeMillis();
+
+
+        // 遮断していない場合
+        if ((state == null) || (state.stateOpenedTime == 0)) {
+
+            return true;
+
+        }
+
+        // 遮断中、または試行中の通信がある場合
+        if (state.isOpen(now, breakerOpenDuration) || state.stateProbing) {
+
+            return false;
+
+        }
+
+        // 試行中にする
+        state.stateProbing = true;
+
+        return true;
+
+    }
+
+
+    /**
+     * 通信結果を記録する。
+     *
+     * @param host          接続先ホスト名
+     * @param statusCode    ステータスコード
+     * @param failureCause  通信失敗の原因。失敗していない場合は null
+     */
+    synchronized void record(
+            final String    host,
+            final int       statusCode,
+            final Throwable failureCause
+            ) {
+
+        final String    key = toKey(host);
+
+
+        // 成功した場合
+        if (!isFailure(statusCode, failureCause)) {
+
+            // 遮断を解除する
+            breakerStates.remove(key);
+            return;
+
+        }
+
+        HostState       state = breakerStates.get(key);
+
+        // 状態がない場合
+        if (state == null) {
+
+            // 状態を作成する
+            state = new HostState();
+            breakerStates.put(key, state);
+
+        }
+
+        // 連続失敗回数を加算する
+        state.stateFailures++;
+
+        // 試行中の通信が失敗した、または連続失敗回数に達した場合
+        if (state.stateProbing || (state.stateFailures >= breakerFailureThreshold)) {
+
+            // 遮断する
+            state.stateOpenedTime = System.currentTimeMillis();
+            state.stateProbing    = false;
+
+        }
+
+    }
+
+
+    /**
+     * 取り消された通信を記録する。<br>
+     * <br>
+     * 試行中の通信が取り消された場合は、次の通信で再度試行する。<br>
+     *
+     * @param host  接続先ホスト名
+     */
+    synchronized void recordCancelled(
+            final String    host
+            ) {
+
+        final HostState     state = breakerStates.get(toKey(host));
+
+        // 状態がある場合
+        if (state != null) {
+
+            // 試行中を解除する
+            state.stateProbing = false;
+
+        }
+
+    }
+
+
+    /**
+     * 通信失敗として扱う結果かどうかを取得する。
+     *
+     * @param statusCode    ステータスコード
+     * @param failureCause  通信失敗の原因。失敗していない場合は null
+     * @return 通信失敗の場合は true
+     */
+    private static boolean isFailure(
+            final int       statusCode,
+            final Throwable failureCause
+            ) {
+
+        // 通信失敗の原因がある場合
+        if (failureCause != null) {
+
+            return true;
+
+        }
+
+        return (statusCode == HttpStatus.SC_BAD_GATEWAY)
+                || (statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE)
+                || (statusCode == HttpStatus.SC_GATEWAY_TIMEOUT);
+
+    }
+
+
+    /**
+     * 接続先ホスト名を状態一覧のキーへ変換する。
+     *
+     * @param host  接続先ホスト名
+     * @return 状態一覧のキー
+     */
+    private static String toKey(
+            final String    host
+            ) {
+
+        return host == null ? "" : host.toLowerCase();
+
+    }
+
+
+
+
+    /**
+     * 接続先ホストの状態クラス。
+     *
+     * @author Kou
+     *
+     */
+    private static final class HostState {
+
+
+        /**
+         * 連続失敗回数
+         */
+        private int         stateFailures;
+
+        /**
+         * 遮断した時刻 (ms)。遮断していない場合は 0
+         */
+        private long        stateOpenedTime;
+
+        /**
+         * 遮断時間経過後の試行中の通信があるかどうか
+         */
+        private boolean     stateProbing;
+
+
+
+        /**
+         * 遮断中かどうかを取得する。
+         *
+         * @param now           現在時刻 (ms)
+         * @param openDuration  遮断時間 (ms)
+         * @return 遮断時間内の場合は true
+         */
+        private boolean isOpen(
+                final long  now,
+                final long  openDuration
+                ) {
+
+            return (stateOpenedTime != 0) && (now - stateOpenedTime < openDuration);
+
+        }
+
+
+    }
+
+
+}
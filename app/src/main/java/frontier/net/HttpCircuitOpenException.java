@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import java.io.IOException;
+
+
+/**
+ * 接続先ホストへの通信遮断例外クラス。<br>
+ * <br>
+ * {@link HttpCircuitBreaker} が接続先ホストを障害中と判断し、<br>
+ * 通信せずに失敗とした場合に {@link HttpResult#getFailureCause()} へ設定される。<br>
+ *
+ * @author Kou
+ *
+ */
+public class HttpCircuitOpenException extends IOException {
+
+
+    /**
+     * シリアルバージョンUID
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 接続先ホスト名
+     */
+    private final String        exceptionHost;
+
+
+
+
+    /**
+     * 接続先ホスト名を指定して例外クラスを作成する。
+     *
+     * @param host  接続先ホスト名
+     */
+    public HttpCircuitOpenException(
+            final String    host
+            ) {
+
+        super("Circuit is open. [host = " + host + "]");
+
+        exceptionHost = host;
+
+    }
+
+
+    /**
+     * 接続先ホスト名を取得する。
+     *
+     * @return 接続先ホスト名
+     */
+    public String getHost() {
+
+        return exceptionHost;
+
+    }
+
+
+}
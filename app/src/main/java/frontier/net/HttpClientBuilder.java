@@ -0,0 +1,669 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.params.HttpProtocolParams;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+
+
+/**
+ * HTTPクライアント作成クラス。<br>
+ * <br>
+ * 接続プールのサイズ、持続的接続の保持時間、待機中接続の破棄、<br>
+ * タイムアウト、HTTPS を設定したスレッドセーフなHTTPクライアントを作成する。<br>
+ * 待機中接続の破棄は全クライアントで共有する 1 つのスレッドで定期的に行う。<br>
+ *
+ * @author Kou
+ *
+ */
+public final class HttpClientBuilder {
+
+
+    /**
+     * スキーマ名 : HTTPS
+     */
+    private static final String                     SCHEME_HTTPS                    = "https";
+
+    /**
+     * ヘッダ : 持続的接続パラメータ
+     */
+    private static final String                     HEADER_KEEP_ALIVE               = "Keep-Alive";
+
+    /**
+     * 持続的接続パラメータ : 保持時間 (秒)
+     */
+    private static final String                     KEEP_ALIVE_TIMEOUT              = "timeout";
+
+    /**
+     * デフォルト最大接続数
+     */
+    private static final int                        DEFAULT_MAX_TOTAL_CONNECTIONS   = 20;
+
+    /**
+     * デフォルト接続先ごとの最大接続数
+     */
+    private static final int                        DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 6;
+
+    /**
+     * デフォルト接続タイムアウト (ms)
+     */
+    private static final int                        DEFAULT_CONNECTION_TIMEOUT      = 15000;
+
+    /**
+     * デフォルト読み込みタイムアウト (ms)
+     */
+    private static final int                        DEFAULT_SOCKET_TIMEOUT          = 30000;
+
+    /**
+     * デフォルト接続プール待機タイムアウト (ms)
+     */
+    private static final long                       DEFAULT_POOL_TIMEOUT            = 10000L;
+
+    /**
+     * デフォルト持続的接続の保持時間 (ms)
+     */
+    private static final long                       DEFAULT_KEEP_ALIVE_DURATION     = 30000L;
+
+    /**
+     * デフォルト待機中接続を破棄するまでの時間 (ms)
+     */
+    private static final long                       DEFAULT_IDLE_TIMEOUT            = 60000L;
+
+    /**
+     * デフォルトソケットバッファサイズ
+     */
+    private static final int                        DEFAULT_SOCKET_BUFFER_SIZE      = 8192;
+
+    /**
+     * 待機中接続の破棄処理の実行間隔 (ms)
+     */
+    private static final long                       REAPER_INTERVAL                 = 30000L;
+
+    /**
+     * 1 秒のミリ秒数
+     */
+    private static final long                       SECOND_MILLIS                   = 1000L;
+
+    /**
+     * 待機中接続の破棄処理スレッド
+     */
+    private static ScheduledExecutorService         reaperExecutor;
+
+    /**
+     * 最大接続数
+     */
+    private int                                     builderMaxTotalConnections      = DEFAULT_MAX_TOTAL_CONNECTIONS;
+
+    /**
+     * 接続先ごとの最大接続数
+     */
+    private int                                     builderMaxConnectionsPerRoute   = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+
+    /**
+     * 接続タイムアウト (ms)
+     */
+    private int                                     builderConnectionTimeout        = DEFAULT_CONNECTION_TIMEOUT;
+
+    /**
+     * 読み込みタイムアウト (ms)
+     */
+    private int                                     builderSocketTimeout            = DEFAULT_SOCKET_TIMEOUT;
+
+    /**
+     * 接続プール待機タイムアウト (ms)
+     */
+    private long                                    builderPoolTimeout              = DEFAULT_POOL_TIMEOUT;
+
+    /**
+     * 持続的接続の保持時間 (ms)
+     */
+    private long                                    builderKeepAliveDuration        = DEFAULT_KEEP_ALIVE_DURATION;
+
+    /**
+     * 待機中接続を破棄するまでの時間 (ms)
+     */
+    private long                                    builderIdleTimeout              = DEFAULT_IDLE_TIMEOUT;
+
+    /**
+     * ソケットバッファサイズ
+     */
+    private int                                     builderSocketBufferSize         = DEFAULT_SOCKET_BUFFER_SIZE;
+
+    /**
+     * ユーザエージェント
+     */
+    private String                                  builderUserAgent;
+
+    /**
+     * HTTPS 接続用ソケットファクトリ
+     */
+    private SSLSocketFactory                        builderSSLSocketFactory         = SSLSocketFactory.getSocketFactory();
+
+
+
+    /**
+     * 最大接続数を設定する。
+     *
+     * @param maxConnections    最大接続数
+     * @return このインスタンス
+     * @throws IllegalArgumentException 最大接続数が 0 以下の場合
+     */
+    public HttpClientBuilder setMaxTotalConnections(
+            final int   maxConnections
+            ) {
+
+        // 最大接続数が不正の場合は例外
+        if (maxConnections <= 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        builderMaxTotalConnections = maxConnections;
+
+        return this;
+
+    }
+
+
+    /**
+     * 接続先ごとの最大接続数を設定する。
+     *
+     * @param maxConnections    接続先ごとの最大接続数
+     * @return このインスタンス
+     * @throws IllegalArgumentException 最大接続数が 0 以下の場合
+     */
+    public HttpClientBuilder setMaxConnectionsPerRoute(
+            final int   maxConnections
+            ) {
+
+        // 最大接続数が不正の場合は例外
+        if (maxConnections <= 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        builderMaxConnectionsPerRoute = maxConnections;
+
+        return this;
+
+    }
+
+
+    /**
+     * 接続タイムアウトを設定する。
+     *
+     * @param timeout   接続タイムアウト (ms)。0 の場合は無制限
+     * @return このインスタンス
+     * @throws IllegalArgumentException タイムアウトが負の値の場合
+     */
+    public HttpClientBuilder setConnectionTimeout(
+            final int   timeout
+            ) {
+
+        // タイムアウトが不正の場合は例外
+        if (timeout < 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        builderConnectionTimeout = timeout;
+
+        return this;
+
+    }
+
+
+    /**
+     * 読み込みタイムアウトを設定する。
+     *
+     * @param timeout   読み込みタイムアウト (ms)。0 の場合は無制限
+     * @return このインスタンス
+     * @throws IllegalArgumentException タイムアウトが負の値の場合
+     */
+    public HttpClientBuilder setSocketTimeout(
+            final int   timeout
+            ) {
+
+        // タイムアウトが不正の場合は例外
+        if (timeout < 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        builderSocketTimeout = timeout;
+
+        return this;
+
+    }
+
+
+    /**
+     * 接続プールから接続を取得するまでの待機タイムアウトを設定する。
+     *
+     * @param timeout   待機タイムアウト (ms)。0 の場合は無制限
+     * @return このインスタンス
+     * @throws IllegalArgumentException タイムアウトが負の値の場合
+     */
+    public HttpClientBuilder setPoolTimeout(
+            final long  timeout
+            ) {
+
+        // タイムアウトが不正の場合は例外
+        if (timeout < 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        builderPoolTimeout = timeout;
+
+        return this;
+
+    }
+
+
+    /**
+     * 持続的接続の保持時間を設定する。<br>
+     * <br>
+     * サーバが Keep-Alive ヘッダで保持時間を指定した場合はそちらを優先する。<br>
+     *
+     * @param duration  保持時間 (ms)。0 以下の場合は無制限
+     * @return このインスタンス
+     */
+    public HttpClientBuilder setKeepAliveDuration(
+            final long  duration
+            ) {
+
+        builderKeepAliveDuration = duration;
+
+        return this;
+
+    }
+
+
+    /**
+     * 待機中の接続を破棄するまでの時間を設定する。
+     *
+     * @param timeout   破棄するまでの時間 (ms)。0 以下の場合は待機時間による破棄を行わない
+     * @return このインスタンス
+     */
+    public HttpClientBuilder setIdleConnectionTimeout(
+            final long  timeout
+            ) {
+
+        builderIdleTimeout = timeout;
+
+        return this;
+
+    }
+
+
+    /**
+     * ソケットバッファサイズを設定する。
+     *
+     * @param size  ソケットバッファサイズ
+     * @return このインスタンス
+     * @throws IllegalArgumentException サイズが 0 以下の場合
+     */
+    public HttpClientBuilder setSocketBufferSize(
+            final int   size
+            ) {
+
+        // サイズが不正の場合は例外
+        if (size <= 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        builderSocketBufferSize = size;
+
+        return this;
+
+    }
+
+
+    /**
+     * ユーザエージェントを設定する。
+     *
+     * @param userAgent ユーザエージェント。デフォルトを利用する場合は null
+     * @return このインスタンス
+     */
+    public HttpClientBuilder setUserAgent(
+            final String    userAgent
+            ) {
+
+        builderUserAgent = userAgent;
+
+        return this;
+
+    }
+
+
+    /**
+     * HTTPS 接続用ソケットファクトリを設定する。
+     *
+     * @param factory   HTTPS 接続用ソケットファクトリ。HTTPS を利用しない場合は null
+     * @return このインスタンス
+     */
+    public HttpClientBuilder setSSLSocketFactory(
+            final SSLSocketFactory  factory
+            ) {
+
+        builderSSLSocketFactory = factory;
+
+        return this;
+
+    }
+
+
+    /**
+     * 設定内容でHTTPクライアントを作成する。
+     *
+     * @return 作成したHTTPクライアント
+     */
+    public HttpClient build() {
+
+        final SchemeRegistry    registry = new SchemeRegistry();
+        final HttpParams        params   = new BasicHttpParams();
+
+
+        // HTTP スキーマを設定する
+        registry.register(
+                new Scheme(
+                        HttpHost.DEFAULT_SCHEME_NAME,
+                        PlainSocketFactory.getSocketFactory(),
+                        HttpMethod.PORT_HTTP
+                        )
+                );
+
+        // HTTPS 接続用ソケットファクトリがある場合
+        if (builderSSLSocketFactory != null) {
+
+            // HTTPS スキーマを設定する
+            registry.register(
+                    new Scheme(
+                            SCHEME_HTTPS,
+                            builderSSLSocketFactory,
+                            HttpMethod.PORT_HTTPS
+                            )
+                    );
+
+        }
+
+        // プロトコル情報を設定する
+        HttpProtocolParams.setVersion(params, HttpVersion.HTTP_1_1);    // バージョン
+        HttpProtocolParams.setContentCharset(params, HTTP.UTF_8);       // 文字コード
+
+        // ユーザエージェントがある場合
+        if (builderUserAgent != null) {
+
+            HttpProtocolParams.setUserAgent(params, builderUserAgent);
+
+        }
+
+        // 接続情報を設定する
+        HttpConnectionParams.setConnectionTimeout(params, builderConnectionTimeout);
+        HttpConnectionParams.setSoTimeout(params, builderSocketTimeout);
+        HttpConnectionParams.setSocketBufferSize(params, builderSocketBufferSize);
+        HttpConnectionParams.setTcpNoDelay(params, true);
+
+        // 接続プール情報を設定する
+        ConnManagerParams.setMaxTotalConnections(params, builderMaxTotalConnections);
+        ConnManagerParams.setMaxConnectionsPerRoute(params, new ConnPerRouteBean(builderMaxConnectionsPerRoute));
+        ConnManagerParams.setTimeout(params, builderPoolTimeout);
+
+
+        final ClientConnectionManager   manager = new ThreadSafeClientConnManager(params, registry);
+        final DefaultHttpClient         client  = new DefaultHttpClient(manager, params);
+        final long                      keepAlive = builderKeepAliveDuration;
+
+
+        // 持続的接続の保持時間を設定する
+        client.setKeepAliveStrategy(new ConnectionKeepAliveStrategy() {
+
+            /**
+             * {@inheritDoc}
+             */
+            public long getKeepAliveDuration(
+                    final HttpResponse  response,
+                    final HttpContext   context
+                    ) {
+
+                final HeaderElementIterator i = new BasicHeaderElementIterator(
+                        response.headerIterator(HEADER_KEEP_ALIVE)
+                        );
+
+                // Keep-Alive ヘッダのパラメータ分処理をする
+                while (i.hasNext()) {
+
+                    final HeaderElement element = i.nextElement();
+
+                    // 保持時間が指定されている場合
+                    if (KEEP_ALIVE_TIMEOUT.equalsIgnoreCase(element.getName()) && (element.getValue() != null)) {
+
+                        try {
+
+                            // サーバの指定を優先する
+                            return Long.parseLong(element.getValue().trim()) * SECOND_MILLIS;
+
+                        } catch (final NumberFormatException e) {
+
+                            // 不正な値は無視する
+                            break;
+
+                        }
+
+                    }
+
+                }
+
+                // 設定された保持時間を返す
+                return keepAlive;
+
+            }
+
+        });
+
+        // 待機中接続を破棄する
+        startReaper(manager, builderIdleTimeout);
+
+        return client;
+
+    }
+
+
+    /**
+     * 接続マネージャの期限切れ・待機中接続の定期的な破棄を開始する。
+     *
+     * @param manager       接続マネージャ
+     * @param idleTimeout   待機中接続を破棄するまでの時間 (ms)。0 以下の場合は期限切れのみ破棄する
+     */
+    private static synchronized void startReaper(
+            final ClientConnectionManager   manager,
+            final long                      idleTimeout
+            ) {
+
+        // 破棄処理スレッドを作成していない場合
+        if (reaperExecutor == null) {
+
+            // デーモンスレッドで作成する
+            reaperExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public Thread newThread(
+                        final Runnable  runnable
+                        ) {
+
+                    final Thread    thread = new Thread(runnable, HttpClientBuilder.class.getSimpleName() + "-Reaper");
+
+                    thread.setDaemon(true);
+
+                    return thread;
+
+                }
+
+            });
+
+        }
+
+        final IdleConnectionReaper  reaper = new IdleConnectionReaper(manager, idleTimeout);
+
+        // 定期的に実行する
+        reaper.setFuture(
+                reaperExecutor.scheduleWithFixedDelay(reaper, REAPER_INTERVAL, REAPER_INTERVAL, TimeUnit.MILLISECONDS)
+                );
+
+    }
+
+
+
+
+    /**
+     * 待機中接続破棄処理クラス。<br>
+     * <br>
+     * 接続マネージャは弱参照で保持し、破棄された場合は定期実行を終了する。<br>
+     *
+     * @author Kou
+     *
+     */
+    private static final class IdleConnectionReaper implements Runnable {
+
+
+        /**
+         * 接続マネージャ
+         */
+        private final WeakReference<ClientConnectionManager>    reaperManager;
+
+        /**
+         * 待機中接続を破棄するまでの時間 (ms)
+         */
+        private final long                                      reaperIdleTimeout;
+
+        /**
+         * 定期実行の結果
+         */
+        private volatile ScheduledFuture<?>                     reaperFuture;
+
+
+
+        /**
+         * 破棄処理を初期化する。
+         *
+         * @param manager       接続マネージャ
+         * @param idleTimeout   待機中接続を破棄するまでの時間 (ms)
+         */
+        IdleConnectionReaper(
+                final ClientConnectionManager   manager,
+                final long                      idleTimeout
+                ) {
+
+            reaperManager     = new WeakReference<ClientConnectionManager>(manager);
+            reaperIdleTimeout = idleTimeout;
+
+        }
+
+
+        /**
+         * 定期実行の結果を設定する。
+         *
+         * @param future    定期実行の結果
+         */
+        void setFuture(
+                final ScheduledFuture<?>    future
+                ) {
+
+            reaperFuture = future;
+
+        }
+
+
+        /**
+         * 期限切れ・待機中の接続を破棄する。
+         *
+         */
+        public void run() {
+
+            final ClientConnectionManager   manager = reaperManager.get();
+
+            // 接続マネージャが破棄された場合
+            if (manager == null) {
+
+                final ScheduledFuture<?>    future = reaperFuture;
+
+                // 定期実行を終了する
+                if (future != null) {
+
+                    future.cancel(false);
+
+                }
+
+                return;
+
+            }
+
+            // 期限切れの接続を破棄する
+            manager.closeExpiredConnections();
+
+            // 待機時間による破棄を行う場合
+            if (reaperIdleTimeout > 0) {
+
+                // 待機中の接続を破棄する
+                manager.closeIdleConnections(reaperIdleTimeout, TimeUnit.MILLISECONDS);
+
+            }
+
+        }
+
+
+    }
+
+
+}
@@ -0,0 +1,510 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.CloneUtils;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+
+
+/**
+ * HTTP通信の圧縮処理クラス。<br>
+ * <br>
+ * レスポンスは Accept-Encoding で gzip / deflate を要求し、<br>
+ * 圧縮されたレスポンスボディを読み込み時に逐次展開する。<br>
+ * リクエストエンティティは指定サイズ以上の場合に送信時に逐次 gzip 圧縮する。<br>
+ *
+ * @author Kou
+ *
+ */
+final class HttpCompression {
+
+
+    /**
+     * ヘッダ : 受け入れ可能なエンコーディング
+     */
+    static final String             HEADER_ACCEPT_ENCODING  = "Accept-Encoding";
+
+    /**
+     * エンコーディング : gzip
+     */
+    static final String             ENCODING_GZIP           = "gzip";
+
+    /**
+     * エンコーディング : deflate
+     */
+    static final String             ENCODING_DEFLATE        = "deflate";
+
+    /**
+     * 要求する Accept-Encoding ヘッダ値
+     */
+    private static final String     ACCEPT_ENCODING_VALUE   = ENCODING_GZIP + ", " + ENCODING_DEFLATE;
+
+    /**
+     * zlib 形式の圧縮方式 (deflate)
+     */
+    private static final int        ZLIB_METHOD_DEFLATE     = 8;
+
+    /**
+     * zlib ヘッダの検査値
+     */
+    private static final int        ZLIB_HEADER_CHECK       = 31;
+
+
+
+    /**
+     * インスタンス生成防止。
+     *
+     */
+    private HttpCompression() {
+
+        // 処理なし
+
+    }
+
+
+    /**
+     * 圧縮したレスポンスを要求する。<br>
+     * <br>
+     * 呼び出し元が Accept-Encoding を指定している場合は何もしない。<br>
+     *
+     * @param method    通信メソッド
+     * @return Accept-Encoding を付加した場合は true
+     */
+    static boolean acceptEncoding(
+            final HttpRequestBase   method
+            ) {
+
+        // 呼び出し元が指定している場合
+        if (method.containsHeader(HEADER_ACCEPT_ENCODING)) {
+
+            // 展開は呼び出し元に任せる
+            return false;
+
+        }
+
+        // 圧縮を要求する
+        method.setHeader(HEADER_ACCEPT_ENCODING, ACCEPT_ENCODING_VALUE);
+
+        return true;
+
+    }
+
+
+    /**
+     * 圧縮されたレスポンスボディを展開するように設定する。<br>
+     * <br>
+     * 展開後のサイズは不明のため、Content-Encoding と Content-Length ヘッダは取り除く。<br>
+     *
+     * @param response  レスポンス
+     */
+    static void decode(
+            final HttpResponse  response
+            ) {
+
+        final HttpEntity    entity = response.getEntity();
+
+        // エンティティがない場合
+        if (entity == null) {
+
+            return;
+
+        }
+
+        final Header        encodingHeader = entity.getContentEncoding() == null
+                                             ? response.getFirstHeader(HttpMethod.HEADER_CONTENT_ENCODING)
+                                             : entity.getContentEncoding();
+
+        // 圧縮されていない場合
+        if (encodingHeader == null) {
+
+            return;
+
+        }
+
+        final String        encoding = encodingHeader.getValue().trim();
+
+
+        // gzip または deflate の場合
+        if (ENCODING_GZIP.equalsIgnoreCase(encoding) || ENCODING_DEFLATE.equalsIgnoreCase(encoding)) {
+
+            // 展開するエンティティへ置き換える
+            response.setEntity(new DecompressingEntity(entity, ENCODING_GZIP.equalsIgnoreCase(encoding)));
+            response.removeHeaders(HttpMethod.HEADER_CONTENT_ENCODING);
+            response.removeHeaders(HttpMethod.HEADER_CONTENT_LENGTH);
+
+        }
+
+    }
+
+
+    /**
+     * 指定サイズ以上のリクエストエンティティを gzip 圧縮するエンティティへ変換する。
+     *
+     * @param entity        リクエストエンティティ
+     * @param minLength     圧縮する最小サイズ (バイト)。圧縮しない場合は負の値
+     * @return 圧縮する場合は圧縮するエンティティ。それ以外の場合は指定エンティティ
+     */
+    static HttpEntity compress(
+            final HttpEntity    entity,
+            final long          minLength
+            ) {
+
+        // 圧縮しない、サイズが不明または小さい、既に圧縮されている場合
+        if ((entity == null)
+                || (minLength < 0)
+                || (entity.getContentLength() < minLength)
+                || (entity.getContentEncoding() != null)
+                ) {
+
+            // そのまま返す
+            return entity;
+
+        }
+
+        return new GzipCompressingEntity(entity);
+
+    }
+
+
+
+
+    /**
+     * 読み込み時に展開するレスポンスエンティティクラス。
+     *
+     * @author Kou
+     *
+     */
+    private static final class DecompressingEntity extends HttpEntityWrapper {
+
+
+        /**
+         * gzip 形式かどうか
+         */
+        private final boolean   entityGzip;
+
+
+
+        /**
+         * エンティティを初期化する。
+         *
+         * @param entity    圧縮されたエンティティ
+         * @param gzip      gzip 形式の場合は true。deflate 形式の場合は false
+         */
+        DecompressingEntity(
+                final HttpEntity    entity,
+                final boolean       gzip
+                ) {
+
+            super(entity);
+
+            entityGzip = gzip;
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public InputStream getContent() throws IOException {
+
+            final InputStream   in = wrappedEntity.getContent();
+
+            // 内容がない場合
+            if (in == null) {
+
+                return null;
+
+            }
+
+            final BufferedInputStream   bufferedIn = new BufferedInputStream(in);
+
+            // 先頭 2 バイトを読み込んで戻す
+            bufferedIn.mark(2);
+
+            final int   first  = bufferedIn.read();
+            final int   second = bufferedIn.read();
+
+            bufferedIn.reset();
+
+            // 内容が空の場合は展開せずに返す (空の本文を展開すると EOFException となるため)
+            if (first < 0) {
+
+                return bufferedIn;
+
+            }
+
+            // gzip 形式の場合
+            if (entityGzip) {
+
+                return new GZIPInputStream(bufferedIn);
+
+            }
+
+            // zlib ヘッダがない場合は生の deflate 形式として展開する
+            final boolean   zlib = (first >= 0)
+                                   && (second >= 0)
+                                   && ((first & 0x0F) == ZLIB_METHOD_DEFLATE)
+                                   && ((((first << 8) | second) % ZLIB_HEADER_CHECK) == 0);
+
+            return new EndingInflaterInputStream(bufferedIn, new Inflater(!zlib));
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Header getContentEncoding() {
+
+            // 展開済みのため null
+            return null;
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getContentLength() {
+
+            // 展開後のサイズは不明
+            return -1;
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void writeTo(
+                final OutputStream  out
+                ) throws IOException {
+
+            final InputStream   in     = getContent();
+            final byte[]        buffer = new byte[8192];
+
+
+            try {
+
+                int     readSize;
+
+                // 展開しながら書き込む
+                while ((readSize = in.read(buffer)) >= 0) {
+
+                    out.write(buffer, 0, readSize);
+
+                }
+
+            } finally {
+
+                in.close();
+
+            }
+
+        }
+
+
+    }
+
+
+
+
+    /**
+     * 閉じる時に展開処理も終了する deflate 形式展開ストリームクラス。<br>
+     * <br>
+     * 呼び出し元が指定した {@link Inflater} は {@link InflaterInputStream#close()} で終了されず、<br>
+     * ネイティブメモリがファイナライズまで解放されないため、閉じる時に終了する。<br>
+     *
+     * @author Kou
+     *
+     */
+    private static final class EndingInflaterInputStream extends InflaterInputStream {
+
+
+        /**
+         * 展開ストリームを初期化する。
+         *
+         * @param in        圧縮された入力ストリーム
+         * @param inflater  展開処理
+         */
+        EndingInflaterInputStream(
+                final InputStream   in,
+                final Inflater      inflater
+                ) {
+
+            super(in, inflater);
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+
+            try {
+
+                // 入力ストリームを閉じる
+                super.close();
+
+            } finally {
+
+                // 展開処理を終了してネイティブメモリを解放する
+                inf.end();
+
+            }
+
+        }
+
+
+    }
+
+
+
+
+    /**
+     * 送信時に gzip 圧縮するリクエストエンティティクラス。<br>
+     * <br>
+     * 再送時に通信メソッドを複製できるように、圧縮前のエンティティを複製して包み直す。<br>
+     * 複製はリフレクション経由で呼び出されるため、クラスは public とする。<br>
+     *
+     * @author Kou
+     *
+     */
+    public static final class GzipCompressingEntity extends HttpEntityWrapper implements Cloneable {
+
+
+        /**
+         * エンティティを初期化する。
+         *
+         * @param entity    圧縮するエンティティ
+         */
+        GzipCompressingEntity(
+                final HttpEntity    entity
+                ) {
+
+            super(entity);
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Header getContentEncoding() {
+
+            return new BasicHeader(HttpMethod.HEADER_CONTENT_ENCODING, ENCODING_GZIP);
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getContentLength() {
+
+            // 圧縮後のサイズは不明
+            return -1;
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isChunked() {
+
+            // サイズが不明のため分割して送信する
+            return true;
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public InputStream getContent() throws IOException {
+
+            final ByteArrayOutputStream     out = new ByteArrayOutputStream();
+
+            // 圧縮した内容を返す
+            writeTo(out);
+
+            return new ByteArrayInputStream(out.toByteArray());
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void writeTo(
+                final OutputStream  out
+                ) throws IOException {
+
+            final GZIPOutputStream  gzipOut = new GZIPOutputStream(out);
+
+            // 圧縮しながら書き込む
+            wrappedEntity.writeTo(gzipOut);
+
+            // 出力先は閉じずに圧縮を完了する
+            gzipOut.finish();
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object clone() throws CloneNotSupportedException {
+
+            // 圧縮前のエンティティを複製して包み直す
+            return new GzipCompressingEntity((HttpEntity)CloneUtils.clone(wrappedEntity));
+
+        }
+
+
+    }
+
+
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import frontier.util.ConvertUtils;
+import frontier.util.IOUtils;
+
+
+/**
+ * ディスク上のHTTPレスポンスキャッシュクラス。<br>
+ * <br>
+ * キャッシュエントリはキーのハッシュ値をファイル名として指定ディレクトリへ保存する。<br>
+ * 合計サイズが上限を超えた場合は、最も長く参照されていないファイルから削除する。<br>
+ * 参照順は初回利用時にファイルの更新時刻から復元する。<br>
+ *
+ * @author Kou
+ *
+ */
+public class HttpDiskCache implements HttpCache {
+
+
+    /**
+     * キャッシュファイルの拡張子
+     */
+    private static final String                 FILE_SUFFIX     = ".cache";
+
+    /**
+     * 書き込み中ファイルの拡張子
+     */
+    private static final String                 TEMP_SUFFIX     = ".tmp";
+
+    /**
+     * キャッシュファイル名のハッシュアルゴリズム
+     */
+    private static final String                 HASH_ALGORITHM  = "MD5";
+
+    /**
+     * キー文字列のエンコーディング
+     */
+    private static final String                 ENCODING        = "UTF-8";
+
+    /**
+     * 保存先ディレクトリ
+     */
+    private final File                          cacheDirectory;
+
+    /**
+     * 最大合計サイズ (バイト)
+     */
+    private final long                          cacheMaxSize;
+
+    /**
+     * キャッシュファイルサイズ一覧 (参照順)<br>
+     * <br>
+     * <table border="1">
+     * <tr>
+     *   <td>項目</td><td>型</td><td>内容</td>
+     * </tr>
+     * <tr>
+     *   <td>キー</td><td>String</td><td>キャッシュファイル名</td>
+     * </tr>
+     * <tr>
+     *   <td>値</td><td>Long</td><td>ファイルサイズ</td>
+     * </tr>
+     * </table>
+     */
+    private Map<String, Long>                   cacheFiles;
+
+    /**
+     * 合計サイズ (バイト)
+     */
+    private long                                cacheSize;
+
+
+
+    /**
+     * 保存先ディレクトリと最大合計サイズを指定してキャッシュを初期化する。
+     *
+     * @param directory 保存先ディレクトリ
+     * @param maxSize   最大合計サイズ (バイト)
+     * @throws IllegalArgumentException 保存先ディレクトリが null、または最大合計サイズが 0 以下の場合
+     */
+    public HttpDiskCache(
+            final File  directory,
+            final long  maxSize
+            ) {
+
+        // 引数が不正の場合は例外
+        if ((directory == null) || (maxSize <= 0)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        cacheDirectory = directory;
+        cacheMaxSize   = maxSize;
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized HttpCacheEntry get(
+            final String    key
+            ) {
+
+        final String    fileName = toFileName(key);
+        final File      file     = new File(cacheDirectory, fileName);
+
+
+        // 一覧にない場合
+        if (getFiles().get(fileName) == null) {
+
+            return null;
+
+        }
+
+        DataInputStream     in = null;  // 読み込み元
+
+        try {
+
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+            // ハッシュ値が衝突した別のキーの場合
+            if (!key.equals(in.readUTF())) {
+
+                return null;
+
+            }
+
+            final HttpCacheEntry    retEntry = HttpCacheEntry.readFrom(in, file.length());
+
+            // 参照時刻を更新する
+            file.setLastModified(System.currentTimeMillis());
+
+            return retEntry;
+
+        } catch (final IOException e) {
+
+            e.printStackTrace();
+
+            // 読み込めない、または形式が不正なファイルは削除する
+            removeFile(fileName);
+            return null;
+
+        } finally {
+
+            IOUtils.closeQuietly(in);
+
+        }
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized void put(
+            final String            key,
+            final HttpCacheEntry    entry
+            ) {
+
+        final String    fileName = toFileName(key);
+        final File      file     = new File(cacheDirectory, fileName);
+        final File      tempFile = new File(cacheDirectory, fileName + TEMP_SUFFIX);
+
+
+        // 既存のファイルを削除する
+        removeFile(fileName);
+
+        // 最大合計サイズを超えるエントリの場合は保存しない
+        if (entry.getSize() > cacheMaxSize) {
+
+            return;
+
+        }
+
+        DataOutputStream    out = null;     // 書き込み先
+
+        try {
+
+            // 書き込み中ファイルへ書き込む
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            out.writeUTF(key);
+            entry.writeTo(out);
+            out.close();
+            out = null;
+
+            // 書き込み完了後にファイル名を変更する
+            if (!tempFile.renameTo(file)) {
+
+                tempFile.delete();
+                return;
+
+            }
+
+        } catch (final IOException e) {
+
+            e.printStackTrace();
+
+            IOUtils.closeQuietly(out);
+            tempFile.delete();
+            return;
+
+        }
+
+        // 一覧へ追加する
+        getFiles().put(fileName, file.length());
+        cacheSize += file.length();
+
+        // 最大合計サイズ以内になるまで古いファイルを削除する
+        for (final Iterator<Map.Entry<String, Long>> i = cacheFiles.entrySet().iterator();
+                (cacheSize > cacheMaxSize) && i.hasNext();) {
+
+            final Map.Entry<String, Long>   oldest = i.next();
+
+            new File(cacheDirectory, oldest.getKey()).delete();
+            cacheSize -= oldest.getValue().longValue();
+            i.remove();
+
+        }
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized void remove(
+            final String    key
+            ) {
+
+        removeFile(toFileName(key));
+
+    }
+
+
+    /**
+     * 全てのキャッシュファイルを削除する。
+     *
+     */
+    public synchronized void clear() {
+
+        // 一覧のファイル分処理をする
+        for (final String fileName : getFiles().keySet()) {
+
+            new File(cacheDirectory, fileName).delete();
+
+        }
+
+        cacheFiles.clear();
+        cacheSize = 0;
+
+    }
+
+
+    /**
+     * 合計サイズを取得する。
+     *
+     * @return 合計サイズ (バイト)
+     */
+    public synchronized long size() {
+
+        getFiles();
+
+        return cacheSize;
+
+    }
+
+
+    /**
+     * キャッシュファイルを削除する。
+     *
+     * @param fileName  キャッシュファイル名
+     */
+    private void removeFile(
+            final String    fileName
+            ) {
+
+        final Long  size = getFiles().remove(fileName);
+
+        // 一覧にあった場合
+        if (size != null) {
+
+            new File(cacheDirectory, fileName).delete();
+            cacheSize -= size.longValue();
+
+        }
+
+    }
+
+
+    /**
+     * キャッシュファイルサイズ一覧を取得する。<br>
+     * <br>
+     * 初回呼び出し時に保存先ディレクトリのファイルを更新時刻順に読み込む。<br>
+     *
+     * @return キャッシュファイルサイズ一覧 (参照順)
+     */
+    private Map<String, Long> getFiles() {
+
+        // 読み込み済みの場合
+        if (cacheFiles != null) {
+
+            return cacheFiles;
+
+        }
+
+        cacheFiles = new LinkedHashMap<String, Long>(16, 0.75f, true);
+        cacheSize  = 0;
+
+        // 保存先ディレクトリを作成する
+        cacheDirectory.mkdirs();
+
+        final File[]    files = cacheDirectory.listFiles();
+
+        // ファイルがない場合
+        if (files == null) {
+
+            return cacheFiles;
+
+        }
+
+        // 更新時刻の古い順に並べる
+        Arrays.sort(files, new Comparator<File>() {
+
+            /**
+             * {@inheritDoc}
+             */
+            public int compare(
+                    final File  lhs,
+                    final File  rhs
+                    ) {
+
+                final long  lhsTime = lhs.lastModified();
+                final long  rhsTime = rhs.lastModified();
+
+                return lhsTime < rhsTime ? -1 : (lhsTime == rhsTime ? 0 : 1);
+
+            }
+
+        });
+
+        // ファイル分処理をする
+        for (final File file : files) {
+
+            // 書き込み途中のファイルの場合
+            if (file.getName().endsWith(TEMP_SUFFIX)) {
+
+                // 削除する
+                file.delete();
+
+            // キャッシュファイルの場合
+            } else if (file.getName().endsWith(FILE_SUFFIX)) {
+
+                // 一覧へ追加する
+                cacheFiles.put(file.getName(), file.length());
+                cacheSize += file.length();
+
+            }
+
+        }
+
+        return cacheFiles;
+
+    }
+
+
+    /**
+     * キーをキャッシュファイル名へ変換する。
+     *
+     * @param key   キャッシュキー
+     * @return キャッシュファイル名
+     */
+    private static String toFileName(
+            final String    key
+            ) {
+
+        try {
+
+            // キーのハッシュ値をファイル名とする
+            return ConvertUtils.toHex(
+                    MessageDigest.getInstance(HASH_ALGORITHM).digest(key.getBytes(ENCODING))
+                    ) + FILE_SUFFIX;
+
+        } catch (final NoSuchAlgorithmException e) {
+
+            throw new IllegalStateException("Hash algorithm is not available. [algorithm = " + HASH_ALGORITHM + "]");
+
+        } catch (final UnsupportedEncodingException e) {
+
+            throw new IllegalStateException("Encoding is not available. [encoding = " + ENCODING + "]");
+
+        }
+
+    }
+
+
+}
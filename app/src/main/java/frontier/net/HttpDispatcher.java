@@ -0,0 +1,400 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * HTTP通信実行管理クラス。<br>
+ * <br>
+ * 通信要求を優先度順に保持し、同時実行数とホストごとの同時実行数の上限内で<br>
+ * 専用の通信スレッドへ割り当てる。<br>
+ * 他の非同期処理とスレッドを共有しないため、それらの処理に通信が待たされることはない。<br>
+ *
+ * @author Kou
+ *
+ */
+final class HttpDispatcher {
+
+
+    /**
+     * デフォルト最大同時実行数
+     */
+    static final int                                    DEFAULT_MAX_REQUESTS            = 5;
+
+    /**
+     * デフォルトホストごとの最大同時実行数
+     */
+    static final int                                    DEFAULT_MAX_REQUESTS_PER_HOST   = 3;
+
+    /**
+     * 待機中の通信スレッドを破棄するまでの時間 (秒)
+     */
+    private static final long                           KEEP_ALIVE_SECONDS              = 60L;
+
+    /**
+     * 実行待ち通信要求の並び順 (優先度、要求順)
+     */
+    private static final Comparator<HttpRequestHandle>  PENDING_ORDER = new Comparator<HttpRequestHandle>() {
+
+        /**
+         * {@inheritDoc}
+         */
+        public int compare(
+                final HttpRequestHandle lhs,
+                final HttpRequestHandle rhs
+                ) {
+
+            final int   priorityOrder = lhs.getPriority().compareTo(rhs.getPriority());
+
+            // 優先度が異なる場合
+            if (priorityOrder != 0) {
+
+                return priorityOrder;
+
+            }
+
+            // 要求順に並べる
+            return lhs.getSequence() < rhs.getSequence() ? -1 : (lhs.getSequence() == rhs.getSequence() ? 0 : 1);
+
+        }
+
+    };
+
+    /**
+     * 通信スレッド実行
+     */
+    private final Executor                              dispatcherExecutor;
+
+    /**
+     * 実行待ち通信要求一覧
+     */
+    private final TreeSet<HttpRequestHandle>            dispatcherPending =
+            new TreeSet<HttpRequestHandle>(PENDING_ORDER);
+
+    /**
+     * ホストごとの実行中通信数<br>
+     * <br>
+     * <table border="1">
+     * <tr>
+     *   <td>項目</td><td>型</td><td>内容</td>
+     * </tr>
+     * <tr>
+     *   <td>キー</td><td>String</td><td>ホスト名</td>
+     * </tr>
+     * <tr>
+     *   <td>値</td><td>Integer</td><td>実行中通信数</td>
+     * </tr>
+     * </table>
+     */
+    private final Map<String, Integer>                  dispatcherRunningHosts = new HashMap<String, Integer>();
+
+    /**
+     * 実行中通信数
+     */
+    private int                                         dispatcherRunningCount;
+
+    /**
+     * 次の要求順序
+     */
+    private long                                        dispatcherSequence;
+
+    /**
+     * 最大同時実行数
+     */
+    private int                                         dispatcherMaxRequests;
+
+    /**
+     * ホストごとの最大同時実行数
+     */
+    private int                                         dispatcherMaxRequestsPerHost;
+
+
+
+    /**
+     * 通信実行管理を初期化する。
+     *
+     * @param name              通信スレッド名
+     * @param maxRequests       最大同時実行数
+     * @param maxRequestsPerHost ホストごとの最大同時実行数
+     * @throws IllegalArgumentException 最大同時実行数が 0 以下の場合
+     */
+    HttpDispatcher(
+            final String    name,
+            final int       maxRequests,
+            final int       maxRequestsPerHost
+            ) {
+
+        // 最大同時実行数が不正の場合は例外
+        if ((maxRequests <= 0) || (maxRequestsPerHost <= 0)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        final AtomicInteger     threadCount = new AtomicInteger();  // 作成した通信スレッド数
+
+
+        // 同時実行数は実行管理側で制限するため、スレッド数は制限しない
+        dispatcherExecutor = new ThreadPoolExecutor(
+                0,
+                Integer.MAX_VALUE,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(),
+                new ThreadFactory() {
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public Thread newThread(
+                            final Runnable  runnable
+                            ) {
+
+                        final Thread    thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+
+                        // デーモンスレッドとして動作させる
+                        thread.setDaemon(true);
+
+                        return thread;
+
+                    }
+
+                }
+                );
+
+        dispatcherMaxRequests        = maxRequests;
+        dispatcherMaxRequestsPerHost = maxRequestsPerHost;
+
+    }
+
+
+    /**
+     * 最大同時実行数を設定する。
+     *
+     * @param maxRequests   最大同時実行数
+     * @throws IllegalArgumentException 最大同時実行数が 0 以下の場合
+     */
+    void setMaxRequests(
+            final int   maxRequests
+            ) {
+
+        // 最大同時実行数が不正の場合は例外
+        if (maxRequests <= 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        synchronized (this) {
+
+            dispatcherMaxRequests = maxRequests;
+
+        }
+
+        // 実行できるようになった要求を開始する
+        promote();
+
+    }
+
+
+    /**
+     * ホストごとの最大同時実行数を設定する。
+     *
+     * @param maxRequestsPerHost    ホストごとの最大同時実行数
+     * @throws IllegalArgumentException 最大同時実行数が 0 以下の場合
+     */
+    void setMaxRequestsPerHost(
+            final int   maxRequestsPerHost
+            ) {
+
+        // 最大同時実行数が不正の場合は例外
+        if (maxRequestsPerHost <= 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        synchronized (this) {
+
+            dispatcherMaxRequestsPerHost = maxRequestsPerHost;
+
+        }
+
+        // 実行できるようになった要求を開始する
+        promote();
+
+    }
+
+
+    /**
+     * 通信要求を受け付ける。
+     *
+     * @param handle    通信要求ハンドル
+     * @param task      実行する通信処理
+     */
+    void enqueue(
+            final HttpRequestHandle handle,
+            final Runnable          task
+            ) {
+
+        synchronized (this) {
+
+            // 要求順序を割り当てて実行待ちへ追加する
+            handle.accept(this, dispatcherSequence++, task);
+            dispatcherPending.add(handle);
+
+        }
+
+        // 実行できる要求を開始する
+        promote();
+
+    }
+
+
+    /**
+     * 実行待ちの通信要求を取り除く。
+     *
+     * @param handle    通信要求ハンドル
+     * @return 取り除いた場合は true。実行待ちでない場合は false
+     */
+    synchronized boolean remove(
+            final HttpRequestHandle handle
+            ) {
+
+        return dispatcherPending.remove(handle);
+
+    }
+
+
+    /**
+     * 同時実行数の上限内で、優先度の高い実行待ち通信要求から開始する。
+     *
+     */
+    private void promote() {
+
+        final List<HttpRequestHandle>   readyHandles = new ArrayList<HttpRequestHandle>();  // 開始する要求一覧
+
+        synchronized (this) {
+
+            // 実行待ち要求を優先度順に処理する
+            for (final Iterator<HttpRequestHandle> i = dispatcherPending.iterator();
+                    i.hasNext() && (dispatcherRunningCount < dispatcherMaxRequests);) {
+
+                final HttpRequestHandle handle       = i.next();
+                final Integer           hostRunning  = dispatcherRunningHosts.get(handle.getHost());
+                final int               runningCount = hostRunning == null ? 0 : hostRunning.intValue();
+
+
+                // ホストごとの上限に達している場合は次の要求へ
+                if (runningCount >= dispatcherMaxRequestsPerHost) {
+
+                    continue;
+
+                }
+
+                // 実行中にする
+                i.remove();
+                dispatcherRunningHosts.put(handle.getHost(), runningCount + 1);
+                dispatcherRunningCount++;
+                readyHandles.add(handle);
+
+            }
+
+        }
+
+        // 開始する要求分処理をする
+        for (final HttpRequestHandle handle : readyHandles) {
+
+            // 通信スレッドで実行する
+            dispatcherExecutor.execute(new Runnable() {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void run() {
+
+                    try {
+
+                        // 通信処理を実行する
+                        handle.run();
+
+                    } finally {
+
+                        // 実行中から取り除く
+                        finished(handle);
+
+                    }
+
+                }
+
+            });
+
+        }
+
+    }
+
+
+    /**
+     * 通信要求を実行中から取り除き、次の要求を開始する。
+     *
+     * @param handle    完了した通信要求ハンドル
+     */
+    private void finished(
+            final HttpRequestHandle handle
+            ) {
+
+        synchronized (this) {
+
+            final Integer   hostRunning = dispatcherRunningHosts.get(handle.getHost());
+
+            // ホストの実行中通信がなくなる場合
+            if ((hostRunning == null) || (hostRunning.intValue() <= 1)) {
+
+                // ホストを取り除く
+                dispatcherRunningHosts.remove(handle.getHost());
+
+            } else {
+
+                // ホストの実行中通信数を減らす
+                dispatcherRunningHosts.put(handle.getHost(), hostRunning.intValue() - 1);
+
+            }
+
+            dispatcherRunningCount--;
+
+        }
+
+        // 次の要求を開始する
+        promote();
+
+    }
+
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * メモリ上のHTTPレスポンスキャッシュクラス。<br>
+ * <br>
+ * 合計サイズが上限を超えた場合は、最も長く参照されていないエントリから破棄する。<br>
+ *
+ * @author Kou
+ *
+ */
+public class HttpMemoryCache implements HttpCache {
+
+
+    /**
+     * キャッシュエントリ一覧 (参照順)
+     */
+    private final LinkedHashMap<String, HttpCacheEntry>     cacheEntries =
+            new LinkedHashMap<String, HttpCacheEntry>(16, 0.75f, true);
+
+    /**
+     * 最大合計サイズ (バイト)
+     */
+    private final int                                       cacheMaxSize;
+
+    /**
+     * 合計サイズ (バイト)
+     */
+    private int                                             cacheSize;
+
+
+
+    /**
+     * 最大合計サイズを指定してキャッシュを初期化する。
+     *
+     * @param maxSize   最大合計サイズ (バイト)
+     * @throws IllegalArgumentException 最大合計サイズが 0 以下の場合
+     */
+    public HttpMemoryCache(
+            final int   maxSize
+            ) {
+
+        // 最大合計サイズが不正の場合は例外
+        if (maxSize <= 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        cacheMaxSize = maxSize;
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized HttpCacheEntry get(
+            final String    key
+            ) {
+
+        return cacheEntries.get(key);
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized void put(
+            final String            key,
+            final HttpCacheEntry    entry
+            ) {
+
+        // 最大合計サイズを超えるエントリの場合
+        if (entry.getSize() > cacheMaxSize) {
+
+            // 保存せずに既存のエントリを削除する
+            remove(key);
+            return;
+
+        }
+
+        final HttpCacheEntry    oldEntry = cacheEntries.put(key, entry);
+
+        // 既存のエントリがあった場合
+        if (oldEntry != null) {
+
+            cacheSize -= oldEntry.getSize();
+
+        }
+
+        cacheSize += entry.getSize();
+
+        // 最大合計サイズ以内になるまで古いエントリを破棄する
+        for (final Iterator<Map.Entry<String, HttpCacheEntry>> i = cacheEntries.entrySet().iterator();
+                (cacheSize > cacheMaxSize) && i.hasNext();) {
+
+            cacheSize -= i.next().getValue().getSize();
+            i.remove();
+
+        }
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized void remove(
+            final String    key
+            ) {
+
+        final HttpCacheEntry    oldEntry = cacheEntries.remove(key);
+
+        // 削除した場合
+        if (oldEntry != null) {
+
+            cacheSize -= oldEntry.getSize();
+
+        }
+
+    }
+
+
+    /**
+     * 全てのキャッシュエントリを削除する。
+     *
+     */
+    public synchronized void clear() {
+
+        cacheEntries.clear();
+        cacheSize = 0;
+
+    }
+
+
+    /**
+     * 合計サイズを取得する。
+     *
+     * @return 合計サイズ (バイト)
+     */
+    public synchronized int size() {
+
+        return cacheSize;
+
+    }
+
+
+}
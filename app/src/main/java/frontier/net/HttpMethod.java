@@ -15,30 +15,28 @@
  */
 package frontier.net;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
-import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
-import org.apache.http.HttpVersion;
 import org.apache.http.NameValuePair;
 import org.apache.http.StatusLine;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.conn.scheme.PlainSocketFactory;
-import org.apache.http.conn.scheme.Scheme;
-import org.apache.http.conn.scheme.SchemeRegistry;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
-import org.apache.http.params.BasicHttpParams;
-import org.apache.http.params.HttpParams;
-import org.apache.http.params.HttpProtocolParams;
-import org.apache.http.protocol.HTTP;
 import org.apache.http.util.EntityUtils;
 
-import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import frontier.util.IOUtils;
 
 
 /**
@@ -110,6 +108,26 @@ public final class HttpMethod {
      */
     public static final String          HEADER_SERVER                       = "Server";
 
+    /**
+     * ヘッダ : エンティティタグ条件
+     */
+    public static final String          HEADER_IF_NONE_MATCH                = "If-None-Match";
+
+    /**
+     * ヘッダ : 更新時刻条件
+     */
+    public static final String          HEADER_IF_MODIFIED_SINCE            = "If-Modified-Since";
+
+    /**
+     * ヘッダ : 認証情報
+     */
+    public static final String          HEADER_AUTHORIZATION                = "Authorization";
+
+    /**
+     * ヘッダ : クッキー
+     */
+    public static final String          HEADER_COOKIE                       = "Cookie";
+
 
 
     /**
@@ -125,42 +143,68 @@ public final class HttpMethod {
 
 
     /**
-     * デフォルトクライアント
+     * ダウンロード中ファイルの拡張子
+     */
+    private static final String         DOWNLOAD_FILE_SUFFIX    = ".part";
+
+    /**
+     * デフォルト通信優先度
      */
-    private static final HttpClient     DEFAULT_CLIENT;
+    private static final HttpPriority   DEFAULT_PRIORITY        = HttpPriority.FOREGROUND;
 
+    /**
+     * 通信実行管理
+     */
+    private static final HttpDispatcher DISPATCHER              = new HttpDispatcher(
+            HttpMethod.class.getSimpleName(),
+            HttpDispatcher.DEFAULT_MAX_REQUESTS,
+            HttpDispatcher.DEFAULT_MAX_REQUESTS_PER_HOST
+            );
 
     /**
-     * デフォルト通信クライアントを作成する
+     * UI スレッドへの通知ハンドラ
      */
-    static {
+    private static final Handler        MAIN_HANDLER            = new Handler(Looper.getMainLooper());
 
-        final SchemeRegistry    registry = new SchemeRegistry();
-        final HttpParams        params   = new BasicHttpParams();
+    /**
+     * 同一 GET 通信のまとめ処理
+     */
+    private static final HttpRequestCoalescer   COALESCER       = new HttpRequestCoalescer();
 
-        // スキーマを設定する
-        registry.register(
-                new Scheme(
-                        HttpHost.DEFAULT_SCHEME_NAME,
-                        PlainSocketFactory.getSocketFactory(),
-                        PORT_HTTP
-                        )
-                );
+    /**
+     * 圧縮されたレスポンスを展開しない場合のキャッシュキーの接尾辞
+     */
+    private static final String         CACHE_KEY_SUFFIX_RAW    = " raw";
 
-        // プロトコル情報を設定する
-        HttpProtocolParams.setVersion(params, HttpVersion.HTTP_1_1);    // バージョン
-        HttpProtocolParams.setContentCharset(params, HTTP.UTF_8);       // 文字コード
-
-        // HTTPクライアントを作成する
-        DEFAULT_CLIENT = new DefaultHttpClient(
-                new ThreadSafeClientConnManager(
-                        params,
-                        registry
-                        ),
-                params
-                );
+    /**
+     * バックグラウンドで再検証中のキャッシュキー一覧
+     */
+    private static final Set<String>    REVALIDATING_KEYS       = new HashSet<String>();
 
-    }
+    /**
+     * デフォルトクライアント
+     */
+    private static volatile HttpClient  defaultClient = new HttpClientBuilder().build();
+
+    /**
+     * レスポンスキャッシュ。利用しない場合は null
+     */
+    private static volatile HttpCache   httpCache;
+
+    /**
+     * リクエストエンティティを圧縮する最小サイズ (バイト)。圧縮しない場合は負の値
+     */
+    private static volatile long        requestCompressionThreshold = -1;
+
+    /**
+     * 通信の再試行方針。再試行しない場合は null
+     */
+    private static volatile HttpRetryPolicy     retryPolicy;
+
+    /**
+     * 接続先ホストごとの通信遮断。遮断しない場合は null
+     */
+    private static volatile HttpCircuitBreaker  circuitBreaker;
 
 
 
@@ -182,20 +226,25 @@ public final class HttpMethod {
      * @param method            通信メソッド
      * @param queryParams       URIに付加するクエリパラメータ
      * @param requestHeaders    リクエストヘッダ情報
+     * @param priority          通信優先度
      * @param listener          通信完了通知先リスナー
+     * @param downloadFile      レスポンスボディ保存先ファイル。保存しない場合は null
+     * @return 通信要求ハンドル
      * @throws IllegalArgumentException HTTPクライアントが null の場合
      * @throws IllegalArgumentException URIが null または長さ 0 の場合
      */
-    private static void doMethod(
+    private static HttpRequestHandle doMethod(
             final HttpClient        client,
             final HttpRequestBase   method,
             final NameValuePair[]   queryParams,
             final NameValuePair[]   requestHeaders,
-            final HttpListener      listener
+            final HttpPriority      priority,
+            final HttpListener      listener,
+            final File              downloadFile
             ) {
 
-        // HTTPクライアントが null の場合は例外
-        if (client == null) {
+        // HTTPクライアントまたは優先度が null の場合は例外
+        if ((client == null) || (priority == null)) {
 
             throw new IllegalArgumentException();
 
@@ -219,205 +268,1482 @@ public final class HttpMethod {
         }
 
 
-        // 通信を非同期で開始する
-        new AsyncTask<Void, Void, HttpResult>() {
+        final boolean               decoding = HttpCompression.acceptEncoding(method);  // 圧縮レスポンスを展開するかどうか
+        final HttpRequestHandle     handle   = new HttpRequestHandle(method, priority); // 通信要求ハンドル
 
-            @Override
-            protected HttpResult doInBackground(
-                    final Void... params) {
 
-                Header[]    responseHeaders     = null;
-                int         statusCode          = HttpStatus.SC_BAD_REQUEST;
-                byte[]      responseData        = null;
+        // レスポンスボディをメモリへ読み込む GET 通信の場合
+        if ((method instanceof HttpGet) && !(listener instanceof HttpStreamListener) && (downloadFile == null)) {
 
+            // 実行中の同じ通信とまとめる
+            return doCoalesced(client, method, decoding, priority, handle, listener);
+
+        }
 
-                try {
+        // 通信を専用の通信スレッドで開始する
+        dispatch(handle, client, method, decoding, listener, downloadFile, 1, new HttpListener() {
 
-                    // 通信を開始する
-                    final HttpResponse  response    = client.execute(method);
-                    final StatusLine    statusLine  = response.getStatusLine();
+            /**
+             * {@inheritDoc}
+             */
+            public void connectFinished(
+                    final HttpResult    result
+                    ) {
 
-                    // ヘッダを取得する
-                    responseHeaders = response.getAllHeaders();
+                // 通信完了通知先リスナーがない場合
+                if (listener == null) {
 
-                    // ステータスコードを取得する
-                    statusCode = statusLine.getStatusCode();
+                    // 処理なし
+                    return;
 
-                    // レスポンスデータを取得する
-                    responseData = EntityUtils.toByteArray(response.getEntity());
+                }
 
-                } catch (final Throwable e) {
+                // UI スレッドで通知する
+                MAIN_HANDLER.post(new Runnable() {
 
-                    e.printStackTrace();
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void run() {
 
-                } finally {
+                        // 取り消されていない場合
+                        if (!handle.isCancelled()) {
 
-                    // 通信を切断する
-                    method.abort();
+                            // 通信完了処理を実行する
+                            listener.connectFinished(result);
 
-                }
+                        }
 
+                    }
 
-                // イメージファイルをSDへ書き込む
-                return new HttpResult(
-                        responseHeaders,
-                        statusCode,
-                        responseData
-                        );
+                });
 
             }
 
+        });
+
+        // 通信要求ハンドルを返す
+        return handle;
+
+    }
+
+
+    /**
+     * 実行中の同じ通信とまとめてHTTP通信を行う。<br>
+     * <br>
+     * 同じHTTPクライアント・URI・リクエストヘッダ・レスポンス展開指定の通信が実行中の場合は<br>
+     * 新しく通信せず、その通信結果を通知する。<br>
+     * 通信は全ての通知先が取り消された場合のみ中断し、<br>
+     * 通信優先度は最初に要求した通信の優先度となる。<br>
+     *
+     * @param client            使用するHTTPクライアント
+     * @param method            通信メソッド
+     * @param decoding          圧縮されたレスポンスを展開するかどうか
+     * @param priority          通信優先度
+     * @param handle            通信要求ハンドル
+     * @param listener          通信完了通知先リスナー
+     * @return 通信要求ハンドル
+     */
+    private static HttpRequestHandle doCoalesced(
+            final HttpClient        client,
+            final HttpRequestBase   method,
+            final boolean           decoding,
+            final HttpPriority      priority,
+            final HttpRequestHandle handle,
+            final HttpListener      listener
+            ) {
+
+        final HttpRequestCoalescer.Call     call = COALESCER.join(client, method, decoding, handle, listener);   // 開始する通信
+
+
+        // 実行中の通信へ追加した場合
+        if (call == null) {
+
+            // 通信要求ハンドルを返す
+            return handle;
+
+        }
+
+        final HttpRequestHandle             networkHandle = new HttpRequestHandle(method, priority);   // 実際に通信する通信要求ハンドル
+
+
+        // 通信を専用の通信スレッドで開始する
+        dispatch(networkHandle, client, method, decoding, null, null, 1, new HttpListener() {
 
-            @Override
-            protected void onPostExecute(
-                    final HttpResult result
+            /**
+             * {@inheritDoc}
+             */
+            public void connectFinished(
+                    final HttpResult    result
                     ) {
 
-                // 通信完了通知先リスナーがある場合
-                if (listener != null) {
+                // 通知先分処理をする
+                for (final HttpRequestCoalescer.Subscriber subscriber : COALESCER.complete(call)) {
+
+                    final HttpRequestHandle subscriberHandle   = subscriber.getHandle();
+                    final HttpListener      subscriberListener = subscriber.getListener();
+
+
+                    // 完了状態にする
+                    subscriberHandle.finish();
+
+                    // 通信完了通知先リスナーがない場合
+                    if (subscriberListener == null) {
 
-                    // 通信完了処理を実行する
-                    listener.connectFinished(result);
+                        // 次の通知先へ
+                        continue;
+
+                    }
+
+                    // UI スレッドで通知する
+                    MAIN_HANDLER.post(new Runnable() {
+
+                        /**
+                         * {@inheritDoc}
+                         */
+                        public void run() {
+
+                            // 取り消されていない場合
+                            if (!subscriberHandle.isCancelled()) {
+
+                                // 通信完了処理を実行する
+                                subscriberListener.connectFinished(result);
+
+                            }
+
+                        }
+
+                    });
 
                 }
 
             }
 
-        }
-        .execute((Void[])null);
+        });
+
+        // 全ての通知先が取り消された場合に中断できるようにする
+        call.setNetworkHandle(networkHandle);
+
+        // 通信要求ハンドルを返す
+        return handle;
 
     }
 
 
     /**
-     * デフォルトHTTPクライアントでHTTP GET通信を行う。
+     * 通信要求を実行待ちへ追加する。<br>
+     * <br>
+     * 再試行方針が設定されている場合、再試行対象の結果であれば待機時間経過後に再度実行待ちへ追加する。<br>
+     * 待機中は通信スレッドを占有しない。逐次読み込みの通信は再試行しない。<br>
      *
-     * @param uri               通信先URI
-     * @param queryParams       URIに付加するクエリパラメータ
-     * @param requestHeaders    リクエストヘッダ情報
+     * @param handle            通信要求ハンドル
+     * @param client            使用するHTTPクライアント
+     * @param method            通信メソッド
+     * @param decoding          圧縮されたレスポンスを展開するかどうか
      * @param listener          通信完了通知先リスナー
-     * @throws IllegalArgumentException HTTPクライアントが null の場合
-     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     * @param downloadFile      レスポンスボディ保存先ファイル。保存しない場合は null
+     * @param attempt           試行回数
+     * @param completion        通信スレッドで呼び出される最終的な通信結果の通知先
      */
-    public static void doGet(
-            final String            uri,
-            final NameValuePair[]   queryParams,
-            final NameValuePair[]   requestHeaders,
-            final HttpListener      listener
+    private static void dispatch(
+            final HttpRequestHandle handle,
+            final HttpClient        client,
+            final HttpRequestBase   method,
+            final boolean           decoding,
+            final HttpListener      listener,
+            final File              downloadFile,
+            final int               attempt,
+            final HttpListener      completion
             ) {
 
-        doGet(DEFAULT_CLIENT, uri, queryParams, requestHeaders, listener);
+        DISPATCHER.enqueue(handle, new Runnable() {
+
+            /**
+             * {@inheritDoc}
+             */
+            public void run() {
+
+                // 通信を行う
+                final HttpResult        result = execute(client, method, decoding, listener, downloadFile);
+                final HttpRetryPolicy   policy = retryPolicy;
+
+
+                // 再試行しない場合
+                if ((policy == null)
+                        || handle.isCancelled()
+                        || (listener instanceof HttpStreamListener)
+                        || !policy.isRetryable(method, result, attempt)
+                        ) {
+
+                    // 通信結果を通知する
+                    completion.connectFinished(result);
+                    return;
+
+                }
+
+                final HttpRequestBase   retryMethod = copyMethod(method);   // 再試行用通信メソッド
+
+                // 複製できない場合
+                if (retryMethod == null) {
+
+                    // 通信結果を通知する
+                    completion.connectFinished(result);
+                    return;
+
+                }
+
+                // 再試行待ちにする
+                handle.retry(retryMethod);
+
+                // 待機時間経過後に実行待ちへ追加する
+                MAIN_HANDLER.postDelayed(new Runnable() {
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void run() {
+
+                        dispatch(handle, client, retryMethod, decoding, listener, downloadFile, attempt + 1, completion);
+
+                    }
+
+                }, policy.getBackoff(result, attempt));
+
+            }
+
+        });
 
     }
 
 
     /**
-     * HTTPクライアントを指定してHTTP GET通信を行う。
+     * 再試行用に通信メソッドを複製する。<br>
+     * <br>
+     * 中断された通信メソッドは再利用できないため、ヘッダ・エンティティを引き継いだ複製を作成する。<br>
+     *
+     * @param method    通信メソッド
+     * @return 複製した通信メソッド。複製できない場合は null
+     */
+    private static HttpRequestBase copyMethod(
+            final HttpRequestBase   method
+            ) {
+
+        try {
+
+            return (HttpRequestBase)method.clone();
+
+        } catch (final CloneNotSupportedException e) {
+
+            e.printStackTrace();
+
+        }
+
+        return null;
+
+    }
+
+
+    /**
+     * 通信スレッドでHTTP通信を行う。<br>
+     * <br>
+     * レスポンスキャッシュが設定されている場合、GET 通信はキャッシュを経由する。<br>
      *
      * @param client            使用するHTTPクライアント
-     * @param uri               通信先URI
-     * @param queryParams       URIに付加するクエリパラメータ
-     * @param requestHeaders    リクエストヘッダ情報
+     * @param method            通信メソッド
+     * @param decoding          圧縮されたレスポンスを展開するかどうか
      * @param listener          通信完了通知先リスナー
-     * @throws IllegalArgumentException HTTPクライアントが null の場合
-     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     * @param downloadFile      レスポンスボディ保存先ファイル。保存しない場合は null
+     * @return 通信結果データ
      */
-    public static void doGet(
+    private static HttpResult execute(
             final HttpClient        client,
-            final String            uri,
-            final NameValuePair[]   queryParams,
-            final NameValuePair[]   requestHeaders,
-            final HttpListener      listener
+            final HttpRequestBase   method,
+            final boolean           decoding,
+            final HttpListener      listener,
+            final File              downloadFile
             ) {
 
-        // URI が null の場合は例外
-        if ((uri == null) || (uri.length() == 0)) {
+        final HttpCache     cache = httpCache;  // レスポンスキャッシュ
 
-            throw new IllegalArgumentException();
+
+        // キャッシュを利用できる場合
+        if ((cache != null) && isCacheable(method, listener, downloadFile)) {
+
+            // キャッシュを経由して通信する
+            return executeCached(cache, client, method, decoding);
 
         }
 
-        // GETメソッド通信を行う
-        doMethod(
-                client,
-                new HttpGet(HttpUtils.createURI(uri, queryParams)),
-                queryParams,
-                requestHeaders,
-                listener
-                );
+        // 通信する
+        return executeNetwork(client, method, decoding, listener, downloadFile);
 
     }
 
 
     /**
-     * デフォルトHTTPクライアントでHTTP POST通信を行う。
+     * キャッシュを利用できる通信かどうかを取得する。
      *
-     * @param uri               通信先URI
-     * @param queryParams       URIに付加するクエリパラメータ
-     * @param requestHeaders    リクエストヘッダ情報
-     * @param requestEntity     リクエストエンティティ情報
+     * @param method            通信メソッド
      * @param listener          通信完了通知先リスナー
-     * @throws IllegalArgumentException HTTPクライアントが null の場合
-     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     * @param downloadFile      レスポンスボディ保存先ファイル。保存しない場合は null
+     * @return キャッシュを利用できる場合は true
      */
-    public static void doPost(
-            final String            uri,
-            final NameValuePair[]   queryParams,
-            final NameValuePair[]   requestHeaders,
-            final HttpEntity        requestEntity,
-            final HttpListener      listener
+    private static boolean isCacheable(
+            final HttpRequestBase   method,
+            final HttpListener      listener,
+            final File              downloadFile
             ) {
 
-        doPost(DEFAULT_CLIENT, uri, queryParams, requestHeaders, requestEntity, listener);
+        // GET 以外、逐次読み込み、ファイル保存の場合は利用しない
+        if (!(method instanceof HttpGet)
+                || (listener instanceof HttpStreamListener)
+                || (downloadFile != null)
+                ) {
+
+            return false;
+
+        }
+
+        final Header[]  requestHeaders = method.getAllHeaders();
+
+
+        // 保存禁止、呼び出し元が条件付きリクエストを指定している場合、
+        // 利用者ごとに結果が異なる認証情報・クッキーを送信する場合は利用しない
+        return !HttpCacheEntry.hasDirective(requestHeaders, HttpCacheEntry.DIRECTIVE_NO_STORE)
+               && (HttpCacheEntry.findHeader(requestHeaders, HEADER_IF_NONE_MATCH) == null)
+               && (HttpCacheEntry.findHeader(requestHeaders, HEADER_IF_MODIFIED_SINCE) == null)
+               && (HttpCacheEntry.findHeader(requestHeaders, HEADER_AUTHORIZATION) == null)
+               && (HttpCacheEntry.findHeader(requestHeaders, HEADER_COOKIE) == null);
 
     }
 
 
     /**
-     * HTTPクライアントを指定してHTTP POST通信を行う。
+     * キャッシュを経由してHTTP GET通信を行う。<br>
+     * <br>
+     * 有効期限内のキャッシュがある場合は通信せずに返す。<br>
+     * stale-while-revalidate の期間内の場合は期限切れのキャッシュを返し、再検証をバックグラウンドで行う。<br>
+     * それ以外の場合は ETag / Last-Modified があれば条件付きリクエストで再検証する。<br>
+     * リクエストに no-cache または max-age=0 が指定されている場合は、有効期限内でも再検証する。<br>
+     * 展開しない圧縮レスポンスは、展開したレスポンスとは別のキーで保持する。<br>
      *
-     * @param client            使用するHTTPクライアント
-     * @param uri               通信先URI
-     * @param queryParams       URIに付加するクエリパラメータ
-     * @param requestHeaders    リクエストヘッダ情報
-     * @param requestEntity     リクエストエンティティ情報
-     * @param listener          通信完了通知先リスナー
-     * @throws IllegalArgumentException HTTPクライアントが null の場合
-     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     * @param cache     レスポンスキャッシュ
+     * @param client    使用するHTTPクライアント
+     * @param method    通信メソッド
+     * @param decoding  圧縮されたレスポンスを展開するかどうか
+     * @return 通信結果データ
      */
-    public static void doPost(
+    private static HttpResult executeCached(
+            final HttpCache         cache,
             final HttpClient        client,
-            final String            uri,
-            final NameValuePair[]   queryParams,
-            final NameValuePair[]   requestHeaders,
-            final HttpEntity        requestEntity,
-            final HttpListener      listener
+            final HttpRequestBase   method,
+            final boolean           decoding
             ) {
 
-        // URI が null の場合は例外
-        if ((uri == null) || (uri.length() == 0)) {
+        final String            key   = decoding                         // キャッシュキー
+                                        ? method.getURI().toString()
+                                        : method.getURI().toString() + CACHE_KEY_SUFFIX_RAW;
+        final HttpCacheEntry    entry = cache.get(key);                  // キャッシュエントリ
+        final long              now   = System.currentTimeMillis();      // 現在時刻
+        final boolean           force = HttpCacheEntry.requiresRevalidation(method.getAllHeaders());    // 再検証を要求されたかどうか
 
-            throw new IllegalArgumentException();
+
+        // キャッシュエントリがある場合
+        if (entry != null) {
+
+            // 再検証を要求されておらず、有効期限内の場合
+            if (!force && entry.isFresh(now)) {
+
+                // 通信せずに返す
+                return toResult(entry);
+
+            }
+
+            // 再検証を要求されておらず、再検証しながら利用できる場合
+            if (!force && entry.isStaleWhileRevalidate(now)) {
+
+                // バックグラウンドで再検証する
+                revalidate(cache, client, method, decoding, key, entry);
+
+                // 期限切れのキャッシュを返す
+                return toResult(entry);
+
+            }
+
+            // 条件付きリクエストにする
+            addValidators(method, entry);
 
         }
 
-        final HttpPost      httpPost = new HttpPost(HttpUtils.createURI(uri, queryParams));
+        final long          requestTime  = System.currentTimeMillis();
+        final HttpResult    result       = executeNetwork(client, method, decoding, null, null);
+        final long          responseTime = System.currentTimeMillis();
 
-        // リクエストエンティティ情報がある場合
-        if (requestEntity != null) {
 
-            // エンティティ情報を設定する
-            httpPost.setEntity(requestEntity);
+        // 通信結果をキャッシュへ反映する
+        return storeResult(cache, key, entry, result, requestTime, responseTime);
+
+    }
+
+
+    /**
+     * 期限切れのキャッシュエントリをバックグラウンドで再検証する。<br>
+     * <br>
+     * 同じキャッシュキーの再検証が既に実行中の場合は何もしない。<br>
+     *
+     * @param cache     レスポンスキャッシュ
+     * @param client    使用するHTTPクライアント
+     * @param method    元の通信メソッド
+     * @param decoding  圧縮されたレスポンスを展開するかどうか
+     * @param key       キャッシュキー
+     * @param entry     再検証するキャッシュエントリ
+     */
+    private static void revalidate(
+            final HttpCache         cache,
+            final HttpClient        client,
+            final HttpRequestBase   method,
+            final boolean           decoding,
+            final String            key,
+            final HttpCacheEntry    entry
+            ) {
+
+        // 同じキャッシュキーを再検証中の場合は何もしない
+        synchronized (REVALIDATING_KEYS) {
+
+            if (!REVALIDATING_KEYS.add(key)) {
+
+                return;
+
+            }
 
         }
 
-        // POSTメソッド通信を行う
-        doMethod(
-                client,
-                httpPost,
+        final HttpGet   revalidateMethod = new HttpGet(method.getURI());   // 再検証用通信メソッド
+
+
+        // 元のリクエストヘッダと検証情報を設定する
+        revalidateMethod.setHeaders(method.getAllHeaders());
+        addValidators(revalidateMethod, entry);
+
+        try {
+
+            // 最も低い優先度で通信する
+            DISPATCHER.enqueue(new HttpRequestHandle(revalidateMethod, HttpPriority.PREFETCH), new Runnable() {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void run() {
+
+                    try {
+
+                        final long          requestTime  = System.currentTimeMillis();
+                        final HttpResult    result       = executeNetwork(client, revalidateMethod, decoding, null, null);
+                        final long          responseTime = System.currentTimeMillis();
+
+
+                        // 通信結果をキャッシュへ反映する
+                        storeResult(cache, key, entry, result, requestTime, responseTime);
+
+                    } finally {
+
+                        // 再検証中から外す
+                        finishRevalidate(key);
+
+                    }
+
+                }
+
+            });
+
+        } catch (final RuntimeException e) {
+
+            // 登録できなかった場合は再検証中から外す
+            finishRevalidate(key);
+            throw e;
+
+        }
+
+    }
+
+
+    /**
+     * キャッシュキーを再検証中から外す。
+     *
+     * @param key   キャッシュキー
+     */
+    private static void finishRevalidate(
+            final String    key
+            ) {
+
+        synchronized (REVALIDATING_KEYS) {
+
+            REVALIDATING_KEYS.remove(key);
+
+        }
+
+    }
+
+
+    /**
+     * キャッシュエントリの検証情報を条件付きリクエストヘッダとして設定する。
+     *
+     * @param method    通信メソッド
+     * @param entry     キャッシュエントリ
+     */
+    private static void addValidators(
+            final HttpRequestBase   method,
+            final HttpCacheEntry    entry
+            ) {
+
+        final String    eTag         = entry.getETag();
+        final String    lastModified = entry.getLastModified();
+
+
+        // エンティティタグがある場合
+        if (eTag != null) {
+
+            method.setHeader(HEADER_IF_NONE_MATCH, eTag);
+
+        }
+
+        // 更新時刻がある場合
+        if (lastModified != null) {
+
+            method.setHeader(HEADER_IF_MODIFIED_SINCE, lastModified);
+
+        }
+
+    }
+
+
+    /**
+     * 通信結果をキャッシュへ反映する。
+     *
+     * @param cache         レスポンスキャッシュ
+     * @param key           キャッシュキー
+     * @param entry         再検証したキャッシュエントリ。ない場合は null
+     * @param result        通信結果データ
+     * @param requestTime   リクエスト送信時刻 (ms)
+     * @param responseTime  レスポンス受信時刻 (ms)
+     * @return 呼び出し元へ返す通信結果データ
+     */
+    private static HttpResult storeResult(
+            final HttpCache         cache,
+            final String            key,
+            final HttpCacheEntry    entry,
+            final HttpResult        result,
+            final long              requestTime,
+            final long              responseTime
+            ) {
+
+        final int       statusCode = result.getStatusCode();
+        final Header[]  headers    = result.getAllHeaders();
+
+
+        // 変更されていない場合
+        if ((statusCode == HttpStatus.SC_NOT_MODIFIED) && (entry != null)) {
+
+            final HttpCacheEntry    updatedEntry = entry.update(headers, requestTime, responseTime);
+
+            // 更新したキャッシュエントリを保存して返す
+            cache.put(key, updatedEntry);
+            return toResult(updatedEntry);
+
+        }
+
+        // 通信に失敗した場合
+        if ((result.getFailureCause() != null) || (headers.length == 0)) {
+
+            // キャッシュは変更しない
+            return result;
+
+        }
+
+        // 保存できるレスポンスの場合
+        if (HttpCacheEntry.isStorable(statusCode, headers)) {
+
+            // キャッシュへ保存する
+            cache.put(key, new HttpCacheEntry(headers, statusCode, result.getBodyDataDirect(), requestTime, responseTime));
+
+        // サーバエラー以外の場合
+        } else if (statusCode < HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+
+            // 古いキャッシュを削除する
+            cache.remove(key);
+
+        }
+
+        return result;
+
+    }
+
+
+    /**
+     * キャッシュエントリから通信結果データを作成する。
+     *
+     * @param entry     キャッシュエントリ
+     * @return 通信結果データ
+     */
+    private static HttpResult toResult(
+            final HttpCacheEntry    entry
+            ) {
+
+        return new HttpResult(entry.getHeadersDirect(), entry.getStatusCode(), entry.getBodyDataDirect());
+
+    }
+
+
+    /**
+     * HTTP通信を行い、結果を通信結果データとして返す。
+     *
+     * @param client            使用するHTTPクライアント
+     * @param method            通信メソッド
+     * @param decoding          圧縮されたレスポンスを展開するかどうか
+     * @param listener          通信完了通知先リスナー
+     * @param downloadFile      レスポンスボディ保存先ファイル。保存しない場合は null
+     * @return 通信結果データ
+     */
+    private static HttpResult executeNetwork(
+            final HttpClient        client,
+            final HttpRequestBase   method,
+            final boolean           decoding,
+            final HttpListener      listener,
+            final File              downloadFile
+            ) {
+
+        final HttpCircuitBreaker    breaker = circuitBreaker;                   // 通信遮断
+        final String                host    = method.getURI().getHost();       // 接続先ホスト名
+
+
+        // 接続先ホストへの通信を遮断中の場合
+        if ((breaker != null) && !breaker.allowRequest(host)) {
+
+            // 通信せずに失敗とする
+            return new HttpResult(null, HttpStatus.SC_BAD_REQUEST, null, null, new HttpCircuitOpenException(host));
+
+        }
+
+        Header[]    responseHeaders     = null;
+        int         statusCode          = HttpStatus.SC_BAD_REQUEST;
+        byte[]      responseData        = null;
+        File        responseFile        = null;
+        Throwable   failureCause        = null;     // 通信失敗の原因
+        boolean     released            = false;    // 接続をプールへ返却したかどうか
+        boolean     cancelled           = false;    // 取り消されたかどうか
+
+
+        try {
+
+            // 通信を開始する
+            final HttpResponse  response    = client.execute(method);
+            final StatusLine    statusLine  = response.getStatusLine();
+
+            // 圧縮レスポンスを展開する場合
+            if (decoding) {
+
+                // 読み込み時に展開するように設定する
+                HttpCompression.decode(response);
+
+            }
+
+            // ヘッダを取得する
+            responseHeaders = response.getAllHeaders();
+
+            // ステータスコードを取得する
+            statusCode = statusLine.getStatusCode();
+
+            final HttpEntity    entity = response.getEntity();
+
+            // 逐次読み込みリスナーの場合
+            if (listener instanceof HttpStreamListener) {
+
+                // レスポンスボディを入力ストリームとして渡す
+                readStream(
+                        (HttpStreamListener)listener,
+                        new HttpResult(responseHeaders, statusCode, null),
+                        entity
+                        );
+
+                // 入力ストリームを閉じた時点で返却済み
+                released = true;
+
+            // 保存先ファイルがあり、成功ステータスの場合
+            } else if ((downloadFile != null) && isSuccessful(statusCode)) {
+
+                // レスポンスボディをファイルへ保存する
+                responseFile = download(entity, downloadFile);
+
+                // 最後まで読み込めた場合は返却済み
+                released = responseFile != null;
+
+            } else {
+
+                // レスポンスデータを取得する
+                responseData = entity == null ? null : EntityUtils.toByteArray(entity);
+
+                // 最後まで読み込んだ時点で返却済み
+                released = true;
+
+            }
+
+        } catch (final Throwable e) {
+
+            e.printStackTrace();
+
+            // 通信失敗の原因を保持する
+            failureCause = e;
+            cancelled    = method.isAborted();
+
+        } finally {
+
+            // 接続を返却できなかった場合
+            if (!released) {
+
+                // 再利用できないため通信を切断する
+                method.abort();
+
+            }
+
+        }
+
+
+        // 通信遮断を利用する場合
+        if (breaker != null) {
+
+            // 取り消された場合
+            if (cancelled) {
+
+                // 失敗として扱わない
+                breaker.recordCancelled(host);
+
+            } else {
+
+                // 通信結果を記録する
+                breaker.record(host, statusCode, failureCause);
+
+            }
+
+        }
+
+        // 通信結果データを返す
+        return new HttpResult(
+                responseHeaders,
+                statusCode,
+                responseData,
+                responseFile,
+                failureCause
+                );
+
+    }
+
+
+    /**
+     * 成功を表すステータスコードかどうかを取得する。
+     *
+     * @param statusCode    ステータスコード
+     * @return 2xx の場合は true
+     */
+    private static boolean isSuccessful(
+            final int   statusCode
+            ) {
+
+        return (statusCode >= HttpStatus.SC_OK) && (statusCode < HttpStatus.SC_MULTIPLE_CHOICES);
+
+    }
+
+
+    /**
+     * レスポンスボディを逐次読み込みリスナーへ渡す。
+     *
+     * @param listener  逐次読み込みリスナー
+     * @param result    レスポンスボディを除いた通信結果データ
+     * @param entity    レスポンスエンティティ
+     * @throws IOException  入出力エラー時
+     */
+    private static void readStream(
+            final HttpStreamListener    listener,
+            final HttpResult            result,
+            final HttpEntity            entity
+            ) throws IOException {
+
+        // エンティティがない場合
+        if (entity == null) {
+
+            // 処理なし
+            return;
+
+        }
+
+
+        final InputStream   in = entity.getContent();   // レスポンスボディ入力ストリーム
+
+        // レスポンスボディがない場合
+        if (in == null) {
+
+            // 処理なし
+            return;
+
+        }
+
+        try {
+
+            // リスナーへ入力ストリームを渡す
+            listener.bodyReceived(result, in);
+
+        } finally {
+
+            // 入力ストリームを閉じる
+            IOUtils.closeQuietly(in);
+
+        }
+
+    }
+
+
+    /**
+     * レスポンスボディを指定ファイルへ保存する。<br>
+     * <br>
+     * ダウンロード中は拡張子 {@value #DOWNLOAD_FILE_SUFFIX} を付加したファイルへ書き込み、<br>
+     * 全て書き込んだ後に指定ファイル名へ変更する。<br>
+     *
+     * @param entity        レスポンスエンティティ
+     * @param downloadFile  保存先ファイル
+     * @return 保存したファイル。保存に失敗した場合は null
+     * @throws IOException  入出力エラー時
+     */
+    private static File download(
+            final HttpEntity    entity,
+            final File          downloadFile
+            ) throws IOException {
+
+        final File  parentDir = downloadFile.getAbsoluteFile().getParentFile();   // 保存先ディレクトリ
+
+        // 保存先ディレクトリが存在しない場合
+        if ((parentDir != null) && !parentDir.exists()) {
+
+            // ディレクトリを作成する
+            parentDir.mkdirs();
+
+        }
+
+
+        final File  partFile = new File(downloadFile.getPath() + DOWNLOAD_FILE_SUFFIX);   // ダウンロード中ファイル
+
+        // エンティティがない場合
+        if (entity == null) {
+
+            // 空ファイルを作成する
+            new FileOutputStream(partFile).close();
+
+        // ファイルへの書き込みに失敗した場合
+        } else if (!IOUtils.copy(entity.getContent(), new FileOutputStream(partFile), true)) {
+
+            // 書き込み途中のファイルを削除する
+            partFile.delete();
+            return null;
+
+        }
+
+        // 既存ファイルを削除してファイル名を変更する
+        downloadFile.delete();
+
+        // ファイル名の変更に失敗した場合
+        if (!partFile.renameTo(downloadFile)) {
+
+            // 書き込み途中のファイルを削除する
+            partFile.delete();
+            return null;
+
+        }
+
+        // 保存したファイルを返す
+        return downloadFile;
+
+    }
+
+
+    /**
+     * デフォルトHTTPクライアントを設定する。<br>
+     * <br>
+     * HTTPクライアントを指定しない通信で利用される。<br>
+     * 接続プールやタイムアウトを変更する場合は {@link HttpClientBuilder} で作成したクライアントを設定する。<br>
+     *
+     * @param client    デフォルトHTTPクライアント
+     * @throws IllegalArgumentException HTTPクライアントが null の場合
+     */
+    public static void setDefaultClient(
+            final HttpClient    client
+            ) {
+
+        // HTTPクライアントが null の場合は例外
+        if (client == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        defaultClient = client;
+
+    }
+
+
+    /**
+     * デフォルトHTTPクライアントを取得する。
+     *
+     * @return デフォルトHTTPクライアント
+     */
+    public static HttpClient getDefaultClient() {
+
+        return defaultClient;
+
+    }
+
+
+    /**
+     * レスポンスキャッシュを設定する。<br>
+     * <br>
+     * 設定すると GET 通信 (逐次読み込み・ファイル保存を除く) のレスポンスを<br>
+     * Cache-Control / Expires に従って保存し、ETag / Last-Modified で再検証する。<br>
+     *
+     * @param cache レスポンスキャッシュ。利用しない場合は null
+     */
+    public static void setCache(
+            final HttpCache cache
+            ) {
+
+        httpCache = cache;
+
+    }
+
+
+    /**
+     * レスポンスキャッシュを取得する。
+     *
+     * @return レスポンスキャッシュ。利用しない場合は null
+     */
+    public static HttpCache getCache() {
+
+        return httpCache;
+
+    }
+
+
+    /**
+     * リクエストエンティティを gzip 圧縮する最小サイズを設定する。<br>
+     * <br>
+     * POST 通信のエンティティがサイズ以上の場合、Content-Encoding: gzip で圧縮して送信する。<br>
+     * サイズが不明なエンティティは圧縮しない。<br>
+     * 送信先サーバが gzip 圧縮されたリクエストに対応している場合のみ設定すること。<br>
+     * デフォルトは圧縮しない。<br>
+     *
+     * @param minLength 圧縮する最小サイズ (バイト)。圧縮しない場合は負の値
+     */
+    public static void setRequestCompressionThreshold(
+            final long  minLength
+            ) {
+
+        requestCompressionThreshold = minLength;
+
+    }
+
+
+    /**
+     * 通信の再試行方針を設定する。<br>
+     * <br>
+     * 設定すると、接続エラー・タイムアウトや再試行対象のステータスコードの通信を<br>
+     * 方針に従って待機時間をおいて再試行する。<br>
+     * 通信完了通知先リスナーには最後の試行結果のみ通知される。<br>
+     * デフォルトは再試行しない。<br>
+     *
+     * @param policy    再試行方針。再試行しない場合は null
+     */
+    public static void setRetryPolicy(
+            final HttpRetryPolicy   policy
+            ) {
+
+        retryPolicy = policy;
+
+    }
+
+
+    /**
+     * 通信の再試行方針を取得する。
+     *
+     * @return 再試行方針。再試行しない場合は null
+     */
+    public static HttpRetryPolicy getRetryPolicy() {
+
+        return retryPolicy;
+
+    }
+
+
+    /**
+     * 接続先ホストごとの通信遮断を設定する。<br>
+     * <br>
+     * 設定すると、連続して失敗している接続先ホストへの通信を一定時間行わず、<br>
+     * {@link HttpResult#getFailureCause()} が {@link HttpCircuitOpenException} の結果を即座に返す。<br>
+     * デフォルトは遮断しない。<br>
+     *
+     * @param breaker   通信遮断。遮断しない場合は null
+     */
+    public static void setCircuitBreaker(
+            final HttpCircuitBreaker    breaker
+            ) {
+
+        circuitBreaker = breaker;
+
+    }
+
+
+    /**
+     * 接続先ホストごとの通信遮断を取得する。
+     *
+     * @return 通信遮断。遮断しない場合は null
+     */
+    public static HttpCircuitBreaker getCircuitBreaker() {
+
+        return circuitBreaker;
+
+    }
+
+
+    /**
+     * 最大同時通信数を設定する。<br>
+     * <br>
+     * 上限を超えた通信要求は優先度順に実行待ちとなる。<br>
+     * デフォルトは {@value HttpDispatcher#DEFAULT_MAX_REQUESTS} となる。<br>
+     *
+     * @param maxRequests   最大同時通信数
+     * @throws IllegalArgumentException 最大同時通信数が 0 以下の場合
+     */
+    public static void setMaxRequests(
+            final int   maxRequests
+            ) {
+
+        DISPATCHER.setMaxRequests(maxRequests);
+
+    }
+
+
+    /**
+     * ホストごとの最大同時通信数を設定する。<br>
+     * <br>
+     * デフォルトは {@value HttpDispatcher#DEFAULT_MAX_REQUESTS_PER_HOST} となる。<br>
+     *
+     * @param maxRequestsPerHost    ホストごとの最大同時通信数
+     * @throws IllegalArgumentException 最大同時通信数が 0 以下の場合
+     */
+    public static void setMaxRequestsPerHost(
+            final int   maxRequestsPerHost
+            ) {
+
+        DISPATCHER.setMaxRequestsPerHost(maxRequestsPerHost);
+
+    }
+
+
+    /**
+     * デフォルトHTTPクライアントでHTTP GET通信を行う。
+     *
+     * @param uri               通信先URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param listener          通信完了通知先リスナー
+     * @return 通信要求ハンドル
+     * @throws IllegalArgumentException HTTPクライアントが null の場合
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     */
+    public static HttpRequestHandle doGet(
+            final String            uri,
+            final NameValuePair[]   queryParams,
+            final NameValuePair[]   requestHeaders,
+            final HttpListener      listener
+            ) {
+
+        return doGet(defaultClient, uri, queryParams, requestHeaders, listener);
+
+    }
+
+
+    /**
+     * HTTPクライアントを指定してHTTP GET通信を行う。
+     *
+     * @param client            使用するHTTPクライアント
+     * @param uri               通信先URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param listener          通信完了通知先リスナー
+     * @return 通信要求ハンドル
+     * @throws IllegalArgumentException HTTPクライアントが null の場合
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     */
+    public static HttpRequestHandle doGet(
+            final HttpClient        client,
+            final String            uri,
+            final NameValuePair[]   queryParams,
+            final NameValuePair[]   requestHeaders,
+            final HttpListener      listener
+            ) {
+
+        return doGet(client, uri, queryParams, requestHeaders, DEFAULT_PRIORITY, listener);
+
+    }
+
+
+    /**
+     * HTTPクライアントと通信優先度を指定してHTTP GET通信を行う。
+     *
+     * @param client            使用するHTTPクライアント
+     * @param uri               通信先URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param priority          通信優先度
+     * @param listener          通信完了通知先リスナー
+     * @return 通信要求ハンドル
+     * @throws IllegalArgumentException HTTPクライアントまたは通信優先度が null の場合
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     */
+    public static HttpRequestHandle doGet(
+            final HttpClient        client,
+            final String            uri,
+            final NameValuePair[]   queryParams,
+            final NameValuePair[]   requestHeaders,
+            final HttpPriority      priority,
+            final HttpListener      listener
+            ) {
+
+        // URI が null の場合は例外
+        if ((uri == null) || (uri.length() == 0)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // GETメソッド通信を行う
+        return doMethod(
+                client,
+                new HttpGet(HttpUtils.createURI(uri, queryParams)),
+                queryParams,
+                requestHeaders,
+                priority,
+                listener,
+                null
+                );
+
+    }
+
+
+    /**
+     * デフォルトHTTPクライアントでHTTP POST通信を行う。
+     *
+     * @param uri               通信先URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param requestEntity     リクエストエンティティ情報
+     * @param listener          通信完了通知先リスナー
+     * @return 通信要求ハンドル
+     * @throws IllegalArgumentException HTTPクライアントが null の場合
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     */
+    public static HttpRequestHandle doPost(
+            final String            uri,
+            final NameValuePair[]   queryParams,
+            final NameValuePair[]   requestHeaders,
+            final HttpEntity        requestEntity,
+            final HttpListener      listener
+            ) {
+
+        return doPost(defaultClient, uri, queryParams, requestHeaders, requestEntity, listener);
+
+    }
+
+
+    /**
+     * HTTPクライアントを指定してHTTP POST通信を行う。
+     *
+     * @param client            使用するHTTPクライアント
+     * @param uri               通信先URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param requestEntity     リクエストエンティティ情報
+     * @param listener          通信完了通知先リスナー
+     * @return 通信要求ハンドル
+     * @throws IllegalArgumentException HTTPクライアントが null の場合
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     */
+    public static HttpRequestHandle doPost(
+            final HttpClient        client,
+            final String            uri,
+            final NameValuePair[]   queryParams,
+            final NameValuePair[]   requestHeaders,
+            final HttpEntity        requestEntity,
+            final HttpListener      listener
+            ) {
+
+        return doPost(client, uri, queryParams, requestHeaders, requestEntity, DEFAULT_PRIORITY, listener);
+
+    }
+
+
+    /**
+     * HTTPクライアントと通信優先度を指定してHTTP POST通信を行う。
+     *
+     * @param client            使用するHTTPクライアント
+     * @param uri               通信先URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param requestEntity     リクエストエンティティ情報
+     * @param priority          通信優先度
+     * @param listener          通信完了通知先リスナー
+     * @return 通信要求ハンドル
+     * @throws IllegalArgumentException HTTPクライアントまたは通信優先度が null の場合
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     */
+    public static HttpRequestHandle doPost(
+            final HttpClient        client,
+            final String            uri,
+            final NameValuePair[]   queryParams,
+            final NameValuePair[]   requestHeaders,
+            final HttpEntity        requestEntity,
+            final HttpPriority      priority,
+            final HttpListener      listener
+            ) {
+
+        // URI が null の場合は例外
+        if ((uri == null) || (uri.length() == 0)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        final HttpPost      httpPost = new HttpPost(HttpUtils.createURI(uri, queryParams));
+
+        // リクエストエンティティ情報がある場合
+        if (requestEntity != null) {
+
+            // 指定サイズ以上の場合は圧縮してエンティティ情報を設定する
+            httpPost.setEntity(HttpCompression.compress(requestEntity, requestCompressionThreshold));
+
+        }
+
+        // POSTメソッド通信を行う
+        return doMethod(
+                client,
+                httpPost,
+                queryParams,
+                requestHeaders,
+                priority,
+                listener,
+                null
+                );
+
+    }
+
+
+    /**
+     * デフォルトHTTPクライアントでレスポンスボディを逐次読み込むHTTP GET通信を行う。
+     *
+     * @param uri               通信先URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param listener          逐次読み込みリスナー
+     * @return 通信要求ハンドル
+     * @throws IllegalArgumentException HTTPクライアントが null の場合
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     */
+    public static HttpRequestHandle doGetStream(
+            final String                uri,
+            final NameValuePair[]       queryParams,
+            final NameValuePair[]       requestHeaders,
+            final HttpStreamListener    listener
+            ) {
+
+        return doGet(defaultClient, uri, queryParams, requestHeaders, listener);
+
+    }
+
+
+    /**
+     * HTTPクライアントを指定してレスポンスボディを逐次読み込むHTTP GET通信を行う。
+     *
+     * @param client            使用するHTTPクライアント
+     * @param uri               通信先URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param listener          逐次読み込みリスナー
+     * @return 通信要求ハンドル
+     * @throws IllegalArgumentException HTTPクライアントが null の場合
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     */
+    public static HttpRequestHandle doGetStream(
+            final HttpClient            client,
+            final String                uri,
+            final NameValuePair[]       queryParams,
+            final NameValuePair[]       requestHeaders,
+            final HttpStreamListener    listener
+            ) {
+
+        return doGet(client, uri, queryParams, requestHeaders, listener);
+
+    }
+
+
+    /**
+     * デフォルトHTTPクライアントでレスポンスボディを逐次読み込むHTTP POST通信を行う。
+     *
+     * @param uri               通信先URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param requestEntity     リクエストエンティティ情報
+     * @param listener          逐次読み込みリスナー
+     * @return 通信要求ハンドル
+     * @throws IllegalArgumentException HTTPクライアントが null の場合
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     */
+    public static HttpRequestHandle doPostStream(
+            final String                uri,
+            final NameValuePair[]       queryParams,
+            final NameValuePair[]       requestHeaders,
+            final HttpEntity            requestEntity,
+            final HttpStreamListener    listener
+            ) {
+
+        return doPost(defaultClient, uri, queryParams, requestHeaders, requestEntity, listener);
+
+    }
+
+
+    /**
+     * HTTPクライアントを指定してレスポンスボディを逐次読み込むHTTP POST通信を行う。
+     *
+     * @param client            使用するHTTPクライアント
+     * @param uri               通信先URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param requestEntity     リクエストエンティティ情報
+     * @param listener          逐次読み込みリスナー
+     * @return 通信要求ハンドル
+     * @throws IllegalArgumentException HTTPクライアントが null の場合
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     */
+    public static HttpRequestHandle doPostStream(
+            final HttpClient            client,
+            final String                uri,
+            final NameValuePair[]       queryParams,
+            final NameValuePair[]       requestHeaders,
+            final HttpEntity            requestEntity,
+            final HttpStreamListener    listener
+            ) {
+
+        return doPost(client, uri, queryParams, requestHeaders, requestEntity, listener);
+
+    }
+
+
+    /**
+     * デフォルトHTTPクライアントでHTTP GET通信を行い、レスポンスボディをファイルへ保存する。<br>
+     * <br>
+     * 成功ステータス (2xx) の場合のみファイルへ保存し、保存したファイルは {@link HttpResult#getBodyFile()} で取得する。<br>
+     * それ以外のステータスの場合、レスポンスボディは {@link HttpResult#getBodyData()} で取得する。<br>
+     *
+     * @param uri               通信先URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param downloadFile      保存先ファイル
+     * @param listener          通信完了通知先リスナー
+     * @return 通信要求ハンドル
+     * @throws IllegalArgumentException HTTPクライアントが null の場合
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     * @throws IllegalArgumentException 保存先ファイルが null の場合
+     */
+    public static HttpRequestHandle doDownload(
+            final String            uri,
+            final NameValuePair[]   queryParams,
+            final NameValuePair[]   requestHeaders,
+            final File              downloadFile,
+            final HttpListener      listener
+            ) {
+
+        return doDownload(defaultClient, uri, queryParams, requestHeaders, downloadFile, listener);
+
+    }
+
+
+    /**
+     * HTTPクライアントを指定してHTTP GET通信を行い、レスポンスボディをファイルへ保存する。<br>
+     * <br>
+     * 成功ステータス (2xx) の場合のみファイルへ保存し、保存したファイルは {@link HttpResult#getBodyFile()} で取得する。<br>
+     * それ以外のステータスの場合、レスポンスボディは {@link HttpResult#getBodyData()} で取得する。<br>
+     *
+     * @param client            使用するHTTPクライアント
+     * @param uri               通信先URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param downloadFile      保存先ファイル
+     * @param listener          通信完了通知先リスナー
+     * @return 通信要求ハンドル
+     * @throws IllegalArgumentException HTTPクライアントが null の場合
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     * @throws IllegalArgumentException 保存先ファイルが null の場合
+     */
+    public static HttpRequestHandle doDownload(
+            final HttpClient        client,
+            final String            uri,
+            final NameValuePair[]   queryParams,
+            final NameValuePair[]   requestHeaders,
+            final File              downloadFile,
+            final HttpListener      listener
+            ) {
+
+        return doDownload(client, uri, queryParams, requestHeaders, DEFAULT_PRIORITY, downloadFile, listener);
+
+    }
+
+
+    /**
+     * HTTPクライアントと通信優先度を指定してHTTP GET通信を行い、レスポンスボディをファイルへ保存する。
+     *
+     * @param client            使用するHTTPクライアント
+     * @param uri               通信先URI
+     * @param queryParams       URIに付加するクエリパラメータ
+     * @param requestHeaders    リクエストヘッダ情報
+     * @param priority          通信優先度
+     * @param downloadFile      保存先ファイル
+     * @param listener          通信完了通知先リスナー
+     * @return 通信要求ハンドル
+     * @throws IllegalArgumentException HTTPクライアントまたは通信優先度が null の場合
+     * @throws IllegalArgumentException URIが null または長さ 0 の場合
+     * @throws IllegalArgumentException 保存先ファイルが null の場合
+     * @see #doDownload(HttpClient, String, NameValuePair[], NameValuePair[], File, HttpListener)
+     */
+    public static HttpRequestHandle doDownload(
+            final HttpClient        client,
+            final String            uri,
+            final NameValuePair[]   queryParams,
+            final NameValuePair[]   requestHeaders,
+            final HttpPriority      priority,
+            final File              downloadFile,
+            final HttpListener      listener
+            ) {
+
+        // URI または保存先ファイルが null の場合は例外
+        if ((uri == null) || (uri.length() == 0) || (downloadFile == null)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // GETメソッド通信を行う
+        return doMethod(
+                client,
+                new HttpGet(HttpUtils.createURI(uri, queryParams)),
                 queryParams,
                 requestHeaders,
-                listener
+                priority,
+                listener,
+                downloadFile
                 );
 
     }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import android.os.Process;
+
+
+/**
+ * HTTP通信の優先度を定義した列挙型。<br>
+ * <br>
+ * 実行待ちの通信は優先度の高い順、同じ優先度の場合は要求順に開始される。<br>
+ *
+ * @author Kou
+ *
+ */
+public enum HttpPriority {
+
+
+    /**
+     * 画面表示に必要な通信。最も優先して開始する
+     */
+    FOREGROUND(Process.THREAD_PRIORITY_DEFAULT),
+
+    /**
+     * 通常の通信
+     */
+    BACKGROUND(Process.THREAD_PRIORITY_BACKGROUND),
+
+    /**
+     * 先読み通信。他の通信が全て開始された後に開始する
+     */
+    PREFETCH(Process.THREAD_PRIORITY_LOWEST);
+
+
+
+    /**
+     * 通信スレッドの優先度
+     */
+    private final int   threadPriority;
+
+
+
+    /**
+     * 優先度を初期化する。
+     *
+     * @param priority  通信スレッドの優先度
+     */
+    private HttpPriority(
+            final int   priority
+            ) {
+
+        threadPriority = priority;
+
+    }
+
+
+    /**
+     * 通信スレッドの優先度を取得する。
+     *
+     * @return 通信スレッドの優先度 ({@link Process#setThreadPriority(int)} の値)
+     */
+    int getThreadPriority() {
+
+        return threadPriority;
+
+    }
+
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import org.apache.http.NameValuePair;
+
+
+/**
+ * クエリ文字列作成クラス。<br>
+ * <br>
+ * 追加したクエリパラメータを UTF-8 でURLエンコードしながら内部バッファへ直接追加する。<br>
+ * {@link #clear()} で内部バッファを保持したまま再利用できるため、<br>
+ * 同じスレッドで多数のURLを作成する場合はインスタンスを使い回すこと。<br>
+ * スレッドセーフではない。<br>
+ *
+ * @author Kou
+ *
+ */
+public final class HttpQueryBuilder {
+
+
+    /**
+     * デフォルト初期容量
+     */
+    private static final int            DEFAULT_CAPACITY    = 128;
+
+    /**
+     * クエリパラメータの連結文字
+     */
+    private static final char           TOKEN_QUERY_PARAMS  = '&';
+
+    /**
+     * URLとクエリ文字列の連結文字
+     */
+    private static final char           TOKEN_URL_QUERY     = '?';
+
+    /**
+     * クエリ文字列バッファ
+     */
+    private final StringBuilder         builderQuery;
+
+
+
+    /**
+     * デフォルト初期容量でクエリ文字列作成を初期化する。
+     *
+     */
+    public HttpQueryBuilder() {
+
+        this(DEFAULT_CAPACITY);
+
+    }
+
+
+    /**
+     * 初期容量を指定してクエリ文字列作成を初期化する。
+     *
+     * @param capacity  初期容量
+     * @throws IllegalArgumentException 初期容量が負の値の場合
+     */
+    public HttpQueryBuilder(
+            final int   capacity
+            ) {
+
+        // 初期容量が負の値の場合は例外
+        if (capacity < 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        builderQuery = new StringBuilder(capacity);
+
+    }
+
+
+    /**
+     * クエリパラメータを追加する。
+     *
+     * @param name  項目名
+     * @param value 値。null の場合は空文字
+     * @return 自身のインスタンス
+     * @throws IllegalArgumentException 項目名が null の場合
+     */
+    public HttpQueryBuilder add(
+            final String    name,
+            final String    value
+            ) {
+
+        // 項目名が null の場合は例外
+        if (name == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // 2 件目以降の場合
+        if (builderQuery.length() > 0) {
+
+            // 連結文字を付加
+            builderQuery.append(TOKEN_QUERY_PARAMS);
+
+        }
+
+        HttpUtils.appendQueryParam(builderQuery, name, value);
+
+        return this;
+
+    }
+
+
+    /**
+     * クエリパラメータを追加する。
+     *
+     * @param param クエリパラメータ
+     * @return 自身のインスタンス
+     * @throws IllegalArgumentException クエリパラメータまたは項目名が null の場合
+     */
+    public HttpQueryBuilder add(
+            final NameValuePair param
+            ) {
+
+        // クエリパラメータが null の場合は例外
+        if (param == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        return add(param.getName(), param.getValue());
+
+    }
+
+
+    /**
+     * クエリパラメータ一覧を追加する。
+     *
+     * @param params    クエリパラメータ一覧
+     * @return 自身のインスタンス
+     * @throws IllegalArgumentException クエリパラメータ一覧、クエリパラメータ、項目名のいずれかが null の場合
+     */
+    public HttpQueryBuilder addAll(
+            final NameValuePair[]   params
+            ) {
+
+        // クエリパラメータ一覧が null の場合は例外
+        if (params == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // クエリパラメータ分処理をする
+        for (final NameValuePair param : params) {
+
+            add(param);
+
+        }
+
+        return this;
+
+    }
+
+
+    /**
+     * 追加したクエリパラメータを全て削除する。<br>
+     * <br>
+     * 内部バッファは解放せずに再利用する。<br>
+     *
+     * @return 自身のインスタンス
+     */
+    public HttpQueryBuilder clear() {
+
+        builderQuery.setLength(0);
+
+        return this;
+
+    }
+
+
+    /**
+     * クエリ文字列の長さを取得する。
+     *
+     * @return クエリ文字列の長さ
+     */
+    public int length() {
+
+        return builderQuery.length();
+
+    }
+
+
+    /**
+     * クエリ文字列を出力先バッファへ追加する。
+     *
+     * @param outBuf    出力先バッファ
+     * @return 出力先バッファ
+     * @throws IllegalArgumentException 出力先バッファが null の場合
+     */
+    public StringBuilder appendTo(
+            final StringBuilder outBuf
+            ) {
+
+        // 出力先バッファが null の場合は例外
+        if (outBuf == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        return outBuf.append(builderQuery);
+
+    }
+
+
+    /**
+     * ベースURIへクエリ文字列を付加したURI文字列を作成する。<br>
+     * <br>
+     * ベースURIが既にクエリ文字列を含む場合は & で連結する。<br>
+     *
+     * @param baseURI   ベースとなるURI文字列
+     * @return 作成したURI文字列
+     * @throws IllegalArgumentException ベースURIが null の場合
+     */
+    public String toURI(
+            final String    baseURI
+            ) {
+
+        // ベースURIが null の場合は例外
+        if (baseURI == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // クエリパラメータがない場合
+        if (builderQuery.length() == 0) {
+
+            // そのまま返す
+            return baseURI;
+
+        }
+
+        final StringBuilder     uriBuf = new StringBuilder(baseURI.length() + 1 + builderQuery.length());
+
+        // ベースURIとクエリ文字列を連結する
+        uriBuf.append(baseURI);
+        uriBuf.append(baseURI.indexOf(TOKEN_URL_QUERY) == -1 ? TOKEN_URL_QUERY : TOKEN_QUERY_PARAMS);
+        uriBuf.append(builderQuery);
+
+        return uriBuf.toString();
+
+    }
+
+
+    /**
+     * クエリ文字列を取得する。
+     *
+     * @return クエリ文字列
+     */
+    @Override
+    public String toString() {
+
+        return builderQuery.toString();
+
+    }
+
+
+}
@@ -0,0 +1,461 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.Header;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpRequestBase;
+
+
+/**
+ * 同一通信要求のまとめ処理クラス。<br>
+ * <br>
+ * 同じHTTPクライアント・URI・リクエストヘッダ・レスポンス展開指定の GET 通信が実行中の場合、<br>
+ * 新しく通信せずに実行中の通信へ通知先を追加し、1 回の通信結果を全通知先へ渡す。<br>
+ *
+ * @author Kou
+ *
+ */
+final class HttpRequestCoalescer {
+
+
+    /**
+     * 圧縮されたレスポンスを展開しない場合にキーへ付加する行
+     */
+    private static final String         KEY_LINE_RAW    = "\nraw";
+
+    /**
+     * 実行中の通信一覧<br>
+     * <br>
+     * <table border="1">
+     * <tr>
+     *   <td>項目</td><td>型</td><td>内容</td>
+     * </tr>
+     * <tr>
+     *   <td>キー</td><td>String</td><td>URI・リクエストヘッダ・レスポンス展開指定から作成したキー</td>
+     * </tr>
+     * <tr>
+     *   <td>値</td><td>Call</td><td>実行中の通信</td>
+     * </tr>
+     * </table>
+     */
+    private final Map<String, Call>     coalescerCalls = new HashMap<String, Call>();
+
+
+
+    /**
+     * 実行中の同じ通信へ通知先を追加する。<br>
+     * <br>
+     * 実行中の同じ通信がない場合は、新しい通信を登録して返す。<br>
+     * 呼び出し元は返された通信を開始し、完了時に {@link #complete(Call)} を呼び出すこと。<br>
+     *
+     * @param client    使用するHTTPクライアント
+     * @param method    通信メソッド
+     * @param decoding  圧縮されたレスポンスを展開するかどうか
+     * @param handle    通知先の通信要求ハンドル
+     * @param listener  通知先の通信完了通知先リスナー
+     * @return 新しく登録した通信。実行中の通信へ追加した場合は null
+     */
+    synchronized Call join(
+            final HttpClient        client,
+            final HttpRequestBase   method,
+            final boolean           decoding,
+            final HttpRequestHandle handle,
+            final HttpListener      listener
+            ) {
+
+        final String    key  = createKey(method, decoding);
+        final Call      call = coalescerCalls.get(key);
+
+
+        // 同じクライアントの通信が実行中で、通知先を追加できた場合
+        if ((call != null) && (call.callClient == client) && call.addSubscriber(handle, listener)) {
+
+            // 通信を開始しない
+            return null;
+
+        }
+
+        final Call      newCall = new Call(this, key, client);
+
+        // 通知先を追加して登録する
+        newCall.addSubscriber(handle, listener);
+        coalescerCalls.put(key, newCall);
+
+        return newCall;
+
+    }
+
+
+    /**
+     * 通信を完了し、通知先一覧を取得する。<br>
+     * <br>
+     * 以降の同じ通信要求は新しい通信となる。<br>
+     *
+     * @param call  完了した通信
+     * @return 取り消されていない通知先一覧
+     */
+    List<Subscriber> complete(
+            final Call  call
+            ) {
+
+        synchronized (this) {
+
+            // 登録されている場合
+            if (coalescerCalls.get(call.callKey) == call) {
+
+                // 実行中の通信一覧から取り除く
+                coalescerCalls.remove(call.callKey);
+
+            }
+
+        }
+
+        return call.close();
+
+    }
+
+
+    /**
+     * 通信が全ての通知先から取り消された場合に実行中の通信一覧から取り除く。
+     *
+     * @param call  取り消された通信
+     */
+    private synchronized void discard(
+            final Call  call
+            ) {
+
+        // 登録されている場合
+        if (coalescerCalls.get(call.callKey) == call) {
+
+            // 実行中の通信一覧から取り除く
+            coalescerCalls.remove(call.callKey);
+
+        }
+
+    }
+
+
+    /**
+     * 通信メソッドからまとめ処理のキーを作成する。<br>
+     * <br>
+     * 展開の有無で通知するレスポンスの形式が異なるため、展開しない場合は別のキーとする。<br>
+     *
+     * @param method    通信メソッド
+     * @param decoding  圧縮されたレスポンスを展開するかどうか
+     * @return URI・リクエストヘッダ・レスポンス展開指定から作成したキー
+     */
+    private static String createKey(
+            final HttpRequestBase   method,
+            final boolean           decoding
+            ) {
+
+        final StringBuilder     keyBuilder = new StringBuilder(method.getURI().toString());
+
+
+        // リクエストヘッダ分処理をする
+        for (final Header header : method.getAllHeaders()) {
+
+            keyBuilder.append('\n').append(header.getName()).append(": ").append(header.getValue());
+
+        }
+
+        // 展開しない場合
+        if (!decoding) {
+
+            // 展開する通信とまとめないようにする
+            keyBuilder.append(KEY_LINE_RAW);
+
+        }
+
+        return keyBuilder.toString();
+
+    }
+
+
+
+
+    /**
+     * 実行中の通信クラス。
+     *
+     * @author Kou
+     *
+     */
+    static final class Call {
+
+
+        /**
+         * まとめ処理
+         */
+        private final HttpRequestCoalescer  callCoalescer;
+
+        /**
+         * まとめ処理のキー
+         */
+        private final String                callKey;
+
+        /**
+         * 使用するHTTPクライアント
+         */
+        private final HttpClient            callClient;
+
+        /**
+         * 通知先一覧
+         */
+        private final List<Subscriber>      callSubscribers = new ArrayList<Subscriber>();
+
+        /**
+         * 実際に通信する通信要求ハンドル
+         */
+        private HttpRequestHandle           callNetworkHandle;
+
+        /**
+         * 完了したかどうか
+         */
+        private boolean                     callClosed;
+
+
+
+        /**
+         * 実行中の通信を初期化する。
+         *
+         * @param coalescer まとめ処理
+         * @param key       まとめ処理のキー
+         * @param client    使用するHTTPクライアント
+         */
+        Call(
+                final HttpRequestCoalescer  coalescer,
+                final String                key,
+                final HttpClient            client
+                ) {
+
+            callCoalescer = coalescer;
+            callKey       = key;
+            callClient    = client;
+
+        }
+
+
+        /**
+         * 実際に通信する通信要求ハンドルを設定する。<br>
+         * <br>
+         * 既に全ての通知先から取り消されている場合は通信を取り消す。<br>
+         *
+         * @param handle    実際に通信する通信要求ハンドル
+         */
+        void setNetworkHandle(
+                final HttpRequestHandle handle
+                ) {
+
+            final boolean   cancelled;  // 全ての通知先から取り消されているかどうか
+
+            synchronized (this) {
+
+                callNetworkHandle = handle;
+                cancelled         = callSubscribers.isEmpty();
+
+            }
+
+            // 取り消されている場合
+            if (cancelled) {
+
+                handle.cancel();
+
+            }
+
+        }
+
+
+        /**
+         * 通知先を追加する。
+         *
+         * @param handle    通知先の通信要求ハンドル
+         * @param listener  通知先の通信完了通知先リスナー
+         * @return 追加した場合は true。既に完了している場合は false
+         */
+        private synchronized boolean addSubscriber(
+                final HttpRequestHandle handle,
+                final HttpListener      listener
+                ) {
+
+            // 完了している場合
+            if (callClosed) {
+
+                return false;
+
+            }
+
+            final Subscriber    subscriber = new Subscriber(handle, listener);
+
+            // 通知先を追加する
+            callSubscribers.add(subscriber);
+
+            // 取り消し時は通知先から取り除く
+            handle.share(new Runnable() {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void run() {
+
+                    removeSubscriber(subscriber);
+
+                }
+
+            });
+
+            return true;
+
+        }
+
+
+        /**
+         * 通知先を取り除く。<br>
+         * <br>
+         * 全ての通知先が取り除かれた場合は通信を取り消す。<br>
+         *
+         * @param subscriber    取り除く通知先
+         */
+        private void removeSubscriber(
+                final Subscriber    subscriber
+                ) {
+
+            final HttpRequestHandle networkHandle;  // 取り消す通信要求ハンドル
+
+            synchronized (this) {
+
+                // 通知先を取り除く
+                callSubscribers.remove(subscriber);
+                subscriber.subscriberHandle.finish();
+
+                // 通知先が残っている、または完了している場合
+                if (!callSubscribers.isEmpty() || callClosed) {
+
+                    // 通信は継続する
+                    return;
+
+                }
+
+                // 完了状態にする
+                callClosed    = true;
+                networkHandle = callNetworkHandle;
+
+            }
+
+            // 以降の同じ通信要求は新しい通信とする
+            callCoalescer.discard(this);
+
+            // 通信を開始している場合
+            if (networkHandle != null) {
+
+                // 通信を取り消す
+                networkHandle.cancel();
+
+            }
+
+        }
+
+
+        /**
+         * 通信を完了状態にして通知先一覧を取得する。
+         *
+         * @return 通知先一覧
+         */
+        private synchronized List<Subscriber> close() {
+
+            callClosed = true;
+
+            return new ArrayList<Subscriber>(callSubscribers);
+
+        }
+
+
+    }
+
+
+
+
+    /**
+     * 通知先クラス。
+     *
+     * @author Kou
+     *
+     */
+    static final class Subscriber {
+
+
+        /**
+         * 通信要求ハンドル
+         */
+        private final HttpRequestHandle     subscriberHandle;
+
+        /**
+         * 通信完了通知先リスナー
+         */
+        private final HttpListener          subscriberListener;
+
+
+
+        /**
+         * 通知先を初期化する。
+         *
+         * @param handle    通信要求ハンドル
+         * @param listener  通信完了通知先リスナー
+         */
+        Subscriber(
+                final HttpRequestHandle handle,
+                final HttpListener      listener
+                ) {
+
+            subscriberHandle   = handle;
+            subscriberListener = listener;
+
+        }
+
+
+        /**
+         * 通信要求ハンドルを取得する。
+         *
+         * @return 通信要求ハンドル
+         */
+        HttpRequestHandle getHandle() {
+
+            return subscriberHandle;
+
+        }
+
+
+        /**
+         * 通信完了通知先リスナーを取得する。
+         *
+         * @return 通信完了通知先リスナー。ない場合は null
+         */
+        HttpListener getListener() {
+
+            return subscriberListener;
+
+        }
+
+
+    }
+
+
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import org.apache.http.client.methods.HttpRequestBase;
+
+import android.os.Process;
+
+
+/**
+ * HTTP通信要求ハンドルクラス。<br>
+ * <br>
+ * 通信要求ごとに作成され、実行待ち・通信中の要求を取り消すために利用する。<br>
+ * 取り消した要求の通信完了通知先リスナーは呼び出されない。<br>
+ * 他の要求と通信を共有している場合、取り消しても共有している通信は継続する。<br>
+ * 再試行待ちの場合は完了状態とならず、取り消すと以降の再試行を行わない。<br>
+ *
+ * @author Kou
+ *
+ */
+public final class HttpRequestHandle {
+
+
+    /**
+     * 通信メソッド。再試行時は再試行用の通信メソッドに置き換わる
+     */
+    private volatile HttpRequestBase    handleMethod;
+
+    /**
+     * 通信優先度
+     */
+    private final HttpPriority          handlePriority;
+
+    /**
+     * 通信先ホスト名
+     */
+    private final String                handleHost;
+
+    /**
+     * 要求順序
+     */
+    private long                        handleSequence;
+
+    /**
+     * 実行する通信処理
+     */
+    private Runnable                    handleTask;
+
+    /**
+     * 要求を受け付けた実行管理
+     */
+    private HttpDispatcher              handleDispatcher;
+
+    /**
+     * 他の要求と通信を共有している場合の取り消し処理。共有していない場合は null
+     */
+    private volatile Runnable           handleSharedCancel;
+
+    /**
+     * 取り消されたかどうか
+     */
+    private volatile boolean            handleCancelled;
+
+    /**
+     * 完了したかどうか
+     */
+    private volatile boolean            handleDone;
+
+    /**
+     * 再試行待ちかどうか
+     */
+    private volatile boolean            handleRetrying;
+
+
+
+    /**
+     * 通信要求ハンドルを初期化する。
+     *
+     * @param method    通信メソッド
+     * @param priority  通信優先度
+     */
+    HttpRequestHandle(
+            final HttpRequestBase   method,
+            final HttpPriority      priority
+            ) {
+
+        // 通信メソッドまたは優先度が null の場合は例外
+        if ((method == null) || (priority == null)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        final String    host = method.getURI() == null ? null : method.getURI().getHost();
+
+        // 各種情報を初期化する
+        handleMethod   = method;
+        handlePriority = priority;
+        handleHost     = host == null ? "" : host.toLowerCase();
+
+    }
+
+
+    /**
+     * 通信要求を取り消す。<br>
+     * <br>
+     * 実行待ちの場合は実行せずに破棄し、通信中の場合は通信を中断する。<br>
+     *
+     * @return 取り消した場合は true。既に完了または取り消し済みの場合は false
+     */
+    public boolean cancel() {
+
+        // 完了または取り消し済みの場合
+        if (handleDone || handleCancelled) {
+
+            // 取り消さない
+            return false;
+
+        }
+
+        // 取り消し状態にする
+        handleCancelled = true;
+
+        final Runnable          sharedCancel = handleSharedCancel;
+
+        // 他の要求と通信を共有している場合
+        if (sharedCancel != null) {
+
+            // 共有を解除する
+            sharedCancel.run();
+            return true;
+
+        }
+
+        final HttpDispatcher    dispatcher = handleDispatcher;
+
+        // 実行待ちから取り除けた場合
+        if ((dispatcher != null) && dispatcher.remove(this)) {
+
+            // 実行せずに完了する
+            handleDone = true;
+            return true;
+
+        }
+
+        // 通信を中断する
+        handleMethod.abort();
+
+        return true;
+
+    }
+
+
+    /**
+     * 取り消されたかどうかを取得する。
+     *
+     * @return 取り消された場合は true
+     */
+    public boolean isCancelled() {
+
+        return handleCancelled;
+
+    }
+
+
+    /**
+     * 完了したかどうかを取得する。
+     *
+     * @return 通信が終了した、または実行前に取り消された場合は true
+     */
+    public boolean isDone() {
+
+        return handleDone;
+
+    }
+
+
+    /**
+     * 通信優先度を取得する。
+     *
+     * @return 通信優先度
+     */
+    public HttpPriority getPriority() {
+
+        return handlePriority;
+
+    }
+
+
+    /**
+     * 通信先ホスト名を取得する。
+     *
+     * @return 通信先ホスト名 (小文字)
+     */
+    String getHost() {
+
+        return handleHost;
+
+    }
+
+
+    /**
+     * 要求順序を取得する。
+     *
+     * @return 要求順序
+     */
+    long getSequence() {
+
+        return handleSequence;
+
+    }
+
+
+    /**
+     * 実行管理へ受け付けられた際の情報を設定する。
+     *
+     * @param dispatcher    要求を受け付けた実行管理
+     * @param sequence      要求順序
+     * @param task          実行する通信処理
+     */
+    void accept(
+            final HttpDispatcher    dispatcher,
+            final long              sequence,
+            final Runnable          task
+            ) {
+
+        handleDispatcher = dispatcher;
+        handleSequence   = sequence;
+        handleTask       = task;
+
+    }
+
+
+    /**
+     * 他の要求と通信を共有する状態にする。
+     *
+     * @param cancelAction  取り消し時に共有を解除する処理
+     */
+    void share(
+            final Runnable  cancelAction
+            ) {
+
+        handleSharedCancel = cancelAction;
+
+    }
+
+
+    /**
+     * 完了状態にする。
+     *
+     */
+    void finish() {
+
+        handleDone = true;
+
+    }
+
+
+    /**
+     * 再試行待ちの状態にする。<br>
+     * <br>
+     * 通信処理の実行中に呼び出すと、実行終了後も完了状態にならない。<br>
+     * 以降の取り消しは再試行用の通信メソッドを中断する。<br>
+     *
+     * @param method    再試行用の通信メソッド
+     */
+    void retry(
+            final HttpRequestBase   method
+            ) {
+
+        handleMethod   = method;
+        handleRetrying = true;
+
+    }
+
+
+    /**
+     * 通信処理を実行する。<br>
+     * <br>
+     * 実行前に取り消されていた場合は何もしない。<br>
+     *
+     */
+    void run() {
+
+        // 再試行待ちを解除する
+        handleRetrying = false;
+
+        try {
+
+            // 取り消されていない場合
+            if (!handleCancelled) {
+
+                // 通信スレッドの優先度を設定する
+                Process.setThreadPriority(handlePriority.getThreadPriority());
+
+                // 通信処理を実行する
+                handleTask.run();
+
+            }
+
+        } finally {
+
+            // 再試行待ちでない場合
+            if (!handleRetrying) {
+
+                // 完了状態にする
+                handleDone = true;
+
+            }
+
+        }
+
+    }
+
+
+}
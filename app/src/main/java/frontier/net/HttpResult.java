@@ -15,15 +15,29 @@
  */
 package frontier.net;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.NameValuePair;
+
+import frontier.util.StringUtils;
 
 
 /**
- * HTTP通信結果データ。
+ * HTTP通信結果データ。<br>
+ * <br>
+ * レスポンスボディは {@link #getBodyBuffer()} / {@link #getBodyStream()} / {@link #getBodyString()} で<br>
+ * 複製せずに参照・変換できる。<br>
  *
  * @author Kou
  *
@@ -31,6 +45,11 @@ import org.apache.http.Header;
 public class HttpResult {
 
 
+    /**
+     * Content-Type パラメータ : 文字セット
+     */
+    private static final String         PARAMETER_CHARSET   = "charset";
+
     /**
      * レスポンスヘッダ一覧
      */
@@ -46,6 +65,21 @@ public class HttpResult {
      */
     private final byte[]                resultBodyData;
 
+    /**
+     * レスポンスボディ保存先ファイル
+     */
+    private final File                  resultBodyFile;
+
+    /**
+     * 通信失敗の原因
+     */
+    private final Throwable             resultFailureCause;
+
+    /**
+     * 小文字のヘッダ名をキーにしたレスポンスヘッダ索引。未作成の場合は null
+     */
+    private volatile Map<String, Header>    resultHeaderIndex;
+
 
 
     /**
@@ -61,24 +95,104 @@ public class HttpResult {
             final byte[]    bodyData
             ) {
 
+        this(headers, statusCode, bodyData, null);
+
+    }
+
+
+    /**
+     * レスポンスボディ保存先ファイルを指定してHTTP通信結果データを初期化する。
+     *
+     * @param headers       レスポンスヘッダ
+     * @param statusCode    ステータスコード
+     * @param bodyData      レスポンスボディデータ
+     * @param bodyFile      レスポンスボディ保存先ファイル
+     */
+    HttpResult(
+            final Header[]  headers,
+            final int       statusCode,
+            final byte[]    bodyData,
+            final File      bodyFile
+            ) {
+
+        this(headers, statusCode, bodyData, bodyFile, null);
+
+    }
+
+
+    /**
+     * 通信失敗の原因を指定してHTTP通信結果データを初期化する。
+     *
+     * @param headers       レスポンスヘッダ
+     * @param statusCode    ステータスコード
+     * @param bodyData      レスポンスボディデータ
+     * @param bodyFile      レスポンスボディ保存先ファイル
+     * @param failureCause  通信失敗の原因。失敗していない場合は null
+     */
+    HttpResult(
+            final Header[]  headers,
+            final int       statusCode,
+            final byte[]    bodyData,
+            final File      bodyFile,
+            final Throwable failureCause
+            ) {
+
         resultHeaders       = headers == null ? new ArrayList<Header>() : Arrays.asList(headers);
         resultStatusCode    = statusCode;
         resultBodyData      = bodyData;
+        resultBodyFile      = bodyFile;
+        resultFailureCause  = failureCause;
 
     }
 
 
     /**
-     * 指定されたレスポンスヘッダ名に対応するレスポンスヘッダを取得する。
+     * 指定されたレスポンスヘッダ名に対応するレスポンスヘッダを取得する。<br>
+     * <br>
+     * ヘッダ名の大文字・小文字は区別しない。同名のヘッダが複数ある場合は最初のヘッダを返す。<br>
+     * 初回呼び出し時にヘッダ索引を作成し、以降は索引から取得する。<br>
      *
      * @param name  レスポンスヘッダ名
-     * @return レスポンスヘッダ
+     * @return レスポンスヘッダ。ない場合は null
+     * @throws IllegalArgumentException レスポンスヘッダ名が null の場合
      */
     public Header getHeader(
             final String    name
             ) {
 
-        return HttpUtils.getHeader(resultHeaders, name);
+        // レスポンスヘッダ名が null の場合は例外
+        if (name == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        Map<String, Header>     headerIndex = resultHeaderIndex;
+
+        // 索引が未作成の場合
+        if (headerIndex == null) {
+
+            // 索引を作成する
+            headerIndex = new HashMap<String, Header>();
+
+            for (final Header header : resultHeaders) {
+
+                final String    key = header.getName().toLowerCase();
+
+                // 最初のヘッダのみ登録する
+                if (!headerIndex.containsKey(key)) {
+
+                    headerIndex.put(key, header);
+
+                }
+
+            }
+
+            resultHeaderIndex = headerIndex;
+
+        }
+
+        return headerIndex.get(name.toLowerCase());
 
     }
 
@@ -119,4 +233,194 @@ public class HttpResult {
     }
 
 
+    /**
+     * レスポンスボディデータを複製せずに取得する。
+     *
+     * @return レスポンスボディデータ (変更不可)
+     */
+    byte[] getBodyDataDirect() {
+
+        return resultBodyData;
+
+    }
+
+
+    /**
+     * レスポンスボディデータのサイズを取得する。
+     *
+     * @return レスポンスボディデータのサイズ (バイト)。レスポンスボディデータがない場合は 0
+     */
+    public int getBodyLength() {
+
+        return resultBodyData == null ? 0 : resultBodyData.length;
+
+    }
+
+
+    /**
+     * レスポンスボディデータを読み込み専用バッファとして取得する。<br>
+     * <br>
+     * レスポンスボディデータは複製しない。<br>
+     *
+     * @return レスポンスボディデータを参照する読み込み専用バッファ。レスポンスボディデータがない場合は null
+     */
+    public ByteBuffer getBodyBuffer() {
+
+        return resultBodyData == null ? null : ByteBuffer.wrap(resultBodyData).asReadOnlyBuffer();
+
+    }
+
+
+    /**
+     * レスポンスボディデータを読み込む入力ストリームを取得する。<br>
+     * <br>
+     * レスポンスボディデータは複製しない。<br>
+     *
+     * @return レスポンスボディデータを読み込む入力ストリーム。レスポンスボディデータがない場合は null
+     */
+    public InputStream getBodyStream() {
+
+        return resultBodyData == null ? null : new ByteArrayInputStream(resultBodyData);
+
+    }
+
+
+    /**
+     * Content-Type の文字セットを取得する。
+     *
+     * @return Content-Type の charset パラメータ。指定されていない場合は null
+     */
+    public String getCharset() {
+
+        final Header    contentType = getHeader(HttpMethod.HEADER_CONTENT_TYPE);
+
+
+        // Content-Type がない場合
+        if (contentType == null) {
+
+            return null;
+
+        }
+
+        // ヘッダ要素分処理をする
+        for (final HeaderElement element : contentType.getElements()) {
+
+            final NameValuePair     charset = element.getParameterByName(PARAMETER_CHARSET);
+
+            // 文字セットが指定されている場合
+            if ((charset != null) && (charset.getValue() != null) && (charset.getValue().length() > 0)) {
+
+                return charset.getValue();
+
+            }
+
+        }
+
+        return null;
+
+    }
+
+
+    /**
+     * Content-Type の文字セットでレスポンスボディデータを文字列へ変換する。<br>
+     * <br>
+     * 文字セットが指定されていない場合は UTF-8 で変換する。<br>
+     *
+     * @return 変換した文字列。レスポンスボディデータがない場合は null
+     */
+    public String getBodyString() {
+
+        return getBodyString(StringUtils.UTF_8);
+
+    }
+
+
+    /**
+     * Content-Type の文字セットでレスポンスボディデータを文字列へ変換する。<br>
+     * <br>
+     * レスポンスボディデータから直接変換し、中間の複製は作成しない。<br>
+     * 文字セットが指定されていない、または未対応の文字セットの場合はデフォルト文字セットで変換する。<br>
+     *
+     * @param defaultCharset    デフォルト文字セット
+     * @return 変換した文字列。レスポンスボディデータがない場合は null
+     * @throws IllegalArgumentException デフォルト文字セットが null、または未対応の文字セットの場合
+     */
+    public String getBodyString(
+            final String    defaultCharset
+            ) {
+
+        // デフォルト文字セットが null の場合は例外
+        if (defaultCharset == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // レスポンスボディデータがない場合
+        if (resultBodyData == null) {
+
+            return null;
+
+        }
+
+        final String    charset = getCharset();
+
+        // 文字セットが指定されている場合
+        if (charset != null) {
+
+            try {
+
+                // 指定された文字セットで変換する
+                return new String(resultBodyData, 0, resultBodyData.length, charset);
+
+            } catch (final UnsupportedEncodingException e) {
+
+                e.printStackTrace();
+
+            }
+
+        }
+
+        try {
+
+            // デフォルト文字セットで変換する
+            return new String(resultBodyData, 0, resultBodyData.length, defaultCharset);
+
+        } catch (final UnsupportedEncodingException e) {
+
+            throw new IllegalArgumentException(e.getMessage());
+
+        }
+
+    }
+
+
+    /**
+     * レスポンスボディ保存先ファイルを取得する。
+     *
+     * @return レスポンスボディ保存先ファイル。ファイルへ保存していない場合、または保存に失敗した場合は null
+     */
+    public File getBodyFile() {
+
+        return resultBodyFile;
+
+    }
+
+
+    /**
+     * 通信失敗の原因を取得する。<br>
+     * <br>
+     * 接続エラー・タイムアウトなどでレスポンスを受信できなかった場合に設定される。<br>
+     * この場合のステータスコードは {@link org.apache.http.HttpStatus#SC_BAD_REQUEST} となる。<br>
+     * 接続先ホストの障害により通信しなかった場合は {@link HttpCircuitOpenException} となる。<br>
+     *
+     * @return 通信失敗の原因。失敗していない場合は null
+     */
+    public Throwable getFailureCause() {
+
+        return resultFailureCause;
+
+    }
+
+
 }
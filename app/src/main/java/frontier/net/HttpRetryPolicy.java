@@ -0,0 +1,467 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ConnectTimeoutException;
+
+
+/**
+ * HTTP通信の再試行方針クラス。<br>
+ * <br>
+ * 通信に失敗した場合、または再試行対象のステータスコードを受信した場合に、<br>
+ * 指数関数的に増加する待機時間にゆらぎを加えて再試行する。<br>
+ * 待機中は通信スレッドを占有せず、待機時間経過後に改めて通信要求を実行待ちへ追加する。<br>
+ * <br>
+ * 冪等でないメソッド (POST など) は、送信前の接続失敗の場合のみ再試行する。<br>
+ * 再送できないリクエストエンティティを持つ通信は再試行しない。<br>
+ * 設定は {@link HttpMethod#setRetryPolicy(HttpRetryPolicy)} で設定する前に行うこと。<br>
+ *
+ * @author Kou
+ *
+ */
+public final class HttpRetryPolicy {
+
+
+    /**
+     * ヘッダ : 再試行までの待機時間
+     */
+    private static final String             HEADER_RETRY_AFTER          = "Retry-After";
+
+    /**
+     * デフォルト最大試行回数
+     */
+    private static final int                DEFAULT_MAX_ATTEMPTS        = 3;
+
+    /**
+     * デフォルト初回待機時間 (ms)
+     */
+    private static final long               DEFAULT_INITIAL_BACKOFF     = 500L;
+
+    /**
+     * デフォルト最大待機時間 (ms)
+     */
+    private static final long               DEFAULT_MAX_BACKOFF         = 30000L;
+
+    /**
+     * デフォルト待機時間の増加倍率
+     */
+    private static final double             DEFAULT_MULTIPLIER          = 2.0;
+
+    /**
+     * デフォルト待機時間のゆらぎの割合
+     */
+    private static final double             DEFAULT_JITTER              = 0.5;
+
+    /**
+     * デフォルト再試行対象のステータスコード一覧
+     */
+    private static final int[]              DEFAULT_RETRY_STATUS_CODES  = {
+        HttpStatus.SC_REQUEST_TIMEOUT,
+        429,    // Too Many Requests
+        HttpStatus.SC_BAD_GATEWAY,
+        HttpStatus.SC_SERVICE_UNAVAILABLE,
+        HttpStatus.SC_GATEWAY_TIMEOUT,
+    };
+
+    /**
+     * 冪等なメソッド名一覧
+     */
+    private static final String[]           IDEMPOTENT_METHODS          = {
+        "GET", "HEAD", "PUT", "DELETE", "OPTIONS", "TRACE",
+    };
+
+    /**
+     * 1 秒のミリ秒数
+     */
+    private static final long               SECOND_MILLIS               = 1000L;
+
+    /**
+     * ゆらぎ算出用乱数
+     */
+    private static final Random             RANDOM                      = new Random();
+
+    /**
+     * 最大試行回数
+     */
+    private int                             policyMaxAttempts           = DEFAULT_MAX_ATTEMPTS;
+
+    /**
+     * 初回待機時間 (ms)
+     */
+    private long                            policyInitialBackoff        = DEFAULT_INITIAL_BACKOFF;
+
+    /**
+     * 最大待機時間 (ms)
+     */
+    private long                            policyMaxBackoff            = DEFAULT_MAX_BACKOFF;
+
+    /**
+     * 待機時間の増加倍率
+     */
+    private double                          policyMultiplier            = DEFAULT_MULTIPLIER;
+
+    /**
+     * 待機時間のゆらぎの割合
+     */
+    private double                          policyJitter                = DEFAULT_JITTER;
+
+    /**
+     * 再試行対象のステータスコード一覧
+     */
+    private final Set<Integer>              policyRetryStatusCodes      = new HashSet<Integer>();
+
+    /**
+     * 冪等でないメソッドも再試行するかどうか
+     */
+    private boolean                         policyRetryNonIdempotent;
+
+
+
+    /**
+     * デフォルト設定で再試行方針を初期化する。<br>
+     * <br>
+     * 最大 3 回試行し、408 / 429 / 502 / 503 / 504 のステータスコードを再試行する。<br>
+     *
+     */
+    public HttpRetryPolicy() {
+
+        setRetryStatusCodes(DEFAULT_RETRY_STATUS_CODES);
+
+    }
+
+
+    /**
+     * 最大試行回数を設定する。
+     *
+     * @param maxAttempts   初回を含む最大試行回数
+     * @return 自身のインスタンス
+     * @throws IllegalArgumentException 最大試行回数が 0 以下の場合
+     */
+    public HttpRetryPolicy setMaxAttempts(
+            final int   maxAttempts
+            ) {
+
+        // 最大試行回数が 0 以下の場合は例外
+        if (maxAttempts <= 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        policyMaxAttempts = maxAttempts;
+
+        return this;
+
+    }
+
+
+    /**
+     * 待機時間を設定する。<br>
+     * <br>
+     * n 回目の再試行前の待機時間は 初回待機時間 × 増加倍率^(n - 1) となり、最大待機時間で制限される。<br>
+     *
+     * @param initialBackoff    初回待機時間 (ms)
+     * @param maxBackoff        最大待機時間 (ms)
+     * @param multiplier        待機時間の増加倍率
+     * @return 自身のインスタンス
+     * @throws IllegalArgumentException 待機時間が負の値、最大待機時間が初回待機時間未満、増加倍率が 1 未満の場合
+     */
+    public HttpRetryPolicy setBackoff(
+            final long      initialBackoff,
+            final long      maxBackoff,
+            final double    multiplier
+            ) {
+
+        // 設定値が不正の場合は例外
+        if ((initialBackoff < 0) || (maxBackoff < initialBackoff) || !(multiplier >= 1.0)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        policyInitialBackoff = initialBackoff;
+        policyMaxBackoff     = maxBackoff;
+        policyMultiplier     = multiplier;
+
+        return this;
+
+    }
+
+
+    /**
+     * 待機時間のゆらぎの割合を設定する。<br>
+     * <br>
+     * 同時に失敗した通信が一斉に再試行しないよう、待機時間のうち指定割合をランダムに短縮する。<br>
+     * 0 の場合はゆらぎなし、1 の場合は 0 から待機時間までのランダムな時間となる。<br>
+     *
+     * @param jitter    ゆらぎの割合 (0 以上 1 以下)
+     * @return 自身のインスタンス
+     * @throws IllegalArgumentException ゆらぎの割合が範囲外の場合
+     */
+    public HttpRetryPolicy setJitter(
+            final double    jitter
+            ) {
+
+        // ゆらぎの割合が範囲外の場合は例外
+        if (!((jitter >= 0.0) && (jitter <= 1.0))) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        policyJitter = jitter;
+
+        return this;
+
+    }
+
+
+    /**
+     * 再試行対象のステータスコード一覧を設定する。
+     *
+     * @param statusCodes   再試行対象のステータスコード一覧
+     * @return 自身のインスタンス
+     * @throws IllegalArgumentException ステータスコード一覧が null の場合
+     */
+    public HttpRetryPolicy setRetryStatusCodes(
+            final int...    statusCodes
+            ) {
+
+        // ステータスコード一覧が null の場合は例外
+        if (statusCodes == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // ステータスコード一覧を置き換える
+        policyRetryStatusCodes.clear();
+
+        for (final int statusCode : statusCodes) {
+
+            policyRetryStatusCodes.add(statusCode);
+
+        }
+
+        return this;
+
+    }
+
+
+    /**
+     * 冪等でないメソッドも再試行するかどうかを設定する。<br>
+     * <br>
+     * 設定した場合、POST などもサーバ側で処理済みの可能性がある失敗で再試行する。<br>
+     * 重複して処理されても問題ない場合のみ設定すること。<br>
+     *
+     * @param retryNonIdempotent    冪等でないメソッドも再試行する場合は true
+     * @return 自身のインスタンス
+     */
+    public HttpRetryPolicy setRetryNonIdempotent(
+            final boolean   retryNonIdempotent
+            ) {
+
+        policyRetryNonIdempotent = retryNonIdempotent;
+
+        return this;
+
+    }
+
+
+    /**
+     * 通信結果を再試行するかどうかを取得する。
+     *
+     * @param method    通信メソッド
+     * @param result    通信結果データ
+     * @param attempt   試行済み回数
+     * @return 再試行する場合は true
+     */
+    boolean isRetryable(
+            final HttpRequestBase   method,
+            final HttpResult        result,
+            final int               attempt
+            ) {
+
+        // 最大試行回数に達した場合
+        if (attempt >= policyMaxAttempts) {
+
+            return false;
+
+        }
+
+        // リクエストエンティティを再送できない場合
+        if (method instanceof HttpEntityEnclosingRequest) {
+
+            final HttpEntity    entity = ((HttpEntityEnclosingRequest)method).getEntity();
+
+            if ((entity != null) && !entity.isRepeatable()) {
+
+                return false;
+
+            }
+
+        }
+
+        final Throwable     cause = result.getFailureCause();
+
+        // 通信に失敗した場合
+        if (cause != null) {
+
+            // 通信遮断中、または入出力エラー以外の場合は再試行しない
+            if ((cause instanceof HttpCircuitOpenException) || !(cause instanceof IOException)) {
+
+                return false;
+
+            }
+
+            // 送信前の接続失敗、または冪等なメソッドの場合は再試行する
+            return isConnectFailure(cause) || isRetryableMethod(method);
+
+        }
+
+        // 再試行対象のステータスコードで、冪等なメソッドの場合は再試行する
+        return policyRetryStatusCodes.contains(result.getStatusCode()) && isRetryableMethod(method);
+
+    }
+
+
+    /**
+     * 再試行までの待機時間を取得する。<br>
+     * <br>
+     * レスポンスに Retry-After ヘッダ (秒数) がある場合は、その時間以上待機する。<br>
+     *
+     * @param result    通信結果データ
+     * @param attempt   試行済み回数
+     * @return 待機時間 (ms)
+     */
+    long getBackoff(
+            final HttpResult    result,
+            final int           attempt
+            ) {
+
+        final double    backoff = Math.min(
+                policyInitialBackoff * Math.pow(policyMultiplier, attempt - 1),
+                policyMaxBackoff
+                );                                                                  // ゆらぎを加える前の待機時間
+        final double    jitter  = backoff * policyJitter * RANDOM.nextDouble();     // 短縮する時間
+
+
+        // 待機時間とサーバから指定された待機時間の長い方を返す
+        return Math.max((long)(backoff - jitter), getRetryAfter(result));
+
+    }
+
+
+    /**
+     * 接続後の失敗で再試行してよいメソッドかどうかを取得する。
+     *
+     * @param method    通信メソッド
+     * @return 冪等なメソッド、または冪等でないメソッドも再試行する設定の場合は true
+     */
+    private boolean isRetryableMethod(
+            final HttpRequestBase   method
+            ) {
+
+        // 冪等でないメソッドも再試行する場合
+        if (policyRetryNonIdempotent) {
+
+            return true;
+
+        }
+
+        final String    methodName = method.getMethod();
+
+        // 冪等なメソッド分処理をする
+        for (final String idempotentMethod : IDEMPOTENT_METHODS) {
+
+            // 冪等なメソッドの場合
+            if (idempotentMethod.equalsIgnoreCase(methodName)) {
+
+                return true;
+
+            }
+
+        }
+
+        return false;
+
+    }
+
+
+    /**
+     * Retry-After ヘッダで指定された待機時間を取得する。
+     *
+     * @param result    通信結果データ
+     * @return 待機時間 (ms)。指定されていない場合は 0
+     */
+    private long getRetryAfter(
+            final HttpResult    result
+            ) {
+
+        final Header    header = result.getHeader(HEADER_RETRY_AFTER);
+
+        // ヘッダがない場合
+        if (header == null) {
+
+            return 0;
+
+        }
+
+        try {
+
+            // 秒数を最大待機時間以内のミリ秒へ変換する
+            return Math.min(Math.max(Long.parseLong(header.getValue().trim()), 0) * SECOND_MILLIS, policyMaxBackoff);
+
+        } catch (final NumberFormatException e) {
+
+            // 日時指定は扱わない
+            return 0;
+
+        }
+
+    }
+
+
+    /**
+     * 送信前の接続失敗かどうかを取得する。
+     *
+     * @param cause 通信失敗の原因
+     * @return 送信前の接続失敗の場合は true
+     */
+    private static boolean isConnectFailure(
+            final Throwable cause
+            ) {
+
+        return (cause instanceof ConnectException)
+                || (cause instanceof ConnectTimeoutException)
+                || (cause instanceof UnknownHostException);
+
+    }
+
+
+}
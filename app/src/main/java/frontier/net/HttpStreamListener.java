@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/**
+ * レスポンスボディを逐次読み込むHTTP通信完了通知先リスナー。<br>
+ * <br>
+ * レスポンスボディはメモリ上にまとめて読み込まず、<br>
+ * 通信スレッド上で {@link #bodyReceived(HttpResult, InputStream)} へ入力ストリームとして渡す。<br>
+ * リスナーが読み込むまで受信は進まないため、読み込み速度に合わせて受信される。<br>
+ * 読み込み完了後に {@link #connectFinished(HttpResult)} が UI スレッドで呼び出される。<br>
+ * この場合の通信結果データのレスポンスボディデータは null となる。<br>
+ *
+ * @author Kou
+ *
+ */
+public interface HttpStreamListener extends HttpListener {
+
+
+    /**
+     * レスポンスボディを読み込む。<br>
+     * <br>
+     * 通信スレッドから呼び出される。<br>
+     * 入力ストリームは呼び出し後に閉じられるため、処理内で読み込みを完了すること。<br>
+     *
+     * @param result    レスポンスボディを除いた通信結果データ
+     * @param body      レスポンスボディの入力ストリーム
+     * @throws IOException  入出力エラー時
+     */
+    void bodyReceived(
+            final HttpResult    result,
+            final InputStream   body
+            ) throws IOException;
+
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.net;
+
+
+
+/**
+ * 2 段構成のHTTPレスポンスキャッシュクラス。<br>
+ * <br>
+ * 1 段目 (メモリなど高速なキャッシュ) を優先して参照し、<br>
+ * 1 段目にない場合は 2 段目 (ディスクなど大容量のキャッシュ) を参照して 1 段目へ複製する。<br>
+ * 保存と削除は両方に対して行う。<br>
+ *
+ * @author Kou
+ *
+ */
+public class HttpTieredCache implements HttpCache {
+
+
+    /**
+     * 1 段目のキャッシュ
+     */
+    private final HttpCache     cacheFirst;
+
+    /**
+     * 2 段目のキャッシュ
+     */
+    private final HttpCache     cacheSecond;
+
+
+
+    /**
+     * 2 段構成のキャッシュを初期化する。
+     *
+     * @param first     1 段目のキャッシュ
+     * @param second    2 段目のキャッシュ
+     * @throws IllegalArgumentException キャッシュが null の場合
+     */
+    public HttpTieredCache(
+            final HttpCache first,
+            final HttpCache second
+            ) {
+
+        // キャッシュが null の場合は例外
+        if ((first == null) || (second == null)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        cacheFirst  = first;
+        cacheSecond = second;
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public HttpCacheEntry get(
+            final String    key
+            ) {
+
+        final HttpCacheEntry    firstEntry = cacheFirst.get(key);
+
+        // 1 段目にある場合
+        if (firstEntry != null) {
+
+            return firstEntry;
+
+        }
+
+        final HttpCacheEntry    secondEntry = cacheSecond.get(key);
+
+        // 2 段目にある場合
+        if (secondEntry != null) {
+
+            // 1 段目へ複製する
+            cacheFirst.put(key, secondEntry);
+
+        }
+
+        return secondEntry;
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void put(
+            final String            key,
+            final HttpCacheEntry    entry
+            ) {
+
+        cacheFirst.put(key, entry);
+        cacheSecond.put(key, entry);
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void remove(
+            final String    key
+            ) {
+
+        cacheFirst.remove(key);
+        cacheSecond.remove(key);
+
+    }
+
+
+}
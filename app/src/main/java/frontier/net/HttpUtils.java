@@ -15,7 +15,6 @@
  */
 package frontier.net;
 
-import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -52,6 +51,11 @@ public final class HttpUtils {
      */
     private static final String         TOKEN_URL_QUERY     = "?";
 
+    /**
+     * クエリパラメータ 1 件あたりの想定文字数
+     */
+    private static final int            QUERY_PARAM_LENGTH  = 16;
+
 
 
     /**
@@ -92,8 +96,13 @@ public final class HttpUtils {
 
         }
 
+        final StringBuilder     uriBuf = new StringBuilder(baseURI.length() + queryParams.length * QUERY_PARAM_LENGTH);
+
         // クエリパラメータを付加して返却する
-        return baseURI + TOKEN_URL_QUERY + createQueryString(queryParams);
+        uriBuf.append(baseURI).append(TOKEN_URL_QUERY);
+        appendQueryString(uriBuf, queryParams);
+
+        return uriBuf.toString();
 
     }
 
@@ -169,7 +178,9 @@ public final class HttpUtils {
 
 
     /**
-     * クエリ文字列を作成する。
+     * クエリ文字列を作成する。<br>
+     * <br>
+     * 項目名と値は UTF-8 でURLエンコードする。値が null の場合は空文字とする。<br>
      *
      * @param queryParams  クエリ文字列として作成するパラメータ項目値の配列
      * @return 作成したクエリ文字列
@@ -187,36 +198,88 @@ public final class HttpUtils {
 
 
         // 結合文字列を作成する
-        final StringBuffer    urlBuf = new StringBuffer();
+        final StringBuilder     urlBuf = new StringBuilder(queryParams.length * QUERY_PARAM_LENGTH);
 
         // 値と項目のペアを結合する
-        for (int i = 0; i < queryParams.length; i++) {
+        appendQueryString(urlBuf, queryParams);
+
+        // 結合結果を返す
+        return urlBuf.toString();
 
-            final NameValuePair      nameValue = queryParams[i];
+    }
 
-            // 文字列表現を取得し、追加する
-            urlBuf.append(URLEncoder.encode(nameValue.getName()));
-            urlBuf.append(TOKEN_QUERY_VALUE);
-            urlBuf.append(URLEncoder.encode(nameValue.getValue()));
 
-            // 最後の要素以外の場合
-            if (i < queryParams.length - 1) {
+    /**
+     * クエリ文字列を出力先バッファへ追加する。<br>
+     * <br>
+     * 中間文字列を作成せずに、URLエンコードした項目名と値を直接追加する。<br>
+     * 値が null の場合は空文字とする。<br>
+     *
+     * @param outBuf        出力先バッファ
+     * @param queryParams   クエリ文字列として追加するパラメータ項目値の配列
+     * @throws IllegalArgumentException 出力先バッファまたはパラメータが null の場合
+     */
+    public static void appendQueryString(
+            final StringBuilder     outBuf,
+            final NameValuePair[]   queryParams
+            ) {
+
+        // 出力先バッファまたはパラメータが null の場合は例外
+        if ((outBuf == null) || (queryParams == null)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // 値と項目のペアを結合する
+        for (int i = 0; i < queryParams.length; i++) {
+
+            // 最初の要素以外の場合
+            if (i > 0) {
 
                 // 連結文字を付加
-                urlBuf.append(TOKEN_QUERY_PARAMS);
+                outBuf.append(TOKEN_QUERY_PARAMS);
 
             }
 
+            appendQueryParam(outBuf, queryParams[i].getName(), queryParams[i].getValue());
+
         }
 
-        // 結合結果を返す
-        return urlBuf.toString();
+    }
+
+
+    /**
+     * クエリパラメータを 1 件、URLエンコードして出力先バッファへ追加する。
+     *
+     * @param outBuf    出力先バッファ
+     * @param name      項目名
+     * @param value     値。null の場合は空文字
+     */
+    static void appendQueryParam(
+            final StringBuilder outBuf,
+            final String        name,
+            final String        value
+            ) {
+
+        StringUtils.appendEncodedURL(outBuf, name);
+        outBuf.append(TOKEN_QUERY_VALUE);
+
+        // 値がある場合
+        if (value != null) {
+
+            StringUtils.appendEncodedURL(outBuf, value);
+
+        }
 
     }
 
 
     /**
-     * クエリ文字列からクエリパラメータを取得する。
+     * クエリ文字列からクエリパラメータを取得する。<br>
+     * <br>
+     * 項目名と値はデコードせずにそのまま返す。<br>
+     * 空のパラメータ、区切り文字が 1 つでないパラメータは無視する。<br>
      *
      * @param queryString パラメータを取得するクエリ文字列
      * @return 取得したクエリパラメータ
@@ -225,6 +288,41 @@ public final class HttpUtils {
             final String    queryString
             ) {
 
+        return parseQuery(queryString, false);
+
+    }
+
+
+    /**
+     * クエリ文字列からクエリパラメータを取得し、UTF-8 でURLデコードする。<br>
+     * <br>
+     * 空のパラメータ、区切り文字が 1 つでないパラメータは無視する。<br>
+     *
+     * @param queryString パラメータを取得するクエリ文字列
+     * @return 取得したクエリパラメータ
+     * @throws IllegalArgumentException クエリ文字列が null の場合、不正なエスケープ文字列を含む場合
+     */
+    public static List<NameValuePair> getDecodedQueryParams(
+            final String    queryString
+            ) {
+
+        return parseQuery(queryString, true);
+
+    }
+
+
+    /**
+     * クエリ文字列を 1 回の走査で解析してクエリパラメータを取得する。
+     *
+     * @param queryString   パラメータを取得するクエリ文字列
+     * @param decode        URLデコードするかどうか
+     * @return 取得したクエリパラメータ
+     */
+    private static List<NameValuePair> parseQuery(
+            final String    queryString,
+            final boolean   decode
+            ) {
+
         // nullの場合は例外
         if (queryString == null) {
 
@@ -233,32 +331,48 @@ public final class HttpUtils {
         }
 
 
-        final String[]              params      = StringUtils.split(queryString, TOKEN_QUERY_PARAMS, true); // パラメータ一覧
-        final List<NameValuePair>   retParams   = new ArrayList<NameValuePair>();                           // 返却パラメータ一覧
-        final int                   indexName   = 0;                                                        // 名前のインデックス
-        final int                   indexValue  = 1;                                                        // 値のインデックス
-        final int                   indexCount  = 2;                                                        // インデックス数
+        final List<NameValuePair>   retParams  = new ArrayList<NameValuePair>();    // 返却パラメータ一覧
+        final int                   length     = queryString.length();             // クエリ文字列長
+        int                         paramBegin = 0;                                 // パラメータ開始位置
 
 
         // クエリ文字列からパラメータを作成する
-        for (int i = 0; i < params.length; i++) {
+        while (paramBegin < length) {
+
+            int         paramEnd   = queryString.indexOf(TOKEN_QUERY_PARAMS, paramBegin);   // パラメータ終了位置
+
+            // 最後のパラメータの場合
+            if (paramEnd == -1) {
+
+                paramEnd = length;
+
+            }
+
+            final int   valueIndex = queryString.indexOf(TOKEN_QUERY_VALUE, paramBegin);    // 区切り文字位置
+
 
-            final String[]  nameValue = StringUtils.split(params[i], TOKEN_QUERY_VALUE);
+            // 区切り文字がパラメータ内に 1 つだけある場合
+            if ((paramEnd > paramBegin)
+                    && (valueIndex != -1)
+                    && (valueIndex < paramEnd)
+                    && (queryString.lastIndexOf(TOKEN_QUERY_VALUE, paramEnd - 1) == valueIndex)
+                    ) {
 
-            // インデックス数が一致しない場合
-            if (nameValue.length != indexCount) {
+                final String    name  = queryString.substring(paramBegin, valueIndex);
+                final String    value = queryString.substring(valueIndex + 1, paramEnd);
 
-                // 次のパラメータへ
-                continue;
+                // パラメータを作成して追加する
+                retParams.add(
+                        new BasicNameValuePair(
+                                decode ? StringUtils.decodeURL(name)  : name,
+                                decode ? StringUtils.decodeURL(value) : value
+                                )
+                        );
 
             }
 
-            // パラメータを作成して代入する
-            retParams.add(
-                    new BasicNameValuePair(
-                            nameValue[indexName],
-                            nameValue[indexValue])
-                    );
+            // 次のパラメータへ
+            paramBegin = paramEnd + 1;
 
         }
 
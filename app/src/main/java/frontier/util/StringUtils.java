@@ -15,7 +15,7 @@
  */
 package frontier.util;
 
-import java.net.URLDecoder;
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -93,6 +93,21 @@ public final class StringUtils {
      */
     private static final char       TOKEN_PERIOD                = '.';
 
+    /**
+     * URLエンコードのエスケープ文字
+     */
+    private static final char       TOKEN_URL_ESCAPE            = '%';
+
+    /**
+     * URLエンコードの空白文字
+     */
+    private static final char       TOKEN_URL_SPACE             = '+';
+
+    /**
+     * URLエンコード用の16進数文字一覧
+     */
+    private static final char[]     URL_HEX_DIGITS              = "0123456789ABCDEF".toCharArray();
+
 
 
     /**
@@ -1908,19 +1923,19 @@ public final class StringUtils {
 
 
     /**
-     * クエリー文字列のパラメータ名と値を格納したテーブルを取得する。
+     * クエリー文字列のパラメータ名と値を格納したテーブルを取得する。<br>
+     * <br>
+     * パラメータ名と値は UTF-8 でURLデコードする。<br>
+     * 値のないパラメータの値は空文字となり、空のパラメータは無視する。<br>
      *
      * @param queryString クエリー文字列
      * @return クエリー文字列のパラメータと値を格納したテーブル
-     * @throws IllegalArgumentException クエリー文字列が null の場合
+     * @throws IllegalArgumentException クエリー文字列が null の場合、不正なエスケープ文字列を含む場合
      */
     public static Map<String, String> splitQuery(
             final String    queryString
             ) {
 
-        final String[]      params;     // 分割したパラメータ
-
-
         // パラメータが null の場合は例外
         if (queryString == null) {
 
@@ -1929,29 +1944,45 @@ public final class StringUtils {
         }
 
 
-        // パラメータを分割する
-        params = split(
-                queryString.substring(queryString.indexOf(TOKEN_URL_QUERY) + 1),
-                TOKEN_QUERY_PARAMS
-                );
+        final Map<String, String>   retTable   = new HashMap<String, String>();                 // 返却するパラメータテーブル
+        final int                   length     = queryString.length();                          // クエリー文字列長
+        int                         paramBegin = queryString.indexOf(TOKEN_URL_QUERY) + 1;      // パラメータ開始位置
 
-        // 返却するパラメータテーブルを作成する
-        final Map<String, String>      retTable = new HashMap<String, String>();
 
-        // 分割したパラメータをテーブルへ格納する
-        for (int i = 0; i < params.length; i++) {
+        // パラメータ分処理をする
+        while (paramBegin < length) {
 
-            // パラメータ名と値に分割する
-            final String[]  itemNameValue = split(
-                    params[i],
-                    TOKEN_QUERY_VALUE
-                    );
+            int         paramEnd   = queryString.indexOf(TOKEN_QUERY_PARAMS, paramBegin);       // パラメータ終了位置
 
-            // 分割したパラメータ名と値をURLデコードしてテーブルへ設定する
-            retTable.put(
-                    URLDecoder.decode(itemNameValue[0]),
-                    URLDecoder.decode(itemNameValue[1])
-                    );
+            // 最後のパラメータの場合
+            if (paramEnd == -1) {
+
+                paramEnd = length;
+
+            }
+
+            // 空のパラメータでない場合
+            if (paramEnd > paramBegin) {
+
+                int     valueIndex = queryString.indexOf(TOKEN_QUERY_VALUE, paramBegin);       // 区切り文字位置
+
+                // パラメータ内に区切り文字がない場合
+                if ((valueIndex == -1) || (valueIndex > paramEnd)) {
+
+                    valueIndex = paramEnd;
+
+                }
+
+                // パラメータ名と値をURLデコードしてテーブルへ設定する
+                retTable.put(
+                        decodeURL(queryString.substring(paramBegin, valueIndex)),
+                        valueIndex < paramEnd ? decodeURL(queryString.substring(valueIndex + 1, paramEnd)) : ""
+                        );
+
+            }
+
+            // 次のパラメータへ
+            paramBegin = paramEnd + 1;
 
         }
 
@@ -1961,6 +1992,328 @@ public final class StringUtils {
     }
 
 
+    /**
+     * 文字列を UTF-8 でURLエンコードする。<br>
+     * <br>
+     * application/x-www-form-urlencoded 形式でエンコードし、空白は + とする。<br>
+     * 英数字と . - * _ 以外の文字は %XX 形式となる。<br>
+     * エンコード不要な文字のみの場合は、指定文字列をそのまま返す。<br>
+     *
+     * @param str   エンコードする文字列
+     * @return エンコードした文字列
+     * @throws IllegalArgumentException 文字列が null の場合
+     */
+    public static String encodeURL(
+            final String    str
+            ) {
+
+        // 文字列が null の場合は例外
+        if (str == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        final int       length = str.length();
+        int             index  = 0;
+
+
+        // エンコード不要な文字を読み飛ばす
+        while ((index < length) && isURLSafe(str.charAt(index))) {
+
+            index++;
+
+        }
+
+        // エンコード不要な場合
+        if (index == length) {
+
+            // そのまま返す
+            return str;
+
+        }
+
+        final StringBuilder     outBuf = new StringBuilder(length + 16);
+
+        // エンコード不要な部分はそのまま追加し、残りをエンコードする
+        outBuf.append(str, 0, index);
+        appendEncodedURL(outBuf, str, index, length);
+
+        return outBuf.toString();
+
+    }
+
+
+    /**
+     * 文字列を UTF-8 でURLエンコードして出力先バッファへ追加する。<br>
+     * <br>
+     * 中間文字列を作成せずに直接追加する。エンコード形式は {@link #encodeURL(String)} と同じ。<br>
+     *
+     * @param outBuf    出力先バッファ
+     * @param str       エンコードする文字列
+     * @throws IllegalArgumentException 出力先バッファまたは文字列が null の場合
+     */
+    public static void appendEncodedURL(
+            final StringBuilder outBuf,
+            final CharSequence  str
+            ) {
+
+        // 出力先バッファまたは文字列が null の場合は例外
+        if ((outBuf == null) || (str == null)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        appendEncodedURL(outBuf, str, 0, str.length());
+
+    }
+
+
+    /**
+     * URLエンコードされた文字列を UTF-8 でデコードする。<br>
+     * <br>
+     * + は空白、%XX は連続するバイト列を UTF-8 としてデコードする。<br>
+     * デコード不要な場合は、指定文字列をそのまま返す。<br>
+     *
+     * @param str   デコードする文字列
+     * @return デコードした文字列
+     * @throws IllegalArgumentException 文字列が null の場合、不正なエスケープ文字列を含む場合
+     */
+    public static String decodeURL(
+            final String    str
+            ) {
+
+        // 文字列が null の場合は例外
+        if (str == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        final int       length = str.length();
+        int             index  = 0;
+
+
+        // デコード不要な文字を読み飛ばす
+        while ((index < length)
+                && (str.charAt(index) != TOKEN_URL_ESCAPE)
+                && (str.charAt(index) != TOKEN_URL_SPACE)
+                ) {
+
+            index++;
+
+        }
+
+        // デコード不要な場合
+        if (index == length) {
+
+            // そのまま返す
+            return str;
+
+        }
+
+        final StringBuilder     outBuf = new StringBuilder(length);
+        byte[]                  bytes  = null;      // エスケープ文字列のバイト列
+
+
+        // デコード不要な部分はそのまま追加する
+        outBuf.append(str, 0, index);
+
+        // 文字列の最後まで処理をする
+        while (index < length) {
+
+            final char  ch = str.charAt(index);
+
+            // 空白文字の場合
+            if (ch == TOKEN_URL_SPACE) {
+
+                outBuf.append(' ');
+                index++;
+
+            // エスケープ文字の場合
+            } else if (ch == TOKEN_URL_ESCAPE) {
+
+                // バイト列を残り文字列から必要な最大サイズで確保する
+                if (bytes == null) {
+
+                    bytes = new byte[(length - index) / 3];
+
+                }
+
+                int     count = 0;      // バイト数
+
+                // 連続するエスケープ文字列をまとめてバイト列へ変換する
+                do {
+
+                    // エスケープ文字列が途中で終わっている場合は例外
+                    if (index + 2 >= length) {
+
+                        throw new IllegalArgumentException("Incomplete escape sequence. [index = " + index + "]");
+
+                    }
+
+                    final int   high = Character.digit(str.charAt(index + 1), 16);
+                    final int   low  = Character.digit(str.charAt(index + 2), 16);
+
+                    // 16進数でない場合は例外
+                    if ((high < 0) || (low < 0)) {
+
+                        throw new IllegalArgumentException("Illegal hex characters in escape sequence. [index = " + index + "]");
+
+                    }
+
+                    bytes[count++] = (byte)((high << 4) | low);
+                    index += 3;
+
+                } while ((index < length) && (str.charAt(index) == TOKEN_URL_ESCAPE));
+
+                // バイト列を UTF-8 で文字列へ変換して追加する
+                try {
+
+                    outBuf.append(new String(bytes, 0, count, UTF_8));
+
+                } catch (final UnsupportedEncodingException e) {
+
+                    // UTF-8 は必ず対応している
+                    throw new IllegalStateException(e.getMessage());
+
+                }
+
+            } else {
+
+                outBuf.append(ch);
+                index++;
+
+            }
+
+        }
+
+        return outBuf.toString();
+
+    }
+
+
+    /**
+     * 文字列の指定範囲を UTF-8 でURLエンコードして出力先バッファへ追加する。
+     *
+     * @param outBuf    出力先バッファ
+     * @param str       エンコードする文字列
+     * @param begin     開始位置
+     * @param end       終了位置
+     */
+    private static void appendEncodedURL(
+            final StringBuilder outBuf,
+            final CharSequence  str,
+            final int           begin,
+            final int           end
+            ) {
+
+        // 範囲内の文字分処理をする
+        for (int i = begin; i < end; i++) {
+
+            final char  ch = str.charAt(i);
+
+            // エンコード不要な文字の場合
+            if (isURLSafe(ch)) {
+
+                outBuf.append(ch);
+                continue;
+
+            }
+
+            // 空白文字の場合
+            if (ch == ' ') {
+
+                outBuf.append(TOKEN_URL_SPACE);
+                continue;
+
+            }
+
+            int     codePoint = ch;     // エンコードするコードポイント
+
+            // サロゲートペアの場合
+            if (Character.isHighSurrogate(ch) && (i + 1 < end) && Character.isLowSurrogate(str.charAt(i + 1))) {
+
+                codePoint = Character.toCodePoint(ch, str.charAt(++i));
+
+            // 対になっていないサロゲートの場合
+            } else if (Character.isHighSurrogate(ch) || Character.isLowSurrogate(ch)) {
+
+                // URLEncoder と同じく ? とする
+                codePoint = '?';
+
+            }
+
+            // UTF-8 のバイト数別処理
+            if (codePoint < 0x80) {
+
+                appendEscapedByte(outBuf, codePoint);
+
+            } else if (codePoint < 0x800) {
+
+                appendEscapedByte(outBuf, 0xC0 | (codePoint >> 6));
+                appendEscapedByte(outBuf, 0x80 | (codePoint & 0x3F));
+
+            } else if (codePoint < 0x10000) {
+
+                appendEscapedByte(outBuf, 0xE0 | (codePoint >> 12));
+                appendEscapedByte(outBuf, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendEscapedByte(outBuf, 0x80 | (codePoint & 0x3F));
+
+            } else {
+
+                appendEscapedByte(outBuf, 0xF0 | (codePoint >> 18));
+                appendEscapedByte(outBuf, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendEscapedByte(outBuf, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendEscapedByte(outBuf, 0x80 | (codePoint & 0x3F));
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 1 バイトを %XX 形式で出力先バッファへ追加する。
+     *
+     * @param outBuf    出力先バッファ
+     * @param value     追加するバイト値
+     */
+    private static void appendEscapedByte(
+            final StringBuilder outBuf,
+            final int           value
+            ) {
+
+        outBuf.append(TOKEN_URL_ESCAPE);
+        outBuf.append(URL_HEX_DIGITS[(value >> 4) & 0x0F]);
+        outBuf.append(URL_HEX_DIGITS[value & 0x0F]);
+
+    }
+
+
+    /**
+     * URLエンコード不要な文字かどうかを取得する。
+     *
+     * @param ch    判定する文字
+     * @return 英数字と . - * _ の場合は true
+     */
+    private static boolean isURLSafe(
+            final char  ch
+            ) {
+
+        return ((ch >= 'a') && (ch <= 'z'))
+                || ((ch >= 'A') && (ch <= 'Z'))
+                || ((ch >= '0') && (ch <= '9'))
+                || (ch == '.')
+                || (ch == '-')
+                || (ch == '*')
+                || (ch == '_');
+
+    }
+
+
     /**
      * 基となる文字列に含まれる指定文字列を全て置換する。
      *
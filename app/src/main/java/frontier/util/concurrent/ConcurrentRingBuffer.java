@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.concurrent;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * ロックを利用しない固定長のリングバッファ。<br>
+ * <br>
+ * 複数スレッドからの追加・取り出しに対応したキューで、<br>
+ * 各要素スロットのシーケンス番号を CAS で進めることで排他を行う。<br>
+ * 容量は指定値以上の最小の 2 のべき乗に切り上げられる。<br>
+ * <br>
+ * null 要素は格納できない。<br>
+ *
+ * @param <E>   要素のクラス
+ *
+ * @author Kou
+ *
+ */
+public class ConcurrentRingBuffer<E> {
+
+
+    /**
+     * 最大容量
+     */
+    private static final int                    MAX_CAPACITY = 1 << 30;
+
+    /**
+     * 要素スロット一覧
+     */
+    private final AtomicReferenceArray<E>       ringSlots;
+
+    /**
+     * 要素スロットごとのシーケンス番号一覧
+     */
+    private final AtomicLongArray               ringSequences;
+
+    /**
+     * スロット位置算出用マスク値
+     */
+    private final int                           ringMask;
+
+    /**
+     * 次に追加する位置
+     */
+    private final AtomicLong                    ringTail = new AtomicLong();
+
+    /**
+     * 次に取り出す位置
+     */
+    private final AtomicLong                    ringHead = new AtomicLong();
+
+
+
+    /**
+     * 容量を指定してリングバッファを作成する。
+     *
+     * @param capacity 容量
+     * @throws IllegalArgumentException 容量が 0 以下、または最大容量を超える場合
+     */
+    public ConcurrentRingBuffer(
+            final int   capacity
+            ) {
+
+        // 容量が不正の場合は例外
+        if ((capacity <= 0) || (capacity > MAX_CAPACITY)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+
+        int     slotCount = 1;  // スロット数
+
+        // 2 のべき乗へ切り上げる
+        while (slotCount < capacity) {
+
+            slotCount <<= 1;
+
+        }
+
+        // 各種情報を初期化する
+        ringSlots     = new AtomicReferenceArray<E>(slotCount);
+        ringSequences = new AtomicLongArray(slotCount);
+        ringMask      = slotCount - 1;
+
+        // シーケンス番号を初期化する
+        for (int i = 0; i < slotCount; i++) {
+
+            ringSequences.set(i, i);
+
+        }
+
+    }
+
+
+    /**
+     * 容量を取得する。
+     *
+     * @return 容量
+     */
+    public int capacity() {
+
+        return ringMask + 1;
+
+    }
+
+
+    /**
+     * 要素を追加する。<br>
+     * <br>
+     * バッファに空きがない場合は追加せずに false を返す。<br>
+     *
+     * @param element   追加する要素
+     * @return 追加に成功した場合は true
+     * @throws IllegalArgumentException 要素が null の場合
+     */
+    public boolean offer(
+            final E     element
+            ) {
+
+        // 要素が null の場合は例外
+        if (element == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // 追加できるまで繰り返す
+        while (true) {
+
+            final long  position = ringTail.get();                          // 追加位置
+            final int   index    = (int)position & ringMask;                // スロット位置
+            final long  diff     = ringSequences.get(index) - position;     // シーケンス番号の差分
+
+
+            // スロットが空いている場合
+            if (diff == 0) {
+
+                // 追加位置を確保できた場合
+                if (ringTail.compareAndSet(position, position + 1)) {
+
+                    // 要素を格納して取り出し可能にする
+                    ringSlots.set(index, element);
+                    ringSequences.set(index, position + 1);
+
+                    // 追加成功
+                    return true;
+
+                }
+
+            // スロットがまだ取り出されていない場合
+            } else if (diff < 0) {
+
+                // バッファが一杯なので追加失敗
+                return false;
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 先頭要素を取り出す。
+     *
+     * @return 取り出した要素。バッファが空の場合は null
+     */
+    public E poll() {
+
+        // 取り出せるまで繰り返す
+        while (true) {
+
+            final long  position = ringHead.get();                              // 取り出し位置
+            final int   index    = (int)position & ringMask;                    // スロット位置
+            final long  diff     = ringSequences.get(index) - (position + 1);   // シーケンス番号の差分
+
+
+            // スロットに要素が格納済みの場合
+            if (diff == 0) {
+
+                // 取り出し位置を確保できた場合
+                if (ringHead.compareAndSet(position, position + 1)) {
+
+                    // 要素を取り出してスロットを解放する
+                    final E     element = ringSlots.get(index);
+
+                    ringSlots.set(index, null);
+                    ringSequences.set(index, position + ringMask + 1);
+
+                    // 取り出した要素を返す
+                    return element;
+
+                }
+
+            // スロットがまだ格納されていない場合
+            } else if (diff < 0) {
+
+                // バッファが空なので null を返す
+                return null;
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 指定した最大数まで要素を取り出して、指定コレクションへ追加する。
+     *
+     * @param collection    追加先コレクション
+     * @param maxElements   取り出す最大要素数
+     * @return 取り出した要素数
+     * @throws IllegalArgumentException 追加先コレクションが null の場合
+     */
+    public int drainTo(
+            final Collection<? super E> collection,
+            final int                   maxElements
+            ) {
+
+        // 追加先コレクションが null の場合は例外
+        if (collection == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+
+        int     retCount = 0;   // 取り出した要素数
+
+        // 最大数まで繰り返す
+        while (retCount < maxElements) {
+
+            // 要素を取り出す
+            final E     element = poll();
+
+            // 空の場合
+            if (element == null) {
+
+                // ループ終了
+                break;
+
+            }
+
+            // コレクションへ追加する
+            collection.add(element);
+            retCount++;
+
+        }
+
+        // 取り出した要素数を返す
+        return retCount;
+
+    }
+
+
+    /**
+     * 格納されている要素数を取得する。<br>
+     * <br>
+     * 他スレッドが操作中の場合は概算値となる。<br>
+     *
+     * @return 格納されている要素数
+     */
+    public int size() {
+
+        final long  size = ringTail.get() - ringHead.get();
+
+        // 範囲内に丸めて返す
+        return (int)Math.max(0, Math.min(size, capacity()));
+
+    }
+
+
+    /**
+     * バッファが空かどうかを取得する。
+     *
+     * @return バッファが空の場合は true
+     */
+    public boolean isEmpty() {
+
+        return size() == 0;
+
+    }
+
+
+}
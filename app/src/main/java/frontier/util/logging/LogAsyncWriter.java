@@ -0,0 +1,500 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import frontier.util.concurrent.ConcurrentRingBuffer;
+
+
+/**
+ * 非同期アペンダ用ログ出力スレッドクラス。<br>
+ * <br>
+ * 出力要求元スレッドはログイベントをリングバッファへ追加するだけとなり、<br>
+ * 専用の出力スレッドがまとめて取り出して出力し、取り出し単位ごとに 1 回だけフラッシュする。<br>
+ *
+ * @author Kou
+ *
+ */
+final class LogAsyncWriter implements Runnable {
+
+
+    /**
+     * デフォルトキュー容量
+     */
+    static final int                                DEFAULT_CAPACITY        = 1024;
+
+    /**
+     * 1 回に取り出す最大ログイベント数
+     */
+    private static final int                        MAX_BATCH_SIZE          = 256;
+
+    /**
+     * キューが空の場合の出力スレッド待機時間 (ns)
+     */
+    private static final long                       IDLE_WAIT_NANOS         = 100000000L;
+
+    /**
+     * キューが一杯の場合の出力要求元スレッド待機時間 (ns)
+     */
+    private static final long                       BLOCK_WAIT_NANOS        = 1000000L;
+
+    /**
+     * 停止時に出力完了を待つ最大時間 (ms)
+     */
+    private static final long                       SHUTDOWN_WAIT_MILLIS    = 5000L;
+
+    /**
+     * ログイベントキュー
+     */
+    private final ConcurrentRingBuffer<LogEvent>    writerQueue;
+
+    /**
+     * キューが一杯の場合の動作
+     */
+    private final LogOverflowPolicy                 writerPolicy;
+
+    /**
+     * 破棄しない最小ログレベル
+     */
+    private final LogLevel                          writerThreshold;
+
+    /**
+     * ログイベント出力先
+     */
+    private final EventSink                         writerSink;
+
+    /**
+     * 出力スレッド
+     */
+    private final Thread                            writerThread;
+
+    /**
+     * 破棄したログイベント数
+     */
+    private final AtomicLong                        writerDroppedCount = new AtomicLong();
+
+    /**
+     * 動作中かどうか
+     */
+    private volatile boolean                        writerRunning = true;
+
+    /**
+     * 出力スレッドが待機中かどうか
+     */
+    private volatile boolean                        writerWaiting;
+
+    /**
+     * 出力スレッドが終了したかどうか
+     */
+    private boolean                                 writerFinished;
+
+    /**
+     * 出力スレッドの終了時に出力先を閉じるかどうか
+     */
+    private boolean                                 writerCloseOnFinish;
+
+
+
+    /**
+     * 非同期ログ出力スレッドを初期化する。
+     *
+     * @param name      出力スレッド名
+     * @param sink      ログイベント出力先
+     * @param capacity  キュー容量
+     * @param policy    キューが一杯の場合の動作
+     * @param threshold 破棄しない最小ログレベル ({@link LogOverflowPolicy#DROP_BELOW_LEVEL} の場合のみ利用する)
+     * @throws IllegalArgumentException 出力先または動作が null の場合、容量が 0 以下の場合
+     */
+    LogAsyncWriter(
+            final String            name,
+            final EventSink         sink,
+            final int               capacity,
+            final LogOverflowPolicy policy,
+            final LogLevel          threshold
+            ) {
+
+        // 出力先または動作が null の場合は例外
+        if ((sink == null) || (policy == null)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // 指定レベル未満を破棄するがレベルが指定されていない場合は例外
+        if ((policy == LogOverflowPolicy.DROP_BELOW_LEVEL) && (threshold == null)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // 各種情報を初期化する
+        writerQueue     = new ConcurrentRingBuffer<LogEvent>(capacity);
+        writerPolicy    = policy;
+        writerThreshold = threshold;
+        writerSink      = sink;
+        writerThread    = new Thread(this, name);
+
+        // デーモンスレッドとして動作させる
+        writerThread.setDaemon(true);
+
+    }
+
+
+    /**
+     * 出力スレッドを開始する。
+     *
+     */
+    void start() {
+
+        writerThread.start();
+
+    }
+
+
+    /**
+     * ログイベントをキューへ追加する。
+     *
+     * @param event 追加するログイベント
+     * @return キューへ追加した場合は true。破棄した場合は false
+     */
+    boolean enqueue(
+            final LogEvent  event
+            ) {
+
+        // 停止済みの場合
+        if (!writerRunning) {
+
+            // 追加しない
+            return false;
+
+        }
+
+        // キューへ追加できなかった場合
+        if (!writerQueue.offer(event)) {
+
+            // 動作別処理
+            switch (writerPolicy) {
+
+            // 最も古いログイベントを破棄する
+            case DROP_OLDEST:
+
+                // 追加できるまで繰り返す
+                do {
+
+                    // 最も古いログイベントを破棄する
+                    if (writerQueue.poll() != null) {
+
+                        writerDroppedCount.incrementAndGet();
+
+                    }
+
+                } while (!writerQueue.offer(event));
+                break;
+
+
+            // 指定レベル未満を破棄する
+            case DROP_BELOW_LEVEL:
+
+                // 指定レベル未満の場合
+                if (event.getLevel().getType() < writerThreshold.getType()) {
+
+                    // 破棄する
+                    writerDroppedCount.incrementAndGet();
+                    return false;
+
+                }
+
+                // 指定レベル以上の場合は空きができるまで待つ
+                if (!awaitOffer(event)) {
+
+                    return false;
+
+                }
+                break;
+
+
+            // 空きができるまで待つ
+            default:
+
+                // 空きができるまで待つ
+                if (!awaitOffer(event)) {
+
+                    return false;
+
+                }
+                break;
+
+            }
+
+        }
+
+        // 出力スレッドを起こす
+        wakeUp();
+
+        // 追加成功
+        return true;
+
+    }
+
+
+    /**
+     * キューに空きができるまで待ってからログイベントを追加する。
+     *
+     * @param event 追加するログイベント
+     * @return キューへ追加した場合は true。待機中に停止した場合は false
+     */
+    private boolean awaitOffer(
+            final LogEvent  event
+            ) {
+
+        // 追加できるまで繰り返す
+        while (!writerQueue.offer(event)) {
+
+            // 停止済みの場合
+            if (!writerRunning) {
+
+                // 破棄する
+                writerDroppedCount.incrementAndGet();
+                return false;
+
+            }
+
+            // 出力スレッドを起こして少し待つ
+            wakeUp();
+            LockSupport.parkNanos(BLOCK_WAIT_NANOS);
+
+        }
+
+        // 追加成功
+        return true;
+
+    }
+
+
+    /**
+     * 待機中の出力スレッドを起こす。
+     *
+     */
+    private void wakeUp() {
+
+        // 出力スレッドが待機中の場合
+        if (writerWaiting) {
+
+            // 待機を解除する
+            LockSupport.unpark(writerThread);
+
+        }
+
+    }
+
+
+    /**
+     * 出力スレッドを停止する。<br>
+     * <br>
+     * キューに残っているログイベントを全て出力してから停止する。<br>
+     * 待機時間内に出力スレッドが終了しなかった場合は、出力中の出力先を閉じないように<br>
+     * 出力スレッドの終了時に {@link EventSink#closeTarget()} を呼び出させる。<br>
+     *
+     * @return 出力スレッドが終了した場合は true。出力スレッドが出力先を閉じる場合は false
+     */
+    boolean shutdown() {
+
+        // 停止状態にして出力スレッドを起こす
+        writerRunning = false;
+        LockSupport.unpark(writerThread);
+
+        // 出力スレッドから呼び出された場合は待たない
+        if (Thread.currentThread() != writerThread) {
+
+            try {
+
+                // 出力完了を待つ
+                writerThread.join(SHUTDOWN_WAIT_MILLIS);
+
+            } catch (final InterruptedException e) {
+
+                // 割り込み状態を復帰する
+                Thread.currentThread().interrupt();
+
+            }
+
+        }
+
+        // 出力スレッドの終了と排他する
+        synchronized (this) {
+
+            // 出力スレッドが終了していない場合
+            if (!writerFinished) {
+
+                // 出力スレッドの終了時に閉じさせる
+                writerCloseOnFinish = true;
+                return false;
+
+            }
+
+        }
+
+        return true;
+
+    }
+
+
+    /**
+     * キューからログイベントを取り出して出力する。
+     *
+     */
+    public void run() {
+
+        final List<LogEvent>    batch = new ArrayList<LogEvent>(MAX_BATCH_SIZE);    // 取り出したログイベント一覧
+
+
+        // 停止かつキューが空になるまで繰り返す
+        while (true) {
+
+            // ログイベントを取り出す
+            if (writerQueue.drainTo(batch, MAX_BATCH_SIZE) == 0) {
+
+                // 停止済みの場合
+                if (!writerRunning) {
+
+                    // ループ終了
+                    break;
+
+                }
+
+                // 待機状態にする
+                writerWaiting = true;
+
+                // 待機状態にした後もキューが空の場合
+                if (writerQueue.isEmpty() && writerRunning) {
+
+                    // 追加されるまで待つ
+                    LockSupport.parkNanos(IDLE_WAIT_NANOS);
+
+                }
+
+                // 待機状態を解除する
+                writerWaiting = false;
+                continue;
+
+            }
+
+            // 取り出したログイベントを出力する
+            writeBatch(batch);
+
+        }
+
+        // 停止直前に追加されたログイベントを出力する
+        while (writerQueue.drainTo(batch, MAX_BATCH_SIZE) > 0) {
+
+            writeBatch(batch);
+
+        }
+
+        final boolean   close;  // 出力先を閉じるかどうか
+
+        // 停止処理と排他する
+        synchronized (this) {
+
+            // 終了状態にする
+            writerFinished = true;
+            close          = writerCloseOnFinish;
+
+        }
+
+        // 停止処理が待ちきれなかった場合
+        if (close) {
+
+            // 出力先を閉じる
+            writerSink.closeTarget();
+
+        }
+
+    }
+
+
+    /**
+     * 取り出したログイベント一覧を出力する。
+     *
+     * @param batch 取り出したログイベント一覧
+     */
+    private void writeBatch(
+            final List<LogEvent>    batch
+            ) {
+
+        try {
+
+            // ログイベントを出力する
+            writerSink.write(batch, writerDroppedCount.getAndSet(0));
+
+        } catch (final Throwable e) {
+
+            e.printStackTrace();
+
+        } finally {
+
+            // 一覧をクリアする
+            batch.clear();
+
+        }
+
+    }
+
+
+
+
+    /**
+     * ログイベント出力先インターフェース。
+     *
+     * @author Kou
+     *
+     */
+    interface EventSink {
+
+
+        /**
+         * ログイベント一覧を出力する。<br>
+         * <br>
+         * 出力後に 1 回だけフラッシュすること。<br>
+         *
+         * @param events        出力するログイベント一覧
+         * @param droppedCount  前回出力後に破棄されたログイベント数
+         * @throws IOException  入出力エラー時
+         */
+        void write(
+                final List<LogEvent>    events,
+                final long              droppedCount
+                ) throws IOException;
+
+
+        /**
+         * 出力先を閉じる。<br>
+         * <br>
+         * 停止処理が出力スレッドの終了を待ちきれなかった場合に、出力スレッドの終了時に呼び出される。<br>
+         *
+         */
+        void closeTarget();
+
+
+    }
+
+
+}
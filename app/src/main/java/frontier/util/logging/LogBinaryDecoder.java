@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+
+/**
+ * バイナリログファイルの変換クラス。<br>
+ * <br>
+ * <code>binary</code> 出力先で書き込まれたバイナリログファイルを読み込み、<br>
+ * ログ出力パターンに従った文字列へ変換する。<br>
+ * 端末から取り出したファイルをオフラインで確認する場合などに利用する。<br>
+ * <br>
+ * バイナリログファイルには診断コンテキスト情報は格納されないため、<br>
+ * %x, %X の変換結果は空文字となる。<br>
+ *
+ * @author Kou
+ *
+ */
+public final class LogBinaryDecoder {
+
+
+    /**
+     * インスタンス生成防止。
+     */
+    private LogBinaryDecoder() {
+
+        // 処理なし
+
+    }
+
+
+    /**
+     * バイナリログファイルの内容を古い順に変換して出力する。
+     *
+     * @param file      バイナリログファイル
+     * @param pattern   ログ出力パターン
+     * @param out       出力先
+     * @throws IOException 読み込みまたは書き込みに失敗した場合
+     * @throws IllegalArgumentException 引数が null の場合
+     * @throws IllegalStateException ログ出力パターンが不正な場合
+     */
+    public static void decode(
+            final File      file,
+            final String    pattern,
+            final Writer    out
+            ) throws IOException {
+
+        // 引数が null の場合は例外
+        if ((file == null) || (pattern == null) || (out == null)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+
+        final LogPatternLayout  layout = new LogPatternLayout(pattern);    // ログ出力パターン
+        final List<LogEvent>    events = LogBinaryFile.readEvents(file);   // ログイベント一覧
+        final StringBuilder     outBuf = new StringBuilder();              // 出力バッファ
+
+        // ログイベント分繰り返す
+        for (final LogEvent event : events) {
+
+            // ログ出力パターンに従って変換する
+            outBuf.setLength(0);
+            layout.format(outBuf, event);
+            outBuf.append(LogUtils.LINE_FEED);
+
+            // 出力先へ書き込む
+            out.append(outBuf);
+
+        }
+
+        // 出力先をフラッシュする
+        out.flush();
+
+    }
+
+
+}
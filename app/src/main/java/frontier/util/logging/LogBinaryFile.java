@@ -0,0 +1,1034 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import frontier.util.FileUtils;
+import frontier.util.IOUtils;
+
+
+/**
+ * メモリマップしたリングファイルへのバイナリログ出力クラス。<br>
+ * <br>
+ * ファイルは事前に確保したサイズでメモリマップされ、ログイベントはバイナリレコードとして<br>
+ * リング領域へ直接書き込まれる。容量を超えた場合は古いレコードから上書きする。<br>
+ * 書き込みごとのシステムコールや文字列フォーマットは発生せず、<br>
+ * プロセスが異常終了した場合も書き込み済みのレコードはファイルに残る。<br>
+ * <br>
+ * ファイル構成は以下の通り。数値は全てビッグエンディアン。<br>
+ * <table border="1">
+ * <tr>
+ *   <td>領域</td><td>サイズ</td><td>内容</td>
+ * </tr>
+ * <tr>
+ *   <td>ヘッダ</td><td>{@link #HEADER_SIZE}</td>
+ *   <td>識別子、バージョン、リング容量、辞書サイズ、書き込み位置、最古レコード位置、使用バイト数、辞書件数、辞書使用バイト数</td>
+ * </tr>
+ * <tr>
+ *   <td>辞書</td><td>{@link #DICTIONARY_SIZE}</td>
+ *   <td>カテゴリ名・タグ名・スレッド名の一覧 (2 バイト長 + UTF-8)。登録順が ID となる</td>
+ * </tr>
+ * <tr>
+ *   <td>リング</td><td>リング容量</td>
+ *   <td>レコード一覧。長さ 0 のレコードまたは 4 バイト未満の末尾は先頭へ戻ることを表す</td>
+ * </tr>
+ * </table>
+ * <br>
+ * レコード構成は、レコード長 (4) + 日時 (8) + ログレベル (1) + カテゴリ ID (4) + タグ ID (4)<br>
+ * + スレッド ID (4) + 辞書に登録できなかった文字列 (2 バイト長 + UTF-8) + メッセージ (UTF-8) となる。<br>
+ * 辞書に登録できなかった文字列の ID は -1 となり、レコード内に直接格納する。<br>
+ * <br>
+ * 書き込みは単一スレッドから行うこと。<br>
+ *
+ * @author Kou
+ *
+ */
+final class LogBinaryFile {
+
+
+    /**
+     * ファイル識別子
+     */
+    private static final int                    MAGIC               = 0x464C4F47;
+
+    /**
+     * ファイル形式バージョン
+     */
+    private static final int                    VERSION             = 1;
+
+    /**
+     * ヘッダサイズ
+     */
+    static final int                            HEADER_SIZE         = 64;
+
+    /**
+     * 辞書領域サイズ
+     */
+    static final int                            DICTIONARY_SIZE     = 64 * 1024;
+
+    /**
+     * デフォルトのリング容量
+     */
+    static final int                            DEFAULT_CAPACITY    = 1024 * 1024;
+
+    /**
+     * 最小のリング容量
+     */
+    static final int                            MIN_CAPACITY        = 4 * 1024;
+
+    /**
+     * ヘッダ位置 : 識別子
+     */
+    private static final int                    POS_MAGIC           = 0;
+
+    /**
+     * ヘッダ位置 : バージョン
+     */
+    private static final int                    POS_VERSION         = 4;
+
+    /**
+     * ヘッダ位置 : リング容量
+     */
+    private static final int                    POS_CAPACITY        = 8;
+
+    /**
+     * ヘッダ位置 : 辞書サイズ
+     */
+    private static final int                    POS_DICTIONARY_SIZE = 12;
+
+    /**
+     * ヘッダ位置 : 書き込み位置
+     */
+    private static final int                    POS_WRITE_OFFSET    = 16;
+
+    /**
+     * ヘッダ位置 : 最古レコード位置
+     */
+    private static final int                    POS_READ_OFFSET     = 20;
+
+    /**
+     * ヘッダ位置 : 使用バイト数
+     */
+    private static final int                    POS_USED            = 24;
+
+    /**
+     * ヘッダ位置 : 辞書件数
+     */
+    private static final int                    POS_DICTIONARY_COUNT = 28;
+
+    /**
+     * ヘッダ位置 : 辞書使用バイト数
+     */
+    private static final int                    POS_DICTIONARY_USED = 32;
+
+    /**
+     * レコードの固定部分サイズ
+     */
+    private static final int                    RECORD_FIXED_SIZE   = 4 + 8 + 1 + 4 + 4 + 4;
+
+    /**
+     * 文字コード
+     */
+    private static final String                 ENCODING            = "UTF-8";
+
+    /**
+     * 置換文字 (U+FFFD) の UTF-8 バイト列
+     */
+    private static final byte[]                 REPLACEMENT_UTF8    = {(byte)0xEF, (byte)0xBF, (byte)0xBD};
+
+    /**
+     * 辞書に登録できなかった文字列の ID
+     */
+    private static final int                    INLINE_ID           = -1;
+
+    /**
+     * 辞書・レコード内に格納する名前の最大バイト数
+     */
+    private static final int                    MAX_NAME_BYTES      = 0x7FFF;
+
+
+    /**
+     * ファイルチャネル
+     */
+    private final FileChannel                   binaryChannel;
+
+    /**
+     * ファイル全体のマップ
+     */
+    private final MappedByteBuffer              binaryBuffer;
+
+    /**
+     * リング容量
+     */
+    private final int                           binaryCapacity;
+
+    /**
+     * リング領域の開始位置
+     */
+    private final int                           binaryRingStart;
+
+    /**
+     * 1 レコードに格納する名前の最大文字数
+     */
+    private final int                           binaryMaxNameChars;
+
+    /**
+     * 1 レコードに格納するメッセージの最大文字数
+     */
+    private final int                           binaryMaxMessageChars;
+
+    /**
+     * 辞書<br>
+     * <br>
+     * <table border="1">
+     * <tr>
+     *   <td>項目</td><td>型</td><td>内容</td>
+     * </tr>
+     * <tr>
+     *   <td>キー</td><td>String</td><td>登録文字列</td>
+     * </tr>
+     * <tr>
+     *   <td>値</td><td>Integer</td><td>ID</td>
+     * </tr>
+     * </table>
+     */
+    private final Map<String, Integer>          binaryDictionary = new HashMap<String, Integer>();
+
+    /**
+     * 書き込み位置 (リング領域内)
+     */
+    private int                                 binaryWriteOffset;
+
+    /**
+     * 最古レコード位置 (リング領域内)
+     */
+    private int                                 binaryReadOffset;
+
+    /**
+     * 使用バイト数
+     */
+    private int                                 binaryUsed;
+
+    /**
+     * 辞書件数
+     */
+    private int                                 binaryDictionaryCount;
+
+    /**
+     * 辞書使用バイト数
+     */
+    private int                                 binaryDictionaryUsed;
+
+
+
+    /**
+     * バイナリログファイルを開く。<br>
+     * <br>
+     * 同じ容量の既存ファイルがある場合は続きから書き込み、<br>
+     * ない場合や形式が異なる場合は初期化する。<br>
+     *
+     * @param filePath  ファイルパス
+     * @param capacity  リング容量
+     * @throws IOException ファイルが開けなかった場合
+     */
+    LogBinaryFile(
+            final String    filePath,
+            final int       capacity
+            ) throws IOException {
+
+        // ファイルパスが null、または容量が小さすぎる場合は例外
+        if ((filePath == null) || (capacity < MIN_CAPACITY)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // ファイルが存在せず、作成に失敗した場合は例外
+        if (!FileUtils.exists(filePath) && !FileUtils.createNew(filePath)) {
+
+            throw new IOException("Failed to create a new log file. [path = " + filePath + "]");
+
+        }
+
+
+        final RandomAccessFile  file = new RandomAccessFile(filePath, "rw");
+
+        try {
+
+            // ファイル全体をメモリマップする
+            binaryChannel   = file.getChannel();
+            binaryBuffer    = binaryChannel.map(
+                    FileChannel.MapMode.READ_WRITE,
+                    0,
+                    HEADER_SIZE + DICTIONARY_SIZE + capacity
+                    );
+
+        } catch (final IOException e) {
+
+            IOUtils.closeQuietly(file);
+            throw e;
+
+        }
+
+        // 各種情報を初期化する
+        binaryCapacity        = capacity;
+        binaryRingStart       = HEADER_SIZE + DICTIONARY_SIZE;
+        binaryMaxNameChars    = Math.min(MAX_NAME_BYTES, capacity / 16) / 3;
+        binaryMaxMessageChars = capacity / 4 / 3;
+
+        // 既存の内容を読み込めなかった場合
+        if (!loadHeader()) {
+
+            // ファイルを初期化する
+            binaryWriteOffset     = 0;
+            binaryReadOffset      = 0;
+            binaryUsed            = 0;
+            binaryDictionaryCount = 0;
+            binaryDictionaryUsed  = 0;
+
+            binaryBuffer.putInt(POS_MAGIC,           MAGIC);
+            binaryBuffer.putInt(POS_VERSION,         VERSION);
+            binaryBuffer.putInt(POS_CAPACITY,        capacity);
+            binaryBuffer.putInt(POS_DICTIONARY_SIZE, DICTIONARY_SIZE);
+            storeHeader();
+
+        }
+
+    }
+
+
+    /**
+     * ヘッダと辞書を読み込む。
+     *
+     * @return 同じ形式の既存ファイルを読み込めた場合は true
+     */
+    private boolean loadHeader() {
+
+        // 形式が異なる場合は読み込まない
+        if ((binaryBuffer.getInt(POS_MAGIC) != MAGIC)
+            || (binaryBuffer.getInt(POS_VERSION) != VERSION)
+            || (binaryBuffer.getInt(POS_CAPACITY) != binaryCapacity)
+            || (binaryBuffer.getInt(POS_DICTIONARY_SIZE) != DICTIONARY_SIZE)
+            ) {
+
+            return false;
+
+        }
+
+        // ヘッダを読み込む
+        binaryWriteOffset     = binaryBuffer.getInt(POS_WRITE_OFFSET);
+        binaryReadOffset      = binaryBuffer.getInt(POS_READ_OFFSET);
+        binaryUsed            = binaryBuffer.getInt(POS_USED);
+        binaryDictionaryCount = binaryBuffer.getInt(POS_DICTIONARY_COUNT);
+        binaryDictionaryUsed  = binaryBuffer.getInt(POS_DICTIONARY_USED);
+
+        // ヘッダの値が不正な場合は読み込まない
+        if ((binaryWriteOffset < 0) || (binaryWriteOffset >= binaryCapacity)
+            || (binaryReadOffset < 0) || (binaryReadOffset >= binaryCapacity)
+            || (binaryUsed < 0) || (binaryUsed > binaryCapacity)
+            || (binaryDictionaryUsed < 0) || (binaryDictionaryUsed > DICTIONARY_SIZE)
+            ) {
+
+            return false;
+
+        }
+
+        // 辞書を読み込む
+        final List<String>  names = readDictionary(binaryBuffer, binaryDictionaryCount, binaryDictionaryUsed);
+
+        // 辞書が読み込めなかった場合
+        if (names == null) {
+
+            return false;
+
+        }
+
+        // 辞書を登録する
+        for (int i = 0; i < names.size(); i++) {
+
+            binaryDictionary.put(names.get(i), i);
+
+        }
+
+        // 読み込み成功
+        return true;
+
+    }
+
+
+    /**
+     * ヘッダの可変部分を書き込む。
+     *
+     */
+    private void storeHeader() {
+
+        binaryBuffer.putInt(POS_WRITE_OFFSET,     binaryWriteOffset);
+        binaryBuffer.putInt(POS_READ_OFFSET,      binaryReadOffset);
+        binaryBuffer.putInt(POS_USED,             binaryUsed);
+        binaryBuffer.putInt(POS_DICTIONARY_COUNT, binaryDictionaryCount);
+        binaryBuffer.putInt(POS_DICTIONARY_USED,  binaryDictionaryUsed);
+
+    }
+
+
+    /**
+     * ログイベントをレコードとして書き込む。
+     *
+     * @param event 書き込むログイベント
+     */
+    void write(
+            final LogEvent  event
+            ) {
+
+        // 文字列の ID を取得する
+        final String        categoryName = limitLength(event.getCategoryName(), binaryMaxNameChars);
+        final String        tag          = limitLength(event.getTag(),          binaryMaxNameChars);
+        final String        threadName   = limitLength(event.getThreadName(),   binaryMaxNameChars);
+        final CharSequence  message      = limitLength(event.getMessage(),      binaryMaxMessageChars);
+        final int           categoryId   = intern(categoryName);
+        final int           tagId        = intern(tag);
+        final int           threadId     = intern(threadName);
+
+        // レコード長を算出する
+        final int       recordLength = RECORD_FIXED_SIZE
+                                       + getInlineLength(categoryId, categoryName)
+                                       + getInlineLength(tagId,      tag)
+                                       + getInlineLength(threadId,   threadName)
+                                       + getUTF8Length(message);
+
+
+        final int       remaining = binaryCapacity - binaryWriteOffset;  // 末尾までの残りバイト数
+
+        // 末尾に収まらない場合
+        if (remaining < recordLength) {
+
+            // 末尾を空けて先頭へ戻る
+            reserve(remaining);
+
+            // 4 バイト以上ある場合は先頭へ戻ることを書き込む
+            if (remaining >= 4) {
+
+                binaryBuffer.putInt(binaryRingStart + binaryWriteOffset, 0);
+
+            }
+
+            binaryUsed       += remaining;
+            binaryWriteOffset = 0;
+
+        }
+
+        // レコード分の領域を確保する
+        reserve(recordLength);
+
+        // レコードを書き込む
+        int     position = binaryRingStart + binaryWriteOffset;
+
+        binaryBuffer.putInt(position, recordLength);
+        binaryBuffer.putLong(position + 4, event.getTime());
+        binaryBuffer.put(position + 12, (byte)event.getLevel().ordinal());
+        binaryBuffer.putInt(position + 13, categoryId);
+        binaryBuffer.putInt(position + 17, tagId);
+        binaryBuffer.putInt(position + 21, threadId);
+        position += RECORD_FIXED_SIZE;
+        position  = putInline(position, categoryId, categoryName);
+        position  = putInline(position, tagId,      tag);
+        position  = putInline(position, threadId,   threadName);
+        putUTF8(binaryBuffer, position, message);
+
+        // 書き込み位置を進める
+        binaryUsed       += recordLength;
+        binaryWriteOffset = (binaryWriteOffset + recordLength) % binaryCapacity;
+
+        // 書き込み後にヘッダを更新する
+        storeHeader();
+
+    }
+
+
+    /**
+     * ファイルを閉じる。
+     *
+     */
+    void close() {
+
+        // 閉じる前に内容を書き出す
+        binaryBuffer.force();
+        IOUtils.closeQuietly(binaryChannel);
+
+    }
+
+
+    /**
+     * 指定バイト数の空きができるまで古いレコードを破棄する。
+     *
+     * @param length    必要なバイト数
+     */
+    private void reserve(
+            final int   length
+            ) {
+
+        // 空きが足りない間繰り返す
+        while (binaryCapacity - binaryUsed < length) {
+
+            final int   remaining = binaryCapacity - binaryReadOffset;    // 末尾までの残りバイト数
+            final int   skipLength;                                       // 破棄するバイト数
+
+            // 末尾の空き領域の場合
+            if ((remaining < 4) || (binaryBuffer.getInt(binaryRingStart + binaryReadOffset) == 0)) {
+
+                // 末尾まで破棄する
+                skipLength = remaining;
+
+            } else {
+
+                // 最古のレコードを破棄する
+                skipLength = binaryBuffer.getInt(binaryRingStart + binaryReadOffset);
+
+            }
+
+            binaryUsed      -= skipLength;
+            binaryReadOffset = (binaryReadOffset + skipLength) % binaryCapacity;
+
+        }
+
+        // 上書き前に最古レコード位置を更新する
+        storeHeader();
+
+    }
+
+
+    /**
+     * 文字列の ID を取得する。未登録の場合は辞書へ登録する。
+     *
+     * @param name  文字列
+     * @return ID。辞書に登録できなかった場合は {@link #INLINE_ID}
+     */
+    private int intern(
+            final String    name
+            ) {
+
+        final Integer   id = binaryDictionary.get(name);
+
+        // 登録済みの場合
+        if (id != null) {
+
+            return id;
+
+        }
+
+
+        final int       length = getUTF8Length(name);  // 文字列のバイト数
+
+        // 辞書に空きがない場合
+        if (binaryDictionaryUsed + 2 + length > DICTIONARY_SIZE) {
+
+            // レコード内に格納する
+            return INLINE_ID;
+
+        }
+
+        // 辞書へ書き込む
+        final int       position = HEADER_SIZE + binaryDictionaryUsed;
+        final int       retId    = binaryDictionaryCount;
+
+        binaryBuffer.putShort(position, (short)length);
+        putUTF8(binaryBuffer, position + 2, name);
+
+        // 辞書を更新する
+        binaryDictionary.put(name, retId);
+        binaryDictionaryUsed += 2 + length;
+        binaryDictionaryCount++;
+        storeHeader();
+
+        // 登録した ID を返す
+        return retId;
+
+    }
+
+
+    /**
+     * レコード内に格納する文字列のバイト数を取得する。
+     *
+     * @param id    文字列の ID
+     * @param name  文字列
+     * @return レコード内に格納するバイト数。辞書に登録済みの場合は 0
+     */
+    private static int getInlineLength(
+            final int       id,
+            final String    name
+            ) {
+
+        return id == INLINE_ID ? 2 + getUTF8Length(name) : 0;
+
+    }
+
+
+    /**
+     * 辞書に登録できなかった文字列をレコード内に書き込む。
+     *
+     * @param position  書き込み位置
+     * @param id        文字列の ID
+     * @param name      文字列
+     * @return 次の書き込み位置
+     */
+    private int putInline(
+            final int       position,
+            final int       id,
+            final String    name
+            ) {
+
+        // 辞書に登録済みの場合は何もしない
+        if (id != INLINE_ID) {
+
+            return position;
+
+        }
+
+        final int   length = getUTF8Length(name);
+
+        binaryBuffer.putShort(position, (short)length);
+        putUTF8(binaryBuffer, position + 2, name);
+
+        return position + 2 + length;
+
+    }
+
+
+    /**
+     * 指定ファイルのレコードを古い順に読み込む。
+     *
+     * @param file  バイナリログファイル
+     * @return 読み込んだログイベント一覧
+     * @throws IOException 読み込みに失敗した場合、ファイル形式が異なる場合
+     */
+    static List<LogEvent> readEvents(
+            final File  file
+            ) throws IOException {
+
+        final RandomAccessFile  in = new RandomAccessFile(file, "r");
+        final ByteBuffer        buffer;
+
+        try {
+
+            // ファイル全体を読み込む
+            final byte[]    data = new byte[(int)in.length()];
+
+            in.readFully(data);
+            buffer = ByteBuffer.wrap(data);
+
+        } finally {
+
+            IOUtils.closeQuietly(in);
+
+        }
+
+        // 形式が異なる場合は例外
+        if ((buffer.capacity() < HEADER_SIZE)
+            || (buffer.getInt(POS_MAGIC) != MAGIC)
+            || (buffer.getInt(POS_VERSION) != VERSION)
+            ) {
+
+            throw new IOException("Not a binary log file. [path = " + file + "]");
+
+        }
+
+
+        final int           capacity       = buffer.getInt(POS_CAPACITY);
+        final int           dictionarySize = buffer.getInt(POS_DICTIONARY_SIZE);
+        final int           ringStart      = HEADER_SIZE + dictionarySize;
+        final List<String>  names          = readDictionary(
+                buffer,
+                buffer.getInt(POS_DICTIONARY_COUNT),
+                buffer.getInt(POS_DICTIONARY_USED)
+                );
+
+        // ファイルサイズが足りない、または辞書が読めない場合は例外
+        if ((capacity <= 0) || (dictionarySize < 0)
+            || (buffer.capacity() < ringStart + capacity)
+            || (names == null)
+            ) {
+
+            throw new IOException("Broken binary log file. [path = " + file + "]");
+
+        }
+
+
+        final List<LogEvent>    retEvents = new ArrayList<LogEvent>();
+        final LogLevel[]        levels    = LogLevel.values();
+        int                     offset    = buffer.getInt(POS_READ_OFFSET);
+        int                     used      = buffer.getInt(POS_USED);
+
+        // 最古レコード位置が不正な場合は例外
+        if ((offset < 0) || (offset >= capacity)) {
+
+            throw new IOException("Broken binary log file. [path = " + file + "]");
+
+        }
+
+        // 使用バイト分繰り返す
+        while (used > 0) {
+
+            final int   remaining = capacity - offset;
+
+            // 末尾の空き領域の場合
+            if ((remaining < 4) || (buffer.getInt(ringStart + offset) == 0)) {
+
+                // 先頭へ戻る
+                used  -= remaining;
+                offset = 0;
+                continue;
+
+            }
+
+
+            final int   recordLength = buffer.getInt(ringStart + offset);
+
+            // レコード長が不正な場合は例外
+            if ((recordLength < RECORD_FIXED_SIZE) || (recordLength > remaining)) {
+
+                throw new IOException("Broken binary log record. [offset = " + offset + "]");
+
+            }
+
+            // レコードを読み込む
+            final int       position   = ringStart + offset;
+            final long      time       = buffer.getLong(position + 4);
+            final int       levelIndex = buffer.get(position + 12);
+            final int[]     ids        = {
+                    buffer.getInt(position + 13),
+                    buffer.getInt(position + 17),
+                    buffer.getInt(position + 21)
+            };
+            final String[]  values     = new String[ids.length];
+            int             cursor     = position + RECORD_FIXED_SIZE;
+
+            // カテゴリ名・タグ名・スレッド名を取得する
+            for (int i = 0; i < ids.length; i++) {
+
+                // レコード内に格納されている場合
+                if (ids[i] == INLINE_ID) {
+
+                    final int   length = buffer.getShort(cursor) & 0xFFFF;
+
+                    values[i] = getUTF8(buffer, cursor + 2, length);
+                    cursor   += 2 + length;
+
+                } else {
+
+                    values[i] = (ids[i] >= 0) && (ids[i] < names.size()) ? names.get(ids[i]) : null;
+
+                }
+
+            }
+
+            // ログイベントを追加する
+            retEvents.add(new LogEvent(
+                    (levelIndex >= 0) && (levelIndex < levels.length) ? levels[levelIndex] : LogLevel.VERBOSE,
+                    values[0],
+                    values[1],
+                    getUTF8(buffer, cursor, position + recordLength - cursor),
+                    time,
+                    values[2],
+                    null,
+                    Collections.<String, String>emptyMap(),
+                    Collections.<String, Object>emptyMap()
+                    ));
+
+            // 次のレコードへ
+            used  -= recordLength;
+            offset = (offset + recordLength) % capacity;
+
+        }
+
+        // 読み込んだログイベント一覧を返す
+        return retEvents;
+
+    }
+
+
+    /**
+     * 辞書を読み込む。
+     *
+     * @param buffer    ファイル内容
+     * @param count     辞書件数
+     * @param used      辞書使用バイト数
+     * @return 登録順の文字列一覧。辞書が不正な場合は null
+     */
+    private static List<String> readDictionary(
+            final ByteBuffer    buffer,
+            final int           count,
+            final int           used
+            ) {
+
+        // 辞書使用バイト数が不正な場合
+        if ((count < 0) || (used < 0) || (HEADER_SIZE + used > buffer.capacity())) {
+
+            return null;
+
+        }
+
+
+        final List<String>  retNames = new ArrayList<String>(count);
+        int                 offset   = 0;
+
+        // 辞書件数分繰り返す
+        for (int i = 0; i < count; i++) {
+
+            // 辞書使用バイト数を超える場合は不正
+            if (offset + 2 > used) {
+
+                return null;
+
+            }
+
+            final int   length = buffer.getShort(HEADER_SIZE + offset) & 0xFFFF;
+
+            // 辞書使用バイト数を超える場合は不正
+            if (offset + 2 + length > used) {
+
+                return null;
+
+            }
+
+            retNames.add(getUTF8(buffer, HEADER_SIZE + offset + 2, length));
+            offset += 2 + length;
+
+        }
+
+        // 読み込んだ文字列一覧を返す
+        return retNames;
+
+    }
+
+
+    /**
+     * 文字列を指定文字数以内に切り詰める。
+     *
+     * @param value     文字列
+     * @param maxLength 最大文字数
+     * @return 切り詰めた文字列
+     */
+    private static String limitLength(
+            final String    value,
+            final int       maxLength
+            ) {
+
+        // null の場合
+        if (value == null) {
+
+            return "";
+
+        }
+
+        // 文字列として切り詰める
+        return limitLength((CharSequence)value, maxLength).toString();
+
+    }
+
+
+    /**
+     * 文字列を指定文字数以内に切り詰める。
+     *
+     * @param value     文字列
+     * @param maxLength 最大文字数
+     * @return 切り詰めた文字列
+     */
+    private static CharSequence limitLength(
+            final CharSequence  value,
+            final int           maxLength
+            ) {
+
+        // null の場合
+        if (value == null) {
+
+            return "";
+
+        }
+
+        // 最大文字数以内の場合
+        if (value.length() <= maxLength) {
+
+            return value;
+
+        }
+
+        // サロゲートペアを分断しないように切り詰める
+        final int   length = Character.isHighSurrogate(value.charAt(maxLength - 1)) ? maxLength - 1 : maxLength;
+
+        return value.subSequence(0, length);
+
+    }
+
+
+    /**
+     * 文字列を UTF-8 へ変換した場合のバイト数を取得する。
+     *
+     * @param value 文字列
+     * @return UTF-8 のバイト数
+     */
+    private static int getUTF8Length(
+            final CharSequence  value
+            ) {
+
+        int     retLength = 0;
+
+        // 文字数分繰り返す
+        for (int i = 0, length = value.length(); i < length; i++) {
+
+            final char  ch = value.charAt(i);
+
+            // 文字範囲別にバイト数を加算する
+            if (ch < 0x80) {
+
+                retLength += 1;
+
+            } else if (ch < 0x800) {
+
+                retLength += 2;
+
+            } else if (Character.isHighSurrogate(ch)
+                       && (i + 1 < length)
+                       && Character.isLowSurrogate(value.charAt(i + 1))
+                       ) {
+
+                retLength += 4;
+                i++;
+
+            } else {
+
+                retLength += 3;
+
+            }
+
+        }
+
+        return retLength;
+
+    }
+
+
+    /**
+     * 文字列を UTF-8 で指定位置へ書き込む。<br>
+     * <br>
+     * 対になっていないサロゲート文字は置換文字 (U+FFFD) として書き込む。<br>
+     *
+     * @param buffer    書き込み先
+     * @param position  書き込み位置
+     * @param value     文字列
+     */
+    private static void putUTF8(
+            final ByteBuffer    buffer,
+            final int           position,
+            final CharSequence  value
+            ) {
+
+        int     cursor = position;
+
+        // 文字数分繰り返す
+        for (int i = 0, length = value.length(); i < length; i++) {
+
+            final char  ch = value.charAt(i);
+
+            // 文字範囲別に書き込む
+            if (ch < 0x80) {
+
+                buffer.put(cursor++, (byte)ch);
+
+            } else if (ch < 0x800) {
+
+                buffer.put(cursor++, (byte)(0xC0 | (ch >> 6)));
+                buffer.put(cursor++, (byte)(0x80 | (ch & 0x3F)));
+
+            } else if (Character.isHighSurrogate(ch)
+                       && (i + 1 < length)
+                       && Character.isLowSurrogate(value.charAt(i + 1))
+                       ) {
+
+                final int   codePoint = Character.toCodePoint(ch, value.charAt(++i));
+
+                buffer.put(cursor++, (byte)(0xF0 | (codePoint >> 18)));
+                buffer.put(cursor++, (byte)(0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put(cursor++, (byte)(0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put(cursor++, (byte)(0x80 | (codePoint & 0x3F)));
+
+            } else if ((ch >= Character.MIN_SURROGATE) && (ch <= Character.MAX_SURROGATE)) {
+
+                buffer.put(cursor++, REPLACEMENT_UTF8[0]);
+                buffer.put(cursor++, REPLACEMENT_UTF8[1]);
+                buffer.put(cursor++, REPLACEMENT_UTF8[2]);
+
+            } else {
+
+                buffer.put(cursor++, (byte)(0xE0 | (ch >> 12)));
+                buffer.put(cursor++, (byte)(0x80 | ((ch >> 6) & 0x3F)));
+                buffer.put(cursor++, (byte)(0x80 | (ch & 0x3F)));
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 指定位置の UTF-8 バイト列を文字列へ変換する。
+     *
+     * @param buffer    読み込み元
+     * @param position  読み込み位置
+     * @param length    バイト数
+     * @return 変換した文字列
+     */
+    private static String getUTF8(
+            final ByteBuffer    buffer,
+            final int           position,
+            final int           length
+            ) {
+
+        final byte[]    bytes = new byte[length];
+
+        // バイト列を取得する
+        for (int i = 0; i < length; i++) {
+
+            bytes[i] = buffer.get(position + i);
+
+        }
+
+        try {
+
+            return new String(bytes, ENCODING);
+
+        } catch (final UnsupportedEncodingException e) {
+
+            throw new IllegalStateException("UTF-8 is not supported.");
+
+        }
+
+    }
+
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+
+
+/**
+ * ネスト化診断コンテキストのスタックノードクラス。<br>
+ * <br>
+ * 不変の永続データ構造で、追加時は親ノードを共有した新しいノードを作成する。<br>
+ * ログイベントはノードの参照を保持するだけでよく、出力ごとの複製は不要となる。<br>
+ * 区切り文字で連結した文字列は初回参照時に作成してキャッシュする。<br>
+ *
+ * @author Kou
+ *
+ */
+final class LogContextStack {
+
+
+    /**
+     * スタック情報間の区切りトークン
+     */
+    private static final String             TOKEN_SPLIT = " ";
+
+    /**
+     * 親ノード。スタックの底の場合は null
+     */
+    private final LogContextStack           stackParent;
+
+    /**
+     * このノードの値
+     */
+    private final String                    stackValue;
+
+    /**
+     * スタックの要素数
+     */
+    private final int                       stackSize;
+
+    /**
+     * 連結した文字列のキャッシュ<br>
+     * <br>
+     * 文字列は不変のため、複数スレッドから同時に作成されても結果は同じとなる。<br>
+     */
+    private String                          stackJoined;
+
+
+
+    /**
+     * スタックノードを初期化する。
+     *
+     * @param parent    親ノード。スタックの底の場合は null
+     * @param value     このノードの値
+     */
+    private LogContextStack(
+            final LogContextStack   parent,
+            final String            value
+            ) {
+
+        stackParent = parent;
+        stackValue  = value;
+        stackSize   = parent == null ? 1 : parent.stackSize + 1;
+
+    }
+
+
+    /**
+     * 指定スタックへ値を追加した新しいスタックを作成する。
+     *
+     * @param stack 追加元のスタック。空の場合は null
+     * @param value 追加する値
+     * @return 追加後のスタック
+     */
+    static LogContextStack push(
+            final LogContextStack   stack,
+            final String            value
+            ) {
+
+        return new LogContextStack(stack, value);
+
+    }
+
+
+    /**
+     * 末尾の値を取り除いたスタックを取得する。
+     *
+     * @return 末尾の値を取り除いたスタック。空になる場合は null
+     */
+    LogContextStack pop() {
+
+        return stackParent;
+
+    }
+
+
+    /**
+     * スタックの要素数を取得する。
+     *
+     * @return スタックの要素数
+     */
+    int size() {
+
+        return stackSize;
+
+    }
+
+
+    /**
+     * スタックの値を底から順に区切り文字で連結した文字列を取得する。
+     *
+     * @return 連結した文字列
+     */
+    String getJoinedString() {
+
+        String  retJoined = stackJoined;
+
+        // 作成されていない場合
+        if (retJoined == null) {
+
+            // 親ノードの文字列に連結して作成する
+            retJoined   = stackParent == null
+                          ? stackValue
+                          : stackParent.getJoinedString() + TOKEN_SPLIT + stackValue;
+            stackJoined = retJoined;
+
+        }
+
+        // 連結した文字列を返す
+        return retJoined;
+
+    }
+
+
+    /**
+     * スタックの値を底から順に配列へ格納する。
+     *
+     * @return 底から順の値一覧
+     */
+    String[] toArray() {
+
+        final String[]  retValues = new String[stackSize];
+
+        // 末尾から親ノードへ辿って格納する
+        for (LogContextStack node = this; node != null; node = node.stackParent) {
+
+            retValues[node.stackSize - 1] = node.stackValue;
+
+        }
+
+        // 値一覧を返す
+        return retValues;
+
+    }
+
+
+}
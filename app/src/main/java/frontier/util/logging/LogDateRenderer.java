@@ -0,0 +1,409 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+
+/**
+ * ログ出力日時の文字列変換クラス。<br>
+ * <br>
+ * 変換結果を秒単位でキャッシュし、同じ秒の間はミリ秒の桁のみを書き換えて出力する。<br>
+ * フォーマットにミリ秒がない場合は秒単位のキャッシュをそのまま出力し、<br>
+ * ミリ秒の位置が特定できないフォーマットの場合はミリ秒単位でキャッシュする。<br>
+ * <br>
+ * キャッシュは不変データとして volatile 参照で公開するため、参照時のロックは不要。<br>
+ * キャッシュの更新のみ排他して行う。<br>
+ * <br>
+ * キャッシュの更新時に秒が変わっていればデフォルトタイムゾーンを取得し直し、<br>
+ * 端末のタイムゾーン変更を反映する。<br>
+ *
+ * @author Kou
+ *
+ */
+final class LogDateRenderer {
+
+
+    /**
+     * 1 秒のミリ秒数
+     */
+    private static final long                   MILLIS_PER_SECOND   = 1000L;
+
+    /**
+     * ミリ秒の桁数
+     */
+    private static final int                    MILLIS_DIGITS       = 3;
+
+    /**
+     * ミリ秒位置検出用のミリ秒値一覧
+     */
+    private static final int[]                  PROBE_MILLIS        = {0, 123, 987, 5};
+
+    /**
+     * ミリ秒位置が特定できなかったことを表す位置
+     */
+    private static final int                    MILLIS_UNKNOWN      = -2;
+
+    /**
+     * フォーマットにミリ秒がないことを表す位置
+     */
+    private static final int                    MILLIS_NONE         = -1;
+
+    /**
+     * 日付フォーマット
+     */
+    private final SimpleDateFormat              rendererFormat;
+
+    /**
+     * ミリ秒の出力位置
+     */
+    private int                                 rendererMillisIndex;
+
+    /**
+     * 最後にタイムゾーンを確認した秒
+     */
+    private long                                rendererZoneSecond;
+
+    /**
+     * 変換結果キャッシュ
+     */
+    private volatile CachedDate                 rendererCache;
+
+
+
+    /**
+     * 日付フォーマットを指定して初期化する。
+     *
+     * @param format    日付フォーマット
+     * @throws IllegalArgumentException 日付フォーマットが不正な場合
+     */
+    LogDateRenderer(
+            final String    format
+            ) {
+
+        rendererFormat      = new SimpleDateFormat(format, Locale.getDefault());
+        rendererMillisIndex = detectMillisIndex(rendererFormat);
+        rendererZoneSecond  = getCacheKey(System.currentTimeMillis(), MILLIS_NONE);
+
+    }
+
+
+    /**
+     * 指定日時を変換した文字列を出力先バッファへ書き込む。
+     *
+     * @param outBuf    出力先バッファ
+     * @param time      日時 (ms)
+     */
+    void appendTo(
+            final StringBuilder outBuf,
+            final long          time
+            ) {
+
+        CachedDate      cached = rendererCache;         // 変換結果キャッシュ
+
+        // キャッシュがない、またはキャッシュ対象外の日時の場合
+        if ((cached == null) || (cached.cacheKey != getCacheKey(time, cached.cacheMillisIndex))) {
+
+            // 変換してキャッシュを更新する
+            cached = render(time);
+
+        }
+
+
+        final char[]    text        = cached.cacheText;         // 変換済み文字列
+        final int       millisIndex = cached.cacheMillisIndex;  // ミリ秒の出力位置
+
+        // ミリ秒を書き換えない場合
+        if (millisIndex < 0) {
+
+            // そのまま書き込む
+            outBuf.append(text);
+            return;
+
+        }
+
+
+        final int       millis = (int)(time - cached.cacheKey * MILLIS_PER_SECOND);    // ミリ秒
+
+        // ミリ秒の前までを書き込む
+        outBuf.append(text, 0, millisIndex);
+
+        // ミリ秒を 3 桁で書き込む
+        outBuf.append((char)('0' + millis / 100));
+        outBuf.append((char)('0' + millis / 10 % 10));
+        outBuf.append((char)('0' + millis % 10));
+
+        // ミリ秒の後ろを書き込む
+        outBuf.append(
+                text,
+                millisIndex + MILLIS_DIGITS,
+                text.length - millisIndex - MILLIS_DIGITS
+                );
+
+    }
+
+
+    /**
+     * 指定日時のキャッシュキーを取得する。
+     *
+     * @param time          日時 (ms)
+     * @param millisIndex   ミリ秒の出力位置
+     * @return キャッシュキー
+     */
+    private static long getCacheKey(
+            final long  time,
+            final int   millisIndex
+            ) {
+
+        // ミリ秒位置が特定できない場合
+        if (millisIndex == MILLIS_UNKNOWN) {
+
+            // ミリ秒単位でキャッシュする
+            return time;
+
+        }
+
+        // 秒単位でキャッシュする (負の日時も切り捨てる)
+        final long  second = time / MILLIS_PER_SECOND;
+
+        return (time % MILLIS_PER_SECOND < 0) ? second - 1 : second;
+
+    }
+
+
+    /**
+     * 指定日時を変換してキャッシュを更新する。<br>
+     * <br>
+     * 前回の確認から秒が変わっている場合は、デフォルトタイムゾーンの変更を反映する。<br>
+     *
+     * @param time  日時 (ms)
+     * @return 更新したキャッシュ
+     */
+    private synchronized CachedDate render(
+            final long  time
+            ) {
+
+        final long          second = getCacheKey(time, MILLIS_NONE);   // 変換する日時の秒
+
+        // 前回の確認から秒が変わった場合
+        if (second != rendererZoneSecond) {
+
+            rendererZoneSecond = second;
+
+            final TimeZone  zone = TimeZone.getDefault();   // 現在のデフォルトタイムゾーン
+
+            // タイムゾーンが変更された場合
+            if (!zone.getID().equals(rendererFormat.getTimeZone().getID())) {
+
+                // タイムゾーンを反映してミリ秒の出力位置を検出し直す
+                rendererFormat.setTimeZone(zone);
+                rendererMillisIndex = detectMillisIndex(rendererFormat);
+
+            }
+
+        }
+
+        final long          key     = getCacheKey(time, rendererMillisIndex);   // キャッシュキー
+        final CachedDate    current = rendererCache;
+
+        // 他スレッドが更新済みの場合
+        if ((current != null)
+                && (current.cacheMillisIndex == rendererMillisIndex)
+                && (current.cacheKey == key)
+                ) {
+
+            // 更新済みのキャッシュを返す
+            return current;
+
+        }
+
+        // 変換してキャッシュを更新する
+        final CachedDate    retCache = new CachedDate(
+                key,
+                rendererMillisIndex,
+                rendererFormat.format(new Date(time)).toCharArray()
+                );
+
+        rendererCache = retCache;
+
+        // 更新したキャッシュを返す
+        return retCache;
+
+    }
+
+
+    /**
+     * 日付フォーマット中のミリ秒の出力位置を検出する。<br>
+     * <br>
+     * 同じ秒でミリ秒のみ異なる日時を変換し、差分が常に同じ位置の 3 桁の数字のみの場合に、<br>
+     * その位置をミリ秒の出力位置とする。<br>
+     *
+     * @param format    日付フォーマット
+     * @return ミリ秒の出力位置。ミリ秒がない場合は {@link #MILLIS_NONE}、
+     *         位置が特定できない場合は {@link #MILLIS_UNKNOWN}
+     */
+    private static int detectMillisIndex(
+            final SimpleDateFormat  format
+            ) {
+
+        final long      baseTime  = System.currentTimeMillis() / MILLIS_PER_SECOND * MILLIS_PER_SECOND;   // 検出に使う秒
+        final String    baseText  = format.format(new Date(baseTime + PROBE_MILLIS[0]));                // 基準の変換結果
+        int             retIndex  = MILLIS_NONE;                                                        // ミリ秒の出力位置
+
+
+        // 検出用のミリ秒分繰り返す
+        for (int i = 1; i < PROBE_MILLIS.length; i++) {
+
+            final int       millis = PROBE_MILLIS[i];                                   // 検出用のミリ秒
+            final String    text   = format.format(new Date(baseTime + millis));        // 変換結果
+
+            // 長さが異なる場合は特定できない
+            if (text.length() != baseText.length()) {
+
+                return MILLIS_UNKNOWN;
+
+            }
+
+            int     first = -1;     // 最初の差分位置
+            int     last  = -1;     // 最後の差分位置
+
+            // 差分位置を探す
+            for (int j = 0; j < text.length(); j++) {
+
+                // 差分がある場合
+                if (text.charAt(j) != baseText.charAt(j)) {
+
+                    // 差分位置を更新する
+                    first = first == -1 ? j : first;
+                    last  = j;
+
+                }
+
+            }
+
+            // 差分がない場合
+            if (first == -1) {
+
+                // 次のミリ秒へ
+                continue;
+
+            }
+
+            // 差分の開始位置を 3 桁の先頭に合わせる
+            final int   index = Math.max(0, last - MILLIS_DIGITS + 1);
+
+            // 差分が 3 桁に収まらない、または前回と位置が異なる場合は特定できない
+            if ((first < index)
+                || ((retIndex != MILLIS_NONE) && (retIndex != index))
+                ) {
+
+                return MILLIS_UNKNOWN;
+
+            }
+
+            // 差分位置がミリ秒の 3 桁の数字と一致しない場合は特定できない
+            if (!text.regionMatches(index, toMillisDigits(millis), 0, MILLIS_DIGITS)
+                || !baseText.regionMatches(index, toMillisDigits(PROBE_MILLIS[0]), 0, MILLIS_DIGITS)
+                ) {
+
+                return MILLIS_UNKNOWN;
+
+            }
+
+            // ミリ秒の出力位置を設定する
+            retIndex = index;
+
+        }
+
+        // 検出したミリ秒の出力位置を返す
+        return retIndex;
+
+    }
+
+
+    /**
+     * ミリ秒を 3 桁の文字列へ変換する。
+     *
+     * @param millis    ミリ秒
+     * @return 3 桁の文字列
+     */
+    private static String toMillisDigits(
+            final int   millis
+            ) {
+
+        final String    digits = "00" + millis;
+
+        // 末尾 3 桁を返す
+        return digits.substring(digits.length() - MILLIS_DIGITS);
+
+    }
+
+
+
+
+    /**
+     * 変換結果キャッシュデータクラス。
+     *
+     * @author Kou
+     *
+     */
+    private static final class CachedDate {
+
+
+        /**
+         * キャッシュキー (秒、またはミリ秒)
+         */
+        final long      cacheKey;
+
+        /**
+         * ミリ秒の出力位置
+         */
+        final int       cacheMillisIndex;
+
+        /**
+         * 変換済み文字列
+         */
+        final char[]    cacheText;
+
+
+
+        /**
+         * 変換結果キャッシュを初期化する。
+         *
+         * @param key           キャッシュキー
+         * @param millisIndex   ミリ秒の出力位置
+         * @param text          変換済み文字列
+         */
+        CachedDate(
+                final long      key,
+                final int       millisIndex,
+                final char[]    text
+                ) {
+
+            cacheKey         = key;
+            cacheMillisIndex = millisIndex;
+            cacheText        = text;
+
+        }
+
+
+    }
+
+
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+import java.util.Map;
+
+
+/**
+ * ログイベントデータクラス。<br>
+ * <br>
+ * 1 回のログ出力要求で出力する情報を保持する。<br>
+ * 非同期アペンダでは出力スレッドが異なるため、<br>
+ * 出力要求時点のスレッド名・診断コンテキスト値もあわせて保持する。<br>
+ * 診断コンテキスト値は不変データのため、複製せずに参照を保持する。<br>
+ * <br>
+ * 同期出力時はスレッドごとに再利用するインスタンスを利用し、<br>
+ * ログメッセージも再利用するバッファを参照する。<br>
+ * 出力要求元スレッドの外で保持する場合は {@link #detach()} で複製すること。<br>
+ *
+ * @author Kou
+ *
+ */
+final class LogEvent {
+
+
+    /**
+     * 出力ログレベル
+     */
+    private LogLevel                            eventLevel;
+
+    /**
+     * 利用するカテゴリ名
+     */
+    private String                              eventCategoryName;
+
+    /**
+     * タグ名
+     */
+    private String                              eventTag;
+
+    /**
+     * ログメッセージ
+     */
+    private CharSequence                        eventMessage;
+
+    /**
+     * 出力要求時刻 (ms)
+     */
+    private long                                eventTime;
+
+    /**
+     * 出力要求スレッド名
+     */
+    private String                              eventThreadName;
+
+    /**
+     * ネスト化診断コンテキスト情報。空の場合は null
+     */
+    private LogContextStack                     eventNDC;
+
+    /**
+     * マップ化診断コンテキスト情報 (不変)
+     */
+    private Map<String, String>                 eventMDC;
+
+    /**
+     * ログイベントに付加された項目 (不変)
+     */
+    private Map<String, Object>                 eventFields;
+
+    /**
+     * 再利用するインスタンスかどうか
+     */
+    private final boolean                       eventReusable;
+
+
+
+    /**
+     * ログイベントを初期化する。
+     *
+     * @param level         出力ログレベル
+     * @param categoryName  利用するカテゴリ名
+     * @param tag           タグ名
+     * @param message       ログメッセージ
+     * @param time          出力要求時刻 (ms)
+     * @param threadName    出力要求スレッド名
+     * @param ndc           ネスト化診断コンテキスト情報。空の場合は null
+     * @param mdc           マップ化診断コンテキスト情報 (不変)
+     * @param fields        ログイベントに付加された項目 (不変)
+     */
+    LogEvent(
+            final LogLevel              level,
+            final String                categoryName,
+            final String                tag,
+            final CharSequence          message,
+            final long                  time,
+            final String                threadName,
+            final LogContextStack       ndc,
+            final Map<String, String>   mdc,
+            final Map<String, Object>   fields
+            ) {
+
+        eventReusable = false;
+
+        set(level, categoryName, tag, message, time, threadName, ndc, mdc, fields);
+
+    }
+
+
+    /**
+     * 再利用するログイベントを初期化する。<br>
+     * <br>
+     * {@link #set(LogLevel, String, String, CharSequence, long, String, LogContextStack, Map, Map)}
+     * で内容を設定してから利用すること。<br>
+     */
+    LogEvent() {
+
+        eventReusable = true;
+
+    }
+
+
+    /**
+     * ログイベントの内容を設定する。
+     *
+     * @param level         出力ログレベル
+     * @param categoryName  利用するカテゴリ名
+     * @param tag           タグ名
+     * @param message       ログメッセージ
+     * @param time          出力要求時刻 (ms)
+     * @param threadName    出力要求スレッド名
+     * @param ndc           ネスト化診断コンテキスト情報。空の場合は null
+     * @param mdc           マップ化診断コンテキスト情報 (不変)
+     * @param fields        ログイベントに付加された項目 (不変)
+     */
+    void set(
+            final LogLevel              level,
+            final String                categoryName,
+            final String                tag,
+            final CharSequence          message,
+            final long                  time,
+            final String                threadName,
+            final LogContextStack       ndc,
+            final Map<String, String>   mdc,
+            final Map<String, Object>   fields
+            ) {
+
+        eventLevel          = level;
+        eventCategoryName   = categoryName;
+        eventTag            = tag;
+        eventMessage        = message;
+        eventTime           = time;
+        eventThreadName     = threadName;
+        eventNDC            = ndc;
+        eventMDC            = mdc;
+        eventFields         = fields;
+
+    }
+
+
+    /**
+     * 出力要求元スレッドの外で保持できるログイベントを取得する。
+     *
+     * @return 再利用しないログイベントの場合は自身。再利用するログイベントの場合は複製
+     */
+    LogEvent detach() {
+
+        // 再利用しないログイベントの場合
+        if (!eventReusable) {
+
+            // 自身を返す
+            return this;
+
+        }
+
+        // ログメッセージを文字列として複製する
+        return new LogEvent(
+                eventLevel,
+                eventCategoryName,
+                eventTag,
+                eventMessage.toString(),
+                eventTime,
+                eventThreadName,
+                eventNDC,
+                eventMDC,
+                eventFields
+                );
+
+    }
+
+
+    /**
+     * 出力ログレベルを取得する。
+     *
+     * @return 出力ログレベル
+     */
+    LogLevel getLevel() {
+
+        return eventLevel;
+
+    }
+
+
+    /**
+     * 利用するカテゴリ名を取得する。
+     *
+     * @return 利用するカテゴリ名
+     */
+    String getCategoryName() {
+
+        return eventCategoryName;
+
+    }
+
+
+    /**
+     * タグ名を取得する。
+     *
+     * @return タグ名
+     */
+    String getTag() {
+
+        return eventTag;
+
+    }
+
+
+    /**
+     * ログメッセージを取得する。
+     *
+     * @return ログメッセージ
+     */
+    CharSequence getMessage() {
+
+        return eventMessage;
+
+    }
+
+
+    /**
+     * 出力要求時刻 (ms) を取得する。
+     *
+     * @return 出力要求時刻 (ms)
+     */
+    long getTime() {
+
+        return eventTime;
+
+    }
+
+
+    /**
+     * 出力要求スレッド名を取得する。
+     *
+     * @return 出力要求スレッド名
+     */
+    String getThreadName() {
+
+        return eventThreadName;
+
+    }
+
+
+    /**
+     * ネスト化診断コンテキスト値を出力先バッファへ書き込む。
+     *
+     * @param outBuf    出力先バッファ
+     */
+    void appendNDC(
+            final StringBuilder outBuf
+            ) {
+
+        // スタックがある場合
+        if (eventNDC != null) {
+
+            // 連結済みの文字列を追加する
+            outBuf.append(eventNDC.getJoinedString());
+
+        }
+
+    }
+
+
+    /**
+     * ネスト化診断コンテキスト情報を取得する。
+     *
+     * @return ネスト化診断コンテキスト情報。空の場合は null
+     */
+    LogContextStack getNDC() {
+
+        return eventNDC;
+
+    }
+
+
+    /**
+     * 指定キーのマップ化診断コンテキスト値を取得する。<br>
+     * <br>
+     * ログイベントに同じキーの項目が付加されている場合は、その値を優先する。<br>
+     *
+     * @param key   マップ化診断コンテキスト値のキー
+     * @return 対応するマップ化診断コンテキスト値。存在しない場合は空文字
+     */
+    String getMDC(
+            final String    key
+            ) {
+
+        // 付加された項目にある場合
+        if (eventFields.containsKey(key)) {
+
+            // 付加された項目の値を返す
+            return String.valueOf(eventFields.get(key));
+
+        }
+
+        final String    retValue = eventMDC.get(key);
+
+        // 対応するマップ化診断コンテキスト値を返す
+        return retValue == null ? "" : retValue;
+
+    }
+
+
+    /**
+     * マップ化診断コンテキスト情報を取得する。
+     *
+     * @return マップ化診断コンテキスト情報 (不変)
+     */
+    Map<String, String> getMDCMap() {
+
+        return eventMDC;
+
+    }
+
+
+    /**
+     * ログイベントに付加された項目を取得する。
+     *
+     * @return ログイベントに付加された項目 (不変)
+     */
+    Map<String, Object> getFields() {
+
+        return eventFields;
+
+    }
+
+
+}
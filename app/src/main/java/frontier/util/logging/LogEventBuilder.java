@@ -0,0 +1,375 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.content.Context;
+
+
+/**
+ * 構造化ログイベント作成クラス。<br>
+ * <br>
+ * {@link LogUtils#newEvent(Context, LogLevel, Object)} で取得し、<br>
+ * 型付きの項目・メッセージ・例外を設定してから {@link #log()} で出力する。<br>
+ * 付加した項目は JSON レイアウトでは <code>fields</code> として型を保って出力され、<br>
+ * パターンレイアウトでは %X{キー} で参照できる。<br>
+ * <br>
+ * 指定ログレベルが出力対象外の場合は何もしないインスタンスが返されるため、<br>
+ * 項目の設定や出力のコストは発生しない。<br>
+ * <br>
+ * 1 つのスレッドからのみ利用すること。<br>
+ *
+ * <pre>
+ * LogUtils.newEvent(context, LogLevel.INFO, TAG)
+ *         .put("userId", userId)
+ *         .put("elapsed", elapsed)
+ *         .message("request finished")
+ *         .log();
+ * </pre>
+ *
+ * @author Kou
+ *
+ */
+public final class LogEventBuilder {
+
+
+    /**
+     * 出力対象外の場合に返す何もしないインスタンス
+     */
+    static final LogEventBuilder        DISABLED = new LogEventBuilder(null, null, null);
+
+    /**
+     * 利用するコンテキスト
+     */
+    private final Context               builderContext;
+
+    /**
+     * ログレベル
+     */
+    private final LogLevel              builderLevel;
+
+    /**
+     * タグ
+     */
+    private final String                builderTag;
+
+    /**
+     * 付加する項目 (追加順)
+     */
+    private Map<String, Object>         builderFields;
+
+    /**
+     * メッセージ
+     */
+    private Object                      builderMessage;
+
+    /**
+     * フォーマット文字列出力する場合のパラメータ
+     */
+    private Object[]                    builderFormatArgs;
+
+    /**
+     * 例外
+     */
+    private Throwable                   builderException;
+
+
+
+    /**
+     * 構造化ログイベント作成を初期化する。
+     *
+     * @param context   利用するコンテキスト
+     * @param level     ログレベル
+     * @param tag       タグ
+     */
+    LogEventBuilder(
+            final Context   context,
+            final LogLevel  level,
+            final String    tag
+            ) {
+
+        builderContext = context;
+        builderLevel   = level;
+        builderTag     = tag;
+
+    }
+
+
+    /**
+     * 出力対象かどうかを取得する。
+     *
+     * @return 出力対象の場合は true
+     */
+    public boolean isEnabled() {
+
+        return this != DISABLED;
+
+    }
+
+
+    /**
+     * 文字列の項目を付加する。
+     *
+     * @param key   項目名
+     * @param value 値
+     * @return このインスタンス
+     */
+    public LogEventBuilder put(
+            final String    key,
+            final String    value
+            ) {
+
+        return putValue(key, value);
+
+    }
+
+
+    /**
+     * 整数の項目を付加する。
+     *
+     * @param key   項目名
+     * @param value 値
+     * @return このインスタンス
+     */
+    public LogEventBuilder put(
+            final String    key,
+            final long      value
+            ) {
+
+        // 出力対象外の場合はボクシングしない
+        if (!isEnabled()) {
+
+            return this;
+
+        }
+
+        return putValue(key, Long.valueOf(value));
+
+    }
+
+
+    /**
+     * 浮動小数点数の項目を付加する。
+     *
+     * @param key   項目名
+     * @param value 値
+     * @return このインスタンス
+     */
+    public LogEventBuilder put(
+            final String    key,
+            final double    value
+            ) {
+
+        // 出力対象外の場合はボクシングしない
+        if (!isEnabled()) {
+
+            return this;
+
+        }
+
+        return putValue(key, Double.valueOf(value));
+
+    }
+
+
+    /**
+     * 真偽値の項目を付加する。
+     *
+     * @param key   項目名
+     * @param value 値
+     * @return このインスタンス
+     */
+    public LogEventBuilder put(
+            final String    key,
+            final boolean   value
+            ) {
+
+        return putValue(key, Boolean.valueOf(value));
+
+    }
+
+
+    /**
+     * 任意の値の項目を付加する。<br>
+     * <br>
+     * 数値・真偽値以外は文字列として出力される。<br>
+     *
+     * @param key   項目名
+     * @param value 値
+     * @return このインスタンス
+     */
+    public LogEventBuilder put(
+            final String    key,
+            final Object    value
+            ) {
+
+        return putValue(key, value);
+
+    }
+
+
+    /**
+     * メッセージを設定する。
+     *
+     * @param message   メッセージ
+     * @return このインスタンス
+     */
+    public LogEventBuilder message(
+            final Object    message
+            ) {
+
+        // 出力対象外の場合は共有インスタンスへ書き込まない
+        if (!isEnabled()) {
+
+            return this;
+
+        }
+
+        builderMessage    = message;
+        builderFormatArgs = null;
+
+        return this;
+
+    }
+
+
+    /**
+     * フォーマット文字列でメッセージを設定する。<br>
+     * <br>
+     * フォーマットは出力時に行われる。<br>
+     *
+     * @param format        フォーマット文字列
+     * @param formatArgs    フォーマット文字列出力する場合のパラメータ
+     * @return このインスタンス
+     */
+    public LogEventBuilder message(
+            final String    format,
+            final Object... formatArgs
+            ) {
+
+        // 出力対象外の場合は共有インスタンスへ書き込まない
+        if (!isEnabled()) {
+
+            return this;
+
+        }
+
+        builderMessage    = format;
+        builderFormatArgs = formatArgs;
+
+        return this;
+
+    }
+
+
+    /**
+     * 例外を設定する。
+     *
+     * @param exception 例外
+     * @return このインスタンス
+     */
+    public LogEventBuilder exception(
+            final Throwable exception
+            ) {
+
+        // 出力対象外の場合は共有インスタンスへ書き込まない
+        if (!isEnabled()) {
+
+            return this;
+
+        }
+
+        builderException = exception;
+
+        return this;
+
+    }
+
+
+    /**
+     * 設定した内容でログを出力する。
+     *
+     */
+    public void log() {
+
+        // 出力対象外の場合は何もしない
+        if (!isEnabled()) {
+
+            return;
+
+        }
+
+        // ログを出力する
+        LogUtils.logEvent(
+                builderContext,
+                builderLevel,
+                builderTag,
+                builderMessage,
+                builderException,
+                builderFormatArgs,
+                builderFields == null
+                ? Collections.<String, Object>emptyMap()
+                : Collections.unmodifiableMap(new LinkedHashMap<String, Object>(builderFields))
+                );
+
+    }
+
+
+    /**
+     * 項目を付加する。
+     *
+     * @param key   項目名
+     * @param value 値
+     * @return このインスタンス
+     * @throws IllegalArgumentException 項目名が null の場合
+     */
+    private LogEventBuilder putValue(
+            final String    key,
+            final Object    value
+            ) {
+
+        // 項目名が null の場合は例外
+        if (key == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // 出力対象外の場合は何もしない
+        if (!isEnabled()) {
+
+            return this;
+
+        }
+
+        // 初回の場合は項目一覧を作成する
+        if (builderFields == null) {
+
+            builderFields = new LinkedHashMap<String, Object>();
+
+        }
+
+        builderFields.put(key, value);
+
+        return this;
+
+    }
+
+
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+import java.util.Iterator;
+import java.util.Map;
+
+
+/**
+ * JSON Lines 形式のログ出力レイアウトクラス。<br>
+ * <br>
+ * 1 件のログイベントを 1 行の JSON オブジェクトへ変換する。出力する項目は以下の通り。<br>
+ * 値がない項目は出力しない。<br>
+ * <table border="1">
+ * <tr>
+ *   <td>項目名</td><td>型</td><td>内容</td>
+ * </tr>
+ * <tr>
+ *   <td>time</td><td>数値</td><td>出力要求時刻 (ms)</td>
+ * </tr>
+ * <tr>
+ *   <td>level</td><td>文字列</td><td>ログレベル名</td>
+ * </tr>
+ * <tr>
+ *   <td>category</td><td>文字列</td><td>利用したカテゴリ名</td>
+ * </tr>
+ * <tr>
+ *   <td>tag</td><td>文字列</td><td>タグ名</td>
+ * </tr>
+ * <tr>
+ *   <td>thread</td><td>文字列</td><td>出力要求スレッド名</td>
+ * </tr>
+ * <tr>
+ *   <td>message</td><td>文字列</td><td>ログメッセージ</td>
+ * </tr>
+ * <tr>
+ *   <td>ndc</td><td>文字列配列</td><td>ネスト化診断コンテキスト情報 (底から順)</td>
+ * </tr>
+ * <tr>
+ *   <td>mdc</td><td>オブジェクト</td><td>マップ化診断コンテキスト情報</td>
+ * </tr>
+ * <tr>
+ *   <td>fields</td><td>オブジェクト</td><td>ログイベントに付加された項目。数値・真偽値はそのままの型で出力する</td>
+ * </tr>
+ * </table>
+ *
+ * @author Kou
+ *
+ */
+final class LogJsonLayout implements LogLayout {
+
+
+    /**
+     * 16 進数文字一覧
+     */
+    private static final char[]     HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+
+
+    /**
+     * 指定された情報を JSON オブジェクトへ変換して出力先バッファへ書き込む。
+     *
+     * @param outBuf        出力先バッファ
+     * @param event         出力するログイベント
+     */
+    public void format(
+            final StringBuilder outBuf,
+            final LogEvent      event
+            ) {
+
+        // 固定項目を書き込む
+        outBuf.append("{\"time\":").append(event.getTime());
+        outBuf.append(",\"level\":");
+        appendString(outBuf, event.getLevel().getName());
+        appendOptionalString(outBuf, "category", event.getCategoryName());
+        appendOptionalString(outBuf, "tag",      event.getTag());
+        appendOptionalString(outBuf, "thread",   event.getThreadName());
+        appendOptionalString(outBuf, "message",  event.getMessage());
+
+        final LogContextStack   ndc = event.getNDC();
+
+        // ネスト化診断コンテキスト情報がある場合
+        if (ndc != null) {
+
+            final String[]  values = ndc.toArray();
+
+            // 配列として書き込む
+            outBuf.append(",\"ndc\":[");
+
+            for (int i = 0; i < values.length; i++) {
+
+                // 先頭以外は区切り文字を書き込む
+                if (i > 0) {
+
+                    outBuf.append(',');
+
+                }
+
+                appendString(outBuf, values[i]);
+
+            }
+
+            outBuf.append(']');
+
+        }
+
+        // マップ化診断コンテキスト情報と付加項目を書き込む
+        appendObject(outBuf, "mdc",    event.getMDCMap());
+        appendObject(outBuf, "fields", event.getFields());
+
+        outBuf.append('}');
+
+    }
+
+
+    /**
+     * 値がある場合のみ文字列項目を書き込む。
+     *
+     * @param outBuf    出力先バッファ
+     * @param name      項目名
+     * @param value     値
+     */
+    private static void appendOptionalString(
+            final StringBuilder outBuf,
+            final String        name,
+            final CharSequence  value
+            ) {
+
+        // 値がない場合は何もしない
+        if (value == null) {
+
+            return;
+
+        }
+
+        outBuf.append(",\"").append(name).append("\":");
+        appendString(outBuf, value);
+
+    }
+
+
+    /**
+     * 値がある場合のみオブジェクト項目を書き込む。
+     *
+     * @param outBuf    出力先バッファ
+     * @param name      項目名
+     * @param values    値一覧
+     */
+    private static void appendObject(
+            final StringBuilder         outBuf,
+            final String                name,
+            final Map<String, ?>        values
+            ) {
+
+        // 値がない場合は何もしない
+        if ((values == null) || values.isEmpty()) {
+
+            return;
+
+        }
+
+        outBuf.append(",\"").append(name).append("\":{");
+
+        // 値分繰り返す
+        for (final Iterator<? extends Map.Entry<String, ?>> i = values.entrySet().iterator(); i.hasNext();) {
+
+            final Map.Entry<String, ?>  entry = i.next();
+
+            // キーと値を書き込む
+            appendString(outBuf, entry.getKey());
+            outBuf.append(':');
+            appendValue(outBuf, entry.getValue());
+
+            // 次の値がある場合は区切り文字を書き込む
+            if (i.hasNext()) {
+
+                outBuf.append(',');
+
+            }
+
+        }
+
+        outBuf.append('}');
+
+    }
+
+
+    /**
+     * 値の型に応じた JSON 値を書き込む。
+     *
+     * @param outBuf    出力先バッファ
+     * @param value     値
+     */
+    private static void appendValue(
+            final StringBuilder outBuf,
+            final Object        value
+            ) {
+
+        // null の場合
+        if (value == null) {
+
+            outBuf.append("null");
+
+        // 真偽値、整数の場合
+        } else if ((value instanceof Boolean)
+                   || (value instanceof Long)
+                   || (value instanceof Integer)
+                   || (value instanceof Short)
+                   || (value instanceof Byte)
+                   ) {
+
+            outBuf.append(value);
+
+        // 浮動小数点数の場合
+        } else if ((value instanceof Double) || (value instanceof Float)) {
+
+            final double    number = ((Number)value).doubleValue();
+
+            // JSON で表現できない値は文字列として書き込む
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+
+                appendString(outBuf, String.valueOf(number));
+
+            } else {
+
+                outBuf.append(value);
+
+            }
+
+        // その他の場合
+        } else {
+
+            appendString(outBuf, String.valueOf(value));
+
+        }
+
+    }
+
+
+    /**
+     * 文字列をエスケープして JSON 文字列として書き込む。
+     *
+     * @param outBuf    出力先バッファ
+     * @param value     文字列
+     */
+    private static void appendString(
+            final StringBuilder outBuf,
+            final CharSequence  value
+            ) {
+
+        outBuf.append('"');
+
+        // 文字数分繰り返す
+        for (int i = 0, length = value.length(); i < length; i++) {
+
+            final char  ch = value.charAt(i);
+
+            // 文字別処理
+            switch (ch) {
+
+            case '"':
+                outBuf.append("\\\"");
+                break;
+
+            case '\\':
+                outBuf.append("\\\\");
+                break;
+
+            case '\n':
+                outBuf.append("\\n");
+                break;
+
+            case '\r':
+                outBuf.append("\\r");
+                break;
+
+            case '\t':
+                outBuf.append("\\t");
+                break;
+
+            default:
+
+                // 制御文字と行区切り文字の場合
+                if ((ch < 0x20) || (ch == '\u2028') || (ch == '\u2029')) {
+
+                    // Unicode エスケープで書き込む
+                    outBuf.append("\\u")
+                          .append(HEX_DIGITS[(ch >> 12) & 0xF])
+                          .append(HEX_DIGITS[(ch >> 8) & 0xF])
+                          .append(HEX_DIGITS[(ch >> 4) & 0xF])
+                          .append(HEX_DIGITS[ch & 0xF]);
+
+                } else {
+
+                    outBuf.append(ch);
+
+                }
+                break;
+
+            }
+
+        }
+
+        outBuf.append('"');
+
+    }
+
+
+}
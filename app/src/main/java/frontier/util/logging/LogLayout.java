@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+
+
+/**
+ * ログ出力レイアウトインターフェース。<br>
+ * <br>
+ * アペンダはレイアウトを利用してログイベントを 1 行の文字列へ変換する。<br>
+ *
+ * @author Kou
+ *
+ */
+interface LogLayout {
+
+
+    /**
+     * ログイベントを変換して出力先バッファへ書き込む。<br>
+     * <br>
+     * 改行コードは書き込まないこと。<br>
+     *
+     * @param outBuf    出力先バッファ
+     * @param event     変換するログイベント
+     */
+    void format(
+            final StringBuilder outBuf,
+            final LogEvent      event
+            );
+
+
+}
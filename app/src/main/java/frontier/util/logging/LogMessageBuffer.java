@@ -0,0 +1,427 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Formattable;
+import java.util.Locale;
+
+
+/**
+ * スレッドごとのログメッセージ作成バッファクラス。<br>
+ * <br>
+ * ログメッセージの作成に利用する文字列バッファと、同期出力に利用するログイベントを<br>
+ * スレッドごとに再利用し、出力ごとのオブジェクト生成を抑える。<br>
+ * フォーマット文字列は %s、%d、%% のみの場合は文字列バッファへ直接書き込み、<br>
+ * それ以外の書式を含む場合は {@link String#format(String, Object...)} で作成する。<br>
+ * <br>
+ * メッセージ作成中に同じスレッドからログ出力された場合 (引数の toString() 内など) は<br>
+ * 利用中のバッファを上書きしないように、再利用せずに新しく作成する。<br>
+ * <br>
+ * 同期出力でファイル出力先 (ローテーションを含む) へ出力し、フォーマットが %s、%d、%% のみで<br>
+ * パラメータが文字列・整数・論理値、例外なしの場合、ログ出力ごとのオブジェクト生成は行わない。<br>
+ * ただし以下は対象外となる。<br>
+ * <ul>
+ * <li>出力パターンの日時 : 秒が変わるごとに 1 回変換結果を作成する</li>
+ * <li>可変長引数の配列とボクシング : 呼び出し元で作成される</li>
+ * <li>標準出力 (Logcat) : 出力時に文字列を作成する</li>
+ * <li>非同期出力 : キューへ追加するためにログイベントを複製する</li>
+ * <li>例外のスタックトレース、それ以外の書式指定</li>
+ * </ul>
+ *
+ * @author Kou
+ *
+ */
+final class LogMessageBuffer {
+
+
+    /**
+     * 文字列バッファの初期サイズ
+     */
+    private static final int                                INITIAL_CAPACITY = 256;
+
+    /**
+     * 再利用する文字列バッファの最大サイズ
+     */
+    private static final int                                MAX_RETAINED_CAPACITY = 16384;
+
+    /**
+     * スレッドごとのバッファ
+     */
+    private static final ThreadLocal<LogMessageBuffer>      THREAD_BUFFER = new ThreadLocal<LogMessageBuffer>() {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected LogMessageBuffer initialValue() {
+
+            return new LogMessageBuffer();
+
+        }
+
+    };
+
+    /**
+     * 数字が ASCII 数字と判定済みのロケール
+     */
+    private static volatile Locale                          asciiDigitsLocale;
+
+    /**
+     * ログメッセージ作成用文字列バッファ
+     */
+    private StringBuilder                                   bufferMessage = new StringBuilder(INITIAL_CAPACITY);
+
+    /**
+     * 同期出力で再利用するログイベント
+     */
+    private final LogEvent                                  bufferEvent = new LogEvent();
+
+    /**
+     * 利用中かどうか
+     */
+    private boolean                                         bufferBusy;
+
+
+
+    /**
+     * インスタンス化禁止
+     *
+     */
+    private LogMessageBuffer() {
+
+        // 何もしない
+
+    }
+
+
+    /**
+     * カレントスレッドのバッファを利用開始する。<br>
+     * <br>
+     * 利用を終了する場合は {@link #release()} を呼び出すこと。<br>
+     *
+     * @return カレントスレッドのバッファ。既に利用中の場合は null
+     */
+    static LogMessageBuffer acquire() {
+
+        final LogMessageBuffer  buffer = THREAD_BUFFER.get();
+
+        // 利用中の場合
+        if (buffer.bufferBusy) {
+
+            // 再利用しない
+            return null;
+
+        }
+
+        // 利用中にして文字列バッファをクリアする
+        buffer.bufferBusy = true;
+        buffer.bufferMessage.setLength(0);
+
+        return buffer;
+
+    }
+
+
+    /**
+     * バッファの利用を終了する。<br>
+     * <br>
+     * 大きくなりすぎた文字列バッファは保持せずに破棄する。<br>
+     *
+     */
+    void release() {
+
+        // 文字列バッファが大きすぎる場合
+        if (bufferMessage.capacity() > MAX_RETAINED_CAPACITY) {
+
+            // 初期サイズで作成し直す
+            bufferMessage = new StringBuilder(INITIAL_CAPACITY);
+
+        }
+
+        // ログイベントの参照を解放する
+        bufferEvent.set(null, null, null, null, 0, null, null, null, null);
+
+        // 利用を終了する
+        bufferBusy = false;
+
+    }
+
+
+    /**
+     * ログメッセージ作成用文字列バッファを取得する。
+     *
+     * @return ログメッセージ作成用文字列バッファ
+     */
+    StringBuilder getMessageBuilder() {
+
+        return bufferMessage;
+
+    }
+
+
+    /**
+     * 同期出力で再利用するログイベントを取得する。
+     *
+     * @return 再利用するログイベント
+     */
+    LogEvent getEvent() {
+
+        return bufferEvent;
+
+    }
+
+
+    /**
+     * フォーマット文字列を展開して出力先バッファへ書き込む。
+     *
+     * @param outBuf        出力先バッファ
+     * @param format        フォーマット文字列
+     * @param formatArgs    フォーマット文字列のパラメータ
+     */
+    static void appendFormat(
+            final StringBuilder outBuf,
+            final String        format,
+            final Object[]      formatArgs
+            ) {
+
+        final int   start = outBuf.length();    // 書き込み開始位置
+
+        // 直接書き込めなかった場合
+        if (!appendSimpleFormat(outBuf, format, formatArgs)) {
+
+            // 書き込み途中の内容を破棄して書式変換した結果を書き込む
+            outBuf.setLength(start);
+            outBuf.append(String.format(format, formatArgs));
+
+        }
+
+    }
+
+
+    /**
+     * %s、%d、%% のみのフォーマット文字列を展開して出力先バッファへ書き込む。
+     *
+     * @param outBuf        出力先バッファ
+     * @param format        フォーマット文字列
+     * @param formatArgs    フォーマット文字列のパラメータ
+     * @return 書き込めた場合は true。それ以外の書式を含む場合は false
+     */
+    private static boolean appendSimpleFormat(
+            final StringBuilder outBuf,
+            final String        format,
+            final Object[]      formatArgs
+            ) {
+
+        final int   length   = format.length();     // フォーマット文字列長
+        int         argIndex = 0;                   // 次に利用するパラメータ位置
+        int         begin    = 0;                   // 未書き込みの開始位置
+
+
+        // 文字数分繰り返す
+        for (int i = 0; i < length; i++) {
+
+            // 変換指定でない場合は次の文字へ
+            if (format.charAt(i) != '%') {
+
+                continue;
+
+            }
+
+            // 変換指定の前までを書き込む
+            outBuf.append(format, begin, i);
+
+            // 変換文字がない場合
+            if (++i >= length) {
+
+                return false;
+
+            }
+
+            final char  conversion = format.charAt(i);  // 変換文字
+
+            // 変換文字別処理
+            switch (conversion) {
+
+            case '%':
+
+                // % を書き込む
+                outBuf.append('%');
+                break;
+
+
+            case 's':
+
+                // パラメータが不足している、または書式指定可能オブジェクトの場合
+                if ((argIndex >= formatArgs.length)
+                        || (formatArgs[argIndex] instanceof Formattable)) {
+
+                    return false;
+
+                }
+
+                // パラメータを文字列として書き込む
+                appendString(outBuf, formatArgs[argIndex++]);
+                break;
+
+
+            case 'd':
+
+                // パラメータが不足している場合
+                if (argIndex >= formatArgs.length) {
+
+                    return false;
+
+                }
+
+                // 整数を書き込めなかった場合
+                if (!appendInteger(outBuf, formatArgs[argIndex++])) {
+
+                    return false;
+
+                }
+                break;
+
+
+            default:
+
+                // それ以外の書式は書き込まない
+                return false;
+
+            }
+
+            // 未書き込みの開始位置を進める
+            begin = i + 1;
+
+        }
+
+        // 残りを書き込む
+        outBuf.append(format, begin, length);
+
+        return true;
+
+    }
+
+
+    /**
+     * パラメータを %s の変換結果として書き込む。
+     *
+     * @param outBuf    出力先バッファ
+     * @param value     パラメータ
+     */
+    private static void appendString(
+            final StringBuilder outBuf,
+            final Object        value
+            ) {
+
+        // 文字列の場合
+        if (value instanceof CharSequence) {
+
+            outBuf.append((CharSequence)value);
+
+        // 整数の場合
+        } else if ((value instanceof Integer) || (value instanceof Long)) {
+
+            // 文字列を作成せずに書き込む
+            outBuf.append(((Number)value).longValue());
+
+        // 論理値の場合
+        } else if (value instanceof Boolean) {
+
+            outBuf.append(((Boolean)value).booleanValue());
+
+        } else {
+
+            // 文字列へ変換して書き込む
+            outBuf.append(String.valueOf(value));
+
+        }
+
+    }
+
+
+    /**
+     * パラメータを %d の変換結果として書き込む。
+     *
+     * @param outBuf    出力先バッファ
+     * @param value     パラメータ
+     * @return 書き込めた場合は true。直接書き込めない型またはロケールの場合は false
+     */
+    private static boolean appendInteger(
+            final StringBuilder outBuf,
+            final Object        value
+            ) {
+
+        // 整数型以外の場合
+        if (!(value instanceof Integer)
+                && !(value instanceof Long)
+                && !(value instanceof Short)
+                && !(value instanceof Byte)
+                ) {
+
+            return false;
+
+        }
+
+        // ロケールの数字が ASCII 数字でない場合
+        if (!isAsciiDigits(Locale.getDefault())) {
+
+            return false;
+
+        }
+
+        // 文字列を作成せずに書き込む
+        outBuf.append(((Number)value).longValue());
+
+        return true;
+
+    }
+
+
+    /**
+     * 指定ロケールの数字が ASCII 数字かどうかを取得する。
+     *
+     * @param locale    判定するロケール
+     * @return ASCII 数字の場合は true
+     */
+    private static boolean isAsciiDigits(
+            final Locale    locale
+            ) {
+
+        // 判定済みのロケールの場合
+        if (locale.equals(asciiDigitsLocale)) {
+
+            return true;
+
+        }
+
+        // ASCII 数字でない場合
+        if (new DecimalFormatSymbols(locale).getZeroDigit() != '0') {
+
+            // 書式変換の方が重いため判定結果は保持しない
+            return false;
+
+        }
+
+        // 判定結果を保持する
+        asciiDigitsLocale = locale;
+
+        return true;
+
+    }
+
+
+}
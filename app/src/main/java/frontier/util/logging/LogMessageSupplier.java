@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+
+
+/**
+ * ログメッセージ提供インターフェース。<br>
+ * <br>
+ * 出力対象のログレベルの場合のみ呼び出されるため、<br>
+ * 組み立てに時間のかかるメッセージを遅延して作成することができる。<br>
+ *
+ * @author Kou
+ *
+ */
+public interface LogMessageSupplier {
+
+
+    /**
+     * ログメッセージを取得する。
+     *
+     * @return ログメッセージ
+     */
+    Object getMessage();
+
+
+}
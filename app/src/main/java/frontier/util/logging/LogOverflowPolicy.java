@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * 非同期アペンダのキューが一杯になった場合の動作を定義した列挙型。
+ *
+ * @author Kou
+ *
+ */
+enum LogOverflowPolicy {
+
+
+    /**
+     * 空きができるまで出力要求元スレッドを待機させる
+     */
+    BLOCK("block"),
+
+    /**
+     * 最も古いログイベントを破棄して追加する
+     */
+    DROP_OLDEST("drop-oldest"),
+
+    /**
+     * 指定レベル未満のログイベントを破棄し、指定レベル以上は空きができるまで待機させる
+     */
+    DROP_BELOW_LEVEL("drop-below-level");
+
+
+
+    /**
+     * 動作種別変換テーブルを初期化する
+     */
+    static {
+
+        // 動作種別変換テーブルを作成する
+        final Map<String, LogOverflowPolicy>    policyTable = new HashMap<String, LogOverflowPolicy>();
+
+        // 動作種別名をキーにして動作種別をテーブルへ追加する
+        policyTable.put(BLOCK.getName(),            BLOCK);
+        policyTable.put(DROP_OLDEST.getName(),      DROP_OLDEST);
+        policyTable.put(DROP_BELOW_LEVEL.getName(), DROP_BELOW_LEVEL);
+
+        // 作成した動作種別変換テーブルを設定する
+        OVERFLOW_POLICIES = policyTable;
+
+    }
+
+
+    /**
+     * 動作種別変換テーブル<br>
+     * <br>
+     * <table border="1">
+     * <tr>
+     *   <td>項目</td><td>型</td><td>内容</td>
+     * </tr>
+     * <tr>
+     *   <td>キー</td><td>String</td><td>動作種別名</td>
+     * </tr>
+     * <tr>
+     *   <td>値</td><td>LogOverflowPolicy</td><td>動作種別</td>
+     * </tr>
+     * </table>
+     */
+    private static final Map<String, LogOverflowPolicy>     OVERFLOW_POLICIES;
+
+    /**
+     * 動作種別名
+     */
+    private final String    policyName;
+
+
+
+    /**
+     * 動作種別を初期化する。
+     *
+     * @param name  動作種別名
+     */
+    private LogOverflowPolicy(
+            final String    name
+            ) {
+
+        policyName = name;
+
+    }
+
+
+    /**
+     * 動作種別名を取得する。
+     *
+     * @return 動作種別名
+     */
+    String getName() {
+
+        return policyName;
+
+    }
+
+
+    /**
+     * 指定名称を動作種別へ変換する。
+     *
+     * @param name  変換する名前
+     * @return 変換した動作種別。該当するものがない場合は null
+     */
+    static LogOverflowPolicy toPolicy(
+            final String    name
+            ) {
+
+        // 名前が null の場合
+        if (name == null) {
+
+            // nullを返す
+            return null;
+
+        }
+
+        // 指定した名前に対応する種別を返す
+        return OVERFLOW_POLICIES.get(name.toLowerCase());
+
+    }
+
+
+}
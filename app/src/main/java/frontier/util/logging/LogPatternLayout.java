@@ -0,0 +1,910 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * コンパイル済みログ出力パターンクラス。<br>
+ * <br>
+ * アペンダに指定された出力パターン文字列を設定読み込み時に一度だけ解析し、<br>
+ * 変換文字ごとのセグメント一覧として保持する。<br>
+ * ログ出力時はセグメントを順番に出力先バッファへ書き込むだけとなる。<br>
+ *
+ * @author Kou
+ *
+ */
+final class LogPatternLayout implements LogLayout {
+
+
+    /**
+     * パターン文字トークン
+     */
+    private static final char                   TOKEN_CONVERSION        = '%';
+
+    /**
+     * 引数囲い左トークン
+     */
+    private static final char                   TOKEN_ARGUMENT_LEFT     = '{';
+
+    /**
+     * 引数囲い右トークン
+     */
+    private static final char                   TOKEN_ARGUMENT_RIGHT    = '}';
+
+    /**
+     * 幅より小さい場合に埋める文字
+     */
+    private static final char                   PADDING_CHAR            = ' ';
+
+    /**
+     * 日付指定時のデフォルトフォーマット
+     */
+    private static final String                 DEFAULT_DATE_FORMAT     =
+        "yyyy-MM-dd' 'hh:mm:ss.SSS";
+
+    /**
+     * フラグ文字
+     */
+    private static final char[]                 PATTERN_FLAGS = {
+
+        // 結果は左揃えになります。
+        '-',
+
+        // 結果は、変換に依存する代替フォームを使用する必要があります。
+        '#',
+
+        // 結果には、常に符号が含まれます。
+        '+',
+
+        // 結果の先頭には、正の値を示す空白が含まれます。
+        ' ',
+
+        // 結果にはゼロが追加されます。
+        '0',
+
+        // 結果には、ロケール固有のグループ化区切り文字が含まれます。
+        ',',
+
+        // 負の数値を括弧で囲みます。
+        '(',
+
+    };
+
+    /**
+     * パターン文字配列
+     */
+    private static final char[]                 PATTERN_CONVERSIONS = new char[] {
+
+        // カテゴリ名
+        'c',
+
+        // 日付
+        'd',
+
+        // タグ名
+        'g',
+
+        // 改行コード
+        'n',
+
+        // ログメッセージ
+        'm',
+
+        // ログレベル名
+        'p',
+
+        // カレントスレッド名
+        't',
+
+        // NDCで保存した文字列
+        'x',
+
+        // MDCで保存した文字列
+        'X',
+
+    };
+
+    /**
+     * フラグ文字検索テーブル<br>
+     * <br>
+     * <table border="1">
+     * <tr>
+     *   <td>項目</td><td>型</td><td>内容</td>
+     * </tr>
+     * <tr>
+     *   <td>要素</td><td>Character</td><td>フラグ文字</td>
+     * </tr>
+     * </table>
+     */
+    private static final Set<Character>         SEARCH_FLAGS =
+        new HashSet<Character>();
+
+    /**
+     * パターン文字検索テーブル<br>
+     * <br>
+     * <table border="1">
+     * <tr>
+     *   <td>項目</td><td>型</td><td>内容</td>
+     * </tr>
+     * <tr>
+     *   <td>要素</td><td>Character</td><td>パターン文字</td>
+     * </tr>
+     * </table>
+     */
+    private static final Set<Character>         SEARCH_PATTERN_CONVERSIONS =
+        new HashSet<Character>();
+
+    /**
+     * 元となるパターン文字列
+     */
+    private final String                        layoutPattern;
+
+    /**
+     * 出力セグメント一覧
+     */
+    private final List<LogPatternSegment>       layoutSegments;
+
+
+
+    /**
+     * 各種テーブルを初期化する
+     */
+    static {
+
+        // フラグ文字検索テーブルを初期化する
+        for (final char flag : PATTERN_FLAGS) {
+
+            // テーブルへ追加する
+            SEARCH_FLAGS.add(flag);
+
+        }
+
+        // パターン文字検索テーブルを初期化する
+        for (final char patternConversion : PATTERN_CONVERSIONS) {
+
+            // テーブルへ追加する
+            SEARCH_PATTERN_CONVERSIONS.add(patternConversion);
+
+        }
+
+    }
+
+
+    /**
+     * 出力パターンをコンパイルする。
+     *
+     * @param pattern   コンパイルする出力パターン文字列
+     * @throws IllegalArgumentException パターン文字列が null の場合、またはフラグ・幅指定が不正な場合
+     * @throws IllegalStateException    変換文字・引数指定が不正な場合
+     */
+    LogPatternLayout(
+            final String    pattern
+            ) {
+
+        // パターン文字列が null の場合は例外
+        if (pattern == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        layoutPattern  = pattern;
+        layoutSegments = Collections.unmodifiableList(compile(pattern));
+
+    }
+
+
+    /**
+     * 元となるパターン文字列を取得する。
+     *
+     * @return パターン文字列
+     */
+    String getPattern() {
+
+        return layoutPattern;
+
+    }
+
+
+    /**
+     * 指定された情報をパターンに従って出力先バッファへ書き込む。
+     *
+     * @param outBuf        出力先バッファ
+     * @param event         出力するログイベント
+     */
+    public void format(
+            final StringBuilder outBuf,
+            final LogEvent      event
+            ) {
+
+        // セグメント分処理をする
+        for (int i = 0, size = layoutSegments.size(); i < size; i++) {
+
+            // セグメントを出力する
+            layoutSegments.get(i).format(outBuf, event);
+
+        }
+
+    }
+
+
+    /**
+     * 出力パターン文字列を解析してセグメント一覧を作成する。
+     *
+     * @param pattern   解析する出力パターン文字列
+     * @return 作成したセグメント一覧
+     */
+    private static List<LogPatternSegment> compile(
+            final String    pattern
+            ) {
+
+        final List<LogPatternSegment>   retSegments     = new ArrayList<LogPatternSegment>();   // 返却セグメント一覧
+        int                             nowPercentIndex = -1;                                   // パーセントの位置
+        int                             nowSearchIndex  = 0;                                    // 現在の検索位置
+
+
+        // パターン文字列を検索する
+        while (true) {
+
+            // パーセント位置を検索する
+            nowPercentIndex = pattern.indexOf(TOKEN_CONVERSION, nowSearchIndex);
+
+            // パーセントが見つからない場合
+            if (nowPercentIndex == -1) {
+
+                // 検索位置から最後までを追加する
+                addLiteral(retSegments, pattern.substring(nowSearchIndex));
+
+                // ループ終了
+                break;
+
+            }
+
+            // % 位置までの文字列を追加する
+            addLiteral(retSegments, pattern.substring(nowSearchIndex, nowPercentIndex));
+
+
+            final int   argumentLeftTokenIndex;             // 引数指定左囲いトークン位置
+            final int   argumentRightTokenIndex;            // 引数指定右囲いトークン位置
+            String      argumentValue           = null;     // 引数文字列
+            int         conversionCharIndex     = -1;       // 作業用フォーマット変換文字位置
+            int         flagsCharIndex          = -1;       // フラグ文字の位置
+            int         stringWidth             = -1;       // 幅指定がある場合、その数値
+            int         workIndex;                          // 作業用現在位置
+
+
+            // 作業位置を設定する
+            workIndex = nowPercentIndex + 1;
+
+            // フォーマット変換文字の位置を取得する
+            for (int i = workIndex; i < pattern.length(); i++) {
+
+                // フォーマット変換文字があった場合
+                if (SEARCH_PATTERN_CONVERSIONS.contains(pattern.charAt(i))) {
+
+                    // フォーマット変換文字の位置を取得する
+                    conversionCharIndex = i;
+
+                    // ループ終了
+                    break;
+
+                }
+
+            }
+
+            // フォーマット変換文字がない場合
+            if (conversionCharIndex == -1) {
+
+                // % から最後までをそのまま追加する
+                addLiteral(retSegments, pattern.substring(nowPercentIndex));
+
+                // ループ終了
+                break;
+
+            }
+
+            // フラグ指定があるか検索する
+            for (int i = workIndex; i < conversionCharIndex; i++) {
+
+                final char  tempChar = pattern.charAt(i);
+
+
+                // フラグ文字があった場合
+                if (SEARCH_FLAGS.contains(tempChar)) {
+
+                    // 0 のフラグ文字の場合で、前の文字が数字の場合
+                    if ((tempChar == '0') && Character.isDigit(pattern.charAt(i - 1))) {
+
+                        // フラグ文字ではなくて幅指定数値なので次の文字へ
+                        continue;
+
+                    }
+
+                    // 既に取得済みの場合は例外
+                    if (flagsCharIndex != -1) {
+
+                        throw new IllegalArgumentException("There are multiply flags.");
+
+                    }
+
+                    // フラグ指定文字位置を取得する
+                    flagsCharIndex = i;
+
+                    // 作業位置を更新する
+                    workIndex = flagsCharIndex + 1;
+
+                }
+
+            }
+
+            // 引数指定囲い左トークンがフォーマット文字の次に位置にあるかどうかを検索する
+            if ((conversionCharIndex + 1 < pattern.length())
+                && (pattern.charAt(conversionCharIndex + 1) == TOKEN_ARGUMENT_LEFT)
+                ) {
+
+                // 左トークン位置を設定する
+                argumentLeftTokenIndex = conversionCharIndex + 1;
+
+                // 引数指定囲い右トークンを検索する
+                argumentRightTokenIndex = pattern.indexOf(TOKEN_ARGUMENT_RIGHT, argumentLeftTokenIndex + 1);
+
+                // 引数指定囲い右トークンがある場合
+                if (argumentLeftTokenIndex < argumentRightTokenIndex) {
+
+                    // 引数の内容を取得する
+                    argumentValue = pattern.substring(
+                            argumentLeftTokenIndex + 1,
+                            argumentRightTokenIndex
+                            );
+
+                    // 現在検索位置を設定する
+                    nowSearchIndex = argumentRightTokenIndex + 1;
+
+                } else {
+
+                    // 現在検索位置を設定する
+                    nowSearchIndex = argumentLeftTokenIndex + 1;
+
+                }
+
+            } else {
+
+                // 現在検索位置を設定する
+                nowSearchIndex = conversionCharIndex + 1;
+
+            }
+
+
+            // 幅指定がある場合
+            if (workIndex != conversionCharIndex) {
+
+                // 幅指定が正しいかどうか検索する
+                for (int i = workIndex; i < conversionCharIndex; i++) {
+
+                    // 数字以外の文字だった場合は例外
+                    if (!Character.isDigit(pattern.charAt(i))) {
+
+                        throw new IllegalArgumentException("No supported a precision value.");
+
+                    }
+
+                }
+
+                // 幅数値を取得する
+                stringWidth = Integer.parseInt(pattern.substring(workIndex, conversionCharIndex));
+
+            }
+
+
+            // フォーマット文字とフラグ文字を取得する
+            final char  formatConversionChar = pattern.charAt(conversionCharIndex);
+            final char  flagsChar            = flagsCharIndex == -1 ? 0 : pattern.charAt(flagsCharIndex);
+
+            // 不正フラグの場合は例外
+            if (flagsChar == '0') {
+
+                throw new IllegalArgumentException(
+                        "変換文字に適合しないフラグが指定されています [Conversion = "
+                        + formatConversionChar
+                        + ", Flags = 0]"
+                        );
+
+            }
+
+            // セグメントを追加する
+            retSegments.add(
+                    createSegment(
+                            formatConversionChar,
+                            argumentValue,
+                            stringWidth,
+                            flagsChar == '-'
+                            )
+                    );
+
+        }
+
+
+        // 作成したセグメント一覧を返す
+        return retSegments;
+
+    }
+
+
+    /**
+     * 固定文字列セグメントを追加する。
+     *
+     * @param segments  追加先セグメント一覧
+     * @param text      固定文字列
+     */
+    private static void addLiteral(
+            final List<LogPatternSegment>   segments,
+            final String                    text
+            ) {
+
+        // 空文字の場合は何もしない
+        if (text.length() == 0) {
+
+            return;
+
+        }
+
+        // 固定文字列セグメントを追加する
+        segments.add(new LiteralSegment(text));
+
+    }
+
+
+    /**
+     * 変換文字に対応するセグメントを作成する。
+     *
+     * @param conversionChar    フォーマット変換文字
+     * @param argumentValue     引数文字列。指定がない場合は null
+     * @param width             指定文字幅。指定がない場合は -1
+     * @param alignLeft         左寄せするかどうか
+     * @return 作成したセグメント
+     */
+    private static LogPatternSegment createSegment(
+            final char      conversionChar,
+            final String    argumentValue,
+            final int       width,
+            final boolean   alignLeft
+            ) {
+
+        // フォーマット文字別処理
+        switch (conversionChar) {
+
+        // カテゴリ名
+        case 'c':
+
+            return new LogPatternSegment(width, alignLeft) {
+
+                @Override
+                void appendValue(
+                        final StringBuilder outBuf,
+                        final LogEvent      event
+                        ) {
+
+                    outBuf.append(event.getCategoryName());
+
+                }
+
+            };
+
+
+        // 日付
+        case 'd':
+
+            return new DateSegment(width, alignLeft, argumentValue);
+
+
+        // タグ名
+        case 'g':
+
+            return new LogPatternSegment(width, alignLeft) {
+
+                @Override
+                void appendValue(
+                        final StringBuilder outBuf,
+                        final LogEvent      event
+                        ) {
+
+                    outBuf.append(event.getTag());
+
+                }
+
+            };
+
+
+        // 改行コード
+        case 'n':
+
+            return new LiteralSegment(LogUtils.LINE_FEED, width, alignLeft);
+
+
+        // ログメッセージ
+        case 'm':
+
+            return new LogPatternSegment(width, alignLeft) {
+
+                @Override
+                void appendValue(
+                        final StringBuilder outBuf,
+                        final LogEvent      event
+                        ) {
+
+                    outBuf.append(event.getMessage());
+
+                }
+
+            };
+
+
+        // ログレベル名
+        case 'p':
+
+            return new LogPatternSegment(width, alignLeft) {
+
+                @Override
+                void appendValue(
+                        final StringBuilder outBuf,
+                        final LogEvent      event
+                        ) {
+
+                    outBuf.append(event.getLevel().getName());
+
+                }
+
+            };
+
+
+        // カレントスレッド名
+        case 't':
+
+            return new LogPatternSegment(width, alignLeft) {
+
+                @Override
+                void appendValue(
+                        final StringBuilder outBuf,
+                        final LogEvent      event
+                        ) {
+
+                    outBuf.append(event.getThreadName());
+
+                }
+
+            };
+
+
+        // NDCでPUSHした文字列
+        case 'x':
+
+            return new LogPatternSegment(width, alignLeft) {
+
+                @Override
+                void appendValue(
+                        final StringBuilder outBuf,
+                        final LogEvent      event
+                        ) {
+
+                    event.appendNDC(outBuf);
+
+                }
+
+            };
+
+
+        // MDCで保存された key の値
+        case 'X':
+
+            // MDCのキーが指定されていない場合
+            if (argumentValue == null) {
+
+                throw new IllegalStateException("The key value of MDC is not specified.");
+
+            }
+
+            return new LogPatternSegment(width, alignLeft) {
+
+                @Override
+                void appendValue(
+                        final StringBuilder outBuf,
+                        final LogEvent      event
+                        ) {
+
+                    outBuf.append(event.getMDC(argumentValue));
+
+                }
+
+            };
+
+
+        // その他 (エラー)
+        default:
+
+            throw new IllegalStateException(
+                    "No supported conversion char. [char = " + conversionChar + "]"
+                    );
+
+        }
+
+    }
+
+
+
+
+    /**
+     * 出力セグメント基底クラス。<br>
+     * <br>
+     * 幅指定・寄せ指定の処理を共通で行う。<br>
+     *
+     * @author Kou
+     *
+     */
+    abstract static class LogPatternSegment {
+
+
+        /**
+         * 指定文字幅。指定がない場合は -1
+         */
+        private final int           segmentWidth;
+
+        /**
+         * 左寄せするかどうか
+         */
+        private final boolean       segmentAlignLeft;
+
+        /**
+         * 指定文字幅分の埋める文字 (一度に挿入するために作成しておく)
+         */
+        private final char[]        segmentPadding;
+
+
+
+        /**
+         * 出力セグメントを初期化する。
+         *
+         * @param width     指定文字幅
+         * @param alignLeft 左寄せするかどうか
+         */
+        LogPatternSegment(
+                final int       width,
+                final boolean   alignLeft
+                ) {
+
+            segmentWidth     = width;
+            segmentAlignLeft = alignLeft;
+            segmentPadding   = new char[Math.max(width, 0)];
+
+            // 埋める文字で初期化する
+            Arrays.fill(segmentPadding, PADDING_CHAR);
+
+        }
+
+
+        /**
+         * セグメントの値を幅指定に従って出力先バッファへ書き込む。
+         *
+         * @param outBuf        出力先バッファ
+         * @param event         出力するログイベント
+         */
+        final void format(
+                final StringBuilder outBuf,
+                final LogEvent      event
+                ) {
+
+            final int   startIndex = outBuf.length();   // 書き込み開始位置
+
+
+            // 値を書き込む
+            appendValue(outBuf, event);
+
+            // 実際の値幅と指定幅の差分を取得する
+            final int   diffWidth = segmentWidth - (outBuf.length() - startIndex);
+
+            // 埋める必要がない場合は何もしない
+            if (diffWidth <= 0) {
+
+                return;
+
+            }
+
+            // 左寄せの場合
+            if (segmentAlignLeft) {
+
+                // 差分を指定文字で埋める
+                outBuf.append(segmentPadding, 0, diffWidth);
+
+            // 右寄せの場合
+            } else {
+
+                // 値の前を指定文字でまとめて埋める
+                outBuf.insert(startIndex, segmentPadding, 0, diffWidth);
+
+            }
+
+        }
+
+
+        /**
+         * セグメントの値を出力先バッファへ書き込む。
+         *
+         * @param outBuf        出力先バッファ
+         * @param event         出力するログイベント
+         */
+        abstract void appendValue(
+                final StringBuilder outBuf,
+                final LogEvent      event
+                );
+
+
+    }
+
+
+    /**
+     * 固定文字列セグメント。
+     *
+     * @author Kou
+     *
+     */
+    private static final class LiteralSegment extends LogPatternSegment {
+
+
+        /**
+         * 出力する固定文字列
+         */
+        private final String        literalText;
+
+
+
+        /**
+         * 幅指定のない固定文字列セグメントを初期化する。
+         *
+         * @param text  出力する固定文字列
+         */
+        LiteralSegment(
+                final String    text
+                ) {
+
+            this(text, -1, false);
+
+        }
+
+
+        /**
+         * 固定文字列セグメントを初期化する。
+         *
+         * @param text      出力する固定文字列
+         * @param width     指定文字幅
+         * @param alignLeft 左寄せするかどうか
+         */
+        LiteralSegment(
+                final String    text,
+                final int       width,
+                final boolean   alignLeft
+                ) {
+
+            super(width, alignLeft);
+
+            literalText = text;
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void appendValue(
+                final StringBuilder outBuf,
+                final LogEvent      event
+                ) {
+
+            outBuf.append(literalText);
+
+        }
+
+
+    }
+
+
+    /**
+     * 日付セグメント。
+     *
+     * @author Kou
+     *
+     */
+    private static final class DateSegment extends LogPatternSegment {
+
+
+        /**
+         * 日付文字列変換処理
+         */
+        private final LogDateRenderer   dateRenderer;
+
+
+
+        /**
+         * 日付セグメントを初期化する。
+         *
+         * @param width         指定文字幅
+         * @param alignLeft     左寄せするかどうか
+         * @param argumentValue パターンの引数文字列。指定がない場合は null
+         * @throws IllegalStateException 日付フォーマットが不正な場合
+         */
+        DateSegment(
+                final int       width,
+                final boolean   alignLeft,
+                final String    argumentValue
+                ) {
+
+            super(width, alignLeft);
+
+            final String    dateFormat;     // 日付フォーマット文字列
+
+            // 引数指定がある場合
+            if (argumentValue != null) {
+
+                // 半角スペースをシングルクォーテーションで囲むように変換して設定する
+                dateFormat = argumentValue.replace(" ", "' '");
+
+            } else {
+
+                // デフォルトフォーマットを設定する
+                dateFormat = DEFAULT_DATE_FORMAT;
+
+            }
+
+            try {
+
+                // 日付文字列変換処理を作成する
+                dateRenderer = new LogDateRenderer(dateFormat);
+
+            } catch (final IllegalArgumentException e) {
+
+                throw new IllegalStateException(
+                        "Illegal date pattern format. [pattern = " + argumentValue + "]"
+                        );
+
+            }
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void appendValue(
+                final StringBuilder outBuf,
+                final LogEvent      event
+                ) {
+
+            dateRenderer.appendTo(outBuf, event.getTime());
+
+        }
+
+
+    }
+
+
+}
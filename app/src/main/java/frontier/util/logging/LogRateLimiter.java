@@ -0,0 +1,374 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * カテゴリ単位のログ流量制限クラス。<br>
+ * <br>
+ * タグごとに GCRA (Generic Cell Rate Algorithm) で 1 秒あたりの出力件数を制限し、<br>
+ * バースト数までは連続した出力を許可する。<br>
+ * また {@link LogLevel#VERBOSE}, {@link LogLevel#DEBUG} は K 件に 1 件だけ出力するよう間引くことができる。<br>
+ * <br>
+ * 判定はロックを利用せず CAS で行う。<br>
+ * 抑止した件数は集計間隔ごとに {@link #pollSummary()} で集計メッセージとして取得できる。<br>
+ * 集計メッセージはログ出力とは別に定期的に取得されるため、抑止後にログ出力がなくなっても出力される。<br>
+ *
+ * @author Kou
+ *
+ */
+final class LogRateLimiter {
+
+
+    /**
+     * 1 秒のナノ秒数
+     */
+    private static final long                           NANOS_PER_SECOND    = 1000000000L;
+
+    /**
+     * 1 ミリ秒のナノ秒数
+     */
+    private static final long                           NANOS_PER_MILLI     = 1000000L;
+
+    /**
+     * デフォルトの集計間隔 (ms)
+     */
+    static final long                                   DEFAULT_SUMMARY_INTERVAL = 60000L;
+
+    /**
+     * タグ別に管理する最大タグ数。超えた場合は共有の制限状態を利用する
+     */
+    private static final int                            MAX_TAGS            = 1024;
+
+    /**
+     * 出力間隔 (ns)。流量制限しない場合は 0
+     */
+    private final long                                  limiterInterval;
+
+    /**
+     * バーストとして許容する時間 (ns)
+     */
+    private final long                                  limiterTolerance;
+
+    /**
+     * {@link LogLevel#VERBOSE} の間引き間隔。間引かない場合は 1 以下
+     */
+    private final int                                   limiterSampleVerbose;
+
+    /**
+     * {@link LogLevel#DEBUG} の間引き間隔。間引かない場合は 1 以下
+     */
+    private final int                                   limiterSampleDebug;
+
+    /**
+     * 集計間隔 (ns)
+     */
+    private final long                                  limiterSummaryInterval;
+
+    /**
+     * カテゴリ名
+     */
+    private final String                                limiterCategoryName;
+
+    /**
+     * タグ別の理論到着時刻 (ns)<br>
+     * <br>
+     * <table border="1">
+     * <tr>
+     *   <td>項目</td><td>型</td><td>内容</td>
+     * </tr>
+     * <tr>
+     *   <td>キー</td><td>String</td><td>タグ名</td>
+     * </tr>
+     * <tr>
+     *   <td>値</td><td>AtomicLong</td><td>次に出力可能となる理論到着時刻 (ns)</td>
+     * </tr>
+     * </table>
+     */
+    private final ConcurrentMap<String, AtomicLong>     limiterArrivals = new ConcurrentHashMap<String, AtomicLong>();
+
+    /**
+     * 最大タグ数を超えたタグで共有する理論到着時刻 (ns)
+     */
+    private final AtomicLong                            limiterSharedArrival;
+
+    /**
+     * {@link LogLevel#VERBOSE} の間引き用カウンタ
+     */
+    private final AtomicLong                            limiterVerboseCount = new AtomicLong();
+
+    /**
+     * {@link LogLevel#DEBUG} の間引き用カウンタ
+     */
+    private final AtomicLong                            limiterDebugCount   = new AtomicLong();
+
+    /**
+     * 流量制限で抑止した件数
+     */
+    private final AtomicLong                            limiterRateSuppressed   = new AtomicLong();
+
+    /**
+     * 間引きで抑止した件数
+     */
+    private final AtomicLong                            limiterSampleSuppressed = new AtomicLong();
+
+    /**
+     * 次に集計する時刻 (ns)
+     */
+    private final AtomicLong                            limiterNextSummary;
+
+
+
+    /**
+     * ログ流量制限を初期化する。
+     *
+     * @param categoryName      カテゴリ名
+     * @param rate              タグごとの 1 秒あたりの最大出力件数。0 以下の場合は流量制限しない
+     * @param burst             連続して出力を許可する件数。1 未満の場合は 1
+     * @param sampleVerbose     {@link LogLevel#VERBOSE} を何件に 1 件出力するか。1 以下の場合は間引かない
+     * @param sampleDebug       {@link LogLevel#DEBUG} を何件に 1 件出力するか。1 以下の場合は間引かない
+     * @param summaryInterval   集計間隔 (ms)
+     */
+    LogRateLimiter(
+            final String    categoryName,
+            final double    rate,
+            final int       burst,
+            final int       sampleVerbose,
+            final int       sampleDebug,
+            final long      summaryInterval
+            ) {
+
+        final long      now = System.nanoTime();
+
+
+        // 各種情報を初期化する
+        limiterCategoryName    = categoryName;
+        limiterInterval        = rate > 0 ? Math.max(1, (long)(NANOS_PER_SECOND / rate)) : 0;
+        limiterTolerance       = limiterInterval * (Math.max(1, burst) - 1);
+        limiterSampleVerbose   = sampleVerbose;
+        limiterSampleDebug     = sampleDebug;
+        limiterSummaryInterval = Math.max(1, summaryInterval) * NANOS_PER_MILLI;
+        limiterSharedArrival   = new AtomicLong(now);
+        limiterNextSummary     = new AtomicLong(now + limiterSummaryInterval);
+
+    }
+
+
+    /**
+     * 指定ログレベル、タグのログを出力してよいか判定する。<br>
+     * <br>
+     * 出力しない場合は抑止件数を加算する。<br>
+     *
+     * @param level ログレベル
+     * @param tag   タグ
+     * @return 出力してよい場合は true
+     */
+    boolean acquire(
+            final LogLevel  level,
+            final String    tag
+            ) {
+
+        // 間引き対象の場合
+        if (!sample(level)) {
+
+            // 間引きで抑止する
+            limiterSampleSuppressed.incrementAndGet();
+            return false;
+
+        }
+
+        // 流量を超えている場合
+        if (!acquireRate(tag)) {
+
+            // 流量制限で抑止する
+            limiterRateSuppressed.incrementAndGet();
+            return false;
+
+        }
+
+        // 出力してよい
+        return true;
+
+    }
+
+
+    /**
+     * 集計間隔を過ぎている場合に抑止件数の集計メッセージを取得する。<br>
+     * <br>
+     * 集計メッセージは集計間隔ごとに 1 つのスレッドにのみ返される。<br>
+     *
+     * @return 集計メッセージ。集計間隔内の場合、または抑止件数がない場合は null
+     */
+    String pollSummary() {
+
+        final long  now  = System.nanoTime();
+        final long  next = limiterNextSummary.get();
+
+        // 集計間隔内の場合、または他スレッドが集計した場合
+        if ((now - next < 0)
+            || !limiterNextSummary.compareAndSet(next, now + limiterSummaryInterval)
+            ) {
+
+            return null;
+
+        }
+
+
+        final long  rateSuppressed   = limiterRateSuppressed.getAndSet(0);      // 流量制限で抑止した件数
+        final long  sampleSuppressed = limiterSampleSuppressed.getAndSet(0);    // 間引きで抑止した件数
+
+        // 抑止件数がない場合
+        if ((rateSuppressed == 0) && (sampleSuppressed == 0)) {
+
+            return null;
+
+        }
+
+        // 集計メッセージを返す
+        return (rateSuppressed + sampleSuppressed)
+               + " log events were suppressed. [category = " + limiterCategoryName
+               + ", rate-limit = " + rateSuppressed
+               + ", sampling = " + sampleSuppressed
+               + "]";
+
+    }
+
+
+    /**
+     * 間引き対象外かどうかを判定する。
+     *
+     * @param level ログレベル
+     * @return 出力してよい場合は true
+     */
+    private boolean sample(
+            final LogLevel  level
+            ) {
+
+        // ログレベル別処理
+        switch (level) {
+
+        // VERBOSE の場合
+        case VERBOSE:
+
+            return (limiterSampleVerbose <= 1)
+                   || (limiterVerboseCount.getAndIncrement() % limiterSampleVerbose == 0);
+
+
+        // DEBUG の場合
+        case DEBUG:
+
+            return (limiterSampleDebug <= 1)
+                   || (limiterDebugCount.getAndIncrement() % limiterSampleDebug == 0);
+
+
+        // その他の場合は間引かない
+        default:
+
+            return true;
+
+        }
+
+    }
+
+
+    /**
+     * 指定タグの流量を超えていないか判定し、超えていない場合は出力枠を消費する。
+     *
+     * @param tag   タグ
+     * @return 出力してよい場合は true
+     */
+    private boolean acquireRate(
+            final String    tag
+            ) {
+
+        // 流量制限しない場合
+        if (limiterInterval == 0) {
+
+            return true;
+
+        }
+
+
+        final AtomicLong    arrival = getArrival(tag);  // 理論到着時刻
+
+        // 更新できるまで繰り返す
+        while (true) {
+
+            final long  now = System.nanoTime();
+            final long  tat = arrival.get();
+
+            // 許容時間を超えて先の時刻になっている場合
+            if (tat - now > limiterTolerance) {
+
+                // 流量を超えている
+                return false;
+
+            }
+
+            // 理論到着時刻を進める
+            if (arrival.compareAndSet(tat, Math.max(tat - now, 0) + now + limiterInterval)) {
+
+                return true;
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 指定タグの理論到着時刻を取得する。
+     *
+     * @param tag   タグ
+     * @return 理論到着時刻
+     */
+    private AtomicLong getArrival(
+            final String    tag
+            ) {
+
+        final AtomicLong    arrival = limiterArrivals.get(tag);
+
+        // 登録済みの場合
+        if (arrival != null) {
+
+            return arrival;
+
+        }
+
+        // 最大タグ数を超えている場合
+        if (limiterArrivals.size() >= MAX_TAGS) {
+
+            // 共有の理論到着時刻を返す
+            return limiterSharedArrival;
+
+        }
+
+        // 登録する
+        final AtomicLong    newArrival = new AtomicLong(System.nanoTime());
+        final AtomicLong    oldArrival = limiterArrivals.putIfAbsent(tag, newArrival);
+
+        // 登録した理論到着時刻を返す
+        return oldArrival == null ? newArrival : oldArrival;
+
+    }
+
+
+}
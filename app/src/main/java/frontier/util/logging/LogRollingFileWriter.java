@@ -0,0 +1,654 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.GZIPOutputStream;
+
+import frontier.util.FileUtils;
+import frontier.util.IOUtils;
+
+
+/**
+ * ローテーションするログファイル出力クラス。<br>
+ * <br>
+ * フラッシュ時にファイルサイズまたは経過時間を判定し、<br>
+ * 上限に達している場合は現在のファイルを日時付きのファイル名へ変更して新しいファイルへ切り替える。<br>
+ * 切り替えたファイルの圧縮と古い世代の削除は共有のバックグラウンドスレッドで行うため、<br>
+ * 書き込み側は待たされない。<br>
+ * ファイル名の変更に失敗した場合は現在のファイルへ出力を続け、次のサイズ・日時の区切りで再試行する。<br>
+ *
+ * @author Kou
+ *
+ */
+final class LogRollingFileWriter extends Writer {
+
+
+    /**
+     * 圧縮ファイルの拡張子
+     */
+    private static final String                 GZIP_SUFFIX         = ".gz";
+
+    /**
+     * ローテーションしたファイル名に付加する日時フォーマット
+     */
+    private static final String                 ROLL_DATE_FORMAT    = "yyyyMMdd-HHmmss-SSS";
+
+    /**
+     * 圧縮・削除処理を行うスレッド名
+     */
+    private static final String                 WORKER_THREAD_NAME  = "LogRollingFileWriter";
+
+    /**
+     * 圧縮・削除処理を行う共有スレッド
+     */
+    private static ExecutorService              rollingWorker;
+
+    /**
+     * 出力ファイル
+     */
+    private final File                          rollingFile;
+
+    /**
+     * ローテーションするファイルサイズ (byte)。0 以下の場合はサイズでローテーションしない
+     */
+    private final long                          rollingMaxSize;
+
+    /**
+     * ローテーションする間隔 (ms)。0 以下の場合は時間でローテーションしない
+     */
+    private final long                          rollingInterval;
+
+    /**
+     * 保持する世代数。0 以下の場合は削除しない
+     */
+    private final int                           rollingMaxHistory;
+
+    /**
+     * ローテーションしたファイルを圧縮するかどうか
+     */
+    private final boolean                       rollingCompress;
+
+    /**
+     * 現在の出力先
+     */
+    private Writer                              rollingWriter;
+
+    /**
+     * 現在のファイルサイズ (byte)
+     */
+    private long                                rollingSize;
+
+    /**
+     * 次にローテーションするファイルサイズ (byte)
+     */
+    private long                                rollingSizeLimit;
+
+    /**
+     * 次にローテーションする日時 (ms)
+     */
+    private long                                rollingNextTime;
+
+
+
+    /**
+     * ローテーションするログファイル出力を初期化する。
+     *
+     * @param filePath      出力ファイルパス
+     * @param maxSize       ローテーションするファイルサイズ (byte)。0 以下の場合はサイズでローテーションしない
+     * @param interval      ローテーションする間隔 (ms)。0 以下の場合は時間でローテーションしない
+     * @param maxHistory    保持する世代数。0 以下の場合は削除しない
+     * @param compress      ローテーションしたファイルを圧縮するかどうか
+     * @throws IOException ファイルが開けなかった場合
+     */
+    LogRollingFileWriter(
+            final String    filePath,
+            final long      maxSize,
+            final long      interval,
+            final int       maxHistory,
+            final boolean   compress
+            ) throws IOException {
+
+        // ファイルパスが null の場合は例外
+        if (filePath == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // 各種情報を初期化する
+        rollingFile       = new File(filePath);
+        rollingMaxSize    = maxSize;
+        rollingInterval   = interval;
+        rollingMaxHistory = maxHistory;
+        rollingCompress   = compress;
+        rollingSizeLimit  = maxSize;
+
+        // ファイルを開く
+        openFile();
+
+        // 既存ファイルの最終更新日時からローテーション日時を算出する
+        rollingNextTime = getNextRollTime(
+                rollingFile.length() > 0
+                ? rollingFile.lastModified()
+                : System.currentTimeMillis()
+                );
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(
+            final char[]    buffer,
+            final int       offset,
+            final int       count
+            ) throws IOException {
+
+        synchronized (lock) {
+
+            // 閉じられている場合は例外
+            if (rollingWriter == null) {
+
+                throw new IOException("Writer is closed.");
+
+            }
+
+            rollingWriter.write(buffer, offset, count);
+
+        }
+
+    }
+
+
+    /**
+     * {@inheritDoc}<br>
+     * <br>
+     * フラッシュ後にローテーション条件を満たしている場合はファイルを切り替える。<br>
+     */
+    @Override
+    public void flush() throws IOException {
+
+        synchronized (lock) {
+
+            // 閉じられている場合は何もしない
+            if (rollingWriter == null) {
+
+                return;
+
+            }
+
+            // 出力先をフラッシュする
+            rollingWriter.flush();
+
+            final long  now = System.currentTimeMillis();
+
+            // ローテーション条件を満たしている場合
+            if (((rollingMaxSize > 0) && (rollingSize >= rollingSizeLimit))
+                || ((rollingInterval > 0) && (now >= rollingNextTime))
+                ) {
+
+                // ファイルを切り替える
+                roll(now);
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+
+        synchronized (lock) {
+
+            // 閉じられている場合は何もしない
+            if (rollingWriter == null) {
+
+                return;
+
+            }
+
+            // 出力先を閉じる
+            try {
+
+                rollingWriter.close();
+
+            } finally {
+
+                rollingWriter = null;
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 出力ファイルを追記モードで開く。
+     *
+     * @throws IOException ファイルが開けなかった場合
+     */
+    private void openFile() throws IOException {
+
+        final String    filePath = rollingFile.getAbsolutePath();
+
+        // ファイルが存在しない場合
+        if (!FileUtils.exists(filePath)) {
+
+            // ファイルを作成する
+            if (!FileUtils.createNew(filePath)) {
+
+                // 作成に失敗した場合は例外
+                throw new IOException("Failed to create a new log file. [path = " + filePath + "]");
+
+            }
+
+        }
+
+        // 書き込みサイズを数える出力先を作成する
+        rollingSize   = rollingFile.length();
+        rollingWriter = new LogUTF8Writer(
+                new CountingOutputStream(new FileOutputStream(rollingFile, true))
+                );
+
+    }
+
+
+    /**
+     * 現在のファイルをローテーションして新しいファイルへ切り替える。<br>
+     * <br>
+     * 現在のファイルはフラッシュ済みのため、開いたままファイル名を変更してから閉じる。<br>
+     * ファイル名の変更に失敗した場合は現在のファイルへ出力を続け、次の区切りで再試行する。<br>
+     *
+     * @param now   現在日時 (ms)
+     * @throws IOException 新しいファイルが開けなかった場合
+     */
+    private void roll(
+            final long  now
+            ) throws IOException {
+
+        final File  rolledFile = getRolledFile(now);    // ローテーション後のファイル
+
+
+        // 次のローテーション日時を更新する
+        rollingNextTime = getNextRollTime(now);
+
+        // 現在のファイルを日時付きのファイル名へ変更できなかった場合
+        if (!rollingFile.renameTo(rolledFile)) {
+
+            // 現在のファイルへ出力を続け、次のサイズの区切りで再試行する
+            rollingSizeLimit = rollingSize + rollingMaxSize;
+            return;
+
+        }
+
+        // 変更したファイルを閉じる
+        rollingWriter.close();
+        rollingWriter = null;
+
+        // 新しいファイルを開く
+        openFile();
+        rollingSizeLimit = rollingMaxSize;
+
+        // 圧縮と古い世代の削除を依頼する
+        submitRolledFile(rolledFile);
+
+    }
+
+
+    /**
+     * 指定日時を含む間隔の次のローテーション日時を取得する。<br>
+     * <br>
+     * 間隔はローカル時刻の 0 時を基準に揃える。<br>
+     *
+     * @param time  日時 (ms)
+     * @return 次のローテーション日時 (ms)。時間でローテーションしない場合は {@link Long#MAX_VALUE}
+     */
+    private long getNextRollTime(
+            final long  time
+            ) {
+
+        // 時間でローテーションしない場合
+        if (rollingInterval <= 0) {
+
+            return Long.MAX_VALUE;
+
+        }
+
+        final long  offset = TimeZone.getDefault().getOffset(time);     // ローカル時刻との差分
+
+        // 次の間隔の開始日時を返す
+        return ((time + offset) / rollingInterval + 1) * rollingInterval - offset;
+
+    }
+
+
+    /**
+     * ローテーション後のファイルを取得する。
+     *
+     * @param now   現在日時 (ms)
+     * @return ローテーション後のファイル
+     */
+    private File getRolledFile(
+            final long  now
+            ) {
+
+        final String    baseName = rollingFile.getAbsolutePath()
+                                   + "."
+                                   + new SimpleDateFormat(ROLL_DATE_FORMAT, Locale.US).format(new Date(now));
+        File            retFile  = new File(baseName);
+
+
+        // 同名ファイルがある場合は連番を付加する
+        for (int i = 1;
+             retFile.exists() || new File(retFile.getPath() + GZIP_SUFFIX).exists();
+             i++
+             ) {
+
+            retFile = new File(baseName + "." + i);
+
+        }
+
+        // ローテーション後のファイルを返す
+        return retFile;
+
+    }
+
+
+    /**
+     * ローテーションしたファイルの圧縮と古い世代の削除を共有スレッドへ依頼する。
+     *
+     * @param rolledFile    ローテーションしたファイル
+     */
+    private void submitRolledFile(
+            final File  rolledFile
+            ) {
+
+        // 圧縮も削除もしない場合は何もしない
+        if (!rollingCompress && (rollingMaxHistory <= 0)) {
+
+            return;
+
+        }
+
+        // 共有スレッドへ依頼する
+        getWorker().execute(new Runnable() {
+
+            @Override
+            public void run() {
+
+                // 圧縮する場合
+                if (rollingCompress) {
+
+                    // ファイルを圧縮する
+                    compress(rolledFile);
+
+                }
+
+                // 保持する世代数を超えたファイルを削除する
+                prune();
+
+            }
+
+        });
+
+    }
+
+
+    /**
+     * 指定ファイルを gzip 形式で圧縮し、元のファイルを削除する。
+     *
+     * @param file  圧縮するファイル
+     */
+    private static void compress(
+            final File  file
+            ) {
+
+        final File  gzipFile = new File(file.getPath() + GZIP_SUFFIX);
+
+
+        try {
+
+            // 圧縮ファイルへコピーする
+            final boolean   copied = IOUtils.copy(
+                    new FileInputStream(file),
+                    new GZIPOutputStream(new FileOutputStream(gzipFile)),
+                    true
+                    );
+
+            // 圧縮に成功した場合
+            if (copied) {
+
+                // 元のファイルを削除する
+                file.delete();
+
+            } else {
+
+                // 作成途中の圧縮ファイルを削除する
+                gzipFile.delete();
+
+            }
+
+        } catch (final IOException e) {
+
+            e.printStackTrace();
+
+            // 作成途中の圧縮ファイルを削除する
+            gzipFile.delete();
+
+        }
+
+    }
+
+
+    /**
+     * 保持する世代数を超えた古いファイルを削除する。
+     *
+     */
+    private void prune() {
+
+        // 削除しない場合は何もしない
+        if (rollingMaxHistory <= 0) {
+
+            return;
+
+        }
+
+
+        final File      directory = rollingFile.getAbsoluteFile().getParentFile();     // 出力ディレクトリ
+        final String    prefix    = rollingFile.getName() + ".";                       // ローテーションしたファイル名の接頭辞
+
+        // ローテーションしたファイル一覧を取得する
+        final File[]    rolledFiles = directory.listFiles(new FilenameFilter() {
+
+            @Override
+            public boolean accept(
+                    final File      dir,
+                    final String    name
+                    ) {
+
+                return name.startsWith(prefix);
+
+            }
+
+        });
+
+        // ファイル一覧が取得できなかった、または世代数以内の場合は何もしない
+        if ((rolledFiles == null) || (rolledFiles.length <= rollingMaxHistory)) {
+
+            return;
+
+        }
+
+        // 日時付きのファイル名順 (古い順) に並べる
+        Arrays.sort(rolledFiles);
+
+        // 古いファイルから削除する
+        for (int i = 0; i < rolledFiles.length - rollingMaxHistory; i++) {
+
+            rolledFiles[i].delete();
+
+        }
+
+    }
+
+
+    /**
+     * 圧縮・削除処理を行う共有スレッドを取得する。
+     *
+     * @return 共有スレッド
+     */
+    private static synchronized ExecutorService getWorker() {
+
+        // 作成されていない場合
+        if (rollingWorker == null) {
+
+            // デーモンスレッドで動作する共有スレッドを作成する
+            rollingWorker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+                @Override
+                public Thread newThread(
+                        final Runnable  runnable
+                        ) {
+
+                    final Thread    thread = new Thread(runnable, WORKER_THREAD_NAME);
+
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+
+                    return thread;
+
+                }
+
+            });
+
+        }
+
+        return rollingWorker;
+
+    }
+
+
+
+
+    /**
+     * 書き込みサイズを数える出力ストリームクラス。
+     *
+     * @author Kou
+     *
+     */
+    private final class CountingOutputStream extends OutputStream {
+
+
+        /**
+         * 出力先ストリーム
+         */
+        private final OutputStream  countingOut;
+
+
+
+        /**
+         * 出力先ストリームを指定して初期化する。
+         *
+         * @param out   出力先ストリーム
+         */
+        CountingOutputStream(
+                final OutputStream  out
+                ) {
+
+            countingOut = out;
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(
+                final int   oneByte
+                ) throws IOException {
+
+            countingOut.write(oneByte);
+            rollingSize++;
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(
+                final byte[]    buffer,
+                final int       offset,
+                final int       count
+                ) throws IOException {
+
+            countingOut.write(buffer, offset, count);
+            rollingSize += count;
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void flush() throws IOException {
+
+            countingOut.flush();
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+
+            countingOut.close();
+
+        }
+
+
+    }
+
+
+}
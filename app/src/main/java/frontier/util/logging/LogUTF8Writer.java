@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.util.logging;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+
+/**
+ * UTF-8 出力ライタークラス。<br>
+ * <br>
+ * 文字を再利用するバイトバッファへ直接 UTF-8 で変換し、<br>
+ * バッファが一杯になった場合とフラッシュ時にのみ出力ストリームへ書き込む。<br>
+ * {@link java.io.OutputStreamWriter} と異なり、書き込みごとのオブジェクト生成が発生しない。<br>
+ * <br>
+ * 対になっていないサロゲート文字は '?' として書き込む。<br>
+ *
+ * @author Kou
+ *
+ */
+final class LogUTF8Writer extends Writer {
+
+
+    /**
+     * バイトバッファサイズ
+     */
+    private static final int        BUFFER_SIZE         = 8192;
+
+    /**
+     * 1 文字 (サロゲートペア) を変換した場合の最大バイト数
+     */
+    private static final int        MAX_BYTES_PER_CHAR  = 4;
+
+    /**
+     * 出力先ストリーム
+     */
+    private final OutputStream      writerOut;
+
+    /**
+     * 変換済みバイトバッファ
+     */
+    private final byte[]            writerBuffer = new byte[BUFFER_SIZE];
+
+    /**
+     * 変換済みバイト数
+     */
+    private int                     writerCount;
+
+    /**
+     * 前回の書き込み末尾の上位サロゲート文字。ない場合は 0
+     */
+    private char                    writerHighSurrogate;
+
+
+
+    /**
+     * 出力先ストリームを指定して初期化する。
+     *
+     * @param out   出力先ストリーム
+     */
+    LogUTF8Writer(
+            final OutputStream  out
+            ) {
+
+        // 出力先が null の場合は例外
+        if (out == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        writerOut = out;
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(
+            final char[]    buffer,
+            final int       offset,
+            final int       count
+            ) throws IOException {
+
+        synchronized (lock) {
+
+            final byte[]    bytes = writerBuffer;   // 変換済みバイトバッファ
+            int             pos   = writerCount;    // 変換位置
+
+
+            // 文字数分繰り返す
+            for (int i = offset, end = offset + count; i < end; i++) {
+
+                // バッファに空きがない場合
+                if (pos > BUFFER_SIZE - MAX_BYTES_PER_CHAR) {
+
+                    // 出力先へ書き込む
+                    writerOut.write(bytes, 0, pos);
+                    pos = 0;
+
+                }
+
+                final char  ch = buffer[i];
+
+                // 前回の上位サロゲート文字がある場合
+                if (writerHighSurrogate != 0) {
+
+                    final char  high = writerHighSurrogate;
+
+                    writerHighSurrogate = 0;
+
+                    // 下位サロゲート文字の場合
+                    if (Character.isLowSurrogate(ch)) {
+
+                        // サロゲートペアを 4 バイトで書き込む
+                        final int   codePoint = Character.toCodePoint(high, ch);
+
+                        bytes[pos++] = (byte)(0xF0 | (codePoint >> 18));
+                        bytes[pos++] = (byte)(0x80 | ((codePoint >> 12) & 0x3F));
+                        bytes[pos++] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+                        bytes[pos++] = (byte)(0x80 | (codePoint & 0x3F));
+                        continue;
+
+                    }
+
+                    // 対になっていない上位サロゲート文字を書き込む
+                    bytes[pos++] = '?';
+
+                    // バッファに空きがない場合
+                    if (pos > BUFFER_SIZE - MAX_BYTES_PER_CHAR) {
+
+                        // 出力先へ書き込む
+                        writerOut.write(bytes, 0, pos);
+                        pos = 0;
+
+                    }
+
+                }
+
+                // 文字範囲別に書き込む
+                if (ch < 0x80) {
+
+                    bytes[pos++] = (byte)ch;
+
+                } else if (ch < 0x800) {
+
+                    bytes[pos++] = (byte)(0xC0 | (ch >> 6));
+                    bytes[pos++] = (byte)(0x80 | (ch & 0x3F));
+
+                } else if (Character.isHighSurrogate(ch)) {
+
+                    // 次の文字と組み合わせて書き込む
+                    writerHighSurrogate = ch;
+
+                } else if (Character.isLowSurrogate(ch)) {
+
+                    bytes[pos++] = '?';
+
+                } else {
+
+                    bytes[pos++] = (byte)(0xE0 | (ch >> 12));
+                    bytes[pos++] = (byte)(0x80 | ((ch >> 6) & 0x3F));
+                    bytes[pos++] = (byte)(0x80 | (ch & 0x3F));
+
+                }
+
+            }
+
+            writerCount = pos;
+
+        }
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flush() throws IOException {
+
+        synchronized (lock) {
+
+            // 変換済みのバイトを書き込む
+            flushBuffer();
+            writerOut.flush();
+
+        }
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+
+        synchronized (lock) {
+
+            try {
+
+                // 変換済みのバイトを書き込む
+                flushBuffer();
+
+                // 対になっていない上位サロゲート文字が残っている場合
+                if (writerHighSurrogate != 0) {
+
+                    writerHighSurrogate = 0;
+                    writerOut.write('?');
+
+                }
+
+            } finally {
+
+                writerOut.close();
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 変換済みのバイトを出力先へ書き込む。
+     *
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private void flushBuffer() throws IOException {
+
+        // 変換済みのバイトがある場合
+        if (writerCount > 0) {
+
+            writerOut.write(writerBuffer, 0, writerCount);
+            writerCount = 0;
+
+        }
+
+    }
+
+
+}
@@ -19,15 +19,21 @@ import java.io.BufferedWriter;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStreamWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
@@ -36,7 +42,6 @@ import org.xmlpull.v1.XmlPullParserFactory;
 import android.content.Context;
 import android.os.Environment;
 import android.util.Log;
-import frontier.util.DateUtils;
 import frontier.util.FileUtils;
 import frontier.util.IOUtils;
 import frontier.util.PreferencesUtils;
@@ -67,164 +72,73 @@ public final class LogUtils {
     /**
      * 改行コード
      */
-    private static final String                     LINE_FEED = "\n";
+    static final String                             LINE_FEED = "\n";
 
     /**
-     * ネスト化診断コンテキストのスタック情報間の区切りトークン
+     * サイズ指定の単位 : 1KB
      */
-    private static final String                     TOKEN_NDC_SPLIT = " ";
+    private static final long                       SIZE_KB   = 1024L;
 
     /**
-     * 日付指定時のデフォルトフォーマット
+     * フォーマット文字列のパラメータなし (可変長引数の配列生成を避けるために共有する)
      */
-    private static final String                     DEFAULT_DATE_FORMAT =
-        "yyyy-MM-dd' 'hh:mm:ss.SSS";
+    private static final Object[]                   EMPTY_ARGS = new Object[0];
 
     /**
-     * フラグ文字
+     * 流量制限の集計メッセージを確認する間隔 (ms)
      */
-    private static final char[]                     PATTERN_FLAGS = {
-
-        // 結果は左揃えになります。
-        '-',
-
-        // 結果は、変換に依存する代替フォームを使用する必要があります。
-        '#',
-
-        // 結果には、常に符号が含まれます。
-        '+',
-
-        // 結果の先頭には、正の値を示す空白が含まれます。
-        ' ',
-
-        // 結果にはゼロが追加されます。
-        '0',
-
-        // 結果には、ロケール固有のグループ化区切り文字が含まれます。
-        ',',
-
-        // 負の数値を括弧で囲みます。
-        '(',
-
-    };
+    private static final long                       SUMMARY_CHECK_INTERVAL = 1000L;
 
     /**
-     * パターン文字配列
+     * ログ設定更新時のロックオブジェクト
      */
-    private static final char[]                     PATTERN_CONVERSIONS = new char[] {
-
-        // カテゴリ名
-        'c',
-
-        // 日付
-        'd',
-
-        // タグ名
-        'g',
-
-        // 改行コード
-        'n',
-
-        // ログメッセージ
-        'm',
-
-        // ログレベル名
-        'p',
-
-        // カレントスレッド名
-        't',
-
-        // NDCで保存した文字列
-        'x',
-
-        // MDCで保存した文字列
-        'X',
-
-    };
+    private static final Object                             LOG_CATEGORY_LOCK = new Object();
 
     /**
-     * フラグ文字検索テーブル<br>
+     * ネスト化診断コンテキスト情報<br>
      * <br>
-     * <table border="1">
-     * <tr>
-     *   <td>項目</td><td>型</td><td>内容</td>
-     * </tr>
-     * <tr>
-     *   <td>要素</td><td>Character</td><td>フラグ文字</td>
-     * </tr>
-     * </table>
+     * 不変のスタックノードを保持し、変更時は新しいノードへ差し替える。<br>
+     * スタックが空の場合は値を保持しない。<br>
      */
-    private static final Set<Character>                     SEARCH_FLAGS =
-        new HashSet<Character>();
+    private static final ThreadLocal<LogContextStack>       LOG_NDC = new ThreadLocal<LogContextStack>();
 
     /**
-     * パターン文字検索テーブル<br>
+     * マップ化診断コンテキスト情報<br>
+     * <br>
+     * 不変のマップを保持し、変更時は複製して差し替える (コピーオンライト)。<br>
+     * ログイベントは複製せずに参照を保持できる。<br>
+     * マップが空の場合は値を保持しない。<br>
      * <br>
      * <table border="1">
      * <tr>
      *   <td>項目</td><td>型</td><td>内容</td>
      * </tr>
      * <tr>
-     *   <td>要素</td><td>Character</td><td>パターン文字</td>
-     * </tr>
-     * </table>
-     */
-    private static final Set<Character>                     SEARCH_PATTERN_CONVERSIONS =
-        new HashSet<Character>();
-
-    /**
-     * 使用するログカテゴリのテーブル<br>
-     * <br>
-     * <table border="1">
-     * <tr>
-     *   <td>項目</td><td>型</td><td>内容</td>
+     *   <td>キー</td><td>String</td><td>マッピング名</td>
      * </tr>
      * <tr>
-     *   <td>要素</td><td>LogCategory</td><td>ログカテゴリ</td>
+     *   <td>値</td><td>String</td><td>マップ化診断コンテキスト値</td>
      * </tr>
      * </table>
      */
-    private static final List<LogCategory>                  LOG_CATEGORIES =
-        new ArrayList<LogCategory>();
-
-    /**
-     * ログカテゴリ情報のロックオブジェクト
-     */
-    private static final Object                             LOG_CATEGORY_LOCK = new Object();
+    private static final ThreadLocal<Map<String, String>>   LOG_MDC = new ThreadLocal<Map<String, String>>();
 
     /**
-     * ネスト化診断コンテキスト情報一覧<br>
+     * 使用するログカテゴリテーブル。設定がない場合は null<br>
      * <br>
-     * <table border="1">
-     * <tr>
-     *   <td>項目</td><td>型</td><td>内容</td>
-     * </tr>
-     * <tr>
-     *   <td>要素</td><td>ArrayList&lt;String&gt;</td><td>出力するネスト化診断コンテキスト情報</td>
-     * </tr>
-     * </table>
+     * 設定更新時はテーブルごと差し替えるため、参照時のロックは不要。<br>
      */
-    private static final ThreadLocal<ArrayList<String>>     LOG_NDC;
+    private static volatile LogCategoryTable                logCategoryTable;
 
     /**
-     * マップ化診断コンテキスト情報一覧<br>
-     * <br>
-     * <br>
-     * <table border="1">
-     * <tr>
-     *   <td>項目</td><td>型</td><td>内容</td>
-     * </tr>
-     * <tr>
-     *   <td>要素</td><td>Map&lt;String, String&gt;</td><td>出力するマップ化診断コンテキスト情報</td>
-     * </tr>
-     * </table>
+     * 流量制限の集計メッセージ出力スレッド
      */
-    private static final ThreadLocal<Map<String, String>>   LOG_MDC;
+    private static ScheduledExecutorService                 summaryExecutor;
 
     /**
-     * 使用するルートカテゴリ
+     * 流量制限の集計メッセージ出力の定期実行結果
      */
-    private static LogCategory                              logCategoryRoot;
+    private static ScheduledFuture<?>                       summaryFuture;
 
 
 
@@ -233,48 +147,18 @@ public final class LogUtils {
      */
     static {
 
-        // フラグ文字検索テーブルを初期化する
-        for (final char flag : PATTERN_FLAGS) {
-
-            // テーブルへ追加する
-            SEARCH_FLAGS.add(flag);
-
-        }
-
-        // パターン文字検索テーブルを初期化する
-        for (final char patternConversion : PATTERN_CONVERSIONS) {
-
-            // テーブルへ追加する
-            SEARCH_PATTERN_CONVERSIONS.add(patternConversion);
-
-        }
-
-
-        // ネスト化診断コンテキスト情報を作成する
-        LOG_NDC = new ThreadLocal<ArrayList<String>>() {
-
-            @Override
-            protected ArrayList<String> initialValue() {
-
-                // 初期値に配列リストを設定する
-                return new ArrayList<String>();
-
-            }
-
-        };
-
-        // マップ化診断コンテキスト情報を作成する
-        LOG_MDC = new ThreadLocal<Map<String, String>>() {
+        // 終了時に非同期アペンダのログを出力しきるようにする
+        Runtime.getRuntime().addShutdownHook(new Thread() {
 
             @Override
-            protected Map<String, String> initialValue() {
+            public void run() {
 
-                // 初期値にハッシュマップを設定する
-                return new HashMap<String, String>();
+                // ログ出力を終了する
+                shutdown();
 
             }
 
-        };
+        });
 
     }
 
@@ -301,6 +185,8 @@ public final class LogUtils {
             ) throws IOException, XmlPullParserException {
 
         final Map<String, LogAppender>  readAppenders;              // 処理したアペンダ一覧
+        final List<LogCategory>         readCategories;             // 処理したカテゴリ一覧
+        LogCategory                     readRoot        = null;     // 処理したルートカテゴリ
         boolean                         isEnded         = false;    // 読み込み終了したかどうか
         LogAppender                     procAppender    = null;     // 処理中アペンダデータ
         LogCategory                     procCategory    = null;     // 処理中カテゴリデータ
@@ -310,263 +196,493 @@ public final class LogUtils {
         // ログカテゴリ情報をロックする
         synchronized (LOG_CATEGORY_LOCK) {
 
-            // ログカテゴリ情報をクリアする
-            LOG_CATEGORIES.clear();
-            logCategoryRoot = null;
+            // 処理したアペンダとカテゴリ一覧を初期化する
+            readAppenders  = new HashMap<String, LogAppender>();
+            readCategories = new ArrayList<LogCategory>();
 
-            // 処理したアペンダ一覧を初期化する
-            readAppenders = new HashMap<String, LogAppender>();
+            try {
 
-            // 読み込み終了するまで繰り返し
-            for (int eventType = parser.getEventType();
-                 !isEnded;
-                 eventType = parser.next()
-                 ) {
+                // 読み込み終了するまで繰り返し
+                for (int eventType = parser.getEventType();
+                     !isEnded;
+                     eventType = parser.next()
+                     ) {
 
-                // イベント別処理
-                switch (eventType) {
+                    // イベント別処理
+                    switch (eventType) {
 
-                // タグ開始
-                case XmlPullParser.START_TAG:
+                    // タグ開始
+                    case XmlPullParser.START_TAG:
 
-                    // ログ設定種別を取得する
-                    configType = LogConfigType.toConfigType(parser.getName());
+                        // ログ設定種別を取得する
+                        configType = LogConfigType.toConfigType(parser.getName());
 
-                    // ログ設定種別が見つからなかった場合は例外
-                    if (configType == null) {
+                        // ログ設定種別が見つからなかった場合は例外
+                        if (configType == null) {
 
-                        throw new IllegalStateException(
-                                "no supported tag. [name = " + parser.getName() + "]"
-                                );
+                            throw new IllegalStateException(
+                                    "no supported tag. [name = " + parser.getName() + "]"
+                                    );
 
-                    }
+                        }
 
-                    // ログ設定種類別処理
-                    switch (configType) {
+                        // ログ設定種類別処理
+                        switch (configType) {
 
-                    // アペンダ
-                    case APPENDER:
+                        // アペンダ
+                        case APPENDER:
 
-                        // アペンダを作成する
-                        procAppender = new LogAppender(
-                                parser.getAttributeValue(null, LogConfigType.ATTR_NAME)
-                                );
-                        break;
+                            // アペンダを作成する
+                            procAppender = new LogAppender(
+                                    parser.getAttributeValue(null, LogConfigType.ATTR_NAME)
+                                    );
+                            break;
 
 
-                    // ログ出力先
-                    case TARGET:
+                        // ログ出力先
+                        case TARGET:
 
-                        // アペンダが作成されていない場合は例外
-                        if (procAppender == null) {
+                            // アペンダが作成されていない場合は例外
+                            if (procAppender == null) {
 
-                            throw new IllegalStateException(
-                                    "It doesn't exist in appender. [name = " + parser.getName() + "]"
-                                    );
+                                throw new IllegalStateException(
+                                        "It doesn't exist in appender. [name = " + parser.getName() + "]"
+                                        );
 
-                        }
+                            }
 
 
-                        // ログ出力先を取得する
-                        final String    targetType =
-                            parser.getAttributeValue(null, LogConfigType.ATTR_TYPE);
+                            // ログ出力先を取得する
+                            final String    targetType =
+                                parser.getAttributeValue(null, LogConfigType.ATTR_TYPE);
 
-                        // ログ出力先が標準出力の場合
-                        if (LogConfigType.TARGET_STDOUT.equalsIgnoreCase(targetType)) {
+                            // ログ出力先が標準出力の場合
+                            if (LogConfigType.TARGET_STDOUT.equalsIgnoreCase(targetType)) {
 
-                            // 標準出力の場合は null を設定する
-                            procAppender.setTarget(null);
+                                // 標準出力の場合は null を設定する
+                                procAppender.setTarget(null);
 
-                        // ログ出力先がファイルの場合
-                        } else if (LogConfigType.TARGET_FILE.equalsIgnoreCase(targetType)) {
+                            // ログ出力先がファイルの場合
+                            } else if (LogConfigType.TARGET_FILE.equalsIgnoreCase(targetType)) {
 
-                            // ファイルパスを取得する
-                            final String    filePath =
-                                Environment.getExternalStorageDirectory().getAbsolutePath()
-                                + "/"
-                                + parser.getAttributeValue(
-                                    null,
-                                    LogConfigType.ATTR_VALUE
-                                    );
+                                // ファイルパスを取得する
+                                final String    filePath = getLogFilePath(
+                                        parser.getAttributeValue(null, LogConfigType.ATTR_VALUE)
+                                        );
+
+                                // ファイルが存在しない場合
+                                if (!FileUtils.exists(filePath)) {
+
+                                    // ファイルを作成する
+                                    if (!FileUtils.createNew(filePath)) {
+
+                                        // 作成に失敗した場合は例外
+                                        throw new IllegalStateException("Failed to create a new log file.");
 
-                            // ファイルが存在しない場合
-                            if (!FileUtils.exists(filePath)) {
+                                    }
 
-                                // ファイルを作成する
-                                if (!FileUtils.createNew(filePath)) {
+                                }
 
-                                    // 作成に失敗した場合は例外
-                                    throw new IllegalStateException("Failed to create a new log file.");
+                                // ファイル出力ストリームを作成して設定する
+                                procAppender.setTarget(
+                                        new BufferedWriter(
+                                                new LogUTF8Writer(
+                                                        new FileOutputStream(filePath, true)
+                                                        )
+                                                )
+                                        );
+
+                            // ログ出力先がローテーションするファイルの場合
+                            } else if (LogConfigType.TARGET_ROLLING_FILE.equalsIgnoreCase(targetType)) {
+
+                                // ローテーション設定を取得する
+                                final String    maxSizeValue    =
+                                    parser.getAttributeValue(null, LogConfigType.ATTR_MAX_SIZE);
+                                final String    intervalValue   =
+                                    parser.getAttributeValue(null, LogConfigType.ATTR_INTERVAL);
+                                final String    maxHistoryValue =
+                                    parser.getAttributeValue(null, LogConfigType.ATTR_MAX_HISTORY);
+
+                                // ローテーションするファイル出力ストリームを作成して設定する
+                                procAppender.setTarget(
+                                        new BufferedWriter(
+                                                new LogRollingFileWriter(
+                                                        getLogFilePath(
+                                                                parser.getAttributeValue(
+                                                                        null,
+                                                                        LogConfigType.ATTR_VALUE
+                                                                        )
+                                                                ),
+                                                        maxSizeValue == null
+                                                        ? 0
+                                                        : toByteSize(maxSizeValue),
+                                                        intervalValue == null
+                                                        ? 0
+                                                        : Long.parseLong(intervalValue.trim()),
+                                                        maxHistoryValue == null
+                                                        ? 0
+                                                        : Integer.parseInt(maxHistoryValue.trim()),
+                                                        Boolean.parseBoolean(
+                                                                parser.getAttributeValue(
+                                                                        null,
+                                                                        LogConfigType.ATTR_COMPRESS
+                                                                        )
+                                                                )
+                                                        )
+                                                )
+                                        );
+
+                            // ログ出力先がバイナリファイルの場合
+                            } else if (LogConfigType.TARGET_BINARY.equalsIgnoreCase(targetType)) {
+
+                                // リング容量を取得する
+                                final String    binaryCapacityValue =
+                                    parser.getAttributeValue(null, LogConfigType.ATTR_CAPACITY);
+                                final long      binaryCapacity      =
+                                    binaryCapacityValue == null
+                                    ? LogBinaryFile.DEFAULT_CAPACITY
+                                    : toByteSize(binaryCapacityValue);
+
+                                // リング容量が範囲外の場合は例外
+                                if ((binaryCapacity < LogBinaryFile.MIN_CAPACITY)
+                                    || (binaryCapacity > Integer.MAX_VALUE - LogBinaryFile.HEADER_SIZE - LogBinaryFile.DICTIONARY_SIZE)
+                                    ) {
+
+                                    throw new IllegalStateException(
+                                            "Illegal capacity. [capacity = " + binaryCapacityValue + "]"
+                                            );
 
                                 }
 
+                                // バイナリログ出力先を作成して設定する
+                                procAppender.setBinaryTarget(
+                                        new LogBinaryFile(
+                                                getLogFilePath(
+                                                        parser.getAttributeValue(
+                                                                null,
+                                                                LogConfigType.ATTR_VALUE
+                                                                )
+                                                        ),
+                                                (int)binaryCapacity
+                                                )
+                                        );
+
+                            // その他 (エラー)
+                            } else {
+
+                                throw new IllegalStateException(
+                                        "Illegal target type. [type = " + targetType + "]"
+                                        );
+
                             }
+                            break;
 
-                            // ファイル出力ストリームを作成して設定する
-                            procAppender.setTarget(
-                                    new BufferedWriter(
-                                            new OutputStreamWriter(
-                                                    new FileOutputStream(filePath, true)
-                                                    )
-                                            )
-                                    );
 
-                        // その他 (エラー)
-                        } else {
+                        // ログ出力パターン
+                        case PATTERN:
 
-                            throw new IllegalStateException(
-                                    "Illegal target type. [type = " + targetType + "]"
+                            // アペンダが作成されていない場合は例外
+                            if (procAppender == null) {
+
+                                throw new IllegalStateException(
+                                        "It doesn't exist in appender. [name = " + parser.getName() + "]"
+                                        );
+
+                            }
+
+                            // 出力先情報をアペンダへ格納する
+                            procAppender.setPattern(
+                                    parser.getAttributeValue(null, LogConfigType.ATTR_VALUE)
                                     );
+                            break;
 
-                        }
-                        break;
 
+                        // 出力レイアウト
+                        case LAYOUT:
 
-                    // ログ出力パターン
-                    case PATTERN:
+                            // アペンダが作成されていない場合は例外
+                            if (procAppender == null) {
 
-                        // アペンダが作成されていない場合は例外
-                        if (procAppender == null) {
+                                throw new IllegalStateException(
+                                        "It doesn't exist in appender. [name = " + parser.getName() + "]"
+                                        );
 
-                            throw new IllegalStateException(
-                                    "It doesn't exist in appender. [name = " + parser.getName() + "]"
-                                    );
+                            }
 
-                        }
 
-                        // 出力先情報をアペンダへ格納する
-                        procAppender.setPattern(
-                                parser.getAttributeValue(null, LogConfigType.ATTR_VALUE)
-                                );
-                        break;
+                            // 出力レイアウト種別を取得する
+                            final String    layoutType =
+                                parser.getAttributeValue(null, LogConfigType.ATTR_TYPE);
 
+                            // JSON Lines 形式の場合
+                            if (LogConfigType.LAYOUT_JSON.equalsIgnoreCase(layoutType)) {
 
-                    // カテゴリ
-                    case CATEGORY:
+                                // JSON レイアウトを設定する
+                                procAppender.setLayout(new LogJsonLayout());
 
-                        // 処理中カテゴリデータを作成する
-                        procCategory = new LogCategory(
-                                parser.getAttributeValue(null, LogConfigType.ATTR_NAME)
-                                );
-                        break;
+                            // パターン形式の場合
+                            } else if (LogConfigType.LAYOUT_PATTERN.equalsIgnoreCase(layoutType)) {
+
+                                // 出力パターンを設定する
+                                procAppender.setPattern(
+                                        parser.getAttributeValue(null, LogConfigType.ATTR_VALUE)
+                                        );
 
+                            // その他 (エラー)
+                            } else {
 
-                    // ルートカテゴリ
-                    case CATEGORY_ROOT:
+                                throw new IllegalStateException(
+                                        "Illegal layout type. [type = " + layoutType + "]"
+                                        );
 
-                        // 処理中カテゴリデータを作成する
-                        procCategory = new LogCategory(null);
-                        break;
+                            }
+                            break;
 
 
-                    // ログレベル
-                    case PRIORITY:
+                        // 非同期出力
+                        case ASYNC:
 
-                        // カテゴリが作成されていない場合は例外
-                        if (procCategory == null) {
+                            // アペンダが作成されていない場合は例外
+                            if (procAppender == null) {
 
-                            throw new IllegalStateException(
-                                    "It doesn't exist in category. [name = " + parser.getName() + "]"
+                                throw new IllegalStateException(
+                                        "It doesn't exist in appender. [name = " + parser.getName() + "]"
+                                        );
+
+                            }
+
+
+                            // 非同期出力設定を取得する
+                            final String            capacityValue   =
+                                parser.getAttributeValue(null, LogConfigType.ATTR_CAPACITY);
+                            final String            overflowValue   =
+                                parser.getAttributeValue(null, LogConfigType.ATTR_OVERFLOW);
+                            final LogOverflowPolicy overflowPolicy  =
+                                overflowValue == null
+                                ? LogOverflowPolicy.BLOCK
+                                : LogOverflowPolicy.toPolicy(overflowValue);
+
+                            // キューが一杯の場合の動作が不正な場合は例外
+                            if (overflowPolicy == null) {
+
+                                throw new IllegalStateException(
+                                        "Illegal overflow policy. [overflow = " + overflowValue + "]"
+                                        );
+
+                            }
+
+                            // 非同期出力設定をアペンダへ格納する
+                            procAppender.setAsync(
+                                    capacityValue == null
+                                    ? LogAsyncWriter.DEFAULT_CAPACITY
+                                    : Integer.parseInt(capacityValue),
+                                    overflowPolicy,
+                                    LogLevel.toLogLevel(
+                                            parser.getAttributeValue(null, LogConfigType.ATTR_LEVEL)
+                                            )
                                     );
+                            break;
 
-                        }
 
-                        // ログレベルを設定する
-                        procCategory.setLogLevel(
-                                LogLevel.toLogLevel(
-                                        parser.getAttributeValue(null, LogConfigType.ATTR_VALUE)
-                                        )
-                                );
-                        break;
+                        // カテゴリ
+                        case CATEGORY:
+
+                            // 処理中カテゴリデータを作成する
+                            procCategory = new LogCategory(
+                                    parser.getAttributeValue(null, LogConfigType.ATTR_NAME)
+                                    );
+                            break;
 
 
-                    // 参照アペンダ
-                    case APPENDER_REF:
+                        // ルートカテゴリ
+                        case CATEGORY_ROOT:
 
-                        // カテゴリが作成されていない場合は例外
-                        if (procCategory == null) {
+                            // 処理中カテゴリデータを作成する
+                            procCategory = new LogCategory(null);
+                            break;
 
-                            throw new IllegalStateException(
-                                    "It doesn't exist in category. [name = " + parser.getName() + "]"
+
+                        // ログレベル
+                        case PRIORITY:
+
+                            // カテゴリが作成されていない場合は例外
+                            if (procCategory == null) {
+
+                                throw new IllegalStateException(
+                                        "It doesn't exist in category. [name = " + parser.getName() + "]"
+                                        );
+
+                            }
+
+                            // ログレベルを設定する
+                            procCategory.setLogLevel(
+                                    LogLevel.toLogLevel(
+                                            parser.getAttributeValue(null, LogConfigType.ATTR_VALUE)
+                                            )
                                     );
+                            break;
 
-                        }
 
-                        // アペンダを取得する
-                        final String        refName     = parser.getAttributeValue(null, LogConfigType.ATTR_REF);
-                        final LogAppender   refAppender = readAppenders.get(refName);
+                        // 流量制限
+                        case RATE_LIMIT:
 
-                        // アペンダが取得できなかった場合
-                        if (refAppender == null) {
+                            // カテゴリが作成されていない場合は例外
+                            if (procCategory == null) {
 
-                            throw new IllegalStateException(
-                                    "The appender doesn't exist. [name = " + refName + "]"
+                                throw new IllegalStateException(
+                                        "It doesn't exist in category. [name = " + parser.getName() + "]"
+                                        );
+
+                            }
+
+
+                            // 流量制限設定を取得する
+                            final String    rateValue            =
+                                parser.getAttributeValue(null, LogConfigType.ATTR_RATE);
+                            final String    burstValue           =
+                                parser.getAttributeValue(null, LogConfigType.ATTR_BURST);
+                            final String    sampleVerboseValue   =
+                                parser.getAttributeValue(null, LogConfigType.ATTR_SAMPLE_VERBOSE);
+                            final String    sampleDebugValue     =
+                                parser.getAttributeValue(null, LogConfigType.ATTR_SAMPLE_DEBUG);
+                            final String    summaryIntervalValue =
+                                parser.getAttributeValue(null, LogConfigType.ATTR_SUMMARY_INTERVAL);
+                            final double    rate                 =
+                                rateValue == null ? 0 : Double.parseDouble(rateValue.trim());
+
+                            // 流量制限を設定する
+                            procCategory.setRateLimiter(
+                                    new LogRateLimiter(
+                                            procCategory.getName(),
+                                            rate,
+                                            burstValue == null
+                                            ? (int)Math.ceil(rate)
+                                            : Integer.parseInt(burstValue.trim()),
+                                            sampleVerboseValue == null
+                                            ? 0
+                                            : Integer.parseInt(sampleVerboseValue.trim()),
+                                            sampleDebugValue == null
+                                            ? 0
+                                            : Integer.parseInt(sampleDebugValue.trim()),
+                                            summaryIntervalValue == null
+                                            ? LogRateLimiter.DEFAULT_SUMMARY_INTERVAL
+                                            : Long.parseLong(summaryIntervalValue.trim())
+                                            )
                                     );
+                            break;
 
-                        }
 
-                        // 参照アペンダを追加する
-                        procCategory.addAppender(refAppender);
-                        break;
+                        // 参照アペンダ
+                        case APPENDER_REF:
 
+                            // カテゴリが作成されていない場合は例外
+                            if (procCategory == null) {
 
-                    // その他
-                    default:
+                                throw new IllegalStateException(
+                                        "It doesn't exist in category. [name = " + parser.getName() + "]"
+                                        );
 
-                        // 処理なし
+                            }
+
+                            // アペンダを取得する
+                            final String        refName     = parser.getAttributeValue(null, LogConfigType.ATTR_REF);
+                            final LogAppender   refAppender = readAppenders.get(refName);
+
+                            // アペンダが取得できなかった場合
+                            if (refAppender == null) {
+
+                                throw new IllegalStateException(
+                                        "The appender doesn't exist. [name = " + refName + "]"
+                                        );
+
+                            }
+
+                            // 参照アペンダを追加する
+                            procCategory.addAppender(refAppender);
+                            break;
+
+
+                        // その他
+                        default:
+
+                            // 処理なし
+                            break;
+
+                        }
                         break;
 
-                    }
-                    break;
 
+                    // タグ終了
+                    case XmlPullParser.END_TAG:
+
+                        // ログ設定種別を取得する
+                        configType = LogConfigType.toConfigType(parser.getName());
 
-                // タグ終了
-                case XmlPullParser.END_TAG:
+                        // ログ設定種別が見つからなかった場合は例外
+                        if (configType == null) {
 
-                    // ログ設定種別を取得する
-                    configType = LogConfigType.toConfigType(parser.getName());
+                            throw new IllegalStateException("no supported tag. [name = " + parser.getName() + "]");
 
-                    // ログ設定種別が見つからなかった場合は例外
-                    if (configType == null) {
+                        }
 
-                        throw new IllegalStateException("no supported tag. [name = " + parser.getName() + "]");
 
-                    }
+                        // ログ設定種類別処理
+                        switch (configType) {
 
+                        // アペンダ
+                        case APPENDER:
 
-                    // ログ設定種類別処理
-                    switch (configType) {
+                            // アペンダの出力を開始する
+                            procAppender.open();
 
-                    // アペンダ
-                    case APPENDER:
+                            // 処理したアペンダテーブルへ追加する
+                            readAppenders.put(procAppender.getName(), procAppender);
 
-                        // 処理したアペンダテーブルへ追加する
-                        readAppenders.put(procAppender.getName(), procAppender);
+                            // 処理中アペンダをクリアする
+                            procAppender = null;
+                            break;
 
-                        // 処理中アペンダをクリアする
-                        procAppender = null;
-                        break;
 
+                        // カテゴリ
+                        case CATEGORY:
 
-                    // カテゴリ
-                    case CATEGORY:
+                            // 作成したログカテゴリをキャッシュへ追加する
+                            readCategories.add(procCategory);
 
-                        // 作成したログカテゴリをキャッシュへ追加する
-                        LOG_CATEGORIES.add(procCategory);
+                            // 処理中カテゴリをクリアする
+                            procCategory = null;
+                            break;
+
+
+                        // ルートカテゴリ
+                        case CATEGORY_ROOT:
+
+                            // 作成したログカテゴリをキャッシュへ設定する
+                            readRoot = procCategory;
+
+                            // 処理中カテゴリをクリアする
+                            procCategory = null;
+                            break;
 
-                        // 処理中カテゴリをクリアする
-                        procCategory = null;
-                        break;
 
+                        // その他
+                        default:
 
-                    // ルートカテゴリ
-                    case CATEGORY_ROOT:
+                            // 処理なし
+                            break;
+
+                        }
+
+                        // ログ設定種別をクリアする
+                        configType = null;
+                        break;
 
-                        // 作成したログカテゴリをキャッシュへ設定する
-                        logCategoryRoot = procCategory;
 
-                        // 処理中カテゴリをクリアする
-                        procCategory = null;
+                    // ドキュメント終端
+                    case XmlPullParser.END_DOCUMENT:
+
+                        // 読み込み終了を設定する
+                        isEnded = true;
                         break;
 
 
@@ -578,35 +694,56 @@ public final class LogUtils {
 
                     }
 
-                    // ログ設定種別をクリアする
-                    configType = null;
-                    break;
+                }
+
+                // ログカテゴリとルートカテゴリがない場合は例外
+                if (readCategories.isEmpty() && (readRoot == null)) {
 
+                    throw new IllegalStateException(
+                            "No categories. The category should be more than one."
+                            );
 
-                // ドキュメント終端
-                case XmlPullParser.END_DOCUMENT:
+                }
 
-                    // 読み込み終了を設定する
-                    isEnded = true;
-                    break;
+            } catch (final IOException e) {
 
+                // 読み込み途中のアペンダを閉じて設定をクリアする
+                discardConfiguration(readAppenders.values(), procAppender);
+                throw e;
 
-                // その他
-                default:
+            } catch (final XmlPullParserException e) {
 
-                    // 処理なし
-                    break;
+                // 読み込み途中のアペンダを閉じて設定をクリアする
+                discardConfiguration(readAppenders.values(), procAppender);
+                throw e;
 
-                }
+            } catch (final RuntimeException e) {
+
+                // 読み込み途中のアペンダを閉じて設定をクリアする
+                discardConfiguration(readAppenders.values(), procAppender);
+                throw e;
 
             }
 
-            // ログカテゴリとルートカテゴリがない場合は例外
-            if (isEmptyConfiguration()) {
 
-                throw new IllegalStateException(
-                        "No categories. The category should be more than one."
-                        );
+            // 前回のログカテゴリテーブルを取得する
+            final LogCategoryTable  oldTable = logCategoryTable;
+
+            // 作成したログカテゴリテーブルへ差し替える
+            logCategoryTable = new LogCategoryTable(
+                    readCategories,
+                    readRoot,
+                    readAppenders.values()
+                    );
+
+            // 流量制限の集計メッセージ出力を開始する
+            startSummary(logCategoryTable);
+
+            // 前回のログカテゴリテーブルがある場合
+            if (oldTable != null) {
+
+                // 前回のアペンダを閉じる
+                closeAppenders(oldTable.getAppenders());
 
             }
 
@@ -616,98 +753,366 @@ public final class LogUtils {
 
 
     /**
-     * 設定ファイル名のプリファレンスキーを取得する。
+     * 流量制限の集計メッセージを定期的に出力する。<br>
+     * <br>
+     * 抑止後にログ出力がなくなったカテゴリでも集計メッセージが出力されるように、<br>
+     * ログ出力とは別のデーモンスレッドで確認する。<br>
+     * 前回の定期実行は終了する。ログ設定更新時のロック中に呼び出すこと。<br>
      *
-     * @return 設定ファイル名のプリファレンスキー
+     * @param table 使用するログカテゴリテーブル
      */
-    private static String getConfigFileNamePrefKey() {
+    private static void startSummary(
+            final LogCategoryTable  table
+            ) {
 
-        return String.format(PREF_KEY_CONFIG_FILE_NAME_FORMAT, LogUtils.class.getName());
+        // 前回の定期実行を終了する
+        stopSummary();
 
-    }
+        // 流量制限するカテゴリがない場合は何もしない
+        if (table.getRateLimitedCategories().length == 0) {
 
+            return;
 
-    /**
-     * ログ設定を初期化する。
-     *
-     * @param context   利用するコンテキスト
-     * @param fileName  設定ファイル名 (assetsに配置した設定ファイル)
-     * @return 設定反映に成功した場合は true
-     */
-    public static boolean setConfiguration(
-            final Context   context,
-            final String    fileName
-            ) {
+        }
 
-        InputStream         in     = null;  // 入力ストリーム
-        XmlPullParser       parser = null;  // XML読み込みパーサー
+        // 出力スレッドを作成していない場合
+        if (summaryExecutor == null) {
 
+            // デーモンスレッドで作成する
+            summaryExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
 
-        try {
+                /**
+                 * {@inheritDoc}
+                 */
+                public Thread newThread(
+                        final Runnable  runnable
+                        ) {
 
-            // アセッツから設定内容を読み込む
-            in = context.getAssets().open(fileName);
+                    final Thread    thread = new Thread(runnable, LogUtils.class.getSimpleName() + "-Summary");
 
-            // XML読み込みパーサーを作成する
-            final XmlPullParserFactory  factory = XmlPullParserFactory.newInstance();
+                    thread.setDaemon(true);
 
-            // 名前空間を有効にする
-            factory.setNamespaceAware(true);
+                    return thread;
 
-            // パーサーを取得する
-            parser = factory.newPullParser();
-            parser.setInput(in, ENCODING);
+                }
 
-            // パース処理を行う
-            parseConfiguration(parser);
+            });
 
-        } catch (final Throwable e) {
+        }
 
-            e.printStackTrace();
+        // 定期的に実行する
+        summaryFuture = summaryExecutor.scheduleWithFixedDelay(new Runnable() {
 
-            // 失敗
-            return false;
+            /**
+             * {@inheritDoc}
+             */
+            public void run() {
 
-        } finally {
+                // 差し替えられたログカテゴリテーブルの場合は何もしない
+                if (logCategoryTable != table) {
 
-            // ファイルを取得できた場合
-            if (in != null) {
+                    return;
 
-                // ファイルを閉じる
-                IOUtils.closeQuietly(in);
+                }
 
-                // 設定ファイル名をプリファレンスへ書きこむ
-                PreferencesUtils.writeObject(
-                        context,
-                        getConfigFileNamePrefKey(),
-                        fileName
-                        );
+                // 流量制限するカテゴリ分処理をする
+                for (final LogCategory category : table.getRateLimitedCategories()) {
 
-            }
+                    try {
 
-        }
+                        // 集計メッセージを出力する
+                        writeSummary(category);
 
+                    } catch (final RuntimeException e) {
 
-        // 成功
-        return true;
+                        e.printStackTrace();
 
-    }
+                    }
 
+                }
 
-    /**
-     * ログ設定情報が空かどうかを取得する。
-     *
-     * @return ログ設定情報が空の場合は true
-     */
-    private static boolean isEmptyConfiguration() {
+            }
 
-        return LOG_CATEGORIES.isEmpty() && (logCategoryRoot == null);
+        }, SUMMARY_CHECK_INTERVAL, SUMMARY_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
 
     }
 
 
     /**
-     * 設定情報を復帰させる。
+     * 流量制限の集計メッセージの定期出力を終了する。<br>
+     * <br>
+     * ログ設定更新時のロック中に呼び出すこと。<br>
+     *
+     */
+    private static void stopSummary() {
+
+        // 定期実行中の場合
+        if (summaryFuture != null) {
+
+            // 定期実行を終了する
+            summaryFuture.cancel(false);
+            summaryFuture = null;
+
+        }
+
+    }
+
+
+    /**
+     * 読み込みに失敗したログ設定を破棄する。<br>
+     * <br>
+     * 読み込み途中のアペンダを閉じ、使用中のログ設定もクリアする。<br>
+     * 処理中のアペンダは出力先を開いたまま一覧に追加されていないため、個別に閉じる。<br>
+     * ログ設定更新時のロック中に呼び出すこと。<br>
+     *
+     * @param readAppenders 読み込み途中のアペンダ一覧
+     * @param procAppender  処理中のアペンダ。ない場合は null
+     */
+    private static void discardConfiguration(
+            final Collection<LogAppender>   readAppenders,
+            final LogAppender               procAppender
+            ) {
+
+        // 処理中のアペンダがある場合
+        if (procAppender != null) {
+
+            // 処理中のアペンダを閉じる
+            procAppender.close();
+
+        }
+
+        // 読み込み途中のアペンダを閉じる
+        closeAppenders(readAppenders);
+
+        // 使用中のログ設定をクリアする
+        shutdown();
+
+    }
+
+
+    /**
+     * 設定ファイルに指定されたログファイルパスを外部ストレージ上の絶対パスへ変換する。
+     *
+     * @param value 設定ファイルに指定されたログファイルパス
+     * @return 外部ストレージ上の絶対パス
+     */
+    private static String getLogFilePath(
+            final String    value
+            ) {
+
+        return Environment.getExternalStorageDirectory().getAbsolutePath() + "/" + value;
+
+    }
+
+
+    /**
+     * サイズ指定文字列をバイト数へ変換する。<br>
+     * <br>
+     * 末尾に KB, MB, GB (または K, M, G) を指定した場合は単位に応じて変換する。<br>
+     *
+     * @param value サイズ指定文字列
+     * @return バイト数
+     * @throws IllegalStateException サイズ指定が不正な場合
+     */
+    private static long toByteSize(
+            final String    value
+            ) {
+
+        String      number     = value.trim().toUpperCase(Locale.US);   // 数値部分
+        long        multiplier = 1;                                     // 単位の倍率
+
+        // 末尾の B を除去する
+        if (number.endsWith("B")) {
+
+            number = number.substring(0, number.length() - 1);
+
+        }
+
+        // 単位別に倍率を設定する
+        if (number.endsWith("K")) {
+
+            multiplier = SIZE_KB;
+
+        } else if (number.endsWith("M")) {
+
+            multiplier = SIZE_KB * SIZE_KB;
+
+        } else if (number.endsWith("G")) {
+
+            multiplier = SIZE_KB * SIZE_KB * SIZE_KB;
+
+        }
+
+        // 単位がある場合は除去する
+        if (multiplier > 1) {
+
+            number = number.substring(0, number.length() - 1);
+
+        }
+
+        try {
+
+            // バイト数を返す
+            return Long.parseLong(number.trim()) * multiplier;
+
+        } catch (final NumberFormatException e) {
+
+            throw new IllegalStateException(
+                    "Illegal size format. [size = " + value + "]"
+                    );
+
+        }
+
+    }
+
+
+    /**
+     * 指定されたアペンダを全て閉じる。
+     *
+     * @param appenders 閉じるアペンダ一覧
+     */
+    private static void closeAppenders(
+            final Collection<LogAppender>   appenders
+            ) {
+
+        // アペンダ分繰り返す
+        for (final LogAppender appender : appenders) {
+
+            // アペンダを閉じる
+            appender.close();
+
+        }
+
+    }
+
+
+    /**
+     * ログ出力を終了する。<br>
+     * <br>
+     * 非同期アペンダのキューに残っているログを全て出力してから、<br>
+     * 全アペンダの出力先を閉じてログ設定をクリアする。<br>
+     * 終了後にログを出力した場合は、保存されている設定ファイルで再設定される。<br>
+     *
+     */
+    public static void shutdown() {
+
+        // ログ設定の更新をロックする
+        synchronized (LOG_CATEGORY_LOCK) {
+
+            final LogCategoryTable  oldTable = logCategoryTable;
+
+            // ログカテゴリテーブルをクリアする
+            logCategoryTable = null;
+
+            // 流量制限の集計メッセージ出力を終了する
+            stopSummary();
+
+            // 前回のログカテゴリテーブルがある場合
+            if (oldTable != null) {
+
+                // 使用中のアペンダを閉じる
+                closeAppenders(oldTable.getAppenders());
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 設定ファイル名のプリファレンスキーを取得する。
+     *
+     * @return 設定ファイル名のプリファレンスキー
+     */
+    private static String getConfigFileNamePrefKey() {
+
+        return String.format(PREF_KEY_CONFIG_FILE_NAME_FORMAT, LogUtils.class.getName());
+
+    }
+
+
+    /**
+     * ログ設定を初期化する。
+     *
+     * @param context   利用するコンテキスト
+     * @param fileName  設定ファイル名 (assetsに配置した設定ファイル)
+     * @return 設定反映に成功した場合は true
+     */
+    public static boolean setConfiguration(
+            final Context   context,
+            final String    fileName
+            ) {
+
+        InputStream         in     = null;  // 入力ストリーム
+        XmlPullParser       parser = null;  // XML読み込みパーサー
+
+
+        try {
+
+            // アセッツから設定内容を読み込む
+            in = context.getAssets().open(fileName);
+
+            // XML読み込みパーサーを作成する
+            final XmlPullParserFactory  factory = XmlPullParserFactory.newInstance();
+
+            // 名前空間を有効にする
+            factory.setNamespaceAware(true);
+
+            // パーサーを取得する
+            parser = factory.newPullParser();
+            parser.setInput(in, ENCODING);
+
+            // パース処理を行う
+            parseConfiguration(parser);
+
+        } catch (final Throwable e) {
+
+            e.printStackTrace();
+
+            // 失敗
+            return false;
+
+        } finally {
+
+            // ファイルを取得できた場合
+            if (in != null) {
+
+                // ファイルを閉じる
+                IOUtils.closeQuietly(in);
+
+                // 設定ファイル名をプリファレンスへ書きこむ
+                PreferencesUtils.writeObject(
+                        context,
+                        getConfigFileNamePrefKey(),
+                        fileName
+                        );
+
+            }
+
+        }
+
+
+        // 成功
+        return true;
+
+    }
+
+
+    /**
+     * ログ設定情報が空かどうかを取得する。
+     *
+     * @return ログ設定情報が空の場合は true
+     */
+    private static boolean isEmptyConfiguration() {
+
+        return logCategoryTable == null;
+
+    }
+
+
+    /**
+     * 設定情報を復帰させる。
      *
      * @param context 利用するコンテキスト情報
      */
@@ -750,7 +1155,7 @@ public final class LogUtils {
             final Object    message
             ) {
 
-        log(context, LogLevel.VERBOSE, tag, message, null);
+        log(context, LogLevel.VERBOSE, tag, message, null, EMPTY_ARGS);
 
     }
 
@@ -770,7 +1175,7 @@ public final class LogUtils {
             final Throwable exception
             ) {
 
-        log(context, LogLevel.VERBOSE, tag, message, exception);
+        log(context, LogLevel.VERBOSE, tag, message, exception, EMPTY_ARGS);
 
     }
 
@@ -797,6 +1202,48 @@ public final class LogUtils {
     }
 
 
+    /**
+     * {@link LogLevel#VERBOSE} レベルでログを出力する。<br>
+     * <br>
+     * メッセージ提供元は出力対象の場合のみ呼び出される。<br>
+     *
+     * @param context       利用するコンテキスト情報
+     * @param tag           タグ
+     * @param supplier      メッセージ提供元
+     */
+    public static void v(
+            final Context               context,
+            final Object                tag,
+            final LogMessageSupplier    supplier
+            ) {
+
+        log(context, LogLevel.VERBOSE, tag, supplier, null);
+
+    }
+
+
+    /**
+     * {@link LogLevel#VERBOSE} レベルでログを出力する。<br>
+     * <br>
+     * メッセージ提供元は出力対象の場合のみ呼び出される。<br>
+     *
+     * @param context       利用するコンテキスト情報
+     * @param tag           タグ
+     * @param supplier      メッセージ提供元
+     * @param exception     例外
+     */
+    public static void v(
+            final Context               context,
+            final Object                tag,
+            final LogMessageSupplier    supplier,
+            final Throwable             exception
+            ) {
+
+        log(context, LogLevel.VERBOSE, tag, supplier, exception);
+
+    }
+
+
     /**
      * {@link LogLevel#DEBUG} レベルでログを出力する。
      *
@@ -810,7 +1257,7 @@ public final class LogUtils {
             final Object    message
             ) {
 
-        log(context, LogLevel.DEBUG, tag, message, null);
+        log(context, LogLevel.DEBUG, tag, message, null, EMPTY_ARGS);
 
     }
 
@@ -830,7 +1277,7 @@ public final class LogUtils {
             final Throwable exception
             ) {
 
-        log(context, LogLevel.DEBUG, tag, message, exception);
+        log(context, LogLevel.DEBUG, tag, message, exception, EMPTY_ARGS);
 
     }
 
@@ -857,6 +1304,48 @@ public final class LogUtils {
     }
 
 
+    /**
+     * {@link LogLevel#DEBUG} レベルでログを出力する。<br>
+     * <br>
+     * メッセージ提供元は出力対象の場合のみ呼び出される。<br>
+     *
+     * @param context       利用するコンテキスト情報
+     * @param tag           タグ
+     * @param supplier      メッセージ提供元
+     */
+    public static void d(
+            final Context               context,
+            final Object                tag,
+            final LogMessageSupplier    supplier
+            ) {
+
+        log(context, LogLevel.DEBUG, tag, supplier, null);
+
+    }
+
+
+    /**
+     * {@link LogLevel#DEBUG} レベルでログを出力する。<br>
+     * <br>
+     * メッセージ提供元は出力対象の場合のみ呼び出される。<br>
+     *
+     * @param context       利用するコンテキスト情報
+     * @param tag           タグ
+     * @param supplier      メッセージ提供元
+     * @param exception     例外
+     */
+    public static void d(
+            final Context               context,
+            final Object                tag,
+            final LogMessageSupplier    supplier,
+            final Throwable             exception
+            ) {
+
+        log(context, LogLevel.DEBUG, tag, supplier, exception);
+
+    }
+
+
     /**
      * {@link LogLevel#INFO} レベルでログを出力する。
      *
@@ -870,7 +1359,7 @@ public final class LogUtils {
             final Object    message
             ) {
 
-        log(context, LogLevel.INFO, tag, message, null);
+        log(context, LogLevel.INFO, tag, message, null, EMPTY_ARGS);
 
     }
 
@@ -890,7 +1379,7 @@ public final class LogUtils {
             final Throwable exception
             ) {
 
-        log(context, LogLevel.INFO, tag, message, exception);
+        log(context, LogLevel.INFO, tag, message, exception, EMPTY_ARGS);
 
     }
 
@@ -918,25 +1407,67 @@ public final class LogUtils {
 
 
     /**
-     * {@link LogLevel#WARN} レベルでログを出力する。
+     * {@link LogLevel#INFO} レベルでログを出力する。<br>
+     * <br>
+     * メッセージ提供元は出力対象の場合のみ呼び出される。<br>
      *
      * @param context       利用するコンテキスト情報
      * @param tag           タグ
-     * @param message       メッセージ
+     * @param supplier      メッセージ提供元
      */
-    public static void w(
-            final Context   context,
-            final Object    tag,
-            final Object    message
+    public static void i(
+            final Context               context,
+            final Object                tag,
+            final LogMessageSupplier    supplier
             ) {
 
-        log(context, LogLevel.WARN, tag, message, null);
+        log(context, LogLevel.INFO, tag, supplier, null);
 
     }
 
 
     /**
-     * {@link LogLevel#WARN} レベルでログを出力する。
+     * {@link LogLevel#INFO} レベルでログを出力する。<br>
+     * <br>
+     * メッセージ提供元は出力対象の場合のみ呼び出される。<br>
+     *
+     * @param context       利用するコンテキスト情報
+     * @param tag           タグ
+     * @param supplier      メッセージ提供元
+     * @param exception     例外
+     */
+    public static void i(
+            final Context               context,
+            final Object                tag,
+            final LogMessageSupplier    supplier,
+            final Throwable             exception
+            ) {
+
+        log(context, LogLevel.INFO, tag, supplier, exception);
+
+    }
+
+
+    /**
+     * {@link LogLevel#WARN} レベルでログを出力する。
+     *
+     * @param context       利用するコンテキスト情報
+     * @param tag           タグ
+     * @param message       メッセージ
+     */
+    public static void w(
+            final Context   context,
+            final Object    tag,
+            final Object    message
+            ) {
+
+        log(context, LogLevel.WARN, tag, message, null, EMPTY_ARGS);
+
+    }
+
+
+    /**
+     * {@link LogLevel#WARN} レベルでログを出力する。
      *
      * @param context       利用するコンテキスト情報
      * @param tag           タグ
@@ -950,7 +1481,7 @@ public final class LogUtils {
             final Throwable exception
             ) {
 
-        log(context, LogLevel.WARN, tag, message, exception);
+        log(context, LogLevel.WARN, tag, message, exception, EMPTY_ARGS);
 
     }
 
@@ -977,6 +1508,48 @@ public final class LogUtils {
     }
 
 
+    /**
+     * {@link LogLevel#WARN} レベルでログを出力する。<br>
+     * <br>
+     * メッセージ提供元は出力対象の場合のみ呼び出される。<br>
+     *
+     * @param context       利用するコンテキスト情報
+     * @param tag           タグ
+     * @param supplier      メッセージ提供元
+     */
+    public static void w(
+            final Context               context,
+            final Object                tag,
+            final LogMessageSupplier    supplier
+            ) {
+
+        log(context, LogLevel.WARN, tag, supplier, null);
+
+    }
+
+
+    /**
+     * {@link LogLevel#WARN} レベルでログを出力する。<br>
+     * <br>
+     * メッセージ提供元は出力対象の場合のみ呼び出される。<br>
+     *
+     * @param context       利用するコンテキスト情報
+     * @param tag           タグ
+     * @param supplier      メッセージ提供元
+     * @param exception     例外
+     */
+    public static void w(
+            final Context               context,
+            final Object                tag,
+            final LogMessageSupplier    supplier,
+            final Throwable             exception
+            ) {
+
+        log(context, LogLevel.WARN, tag, supplier, exception);
+
+    }
+
+
     /**
      * {@link LogLevel#ERROR} レベルでログを出力する。
      *
@@ -990,7 +1563,7 @@ public final class LogUtils {
             final Object    message
             ) {
 
-        log(context, LogLevel.ERROR, tag, message, null);
+        log(context, LogLevel.ERROR, tag, message, null, EMPTY_ARGS);
 
     }
 
@@ -1010,7 +1583,7 @@ public final class LogUtils {
             final Throwable exception
             ) {
 
-        log(context, LogLevel.ERROR, tag, message, exception);
+        log(context, LogLevel.ERROR, tag, message, exception, EMPTY_ARGS);
 
     }
 
@@ -1037,6 +1610,48 @@ public final class LogUtils {
     }
 
 
+    /**
+     * {@link LogLevel#ERROR} レベルでログを出力する。<br>
+     * <br>
+     * メッセージ提供元は出力対象の場合のみ呼び出される。<br>
+     *
+     * @param context       利用するコンテキスト情報
+     * @param tag           タグ
+     * @param supplier      メッセージ提供元
+     */
+    public static void e(
+            final Context               context,
+            final Object                tag,
+            final LogMessageSupplier    supplier
+            ) {
+
+        log(context, LogLevel.ERROR, tag, supplier, null);
+
+    }
+
+
+    /**
+     * {@link LogLevel#ERROR} レベルでログを出力する。<br>
+     * <br>
+     * メッセージ提供元は出力対象の場合のみ呼び出される。<br>
+     *
+     * @param context       利用するコンテキスト情報
+     * @param tag           タグ
+     * @param supplier      メッセージ提供元
+     * @param exception     例外
+     */
+    public static void e(
+            final Context               context,
+            final Object                tag,
+            final LogMessageSupplier    supplier,
+            final Throwable             exception
+            ) {
+
+        log(context, LogLevel.ERROR, tag, supplier, exception);
+
+    }
+
+
     /**
      * {@link LogLevel#ASSERT} レベルでログを出力する。
      *
@@ -1050,7 +1665,7 @@ public final class LogUtils {
             final Object    message
             ) {
 
-        log(context, LogLevel.ASSERT, tag, message, null);
+        log(context, LogLevel.ASSERT, tag, message, null, EMPTY_ARGS);
 
     }
 
@@ -1070,7 +1685,7 @@ public final class LogUtils {
             final Throwable exception
             ) {
 
-        log(context, LogLevel.ASSERT, tag, message, exception);
+        log(context, LogLevel.ASSERT, tag, message, exception, EMPTY_ARGS);
 
     }
 
@@ -1097,6 +1712,48 @@ public final class LogUtils {
     }
 
 
+    /**
+     * {@link LogLevel#ASSERT} レベルでログを出力する。<br>
+     * <br>
+     * メッセージ提供元は出力対象の場合のみ呼び出される。<br>
+     *
+     * @param context       利用するコンテキスト情報
+     * @param tag           タグ
+     * @param supplier      メッセージ提供元
+     */
+    public static void a(
+            final Context               context,
+            final Object                tag,
+            final LogMessageSupplier    supplier
+            ) {
+
+        log(context, LogLevel.ASSERT, tag, supplier, null);
+
+    }
+
+
+    /**
+     * {@link LogLevel#ASSERT} レベルでログを出力する。<br>
+     * <br>
+     * メッセージ提供元は出力対象の場合のみ呼び出される。<br>
+     *
+     * @param context       利用するコンテキスト情報
+     * @param tag           タグ
+     * @param supplier      メッセージ提供元
+     * @param exception     例外
+     */
+    public static void a(
+            final Context               context,
+            final Object                tag,
+            final LogMessageSupplier    supplier,
+            final Throwable             exception
+            ) {
+
+        log(context, LogLevel.ASSERT, tag, supplier, exception);
+
+    }
+
+
     /**
      * ネスト化診断コンテキスト値をスタックへ追加する。
      *
@@ -1106,11 +1763,8 @@ public final class LogUtils {
             final Object    value
             ) {
 
-        // スタックリストを取得する
-        final ArrayList<String>     ndcStack = LOG_NDC.get();
-
-        // スタックへ追加する
-        ndcStack.add(String.valueOf(value));
+        // スタックへ追加したノードへ差し替える
+        LOG_NDC.set(LogContextStack.push(LOG_NDC.get(), String.valueOf(value)));
 
     }
 
@@ -1121,27 +1775,30 @@ public final class LogUtils {
      */
     public static void popNDC() {
 
-        // スタックリストを取得する
-        final ArrayList<String>     ndcStack = LOG_NDC.get();
+        // スタックを取得する
+        final LogContextStack   ndcStack = LOG_NDC.get();
 
-        // リストが 0 より大きい場合
-        if (ndcStack.size() > 0) {
+        // スタックが空の場合は何もしない
+        if (ndcStack == null) {
 
-            // リストの末尾データを削除
-            ndcStack.remove(ndcStack.size() - 1);
+            return;
 
         }
 
-        // リストが空の場合
-        if (ndcStack.isEmpty()) {
+
+        // 末尾を取り除いたスタックを取得する
+        final LogContextStack   parent = ndcStack.pop();
+
+        // スタックが空になる場合
+        if (parent == null) {
 
             // 現在のスレッドからネスト化診断コンテキスト情報を削除する
             removeNDC();
 
         } else {
 
-            // リストの要素数を最適化する
-            ndcStack.trimToSize();
+            // 末尾を取り除いたスタックへ差し替える
+            LOG_NDC.set(parent);
 
         }
 
@@ -1182,9 +1839,13 @@ public final class LogUtils {
 
         // マッピングテーブルを取得する
         final Map<String, String>      mdcTable = LOG_MDC.get();
+        final Map<String, String>      newTable = mdcTable == null
+                                                  ? new HashMap<String, String>()
+                                                  : new HashMap<String, String>(mdcTable);
 
-        // マッピングテーブルへ追加する
-        mdcTable.put(mapName, String.valueOf(mapValue));
+        // 複製したマッピングテーブルへ追加して差し替える
+        newTable.put(mapName, String.valueOf(mapValue));
+        LOG_MDC.set(Collections.unmodifiableMap(newTable));
 
     }
 
@@ -1209,892 +1870,1536 @@ public final class LogUtils {
         // マッピングテーブルを取得する
         final Map<String, String>      mdcTable = LOG_MDC.get();
 
-        // マッピングテーブルから削除する
-        mdcTable.remove(mapName);
+        // 該当するマッピングがない場合は何もしない
+        if ((mdcTable == null) || !mdcTable.containsKey(mapName)) {
 
-        // テーブルが空の場合
-        if (mdcTable.isEmpty()) {
+            return;
+
+        }
+
+        // 削除後のテーブルが空になる場合
+        if (mdcTable.size() == 1) {
 
             // 現在のスレッドからマップ化診断コンテキスト情報を削除する
             LOG_MDC.remove();
+            return;
 
         }
 
+
+        final Map<String, String>      newTable = new HashMap<String, String>(mdcTable);
+
+        // 複製したマッピングテーブルから削除して差し替える
+        newTable.remove(mapName);
+        LOG_MDC.set(Collections.unmodifiableMap(newTable));
+
     }
 
 
     /**
-     * カレントスレッドのネスト化診断コンテキスト値からログ出力文字列を作成する。
+     * 指定ログレベル、タグ、メッセージ、例外をログに出力する。
      *
-     * @return ネスト化診断コンテキスト値のログ出力文字列
+     * @param context       利用するコンテキスト
+     * @param level         ログレベル
+     * @param tag           タグ
+     * @param message       メッセージ
+     * @param exception     例外
+     * @param formatArgs    フォーマット文字列出力する場合のパラメータ
+     * @throws IllegalArgumentException ログレベルが null の場合
      */
-    private static String getNDCString() {
-
-        final StringBuilder     strBuf   = new StringBuilder();
-        final ArrayList<String> ndcStack = LOG_NDC.get();
-
-        // ネスト化診断コンテキスト情報がある場合
-        if (!ndcStack.isEmpty()) {
-
-            // スタックにあるネスト化診断コンテキスト情報分繰り返す
-            for (final Iterator<String> i = ndcStack.iterator();;) {
-
-                // スタックの値を追加する
-                strBuf.append(i.next());
+    public static void log(
+            final Context   context,
+            final LogLevel  level,
+            final Object    tag,
+            final Object    message,
+            final Throwable exception,
+            final Object... formatArgs
+            ) {
 
-                // 次の要素がある場合
-                if (i.hasNext()) {
+        // 利用するコンテキスト情報またはログレベルが指定されていない場合は例外
+        if ((context == null) || (level == null)) {
 
-                    // 区切り文字を追加する
-                    strBuf.append(TOKEN_NDC_SPLIT);
+            throw new IllegalArgumentException();
 
-                } else {
+        }
 
-                    // ループ終了
-                    break;
+        final String        strTag   = String.valueOf(tag);            // 文字列タグ
+        final LogCategory   category = getCategory(context, strTag);    // 利用するログカテゴリ
 
-                }
+        // 指定ログレベルが無効、または流量制限で抑止する場合
+        if (!category.isEnabled(level) || !acquire(category, level, strTag)) {
 
-            }
+            // メッセージを作成せずに終了する
+            return;
 
         }
 
-        // 作成したログ出力文字列を返す
-        return strBuf.toString();
+        // ログを出力する
+        writeLog(
+                category,
+                level,
+                strTag,
+                String.valueOf(message),
+                exception,
+                formatArgs,
+                Collections.<String, Object>emptyMap()
+                );
 
     }
 
 
     /**
-     * カレントスレッドの指定キーのマップ化診断コンテキスト値を取得する。
+     * 指定ログレベル、タグ、メッセージ提供元、例外をログに出力する。<br>
+     * <br>
+     * メッセージ提供元は指定ログレベルが出力対象の場合のみ呼び出される。<br>
      *
-     * @param key   マップ化診断コンテキスト値のキー
-     * @return 対応するマップ化診断コンテキスト値
+     * @param context       利用するコンテキスト
+     * @param level         ログレベル
+     * @param tag           タグ
+     * @param supplier      メッセージ提供元
+     * @param exception     例外
+     * @throws IllegalArgumentException ログレベルが null の場合
      */
-    private static String getMDCString(
-            final String    key
+    public static void log(
+            final Context               context,
+            final LogLevel              level,
+            final Object                tag,
+            final LogMessageSupplier    supplier,
+            final Throwable             exception
             ) {
 
-        final Map<String, String>   mdcTable = LOG_MDC.get();
-        final String                retValue = mdcTable.get(key);
+        // 利用するコンテキスト情報またはログレベルが指定されていない場合は例外
+        if ((context == null) || (level == null)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        final String        strTag   = String.valueOf(tag);            // 文字列タグ
+        final LogCategory   category = getCategory(context, strTag);    // 利用するログカテゴリ
+
+        // 指定ログレベルが無効、または流量制限で抑止する場合
+        if (!category.isEnabled(level) || !acquire(category, level, strTag)) {
+
+            // メッセージを作成せずに終了する
+            return;
 
-        // 対応するマップ化診断コンテキスト値を返す
-        return retValue == null ? "" : retValue;
+        }
+
+        // ログを出力する
+        writeLog(
+                category,
+                level,
+                strTag,
+                String.valueOf(supplier == null ? null : supplier.getMessage()),
+                exception,
+                null,
+                Collections.<String, Object>emptyMap()
+                );
 
     }
 
 
     /**
-     * フォーマット変換文字位置に指定された値を追加する。
+     * 構造化ログイベントの作成を開始する。<br>
+     * <br>
+     * 指定ログレベルが出力対象外の場合は何もしないインスタンスを返す。<br>
      *
-     * @param strBuf            追加先文字列バッファ
-     * @param conversionsChar   フォーマット変換文字
-     * @param value             追加する値
-     * @param width             指定文字幅
-     * @param blankChar         幅より小さい場合、追加するブランク文字
-     * @param alignLeft         左寄せするかどうか
+     * @param context   利用するコンテキスト
+     * @param level     ログレベル
+     * @param tag       タグ
+     * @return 構造化ログイベント作成
+     * @throws IllegalArgumentException ログレベルが null の場合
      */
-    private static void appendFormatValue(
-            final StringBuilder strBuf,
-            final char          conversionsChar,
-            final String        value,
-            final char          blankChar,
-            final int           width,
-            final boolean       alignLeft
+    public static LogEventBuilder newEvent(
+            final Context   context,
+            final LogLevel  level,
+            final Object    tag
             ) {
 
-        final StringBuilder tempValueBuf = new StringBuilder(); // 作業用値バッファ
-        int                 diffWidth;                          // 値幅の差分
-
+        // 利用するコンテキスト情報またはログレベルが指定されていない場合は例外
+        if ((context == null) || (level == null)) {
 
-        // 作業用バッファへ値を設定する
-        tempValueBuf.append(value);
+            throw new IllegalArgumentException();
 
-        // 実際の値幅と指定幅の差分を指定する
-        diffWidth = width - tempValueBuf.length();
+        }
 
+        final String    strTag = String.valueOf(tag);
 
-        // 左寄せの場合
-        if (alignLeft) {
+        // 出力対象外の場合
+        if (!getCategory(context, strTag).isEnabled(level)) {
 
-            // 値を付加する
-            strBuf.append(tempValueBuf);
+            // 何もしないインスタンスを返す
+            return LogEventBuilder.DISABLED;
 
-            // 差分を指定文字で埋める
-            for (; diffWidth > 0; diffWidth--) {
+        }
 
-                strBuf.append(blankChar);
+        // 構造化ログイベント作成を返す
+        return new LogEventBuilder(context, level, strTag);
 
-            }
+    }
 
-        // 右寄せの場合
-        } else {
 
-            // 差分を指定文字で埋める
-            for (; diffWidth > 0; diffWidth--) {
+    /**
+     * 項目を付加したログを出力する。
+     *
+     * @param context       利用するコンテキスト
+     * @param level         ログレベル
+     * @param tag           タグ
+     * @param message       メッセージ
+     * @param exception     例外
+     * @param formatArgs    フォーマット文字列出力する場合のパラメータ
+     * @param fields        ログイベントに付加する項目 (不変)
+     */
+    static void logEvent(
+            final Context               context,
+            final LogLevel              level,
+            final String                tag,
+            final Object                message,
+            final Throwable             exception,
+            final Object[]              formatArgs,
+            final Map<String, Object>   fields
+            ) {
 
-                strBuf.append(blankChar);
+        final LogCategory   category = getCategory(context, tag);   // 利用するログカテゴリ
 
-            }
+        // 指定ログレベルが無効、または流量制限で抑止する場合
+        if (!category.isEnabled(level) || !acquire(category, level, tag)) {
 
-            // 値を付加する
-            strBuf.append(tempValueBuf);
+            // 何もしない
+            return;
 
         }
 
+        // ログを出力する
+        writeLog(
+                category,
+                level,
+                tag,
+                String.valueOf(message),
+                exception,
+                formatArgs,
+                fields
+                );
+
     }
 
 
     /**
-     * 指定されたアペンダのパターンからログメッセージを取得する。
+     * 指定タグ、ログレベルのログが出力対象かどうかを取得する。<br>
+     * <br>
+     * ログ設定が空の場合は保存されている設定を復帰させてから判定する。<br>
      *
-     * @param level     出力ログレベル
-     * @param category  利用するカテゴリ
-     * @param appender  利用するアペンダ
-     * @param tag       出力するタグ名
-     * @param message   出力するメッセージ
-     * @return 指定されたアペンダのパターンからログメッセージ
+     * @param context   利用するコンテキスト
+     * @param tag       タグ
+     * @param level     ログレベル
+     * @return 出力対象の場合は true
+     * @throws IllegalArgumentException ログレベルが null の場合
      */
-    private static String getPatternMessage(
-            final LogLevel      level,
-            final LogCategory   category,
-            final LogAppender   appender,
-            final String        tag,
-            final String        message
+    public static boolean isEnabled(
+            final Context   context,
+            final Object    tag,
+            final LogLevel  level
             ) {
 
-        final char              conversionToken     = '%';                      // パターン文字トークン
-        final char              argumentLeftToken   = '{';                      // 引数囲い左トークン
-        final char              argumentRightToken  = '}';                      // 引数囲い右トークン
-        final StringBuilder     retBuf              = new StringBuilder();      // 返却文字列バッファ
-        final String            pattern             = appender.getPattern();    // パターン文字列
-        int                     nowPercentIndex     = -1;                       // パーセントの位置
-        int                     nowSearchIndex      = 0;                        // 現在の検索位置
-
+        // 利用するコンテキスト情報またはログレベルが指定されていない場合は例外
+        if ((context == null) || (level == null)) {
 
-        // パターン文字列を検索する
-        while (true) {
+            throw new IllegalArgumentException();
 
-            // パーセント位置を検索する
-            nowPercentIndex = appender.getPattern().indexOf(
-                    conversionToken,
-                    nowSearchIndex
-                    );
+        }
 
-            // パーセントが見つからない場合
-            if (nowPercentIndex == -1) {
+        // 利用するカテゴリで出力対象かどうかを返す
+        return getCategory(context, String.valueOf(tag)).isEnabled(level);
 
-                // フォーマット変換文字から最後までを追加する
-                retBuf.append(pattern.substring(
-                        nowSearchIndex,
-                        pattern.length())
-                        );
+    }
 
-                // ループ終了
-                break;
 
-            }
+    /**
+     * 指定タグ、ログレベルのログが出力対象かどうかを取得する。<br>
+     * <br>
+     * ログ設定がされていない場合は false を返す。<br>
+     *
+     * @param tag       タグ
+     * @param level     ログレベル
+     * @return 出力対象の場合は true
+     * @throws IllegalArgumentException ログレベルが null の場合
+     */
+    public static boolean isEnabled(
+            final Object    tag,
+            final LogLevel  level
+            ) {
 
+        // ログレベルが指定されていない場合は例外
+        if (level == null) {
 
-            // %位置が先頭より先にある場合
-            if (nowPercentIndex > 0) {
+            throw new IllegalArgumentException();
 
-                // % 位置までの文字列を設定する
-                retBuf.append(pattern.substring(
-                        nowSearchIndex,
-                        nowPercentIndex)
-                        );
+        }
 
-            }
 
+        final LogCategoryTable  table = logCategoryTable;   // 利用するログカテゴリテーブル
 
-            final int   argumentLeftTokenIndex;             // 引数指定左囲いトークン位置
-            final int   argumentRightTokenIndex;            // 引数指定右囲いトークン位置
-            String      argumentValue           = null;     // 引数文字列
-            int         conversionCharIndex     = -1;       // 作業用フォーマット変換文字位置
-            int         flagsCharIndex          = -1;       // フラグ文字の位置
-            int         stringWidth             = -1;       // 幅指定がある場合、その数値
-            int         workIndex;                          // 作業用現在位置
+        // ログ設定がされていない場合
+        if (table == null) {
 
+            // 出力対象外
+            return false;
 
-            // 作業位置を設定する
-            workIndex = nowPercentIndex + 1;
+        }
 
-            // フォーマット変換文字の位置を取得する
-            for (int i = workIndex; i < pattern.length(); i++) {
+        // 利用するカテゴリを取得する
+        final LogCategory   category = table.resolve(String.valueOf(tag));
 
-                // フォーマット変換文字があった場合
-                if (SEARCH_PATTERN_CONVERSIONS.contains(pattern.charAt(i))) {
+        // カテゴリがあり、出力対象かどうかを返す
+        return (category != null) && category.isEnabled(level);
 
-                    // フォーマット変換文字の位置を取得する
-                    conversionCharIndex = i;
+    }
 
-                    // ループ終了
-                    break;
 
-                }
+    /**
+     * 指定タグで利用するログカテゴリを取得する。<br>
+     * <br>
+     * ログ設定が空の場合は保存されている設定を復帰させる。<br>
+     *
+     * @param context   利用するコンテキスト
+     * @param tag       タグ
+     * @return 利用するログカテゴリ
+     * @throws IllegalStateException ログカテゴリが取得できなかった場合
+     */
+    private static LogCategory getCategory(
+            final Context   context,
+            final String    tag
+            ) {
 
-            }
+        // カテゴリ情報が空の場合
+        if (isEmptyConfiguration()) {
 
-            // フォーマット変換文字がない場合
-            if (conversionCharIndex == -1) {
+            // 設定情報を復帰させる
+            restoreConfiguration(context);
 
-                // フォーマット変換文字から最後までを追加する
-                retBuf.append(pattern.substring(
-                        nowSearchIndex,
-                        pattern.length())
-                        );
+        }
 
-                // ループ終了
-                break;
 
-            }
+        final LogCategoryTable  table    = logCategoryTable;                            // 利用するログカテゴリテーブル
+        final LogCategory       category = table == null ? null : table.resolve(tag);   // 利用するログカテゴリ
 
-            // フラグ指定があるか検索する
-            for (int i = workIndex; i < conversionCharIndex; i++) {
+        // ログカテゴリが取得できなかった場合は例外
+        if (category == null) {
 
-                final char  tempChar = pattern.charAt(i);
+            throw new IllegalStateException(
+                    "No root category. Please append a 'category-root' element."
+                    );
 
+        }
 
-                // フラグ文字があった場合
-                if (SEARCH_FLAGS.contains(tempChar)) {
+        // 取得したログカテゴリを返す
+        return category;
 
-                    // 0 のフラグ文字の場合で、前の文字が数字の場合
-                    if ((tempChar == '0') && Character.isDigit(pattern.charAt(i - 1))) {
+    }
 
-                        // フラグ文字ではなくて幅指定数値なので次の文字へ
-                        continue;
 
-                    }
+    /**
+     * 流量制限を判定する。<br>
+     * <br>
+     * 抑止件数の集計メッセージは {@link #writeSummary(LogCategory)} で定期的に出力する。<br>
+     *
+     * @param category  利用するログカテゴリ
+     * @param level     ログレベル
+     * @param tag       タグ
+     * @return 出力してよい場合は true
+     */
+    private static boolean acquire(
+            final LogCategory   category,
+            final LogLevel      level,
+            final String        tag
+            ) {
 
-                    // 既に取得済みの場合は例外
-                    if (flagsCharIndex != -1) {
+        final LogRateLimiter    rateLimiter = category.getRateLimiter();
 
-                        throw new IllegalArgumentException("There are multiply flags.");
+        // 流量制限しない、または流量制限を判定して出力してよい場合は true
+        return (rateLimiter == null) || rateLimiter.acquire(level, tag);
 
-                    }
+    }
 
-                    // フラグ指定文字位置を取得する
-                    flagsCharIndex = i;
 
-                    // 作業位置を更新する
-                    workIndex = flagsCharIndex + 1;
+    /**
+     * 集計間隔を過ぎている場合に抑止件数の集計メッセージを出力する。<br>
+     * <br>
+     * 集計メッセージは {@link LogLevel#WARN} として、カテゴリのログレベルを判定してから<br>
+     * カテゴリの参照アペンダへ出力する。流量制限の対象にはしない。<br>
+     *
+     * @param category  流量制限するログカテゴリ
+     */
+    private static void writeSummary(
+            final LogCategory   category
+            ) {
 
-                }
+        // 集計メッセージを取得する
+        final String    summary = category.getRateLimiter().pollSummary();
 
-            }
+        // 集計メッセージがない、または出力対象外の場合は何もしない
+        if ((summary == null) || !category.isEnabled(LogLevel.WARN)) {
 
-            // 引数指定囲い左トークンがフォーマット文字の次に位置にあるかどうかを検索する
-            if ((conversionCharIndex + 1 < pattern.length())
-                && (pattern.charAt(conversionCharIndex + 1) == argumentLeftToken)
-                ) {
+            return;
 
-                // 左トークン位置を設定する
-                argumentLeftTokenIndex = conversionCharIndex + 1;
+        }
 
-                // 引数指定囲い右トークンを検索する
-                argumentRightTokenIndex = pattern.indexOf(argumentRightToken, argumentLeftTokenIndex + 1);
+        // 流量制限を通さずに集計メッセージを出力する
+        writeLog(
+                category,
+                LogLevel.WARN,
+                LogUtils.class.getSimpleName(),
+                summary,
+                null,
+                null,
+                Collections.<String, Object>emptyMap()
+                );
 
-                // 引数指定囲い右トークンがある場合
-                if (argumentLeftTokenIndex < argumentRightTokenIndex) {
+    }
 
-                    // 引数の内容を取得する
-                    argumentValue = pattern.substring(
-                            argumentLeftTokenIndex + 1,
-                            argumentRightTokenIndex
-                            );
 
-                    // 現在検索位置を設定する
-                    nowSearchIndex = argumentRightTokenIndex + 1;
+    /**
+     * 出力するログメッセージを作成する。<br>
+     * <br>
+     * フォーマット文字列でなく例外もない場合はメッセージをそのまま返し、<br>
+     * それ以外の場合は指定された文字列バッファへ作成する。<br>
+     *
+     * @param outBuf        作成先文字列バッファ
+     * @param message       メッセージ
+     * @param exception     例外
+     * @param formatArgs    フォーマット文字列出力する場合のパラメータ
+     * @return 作成したログメッセージ
+     */
+    private static CharSequence createMessage(
+            final StringBuilder outBuf,
+            final String        message,
+            final Throwable     exception,
+            final Object[]      formatArgs
+            ) {
 
-                } else {
+        final boolean   formatted = (formatArgs != null) && (formatArgs.length > 0);   // フォーマット文字列かどうか
 
-                    // 現在検索位置を設定する
-                    nowSearchIndex = argumentLeftTokenIndex + 1;
+        // フォーマット文字列でなく例外もない場合
+        if (!formatted && (exception == null)) {
 
-                }
+            // メッセージをそのまま返す
+            return message;
 
-            } else {
+        }
+
+        // フォーマット文字列の場合
+        if (formatted) {
+
+            // フォーマット文字列を展開して書き込む
+            LogMessageBuffer.appendFormat(outBuf, message, formatArgs);
+
+        } else {
+
+            // メッセージをそのまま書き込む
+            outBuf.append(message);
+
+        }
+
+        // 例外がある場合
+        if (exception != null) {
+
+            // スタックトレースを付加する
+            outBuf.append(LINE_FEED).append(Log.getStackTraceString(exception));
+
+        }
 
-                // 現在検索位置を設定する
-                nowSearchIndex = conversionCharIndex + 1;
+        return outBuf;
+
+    }
+
+
+    /**
+     * 指定カテゴリの参照アペンダへログを出力する。<br>
+     * <br>
+     * ログメッセージとログイベントはカレントスレッドのバッファを再利用して作成する。<br>
+     * メッセージ作成中に同じスレッドから呼び出された場合は新しく作成する。<br>
+     *
+     * @param category      利用するログカテゴリ
+     * @param level         ログレベル
+     * @param tag           タグ
+     * @param message       メッセージ
+     * @param exception     例外
+     * @param formatArgs    フォーマット文字列出力する場合のパラメータ
+     * @param fields        ログイベントに付加する項目 (不変)
+     */
+    private static void writeLog(
+            final LogCategory           category,
+            final LogLevel              level,
+            final String                tag,
+            final String                message,
+            final Throwable             exception,
+            final Object[]              formatArgs,
+            final Map<String, Object>   fields
+            ) {
+
+        final LogMessageBuffer  buffer = LogMessageBuffer.acquire();    // 再利用するバッファ
+
+        try {
+
+            // ログメッセージを作成する
+            final CharSequence  logMessage = createMessage(
+                    buffer == null ? new StringBuilder() : buffer.getMessageBuilder(),
+                    message,
+                    exception,
+                    formatArgs
+                    );
+
+            // ログイベントを作成する
+            final LogEvent      event = buffer == null ? new LogEvent() : buffer.getEvent();
+
+            // カレントスレッドの情報を設定する
+            setupEvent(
+                    event,
+                    level,
+                    category.getName(),
+                    tag,
+                    logMessage,
+                    fields
+                    );
+
+            final LogAppender[] appenders = category.getAppenders();    // 参照アペンダ一覧
+
+            // 参照アペンダ分処理をする
+            for (int i = 0; i < appenders.length; i++) {
+
+                // 指定されている出力先へログを出力する
+                appenders[i].append(event);
 
             }
 
+        } finally {
 
+            // バッファを利用した場合
+            if (buffer != null) {
 
-            // 幅指定がある場合
-            if (workIndex != conversionCharIndex) {
+                // バッファの利用を終了する
+                buffer.release();
 
-                // 幅指定が正しいかどうか検索する
-                for (int i = workIndex; i < conversionCharIndex; i++) {
+            }
 
-                    final char  tempChar = pattern.charAt(i);
+        }
 
-                    // 数字以外の文字だった場合は例外
-                    if (!Character.isDigit(tempChar)) {
+    }
 
-                        throw new IllegalArgumentException("No supported a precision value.");
 
-                    }
+    /**
+     * カレントスレッドの情報をログイベントへ設定する。
+     *
+     * @param event         設定先ログイベント
+     * @param level         出力ログレベル
+     * @param categoryName  利用するカテゴリ名
+     * @param tag           タグ名
+     * @param message       ログメッセージ
+     * @param fields        ログイベントに付加する項目 (不変)
+     */
+    private static void setupEvent(
+            final LogEvent              event,
+            final LogLevel              level,
+            final String                categoryName,
+            final String                tag,
+            final CharSequence          message,
+            final Map<String, Object>   fields
+            ) {
 
-                }
+        final Map<String, String>   mdcTable = LOG_MDC.get();   // マップ化診断コンテキスト情報
+
+
+        // 不変の診断コンテキスト情報を参照して設定する
+        event.set(
+                level,
+                categoryName,
+                tag,
+                message,
+                System.currentTimeMillis(),
+                Thread.currentThread().getName(),
+                LOG_NDC.get(),
+                mdcTable == null ? Collections.<String, String>emptyMap() : mdcTable,
+                fields
+                );
+
+    }
+
+
+
+
+    /**
+     * ログ設定種別。
+     *
+     * @author Kou
+     *
+     */
+    private static enum LogConfigType {
 
 
-                // 幅数値を取得する
-                stringWidth = Integer.parseInt(pattern.substring(workIndex, conversionCharIndex));
+        /**
+         * 設定ルート
+         */
+        CONFIGRATION("configuration"),
+
+        /**
+         * アペンダ
+         */
+        APPENDER("appender"),
+
+        /**
+         * ログ出力先
+         */
+        TARGET("target"),
+
+        /**
+         * 出力パターン
+         */
+        PATTERN("pattern"),
+
+        /**
+         * カテゴリ
+         */
+        CATEGORY("category"),
+
+        /**
+         * ルートカテゴリ
+         */
+        CATEGORY_ROOT("category-root"),
+
+        /**
+         * ログレベル
+         */
+        PRIORITY("priority"),
+
+        /**
+         * 参照アペンダ
+         */
+        APPENDER_REF("appender-ref"),
+
+        /**
+         * 非同期出力
+         */
+        ASYNC("async"),
+
+        /**
+         * 出力レイアウト
+         */
+        LAYOUT("layout"),
+
+        /**
+         * 流量制限
+         */
+        RATE_LIMIT("rate-limit");
+
+
+        /**
+         * 種別参照テーブルを初期化する
+         */
+        static {
+
+            // ログ種別テーブルを作成する
+            final Map<String, LogConfigType>    typeTable = new HashMap<String, LogUtils.LogConfigType>();
+
+            // 種別名をキーにして種別をテーブルへ追加する
+            typeTable.put(CONFIGRATION.getName(),   CONFIGRATION);
+            typeTable.put(APPENDER.getName(),       APPENDER);
+            typeTable.put(TARGET.getName(),         TARGET);
+            typeTable.put(PATTERN.getName(),        PATTERN);
+            typeTable.put(CATEGORY.getName(),       CATEGORY);
+            typeTable.put(CATEGORY_ROOT.getName(),  CATEGORY_ROOT);
+            typeTable.put(PRIORITY.getName(),       PRIORITY);
+            typeTable.put(APPENDER_REF.getName(),   APPENDER_REF);
+            typeTable.put(ASYNC.getName(),          ASYNC);
+            typeTable.put(LAYOUT.getName(),         LAYOUT);
+            typeTable.put(RATE_LIMIT.getName(),     RATE_LIMIT);
+
+            // 作成したログ種別テーブルを設定する
+            LOG_CONFIG_TYPES = typeTable;
+
+        }
+
+
+        /**
+         * 属性名 : 種類
+         */
+        public static final String          ATTR_TYPE   = "type";
+
+        /**
+         * 属性名 : 名前
+         */
+        public static final String          ATTR_NAME   = "name";
+
+        /**
+         * 属性名 : 値
+         */
+        public static final String          ATTR_VALUE  = "value";
+
+        /**
+         * 属性名 : 参照
+         */
+        public static final String          ATTR_REF    = "ref";
+
+        /**
+         * 属性名 : 容量
+         */
+        public static final String          ATTR_CAPACITY   = "capacity";
+
+        /**
+         * 属性名 : キューが一杯の場合の動作
+         */
+        public static final String          ATTR_OVERFLOW   = "overflow";
+
+        /**
+         * 属性名 : ログレベル
+         */
+        public static final String          ATTR_LEVEL      = "level";
+
+        /**
+         * 属性名 : ローテーションするファイルサイズ
+         */
+        public static final String          ATTR_MAX_SIZE   = "max-size";
+
+        /**
+         * 属性名 : ローテーションする間隔 (ms)
+         */
+        public static final String          ATTR_INTERVAL   = "interval";
+
+        /**
+         * 属性名 : 保持する世代数
+         */
+        public static final String          ATTR_MAX_HISTORY    = "max-history";
+
+        /**
+         * 属性名 : ローテーションしたファイルを圧縮するかどうか
+         */
+        public static final String          ATTR_COMPRESS   = "compress";
+
+        /**
+         * 属性名 : タグごとの 1 秒あたりの最大出力件数
+         */
+        public static final String          ATTR_RATE       = "rate";
+
+        /**
+         * 属性名 : 連続して出力を許可する件数
+         */
+        public static final String          ATTR_BURST      = "burst";
+
+        /**
+         * 属性名 : VERBOSE の間引き間隔
+         */
+        public static final String          ATTR_SAMPLE_VERBOSE = "sample-verbose";
+
+        /**
+         * 属性名 : DEBUG の間引き間隔
+         */
+        public static final String          ATTR_SAMPLE_DEBUG   = "sample-debug";
+
+        /**
+         * 属性名 : 抑止件数の集計間隔 (ms)
+         */
+        public static final String          ATTR_SUMMARY_INTERVAL   = "summary-interval";
+
+
+        /**
+         * ログ出力先 : 標準出力
+         */
+        public static final String          TARGET_STDOUT   = "stdout";
+
+        /**
+         * ログ出力先 : SDファイル
+         */
+        public static final String          TARGET_FILE     = "file";
+
+        /**
+         * ログ出力先 : ローテーションするSDファイル
+         */
+        public static final String          TARGET_ROLLING_FILE = "rolling-file";
+
+        /**
+         * ログ出力先 : メモリマップしたSDバイナリファイル
+         */
+        public static final String          TARGET_BINARY   = "binary";
+
+        /**
+         * 出力レイアウト : パターン
+         */
+        public static final String          LAYOUT_PATTERN  = "pattern";
+
+        /**
+         * 出力レイアウト : JSON Lines
+         */
+        public static final String          LAYOUT_JSON     = "json";
+
+
+
+        /**
+         * ログ設定種別参照テーブル<br>
+         * <br>
+         * <table border="1">
+         * <tr>
+         *   <td>項目</td><td>型</td><td>内容</td>
+         * </tr>
+         * <tr>
+         *   <td>キー</td><td>String</td><td>ログ設定種別名</td>
+         * </tr>
+         * <tr>
+         *   <td>値</td><td>LogConfigType</td><td>ログ設定種別</td>
+         * </tr>
+         * </table>
+         */
+        private static final Map<String, LogConfigType>     LOG_CONFIG_TYPES;
+
+        /**
+         * ログ設定種別名 (タグ名)
+         */
+        private final String        tagName;
+
+
+
+        /**
+         * ログ設定種別を初期化する。
+         *
+         * @param name  種別タグ名
+         */
+        private LogConfigType(
+                final String    name
+                ) {
+
+            tagName = name;
+
+        }
+
+
+        /**
+         * 種別名を取得する。
+         *
+         * @return 種別名
+         */
+        public String getName() {
+
+            return tagName;
+
+        }
+
+
+        /**
+         * 指定された種別名をログ設定種別へ変換する。
+         *
+         * @param name 変換する種別名
+         * @return 変換したログ設定種別
+         */
+        public static LogConfigType toConfigType(
+                final String    name
+                ) {
+
+            // 種別名が null の場合
+            if (name == null) {
+
+                // nullを返す
+                return null;
 
             }
 
+            // 指定した名前に対応するログ設定種別を返す
+            return LOG_CONFIG_TYPES.get(name.toLowerCase());
+
+        }
+
+
+    }
+
+
+    /**
+     * ログアペンダ情報クラス。
+     *
+     * @author Kou
+     *
+     */
+    private static final class LogAppender implements LogAsyncWriter.EventSink {
+
+
+        /**
+         * 出力先書き込み用文字配列の初期サイズ
+         */
+        private static final int            INITIAL_CHARS_SIZE = 256;
+
+        /**
+         * アペンダ名
+         */
+        private final String                appenderName;
+
+        /**
+         * ログ出力先
+         */
+        private BufferedWriter              appenderTarget;
+
+        /**
+         * バイナリログ出力先
+         */
+        private LogBinaryFile               appenderBinaryTarget;
 
-            // フォーマット文字を取得する
-            final char  formatConversionChar = pattern.charAt(conversionCharIndex);
+        /**
+         * 出力レイアウト
+         */
+        private LogLayout                   appenderLayout;
 
-            // 各種パラメータを定義する
-            final char      appendChar      = ' ';      // 幅より小さい場合に埋める文字
-            final String    valueStr;                   // 値の文字列表記
-            final String    formatStr;                  // フォーマット文字列
-            char            flagsChar       = 0;        // フラグ文字
-            boolean         alignLeft       = false;    // 左寄せするかどうか
+        /**
+         * 出力メッセージ作成用バッファ
+         */
+        private final StringBuilder         appenderBuffer = new StringBuilder();
 
+        /**
+         * 出力先書き込み用文字配列
+         */
+        private char[]                      appenderChars = new char[INITIAL_CHARS_SIZE];
+
+        /**
+         * 非同期出力時のキュー容量。同期出力の場合は 0
+         */
+        private int                         appenderAsyncCapacity;
 
-            // フォーマット文字別処理
-            switch (formatConversionChar) {
+        /**
+         * 非同期出力時のキューが一杯の場合の動作
+         */
+        private LogOverflowPolicy           appenderOverflowPolicy;
 
-            // カテゴリ名
-            case 'c':
+        /**
+         * 非同期出力時の破棄しない最小ログレベル
+         */
+        private LogLevel                    appenderOverflowLevel;
 
-                // カテゴリ名を設定する
-                valueStr = category.getName();
-                break;
+        /**
+         * 非同期ログ出力スレッド
+         */
+        private volatile LogAsyncWriter     appenderAsyncWriter;
 
+        /**
+         * 閉じられたかどうか
+         */
+        private boolean                     appenderClosed;
 
-            // 日付
-            case 'd':
 
-                // 引数指定がある場合
-                if (argumentValue != null) {
 
-                    // 半角スペースをシングルクォーテーションで囲むように変換して設定する
-                    formatStr = argumentValue.replace(" ", "' '");
+        /**
+         * ログアペンダを初期化する。
+         *
+         * @param name ログアペンダ名
+         */
+        public LogAppender(
+                final String        name
+                ) {
 
-                } else {
+            appenderName = name;
 
-                    // デフォルトフォーマットを設定する
-                    formatStr = DEFAULT_DATE_FORMAT;
+        }
 
-                }
 
+        /**
+         * ログアペンダ名を取得する。
+         *
+         * @return ログアペンダ名
+         */
+        public String getName() {
 
-                // 指定パターンの文字列へ変換する
-                valueStr = DateUtils.format(
-                        formatStr,
-                        System.currentTimeMillis()
-                        );
+            return appenderName;
 
-                // 変換に失敗した場合
-                if (valueStr == null) {
+        }
 
-                    throw new IllegalStateException(
-                            "Illegal date pattern format. [pattern = " + argumentValue + "]"
-                            );
 
-                }
-                break;
+        /**
+         * ログ出力先を設定する。<br>
+         * <br>
+         * 設定済みの出力先は閉じてから差し替える。<br>
+         *
+         * @param target    ログ出力先ライター
+         */
+        public void setTarget(
+                final BufferedWriter    target
+                ) {
 
+            // 設定済みの出力先がある場合
+            if ((appenderTarget != null) && (appenderTarget != target)) {
 
-            // タグ名
-            case 'g':
+                // 設定済みの出力先を閉じる
+                IOUtils.closeQuietly(appenderTarget);
 
-                // タグ名を設定する
-                valueStr = tag;
-                break;
+            }
 
+            appenderTarget = target;
 
-            // 改行コード
-            case 'n':
+        }
 
-                // 改行コードを設定する
-                valueStr = LINE_FEED;
-                break;
 
+        /**
+         * ログ出力先を取得する。
+         *
+         * @return ログ出力先
+         */
+        public BufferedWriter getTarget() {
 
-            // ログメッセージ
-            case 'm':
+            return appenderTarget;
 
-                // ログメッセージを設定する
-                valueStr = message;
-                break;
+        }
 
 
-            // ログレベル名
-            case 'p':
+        /**
+         * バイナリログ出力先を設定する。<br>
+         * <br>
+         * 設定済みのバイナリログ出力先は閉じてから差し替える。<br>
+         *
+         * @param target    バイナリログ出力先
+         */
+        public void setBinaryTarget(
+                final LogBinaryFile     target
+                ) {
 
-                // ログレベル名を設定する
-                valueStr = level.getName();
-                break;
+            // 設定済みのバイナリログ出力先がある場合
+            if ((appenderBinaryTarget != null) && (appenderBinaryTarget != target)) {
 
+                // 設定済みのバイナリログ出力先を閉じる
+                appenderBinaryTarget.close();
 
-            // カレントスレッド名
-            case 't':
+            }
 
-                // カレントスレッド名を追加する
-                valueStr = Thread.currentThread().getName();
-                break;
+            appenderBinaryTarget = target;
 
+        }
 
-            // NDCでPUSHした文字列
-            case 'x':
 
-                // NDCログ文字列を取得する
-                valueStr = getNDCString();
-                break;
+        /**
+         * ログ出力パターンを設定する。<br>
+         * <br>
+         * 指定されたパターンはこの時点でコンパイルされる。<br>
+         *
+         * @param pattern ログ出力パターン
+         */
+        public void setPattern(
+                final String    pattern
+                ) {
 
+            appenderLayout = new LogPatternLayout(pattern);
 
-            // MDCで保存された key の値
-            case 'X':
+        }
 
-                // MDCのキーが指定されていない場合
-                if (argumentValue == null) {
 
-                    throw new IllegalStateException("The key value of MDC is not specified.");
+        /**
+         * 出力レイアウトを設定する。
+         *
+         * @param layout    出力レイアウト
+         */
+        public void setLayout(
+                final LogLayout     layout
+                ) {
 
-                }
+            appenderLayout = layout;
 
-                // MDCログ文字列を取得する
-                valueStr = getMDCString(argumentValue);
-                break;
+        }
 
 
-            // その他 (エラー)
-            default:
+        /**
+         * 出力レイアウトを取得する。
+         *
+         * @return 出力レイアウト
+         */
+        public LogLayout getLayout() {
 
-                throw new IllegalStateException(
-                        "No supported conversion char. [char = " + formatConversionChar + "]"
-                        );
+            return appenderLayout;
 
-            }
+        }
 
 
-            // フラグ文字を取得する
-            if (flagsCharIndex != -1) {
+        /**
+         * 非同期出力設定を行う。
+         *
+         * @param capacity      キュー容量
+         * @param policy        キューが一杯の場合の動作
+         * @param level         破棄しない最小ログレベル
+         */
+        public void setAsync(
+                final int               capacity,
+                final LogOverflowPolicy policy,
+                final LogLevel          level
+                ) {
 
-                flagsChar = pattern.charAt(flagsCharIndex);
+            appenderAsyncCapacity  = capacity;
+            appenderOverflowPolicy = policy;
+            appenderOverflowLevel  = level;
 
-            }
+        }
 
-            // フラグ文字別処理
-            switch (flagsChar) {
 
-            // 左寄せ
-            case '-':
+        /**
+         * 非同期出力するかどうかを取得する。
+         *
+         * @return 非同期出力する場合は true
+         */
+        public boolean isAsync() {
 
-                // 左寄せを有効にする
-                alignLeft = true;
-                break;
+            return appenderAsyncCapacity > 0;
 
+        }
 
-            // 不正フラグ
-            case '0':
 
-                throw new IllegalArgumentException(
-                        "変換文字に適合しないフラグが指定されています [Conversion = "
-                        + formatConversionChar
-                        + ", Flags = 0]"
-                        );
+        /**
+         * アペンダの出力を開始する。<br>
+         * <br>
+         * 非同期出力の場合は出力スレッドを開始する。<br>
+         *
+         */
+        public void open() {
 
-            // その他
-            default:
+            // 同期出力の場合は何もしない
+            if (!isAsync()) {
 
-                break;
+                return;
 
             }
 
-            // 値を追加する
-            appendFormatValue(
-                    retBuf,
-                    formatConversionChar,
-                    valueStr,
-                    appendChar,
-                    stringWidth,
-                    alignLeft
+            // 出力スレッドを作成して開始する
+            appenderAsyncWriter = new LogAsyncWriter(
+                    LogUtils.class.getSimpleName() + "-" + appenderName,
+                    this,
+                    appenderAsyncCapacity,
+                    appenderOverflowPolicy,
+                    appenderOverflowLevel
                     );
+            appenderAsyncWriter.start();
 
         }
 
 
-        // 作成した文字列を返却する
-        return retBuf.toString();
-
-    }
+        /**
+         * アペンダを閉じる。<br>
+         * <br>
+         * 非同期出力の場合は残りのログを出力してから出力スレッドを停止する。<br>
+         * 出力スレッドが時間内に終了しなかった場合、出力先は出力スレッドの終了時に閉じられる。<br>
+         *
+         */
+        public void close() {
 
+            final LogAsyncWriter    writer = appenderAsyncWriter;
 
-    /**
-     * 指定ログレベル、タグ、メッセージ、例外をログに出力する。
-     *
-     * @param context       利用するコンテキスト
-     * @param level         ログレベル
-     * @param tag           タグ
-     * @param message       メッセージ
-     * @param exception     例外
-     * @param formatArgs    フォーマット文字列出力する場合のパラメータ
-     * @throws IllegalArgumentException ログレベルが null の場合
-     */
-    public static void log(
-            final Context   context,
-            final LogLevel  level,
-            final Object    tag,
-            final Object    message,
-            final Throwable exception,
-            final Object... formatArgs
-            ) {
+            // 出力スレッドがある場合
+            if (writer != null) {
 
-        // 利用するコンテキスト情報またはログレベルが指定されていない場合は例外
-        if ((context == null) || (level == null)) {
+                // 出力スレッドを停止する
+                appenderAsyncWriter = null;
 
-            throw new IllegalArgumentException();
+                // 出力スレッドが終了していない場合は出力スレッドに閉じさせる
+                if (!writer.shutdown()) {
 
-        }
+                    return;
 
-        // タグとメッセージを文字列へ変換する
-        final String    strTag = String.valueOf(tag);
+                }
 
-        // カテゴリ情報が空の場合
-        if (isEmptyConfiguration()) {
+            }
 
-            // 設定情報を復帰させる
-            restoreConfiguration(context);
+            // 出力先を閉じる
+            closeTarget();
 
         }
 
 
-        final String    strMessage  = String.valueOf(message);  // 文字列メッセージ
-        final String    localMessage;                           // ログメッセージ
+        /**
+         * {@inheritDoc}
+         */
+        public void closeTarget() {
+
+            // 同期出力と排他する
+            synchronized (this) {
 
-        // 例外がない場合
-        if (exception == null) {
+                // 閉じた状態にする
+                appenderClosed = true;
 
-            // フォーマット文字列の場合
-            if ((formatArgs != null) && (formatArgs.length > 0)) {
+                // 出力先がある場合
+                if (appenderTarget != null) {
 
-                // フォーマット文字列として設定する
-                localMessage = String.format(strMessage, formatArgs);
+                    // 出力先を閉じる
+                    IOUtils.closeQuietly(appenderTarget);
 
-            } else {
+                }
 
-                // メッセージをそのまま設定する
-                localMessage = strMessage;
+                // バイナリログ出力先がある場合
+                if (appenderBinaryTarget != null) {
+
+                    // バイナリログ出力先を閉じる
+                    appenderBinaryTarget.close();
+
+                }
 
             }
 
-        } else {
+        }
 
-            // フォーマット文字列の場合
-            if ((formatArgs != null) && (formatArgs.length > 0)) {
 
-                // メッセージにスタックトレースを付加する
-                localMessage = String.format(
-                        strMessage + LINE_FEED + Log.getStackTraceString(exception),
-                        formatArgs
-                        );
+        /**
+         * ログイベントを出力する。<br>
+         * <br>
+         * 非同期出力の場合は出力キューへ追加し、<br>
+         * 同期出力の場合はアペンダ単位で排他して出力先へ書き込む。<br>
+         *
+         * @param event 出力するログイベント
+         */
+        public void append(
+                final LogEvent  event
+                ) {
 
-            } else {
+            // 非同期出力の場合
+            if (isAsync()) {
 
-                // メッセージにスタックトレースを付加する
-                localMessage = strMessage + LINE_FEED + Log.getStackTraceString(exception);
+                // 出力スレッドで参照できるように複製して出力キューへ追加する
+                enqueue(event.detach());
+                return;
 
             }
 
-        }
-
+            // 同期出力を排他する
+            synchronized (this) {
 
-        LogCategory   category = null;   // 利用するログカテゴリ
+                // 閉じられている場合は何もしない
+                if (appenderClosed) {
 
-        // カテゴリ情報でロックする
-        synchronized (LOG_CATEGORY_LOCK) {
+                    return;
 
-            // 一致するカテゴリを検索する
-            for (final Iterator<LogCategory> i = LOG_CATEGORIES.iterator(); i.hasNext();) {
+                }
 
-                // カテゴリを取得する
-                final LogCategory   localCategory = i.next();
+                try {
 
-                // カテゴリ名が前方一致する場合
-                if (strTag.startsWith(localCategory.getName())) {
+                    // 出力先へログを書き込む
+                    writeEvent(event);
+                    flush();
 
-                    // 使用するログカテゴリを取得する
-                    category = localCategory;
+                } catch (final IOException e) {
 
-                    // ループ中断
-                    break;
+                    e.printStackTrace();
 
                 }
 
             }
 
-            // ログカテゴリが取得できなかった場合
-            if (category == null) {
+        }
 
-                // ルートカテゴリを利用する
-                category = logCategoryRoot;
 
-                // ルートカテゴリがない場合
-                if (category == null) {
+        /**
+         * ログイベントを非同期出力キューへ追加する。
+         *
+         * @param event 追加するログイベント
+         * @return キューへ追加した場合は true
+         */
+        public boolean enqueue(
+                final LogEvent  event
+                ) {
 
-                    throw new IllegalStateException(
-                            "No root category. Please append a 'category-root' element."
-                            );
+            final LogAsyncWriter    writer = appenderAsyncWriter;
 
-                }
+            // 出力スレッドがない場合は追加しない
+            return (writer != null) && writer.enqueue(event);
 
-            }
+        }
 
-            // 指定ログレベルが無効の場合
-            if ((category.getLogLevel() != null)
-                && (level.getType() < category.getLogLevel().getType())
-                ) {
 
-                // 何もしない
+        /**
+         * ログイベントを出力先へ書き込む。<br>
+         * <br>
+         * 同期出力の場合はアペンダのロック中、<br>
+         * 非同期出力の場合は出力スレッドからのみ呼び出すこと。<br>
+         *
+         * @param event 書き込むログイベント
+         * @throws IOException  入出力エラー時
+         */
+        public void writeEvent(
+                final LogEvent  event
+                ) throws IOException {
+
+            // バイナリログ出力先の場合
+            if (appenderBinaryTarget != null) {
+
+                // 文字列へ変換せずにレコードとして書き込む
+                appenderBinaryTarget.write(event);
                 return;
 
             }
 
 
-            try {
+            final StringBuilder     outBuf = appenderBuffer;    // 出力バッファ
 
-                // 参照アペンダ分処理をする
-                for (final Iterator<LogAppender> i = category.iteratorAppenders(); i.hasNext();) {
 
-                    final LogAppender       appender = i.next();    // 利用するアペンダ
-                    final BufferedWriter    target;                 // 出力先ストリーム
-                    final String            outMessage;             // 出力するログメッセージ
+            // 出力バッファをクリアする
+            outBuf.setLength(0);
 
+            // 出力するログメッセージを作成する
+            appenderLayout.format(outBuf, event);
 
-                    // 出力先ストリームを取得する
-                    target = appender.getTarget();
+            // 出力先がない場合
+            if (appenderTarget == null) {
 
-                    // 出力するログメッセージを作成する
-                    outMessage = getPatternMessage(
-                            level,
-                            category,
-                            appender,
-                            strTag,
-                            localMessage
-                            );
+                // ログを出力する
+                Log.println(
+                        event.getLevel().getType(),
+                        event.getTag(),
+                        outBuf.toString()
+                        );
 
-                    // 出力先がない場合
-                    if (target == null) {
+            } else {
 
-                        // ログを出力する
-                        Log.println(
-                                level.getType(),
-                                strTag,
-                                outMessage
-                                );
+                // 改行を付加する
+                outBuf.append(LINE_FEED);
 
-                    } else {
+                final int   length = outBuf.length();   // 出力文字数
 
-                        // 指定されている出力先へログを出力する
-                        target.write(
-                                outMessage + LINE_FEED
-                                );
-                        target.flush();
+                // 文字配列が不足している場合
+                if (appenderChars.length < length) {
 
-                    }
+                    // 出力文字数以上に拡張する
+                    appenderChars = new char[Math.max(length, appenderChars.length * 2)];
 
                 }
 
-            } catch (final IOException e) {
-
-                e.printStackTrace();
+                // 文字列を作成せずに文字配列経由で出力先へ書き込む
+                outBuf.getChars(0, length, appenderChars, 0);
+                appenderTarget.write(appenderChars, 0, length);
 
             }
 
         }
 
 
-    }
+        /**
+         * 出力先をフラッシュする。
+         *
+         * @throws IOException  入出力エラー時
+         */
+        public void flush() throws IOException {
 
+            // 出力先がある場合
+            if (appenderTarget != null) {
 
+                // 出力先をフラッシュする
+                appenderTarget.flush();
 
+            }
 
-    /**
-     * ログ設定種別。
-     *
-     * @author Kou
-     *
-     */
-    private static enum LogConfigType {
+        }
 
 
         /**
-         * 設定ルート
+         * {@inheritDoc}
          */
-        CONFIGRATION("configuration"),
+        public void write(
+                final List<LogEvent>    events,
+                final long              droppedCount
+                ) throws IOException {
 
-        /**
-         * アペンダ
-         */
-        APPENDER("appender"),
+            // ログイベント分繰り返す
+            for (int i = 0, size = events.size(); i < size; i++) {
 
-        /**
-         * ログ出力先
-         */
-        TARGET("target"),
+                // ログイベントを書き込む
+                writeEvent(events.get(i));
 
-        /**
-         * 出力パターン
-         */
-        PATTERN("pattern"),
+            }
 
-        /**
-         * カテゴリ
-         */
-        CATEGORY("category"),
+            // 破棄したログイベントがある場合
+            if (droppedCount > 0) {
 
-        /**
-         * ルートカテゴリ
-         */
-        CATEGORY_ROOT("category-root"),
+                final String    notice = "[" + appenderName + "] " + droppedCount + " log events were dropped.";
 
-        /**
-         * ログレベル
-         */
-        PRIORITY("priority"),
+                // バイナリログ出力先の場合
+                if (appenderBinaryTarget != null) {
 
-        /**
-         * 参照アペンダ
-         */
-        APPENDER_REF("appender-ref");
+                    // 破棄件数をレコードとして書き込む
+                    appenderBinaryTarget.write(new LogEvent(
+                            LogLevel.WARN,
+                            appenderName,
+                            LogUtils.class.getSimpleName(),
+                            notice,
+                            System.currentTimeMillis(),
+                            Thread.currentThread().getName(),
+                            null,
+                            Collections.<String, String>emptyMap(),
+                            Collections.<String, Object>emptyMap()
+                            ));
 
+                // 出力先がない場合
+                } else if (appenderTarget == null) {
 
-        /**
-         * 種別参照テーブルを初期化する
-         */
-        static {
+                    // 破棄件数を出力する
+                    Log.println(LogLevel.WARN.getType(), LogUtils.class.getSimpleName(), notice);
 
-            // ログ種別テーブルを作成する
-            final Map<String, LogConfigType>    typeTable = new HashMap<String, LogUtils.LogConfigType>();
+                } else {
 
-            // 種別名をキーにして種別をテーブルへ追加する
-            typeTable.put(CONFIGRATION.getName(),   CONFIGRATION);
-            typeTable.put(APPENDER.getName(),       APPENDER);
-            typeTable.put(TARGET.getName(),         TARGET);
-            typeTable.put(PATTERN.getName(),        PATTERN);
-            typeTable.put(CATEGORY.getName(),       CATEGORY);
-            typeTable.put(CATEGORY_ROOT.getName(),  CATEGORY_ROOT);
-            typeTable.put(PRIORITY.getName(),       PRIORITY);
-            typeTable.put(APPENDER_REF.getName(),   APPENDER_REF);
+                    // 破棄件数を書き込む
+                    appenderTarget.write(notice);
+                    appenderTarget.write(LINE_FEED);
 
-            // 作成したログ種別テーブルを設定する
-            LOG_CONFIG_TYPES = typeTable;
+                }
+
+            }
+
+            // 出力先をフラッシュする
+            flush();
 
         }
 
 
+    }
+
+
+    /**
+     * ログカテゴリ情報クラス。
+     *
+     * @author Kou
+     *
+     */
+    private static final class LogCategory {
+
+
+        /**
+         * 参照アペンダ一覧 (追加時に作り直す不変の配列)
+         */
+        private volatile LogAppender[]      categoryAppenders = new LogAppender[0];
+
         /**
-         * 属性名 : 種類
+         * カテゴリ名
          */
-        public static final String          ATTR_TYPE   = "type";
+        private final String                categoryName;
 
         /**
-         * 属性名 : 名前
+         * 出力ログレベル
          */
-        public static final String          ATTR_NAME   = "name";
+        private LogLevel                    categoryLevel;
 
         /**
-         * 属性名 : 値
+         * 流量制限。制限しない場合は null
          */
-        public static final String          ATTR_VALUE  = "value";
+        private LogRateLimiter              categoryRateLimiter;
+
+
+
 
         /**
-         * 属性名 : 参照
+         * ログカテゴリを初期化する。
+         *
+         * @param name  ログカテゴリ名
          */
-        public static final String          ATTR_REF    = "ref";
+        public LogCategory(
+                final String    name
+                ) {
+
+            categoryName = name;
+
+        }
 
 
         /**
-         * ログ出力先 : 標準出力
+         * ログカテゴリ名を取得する。
+         *
+         * @return ログカテゴリ名
          */
-        public static final String          TARGET_STDOUT   = "stdout";
+        public String getName() {
+
+            return categoryName;
+
+        }
+
 
         /**
-         * ログ出力先 : SDファイル
+         * ログレベルを設定する。
+         *
+         * @param level ログレベル
          */
-        public static final String          TARGET_FILE     = "file";
+        public void setLogLevel(
+                final LogLevel  level
+                ) {
+
+            categoryLevel = level;
 
+        }
 
 
         /**
-         * ログ設定種別参照テーブル<br>
-         * <br>
-         * <table border="1">
-         * <tr>
-         *   <td>項目</td><td>型</td><td>内容</td>
-         * </tr>
-         * <tr>
-         *   <td>キー</td><td>String</td><td>ログ設定種別名</td>
-         * </tr>
-         * <tr>
-         *   <td>値</td><td>LogConfigType</td><td>ログ設定種別</td>
-         * </tr>
-         * </table>
+         * ログレベルを取得する。
+         *
+         * @return ログレベル
          */
-        private static final Map<String, LogConfigType>     LOG_CONFIG_TYPES;
+        public LogLevel getLogLevel() {
+
+            return categoryLevel;
+
+        }
+
 
         /**
-         * ログ設定種別名 (タグ名)
+         * 参照アペンダを追加する。
+         *
+         * @param appender 追加する参照アペンダ
          */
-        private final String        tagName;
+        public synchronized void addAppender(
+                final LogAppender   appender
+                ) {
+
+            final LogAppender[] appenders = new LogAppender[categoryAppenders.length + 1];  // 新しい参照アペンダ一覧
 
+            // 既存の参照アペンダの後ろへ追加した一覧へ置き換える
+            System.arraycopy(categoryAppenders, 0, appenders, 0, categoryAppenders.length);
+            appenders[categoryAppenders.length] = appender;
+            categoryAppenders = appenders;
+
+        }
 
 
         /**
-         * ログ設定種別を初期化する。
+         * 流量制限を設定する。
          *
-         * @param name  種別タグ名
+         * @param rateLimiter   流量制限
          */
-        private LogConfigType(
-                final String    name
+        public void setRateLimiter(
+                final LogRateLimiter    rateLimiter
                 ) {
 
-            tagName = name;
+            categoryRateLimiter = rateLimiter;
 
         }
 
 
         /**
-         * 種別名を取得する。
+         * 流量制限を取得する。
          *
-         * @return 種別名
+         * @return 流量制限。制限しない場合は null
          */
-        public String getName() {
+        public LogRateLimiter getRateLimiter() {
 
-            return tagName;
+            return categoryRateLimiter;
 
         }
 
 
         /**
-         * 指定された種別名をログ設定種別へ変換する。
+         * 指定ログレベルが出力対象かどうかを取得する。
          *
-         * @param name 変換する種別名
-         * @return 変換したログ設定種別
+         * @param level 判定するログレベル
+         * @return 出力対象の場合は true
          */
-        public static LogConfigType toConfigType(
-                final String    name
+        public boolean isEnabled(
+                final LogLevel  level
                 ) {
 
-            // 種別名が null の場合
-            if (name == null) {
+            return (categoryLevel == null) || (level.getType() >= categoryLevel.getType());
 
-                // nullを返す
-                return null;
+        }
 
-            }
 
-            // 指定した名前に対応するログ設定種別を返す
-            return LOG_CONFIG_TYPES.get(name.toLowerCase());
+        /**
+         * 参照アペンダ一覧を取得する。<br>
+         * <br>
+         * 出力ごとにイテレータを生成しないよう、不変の配列をそのまま返す。<br>
+         * 返却した配列は変更しないこと。<br>
+         *
+         * @return 参照アペンダ一覧
+         */
+        public LogAppender[] getAppenders() {
+
+            return categoryAppenders;
 
         }
 
@@ -2103,105 +3408,191 @@ public final class LogUtils {
 
 
     /**
-     * ログアペンダ情報クラス。
+     * ログカテゴリテーブルクラス。<br>
+     * <br>
+     * 1 回の設定読み込みで作成したカテゴリ情報を不変データとして保持する。<br>
+     * タグからカテゴリへの解決はカテゴリ名の前方一致検索木で行い、<br>
+     * 解決結果はタグごとにキャッシュする。<br>
      *
      * @author Kou
      *
      */
-    private static final class LogAppender {
+    private static final class LogCategoryTable {
 
 
         /**
-         * アペンダ名
+         * 解決結果キャッシュの最大件数
          */
-        private final String                appenderName;
+        private static final int                                MAX_CACHE_SIZE = 512;
 
         /**
-         * ログ出力先
+         * 設定順のカテゴリ一覧
          */
-        private BufferedWriter              appenderTarget;
+        private final LogCategory[]                             tableCategories;
 
         /**
-         * 出力パターン
+         * ルートカテゴリ
          */
-        private String                      appenderPattern;
+        private final LogCategory                               tableRoot;
 
+        /**
+         * 使用するアペンダ一覧
+         */
+        private final List<LogAppender>                         tableAppenders;
 
+        /**
+         * 流量制限するカテゴリ一覧
+         */
+        private final LogCategory[]                             tableRateLimited;
 
         /**
-         * ログアペンダを初期化する。
-         *
-         * @param name ログアペンダ名
+         * カテゴリ名の前方一致検索木
          */
-        public LogAppender(
-                final String        name
-                ) {
+        private final LogCategoryNode                           tableTree = new LogCategoryNode();
 
-            appenderName = name;
+        /**
+         * 解決結果キャッシュ<br>
+         * <br>
+         * <table border="1">
+         * <tr>
+         *   <td>項目</td><td>型</td><td>内容</td>
+         * </tr>
+         * <tr>
+         *   <td>キー</td><td>String</td><td>タグ名</td>
+         * </tr>
+         * <tr>
+         *   <td>値</td><td>LogCategory</td><td>利用するカテゴリ</td>
+         * </tr>
+         * </table>
+         */
+        private final ConcurrentMap<String, LogCategory>        tableCache =
+            new ConcurrentHashMap<String, LogCategory>();
 
-        }
 
 
         /**
-         * ログアペンダ名を取得する。
+         * ログカテゴリテーブルを初期化する。
          *
-         * @return ログアペンダ名
+         * @param categories    設定順のカテゴリ一覧
+         * @param root          ルートカテゴリ
+         * @param appenders     使用するアペンダ一覧
          */
-        public String getName() {
+        public LogCategoryTable(
+                final List<LogCategory>         categories,
+                final LogCategory               root,
+                final Collection<LogAppender>   appenders
+                ) {
 
-            return appenderName;
+            tableCategories = categories.toArray(new LogCategory[categories.size()]);
+            tableRoot       = root;
+            tableAppenders  = new ArrayList<LogAppender>(appenders);
+
+            final List<LogCategory>     rateLimited = new ArrayList<LogCategory>();    // 流量制限するカテゴリ一覧
+
+            // ルートカテゴリを流量制限する場合
+            if ((root != null) && (root.getRateLimiter() != null)) {
+
+                rateLimited.add(root);
+
+            }
+
+            // 流量制限するカテゴリを追加する
+            for (final LogCategory category : tableCategories) {
+
+                // 流量制限する場合
+                if (category.getRateLimiter() != null) {
+
+                    rateLimited.add(category);
+
+                }
+
+            }
+
+            tableRateLimited = rateLimited.toArray(new LogCategory[rateLimited.size()]);
+
+            // カテゴリ分繰り返す
+            for (int i = 0; i < tableCategories.length; i++) {
+
+                final String    name = tableCategories[i].getName();
+
+                // カテゴリ名がない場合は一致しないので次へ
+                if (name == null) {
+
+                    continue;
+
+                }
+
+                // 検索木へ追加する
+                tableTree.put(name, i);
+
+            }
 
         }
 
 
         /**
-         * ログ出力先を設定する。
+         * 使用するアペンダ一覧を取得する。
          *
-         * @param target    ログ出力先ライター
+         * @return 使用するアペンダ一覧
          */
-        public void setTarget(
-                final BufferedWriter    target
-                ) {
+        public List<LogAppender> getAppenders() {
 
-            appenderTarget = target;
+            return tableAppenders;
 
         }
 
 
         /**
-         * ログ出力先を取得する。
+         * 流量制限するカテゴリ一覧を取得する。
          *
-         * @return ログ出力先
+         * @return 流量制限するカテゴリ一覧
          */
-        public BufferedWriter getTarget() {
+        public LogCategory[] getRateLimitedCategories() {
 
-            return appenderTarget;
+            return tableRateLimited;
 
         }
 
 
         /**
-         * ログ出力パターンを設定する。
+         * 指定タグで利用するカテゴリを取得する。<br>
+         * <br>
+         * カテゴリ名が前方一致するカテゴリのうち、設定順で最初のカテゴリを返す。<br>
+         * 一致するカテゴリがない場合はルートカテゴリを返す。<br>
          *
-         * @param pattern ログ出力パターン
+         * @param tag   タグ名
+         * @return 利用するカテゴリ。ルートカテゴリもない場合は null
          */
-        public void setPattern(
-                final String    pattern
+        public LogCategory resolve(
+                final String    tag
                 ) {
 
-            appenderPattern = pattern;
+            // キャッシュから取得する
+            final LogCategory   cachedCategory = tableCache.get(tag);
 
-        }
+            // キャッシュにある場合
+            if (cachedCategory != null) {
 
+                // キャッシュの値を返す
+                return cachedCategory;
 
-        /**
-         * ログ出力パターンを取得する。
-         *
-         * @return ログ出力パターン
-         */
-        public String getPattern() {
+            }
+
+
+            // 検索木から一致するカテゴリを探す
+            final int           index       = tableTree.find(tag);
+            final LogCategory   retCategory = index == -1 ? tableRoot : tableCategories[index];
+
+            // カテゴリが見つかり、キャッシュに空きがある場合
+            if ((retCategory != null) && (tableCache.size() < MAX_CACHE_SIZE)) {
+
+                // キャッシュへ追加する
+                tableCache.put(tag, retCategory);
+
+            }
 
-            return appenderPattern;
+            // 見つかったカテゴリを返す
+            return retCategory;
 
         }
 
@@ -2210,106 +3601,167 @@ public final class LogUtils {
 
 
     /**
-     * ログカテゴリ情報クラス。
+     * カテゴリ名の前方一致検索木ノードクラス。
      *
      * @author Kou
      *
      */
-    private static final class LogCategory {
+    private static final class LogCategoryNode {
 
 
         /**
-         * 参照アペンダリスト
+         * 子ノードの文字一覧 (昇順)
          */
-        private final List<LogAppender>     categoryAppenders = new CopyOnWriteArrayList<LogAppender>();
+        private char[]                  nodeChars       = new char[0];
 
         /**
-         * カテゴリ名
+         * 子ノード一覧
          */
-        private final String                categoryName;
+        private LogCategoryNode[]       nodeChildren    = new LogCategoryNode[0];
 
         /**
-         * 出力ログレベル
+         * このノードで終わるカテゴリ名のカテゴリ位置。ない場合は -1
          */
-        private LogLevel                    categoryLevel;
-
+        private int                     nodeIndex       = -1;
 
 
 
         /**
-         * ログカテゴリを初期化する。
+         * カテゴリ名とカテゴリ位置を追加する。<br>
+         * <br>
+         * 既に同じカテゴリ名がある場合は、先に追加された位置を優先する。<br>
          *
-         * @param name  ログカテゴリ名
+         * @param name  カテゴリ名
+         * @param index カテゴリ位置
          */
-        public LogCategory(
-                final String    name
+        public void put(
+                final String    name,
+                final int       index
                 ) {
 
-            categoryName = name;
+            LogCategoryNode     node = this;    // 処理中ノード
 
-        }
+            // カテゴリ名の文字分繰り返す
+            for (int i = 0; i < name.length(); i++) {
 
+                node = node.getOrAddChild(name.charAt(i));
 
-        /**
-         * ログカテゴリ名を取得する。
-         *
-         * @return ログカテゴリ名
-         */
-        public String getName() {
+            }
 
-            return categoryName;
+            // カテゴリ位置が未設定の場合
+            if (node.nodeIndex == -1) {
+
+                // カテゴリ位置を設定する
+                node.nodeIndex = index;
+
+            }
 
         }
 
 
         /**
-         * ログレベルを設定する。
+         * 指定文字列に前方一致するカテゴリ名のうち、最小のカテゴリ位置を取得する。
          *
-         * @param level ログレベル
+         * @param str   検索する文字列
+         * @return 最小のカテゴリ位置。一致するものがない場合は -1
          */
-        public void setLogLevel(
-                final LogLevel  level
+        public int find(
+                final String    str
                 ) {
 
-            categoryLevel = level;
+            LogCategoryNode     node     = this;        // 処理中ノード
+            int                 retIndex = nodeIndex;   // 最小のカテゴリ位置
 
-        }
+            // 文字列の文字分繰り返す
+            for (int i = 0; i < str.length(); i++) {
 
+                // 子ノードを取得する
+                node = node.getChild(str.charAt(i));
 
-        /**
-         * ログレベルを取得する。
-         *
-         * @return ログレベル
-         */
-        public LogLevel getLogLevel() {
+                // 子ノードがない場合
+                if (node == null) {
 
-            return categoryLevel;
+                    // ループ終了
+                    break;
+
+                }
+
+                // より前のカテゴリ位置の場合
+                if ((node.nodeIndex != -1)
+                    && ((retIndex == -1) || (node.nodeIndex < retIndex))
+                    ) {
+
+                    // カテゴリ位置を更新する
+                    retIndex = node.nodeIndex;
+
+                }
+
+            }
+
+            // 最小のカテゴリ位置を返す
+            return retIndex;
 
         }
 
 
         /**
-         * 参照アペンダを追加する。
+         * 指定文字の子ノードを取得する。
          *
-         * @param appender 追加する参照アペンダ
+         * @param ch    子ノードの文字
+         * @return 子ノード。ない場合は null
          */
-        public void addAppender(
-                final LogAppender   appender
+        private LogCategoryNode getChild(
+                final char  ch
                 ) {
 
-            categoryAppenders.add(appender);
+            final int   position = Arrays.binarySearch(nodeChars, ch);
+
+            // 子ノードを返す
+            return position < 0 ? null : nodeChildren[position];
 
         }
 
 
         /**
-         * 参照アペンダ一覧のイテレータを取得する。
+         * 指定文字の子ノードを取得する。ない場合は追加する。
          *
-         * @return 参照アペンダ一覧のイテレータ
+         * @param ch    子ノードの文字
+         * @return 子ノード
          */
-        public Iterator<LogAppender> iteratorAppenders() {
+        private LogCategoryNode getOrAddChild(
+                final char  ch
+                ) {
+
+            final int   position = Arrays.binarySearch(nodeChars, ch);
+
+            // 子ノードがある場合
+            if (position >= 0) {
+
+                // 子ノードを返す
+                return nodeChildren[position];
+
+            }
+
+
+            final int                   insertIndex = -(position + 1);                                  // 追加位置
+            final char[]                newChars    = new char[nodeChars.length + 1];                   // 追加後の文字一覧
+            final LogCategoryNode[]     newChildren = new LogCategoryNode[nodeChildren.length + 1];     // 追加後の子ノード一覧
+            final LogCategoryNode       retChild    = new LogCategoryNode();                            // 追加する子ノード
+
+            // 追加位置を空けて複製する
+            System.arraycopy(nodeChars, 0, newChars, 0, insertIndex);
+            System.arraycopy(nodeChars, insertIndex, newChars, insertIndex + 1, nodeChars.length - insertIndex);
+            System.arraycopy(nodeChildren, 0, newChildren, 0, insertIndex);
+            System.arraycopy(nodeChildren, insertIndex, newChildren, insertIndex + 1, nodeChildren.length - insertIndex);
+
+            // 子ノードを追加する
+            newChars[insertIndex]    = ch;
+            newChildren[insertIndex] = retChild;
+            nodeChars                = newChars;
+            nodeChildren             = newChildren;
 
-            return categoryAppenders.iterator();
+            // 追加した子ノードを返す
+            return retChild;
 
         }
 